@@ -22,8 +22,12 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheCodec;
+import org.apache.ibatis.cache.Weigher;
+import org.apache.ibatis.cache.codec.JavaSerializationCodec;
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.cache.weigher.EstimatingWeigher;
 
 /**
  * The annotation that specify to use cache on namespace(e.g. mapper interface).
@@ -71,6 +75,33 @@ public @interface CacheNamespace {
    */
   long flushInterval() default 0;
 
+  /**
+   * Returns the time to live of each cache entry in milliseconds. Unlike {@link #flushInterval()}, which clears the
+   * whole cache, entries expire individually.
+   *
+   * @return the time to live, {@code 0} for no expiry
+   * @since 3.5.11
+   */
+  long timeToLive() default 0;
+
+  /**
+   * Returns the fraction of {@link #timeToLive()} by which the expiry of each entry is randomly advanced, so that
+   * entries cached at the same time do not expire at the same time.
+   *
+   * @return the jitter, between 0 (inclusive) and 1 (exclusive)
+   * @since 3.5.11
+   */
+  double jitter() default 0;
+
+  /**
+   * Returns the fraction of {@link #timeToLive()} after which reading an entry reloads it in the background, the
+   * current value being returned until the reload completes.
+   *
+   * @return the refresh ahead factor, between 0 (inclusive, no refresh) and 1 (exclusive)
+   * @since 3.5.11
+   */
+  double refreshAhead() default 0;
+
   /**
    * Return the cache size.
    *
@@ -78,6 +109,23 @@ public @interface CacheNamespace {
    */
   int size() default 1024;
 
+  /**
+   * Returns the maximum weight of the cache entries in bytes. When set, the least recently used entries are evicted by
+   * weight instead of by {@link #size()} with the default eviction.
+   *
+   * @return the maximum weight, {@code 0} for no limit
+   * @since 3.5.11
+   */
+  long maxBytes() default 0;
+
+  /**
+   * Returns the weigher used to weigh cache entries when {@link #maxBytes()} or a global cache memory budget is set.
+   *
+   * @return the weigher type
+   * @since 3.5.11
+   */
+  Class<? extends Weigher> weigher() default EstimatingWeigher.class;
+
   /**
    * Returns whether use read/write cache.
    *
@@ -85,6 +133,22 @@ public @interface CacheNamespace {
    */
   boolean readWrite() default true;
 
+  /**
+   * Returns the codec used to copy cached objects when {@link #readWrite()} is {@code true}.
+   *
+   * @return the codec type
+   * @since 3.5.11
+   */
+  Class<? extends CacheCodec> codec() default JavaSerializationCodec.class;
+
+  /**
+   * Returns the size in bytes from which the serialized values of a read/write cache are compressed.
+   *
+   * @return the compression threshold, a negative value to not compress
+   * @since 3.5.11
+   */
+  int compressionThreshold() default -1;
+
   /**
    * Returns whether block the cache at request time or not.
    *
@@ -0,0 +1,62 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.apache.ibatis.cache.CacheWarmupSupplier;
+
+/**
+ * The annotation that declares the parameters a select statement is executed with when the session factory is built,
+ * to preload its results into the second level cache of the namespace.
+ *
+ * <p>
+ * <b>How to use:</b>
+ *
+ * <pre>
+ * &#064;CacheNamespace
+ * public interface CountryMapper {
+ *   &#064;CacheWarmup({"FR", "DE", "US"})
+ *   &#064;Select("SELECT * FROM country WHERE code = #{code}")
+ *   Country selectByCode(String code);
+ * }
+ * </pre>
+ *
+ * @since 3.5.11
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface CacheWarmup {
+  /**
+   * Returns the parameter literals. A literal is converted to the parameter type when it is a simple type, a literal
+   * of the form {@code name=value,name=value} becomes a map.
+   *
+   * @return the parameter literals
+   */
+  String[] value() default {};
+
+  /**
+   * Returns the supplier of further parameters, for parameters that cannot be written as literals.
+   *
+   * @return the supplier type, {@link CacheWarmupSupplier} itself for none
+   */
+  Class<? extends CacheWarmupSupplier> supplier() default CacheWarmupSupplier.class;
+}
@@ -0,0 +1,109 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.binding;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.reflection.ExceptionUtil;
+import org.apache.ibatis.session.AsyncSqlSession;
+
+/**
+ * Mapper of an {@link AsyncSqlSession}. Each call gets the mapper of a session of its own and invokes the same method on
+ * it, so the statement, default methods included, runs exactly as in a regular session. The {@link CompletableFuture}
+ * it returns there is already completed, and its value completes the future returned to the caller. Methods returning a
+ * {@link Cursor} are rejected, as the session of the call is closed before the cursor could be read.
+ *
+ * @since 3.5.11
+ */
+public class AsyncMapperProxy<T> implements InvocationHandler {
+
+  private final AsyncSqlSession asyncSqlSession;
+  private final Class<T> mapperInterface;
+
+  public AsyncMapperProxy(AsyncSqlSession asyncSqlSession, Class<T> mapperInterface) {
+    this.asyncSqlSession = asyncSqlSession;
+    this.mapperInterface = mapperInterface;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <T> T newInstance(AsyncSqlSession asyncSqlSession, Class<T> mapperInterface) {
+    if (!asyncSqlSession.getConfiguration().hasMapper(mapperInterface)) {
+      throw new BindingException("Type " + mapperInterface + " is not known to the MapperRegistry.");
+    }
+    for (Method method : mapperInterface.getMethods()) {
+      if (returnsCursor(method)) {
+        throw new BindingException("Mapper method '" + mapperInterface.getName() + "." + method.getName()
+            + "' returns a Cursor, which cannot be read after the session of an async mapper call is closed.");
+      }
+    }
+    return (T) Proxy.newProxyInstance(mapperInterface.getClassLoader(), new Class[] { mapperInterface },
+        new AsyncMapperProxy<>(asyncSqlSession, mapperInterface));
+  }
+
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+    if (Object.class.equals(method.getDeclaringClass())) {
+      try {
+        return method.invoke(this, args);
+      } catch (Throwable t) {
+        throw ExceptionUtil.unwrapThrowable(t);
+      }
+    }
+    CompletableFuture<Object> future = asyncSqlSession.execute(sqlSession -> {
+      Object result;
+      try {
+        result = method.invoke(sqlSession.getMapper(mapperInterface), args);
+      } catch (Throwable t) {
+        Throwable cause = ExceptionUtil.unwrapThrowable(t);
+        throw cause instanceof RuntimeException ? (RuntimeException) cause : new CompletionException(cause);
+      }
+      return result instanceof CompletableFuture ? ((CompletableFuture<?>) result).join() : result;
+    });
+    if (CompletableFuture.class.equals(method.getReturnType())) {
+      return future;
+    }
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      throw e.getCause();
+    }
+  }
+
+  private static boolean returnsCursor(Method method) {
+    Type returnType = method.getGenericReturnType();
+    if (returnType instanceof ParameterizedType
+        && CompletableFuture.class.equals(((ParameterizedType) returnType).getRawType())) {
+      returnType = ((ParameterizedType) returnType).getActualTypeArguments()[0];
+    }
+    if (returnType instanceof ParameterizedType) {
+      returnType = ((ParameterizedType) returnType).getRawType();
+    }
+    return returnType instanceof Class && Cursor.class.isAssignableFrom((Class<?>) returnType);
+  }
+
+  @Override
+  public String toString() {
+    return "AsyncMapperProxy[" + mapperInterface.getName() + "]";
+  }
+
+}
@@ -26,6 +26,8 @@ import java.util.Set;
 import java.util.StringTokenizer;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheWarmup;
+import org.apache.ibatis.cache.CacheWarmupSupplier;
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.executor.ErrorContext;
@@ -45,6 +47,7 @@ import org.apache.ibatis.mapping.SqlSource;
 import org.apache.ibatis.mapping.StatementType;
 import org.apache.ibatis.reflection.MetaClass;
 import org.apache.ibatis.scripting.LanguageDriver;
+import org.apache.ibatis.session.CacheFlushMode;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeHandler;
@@ -128,20 +131,55 @@ public class MapperBuilderAssistant extends BaseBuilder {
       boolean readWrite,
       boolean blocking,
       Properties props) {
-    Cache cache = new CacheBuilder(currentNamespace)
+    return useNewCache(new CacheBuilder(currentNamespace)
         .implementation(valueOrDefault(typeClass, PerpetualCache.class))
         .addDecorator(valueOrDefault(evictionClass, LruCache.class))
         .clearInterval(flushInterval)
         .size(size)
         .readWrite(readWrite)
         .blocking(blocking)
-        .properties(props)
-        .build();
+        .properties(props));
+  }
+
+  /**
+   * Builds the cache of the current namespace.
+   *
+   * @param cacheBuilder
+   *          the builder of the cache, whose id is the current namespace; the settings of the configuration that apply
+   *          to every cache (e.g. the memory budget and the flush mode) are added to it
+   * @return the cache
+   * @since 3.5.11
+   */
+  public Cache useNewCache(CacheBuilder cacheBuilder) {
+    Cache cache = buildCache(cacheBuilder);
     configuration.addCache(cache);
     currentCache = cache;
     return cache;
   }
 
+  /**
+   * Adds a cache region, a second level cache that statements of any namespace can use instead of the cache of their
+   * namespace.
+   *
+   * @param cacheBuilder
+   *          the builder of the cache, whose id is the id of the region
+   * @return the cache of the region
+   * @since 3.5.11
+   */
+  public Cache addCacheRegion(CacheBuilder cacheBuilder) {
+    Cache cache = buildCache(cacheBuilder);
+    configuration.addCacheRegion(cache);
+    return cache;
+  }
+
+  private Cache buildCache(CacheBuilder cacheBuilder) {
+    return cacheBuilder
+        .memoryBudget(configuration.getCacheMemoryBudget())
+        .generational(configuration.getCacheFlushMode() == CacheFlushMode.GENERATION)
+        .writeBehind(configuration.isCacheWriteBehind())
+        .build();
+  }
+
   public ParameterMap addParameterMap(String id, Class<?> parameterClass, List<ParameterMapping> parameterMappings) {
     id = applyCurrentNamespace(id, false);
     ParameterMap parameterMap = new ParameterMap.Builder(configuration, id, parameterClass, parameterMappings).build();
@@ -262,11 +300,55 @@ public class MapperBuilderAssistant extends BaseBuilder {
       String databaseId,
       LanguageDriver lang,
       String resultSets) {
+    return addMappedStatement(
+      id, sqlSource, statementType, sqlCommandType, fetchSize, timeout,
+      parameterMap, parameterType, resultMap, resultType, resultSetType,
+      flushCache, useCache, resultOrdered, keyGenerator, keyProperty,
+      keyColumn, databaseId, lang, resultSets, new StatementCacheOptions());
+  }
+
+  /**
+   * Adds a mapped statement that uses the second level cache options beyond {@code flushCache} and {@code useCache}.
+   *
+   * @since 3.5.11
+   */
+  public MappedStatement addMappedStatement(
+      String id,
+      SqlSource sqlSource,
+      StatementType statementType,
+      SqlCommandType sqlCommandType,
+      Integer fetchSize,
+      Integer timeout,
+      String parameterMap,
+      Class<?> parameterType,
+      String resultMap,
+      Class<?> resultType,
+      ResultSetType resultSetType,
+      boolean flushCache,
+      boolean useCache,
+      boolean resultOrdered,
+      KeyGenerator keyGenerator,
+      String keyProperty,
+      String keyColumn,
+      String databaseId,
+      LanguageDriver lang,
+      String resultSets,
+      StatementCacheOptions cacheOptions) {
 
     if (unresolvedCacheRef) {
       throw new IncompleteElementException("Cache-ref not yet resolved");
     }
 
+    String cacheRegion = cacheOptions.getRegion();
+    Cache cache = currentCache;
+    if (cacheRegion != null) {
+      if (!configuration.hasCacheRegion(cacheRegion)) {
+        throw new IncompleteElementException("Could not find cache region " + cacheRegion);
+      }
+      cache = configuration.getCacheRegion(cacheRegion);
+      configuration.getNamespaceCacheRegions(currentNamespace).add(cache);
+    }
+
     id = applyCurrentNamespace(id, false);
     boolean isSelect = sqlCommandType == SqlCommandType.SELECT;
 
@@ -282,11 +364,16 @@ public class MapperBuilderAssistant extends BaseBuilder {
         .lang(lang)
         .resultOrdered(resultOrdered)
         .resultSets(resultSets)
+        .cacheTables(cacheOptions.getTables())
+        .cacheWarmupParameters(CacheWarmup.parseParameters(cacheOptions.getWarmup(), parameterType))
+        .cacheWarmupSupplier(newCacheWarmupSupplier(cacheOptions.getWarmupSupplier()))
         .resultMaps(getStatementResultMaps(resultMap, resultType, id))
         .resultSetType(resultSetType)
         .flushCacheRequired(valueOrDefault(flushCache, !isSelect))
         .useCache(valueOrDefault(useCache, isSelect))
-        .cache(currentCache);
+        .cache(cache)
+        .cacheRegion(cacheRegion)
+        .flushedCacheRegions(configuration.getNamespaceCacheRegions(currentNamespace));
 
     ParameterMap statementParameterMap = getStatementParameterMap(parameterMap, parameterType, id);
     if (statementParameterMap != null) {
@@ -353,6 +440,17 @@ public class MapperBuilderAssistant extends BaseBuilder {
       keyColumn, databaseId, lang, null);
   }
 
+  private CacheWarmupSupplier newCacheWarmupSupplier(Class<? extends CacheWarmupSupplier> supplierClass) {
+    if (supplierClass == null) {
+      return null;
+    }
+    try {
+      return supplierClass.getDeclaredConstructor().newInstance();
+    } catch (Exception e) {
+      throw new BuilderException("Error creating cache warm-up supplier " + supplierClass.getName() + ". Cause: " + e, e);
+    }
+  }
+
   private <T> T valueOrDefault(T value, T defaultValue) {
     return value == null ? defaultValue : value;
   }
@@ -0,0 +1,87 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder;
+
+import org.apache.ibatis.cache.CacheWarmupSupplier;
+
+/**
+ * The second level cache options of a mapped statement, besides {@code flushCache} and {@code useCache}.
+ *
+ * @since 3.5.11
+ */
+public class StatementCacheOptions {
+
+  private String tables;
+  private String warmup;
+  private Class<? extends CacheWarmupSupplier> warmupSupplier;
+  private String region;
+
+  /**
+   * @param tables
+   *          the comma separated tables the statement reads or writes, {@code null} to not track them
+   * @return these options
+   */
+  public StatementCacheOptions tables(String tables) {
+    this.tables = tables;
+    return this;
+  }
+
+  /**
+   * @param warmup
+   *          the semicolon separated parameters the statement is executed with to warm up the cache
+   * @return these options
+   */
+  public StatementCacheOptions warmup(String warmup) {
+    this.warmup = warmup;
+    return this;
+  }
+
+  /**
+   * @param warmupSupplier
+   *          supplies more parameters to warm up the cache with
+   * @return these options
+   */
+  public StatementCacheOptions warmupSupplier(Class<? extends CacheWarmupSupplier> warmupSupplier) {
+    this.warmupSupplier = warmupSupplier;
+    return this;
+  }
+
+  /**
+   * @param region
+   *          the id of the cache region used instead of the cache of the namespace
+   * @return these options
+   */
+  public StatementCacheOptions region(String region) {
+    this.region = region;
+    return this;
+  }
+
+  public String getTables() {
+    return tables;
+  }
+
+  public String getWarmup() {
+    return warmup;
+  }
+
+  public Class<? extends CacheWarmupSupplier> getWarmupSupplier() {
+    return warmupSupplier;
+  }
+
+  public String getRegion() {
+    return region;
+  }
+}
@@ -17,6 +17,7 @@ package org.apache.ibatis.builder;
 
 import java.util.List;
 
+import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.SqlSource;
@@ -30,6 +31,8 @@ public class StaticSqlSource implements SqlSource {
   private final String sql;
   private final List<ParameterMapping> parameterMappings;
   private final Configuration configuration;
+  private volatile Long sqlFingerprint;
+  private volatile boolean reused;
 
   public StaticSqlSource(Configuration configuration, String sql) {
     this(configuration, sql, null);
@@ -43,7 +46,18 @@ public class StaticSqlSource implements SqlSource {
 
   @Override
   public BoundSql getBoundSql(Object parameterObject) {
-    return new BoundSql(configuration, sql, parameterMappings, parameterObject);
+    Long fingerprint = sqlFingerprint;
+    if (fingerprint == null) {
+      // the SQL of a single execution (dynamic SQL) is only fingerprinted if a cache key needs it, the SQL of a
+      // statement executed repeatedly is fingerprinted once
+      if (!reused) {
+        reused = true;
+        return new BoundSql(configuration, sql, parameterMappings, parameterObject);
+      }
+      fingerprint = CacheKey.fingerprint(sql);
+      sqlFingerprint = fingerprint;
+    }
+    return new BoundSql(configuration, sql, fingerprint, parameterMappings, parameterObject);
   }
 
 }
@@ -33,12 +33,16 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.apache.ibatis.annotations.Arg;
 import org.apache.ibatis.annotations.CacheNamespace;
 import org.apache.ibatis.annotations.CacheNamespaceRef;
+import org.apache.ibatis.annotations.CacheRegion;
+import org.apache.ibatis.annotations.CacheTables;
+import org.apache.ibatis.annotations.CacheWarmup;
 import org.apache.ibatis.annotations.Case;
 import org.apache.ibatis.annotations.Delete;
 import org.apache.ibatis.annotations.DeleteProvider;
@@ -64,13 +68,16 @@ import org.apache.ibatis.builder.BuilderException;
 import org.apache.ibatis.builder.CacheRefResolver;
 import org.apache.ibatis.builder.IncompleteElementException;
 import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.apache.ibatis.builder.StatementCacheOptions;
 import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.cache.CacheWarmupSupplier;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.keygen.NoKeyGenerator;
 import org.apache.ibatis.executor.keygen.SelectKeyGenerator;
 import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.CacheBuilder;
 import org.apache.ibatis.mapping.Discriminator;
 import org.apache.ibatis.mapping.FetchType;
 import org.apache.ibatis.mapping.MappedStatement;
@@ -146,7 +153,8 @@ public class MapperAnnotationBuilder {
 
   private void parsePendingMethods() {
     Collection<MethodResolver> incompleteMethods = configuration.getIncompleteMethods();
-    synchronized (incompleteMethods) {
+    configuration.getIncompleteElementsLock().lock();
+    try {
       Iterator<MethodResolver> iter = incompleteMethods.iterator();
       while (iter.hasNext()) {
         try {
@@ -156,6 +164,8 @@ public class MapperAnnotationBuilder {
           // This method is still missing a resource
         }
       }
+    } finally {
+      configuration.getIncompleteElementsLock().unlock();
     }
   }
 
@@ -188,8 +198,25 @@ public class MapperAnnotationBuilder {
     if (cacheDomain != null) {
       Integer size = cacheDomain.size() == 0 ? null : cacheDomain.size();
       Long flushInterval = cacheDomain.flushInterval() == 0 ? null : cacheDomain.flushInterval();
+      Long timeToLive = cacheDomain.timeToLive() == 0 ? null : cacheDomain.timeToLive();
+      Long maxBytes = cacheDomain.maxBytes() == 0 ? null : cacheDomain.maxBytes();
+      Integer compressionThreshold = cacheDomain.compressionThreshold() < 0 ? null : cacheDomain.compressionThreshold();
       Properties props = convertToProperties(cacheDomain.properties());
-      assistant.useNewCache(cacheDomain.implementation(), cacheDomain.eviction(), flushInterval, size, cacheDomain.readWrite(), cacheDomain.blocking(), props);
+      assistant.useNewCache(new CacheBuilder(assistant.getCurrentNamespace())
+          .implementation(cacheDomain.implementation())
+          .addDecorator(cacheDomain.eviction())
+          .clearInterval(flushInterval)
+          .timeToLive(timeToLive)
+          .jitter(cacheDomain.jitter())
+          .refreshAhead(cacheDomain.refreshAhead())
+          .size(size)
+          .maxBytes(maxBytes)
+          .weigher(cacheDomain.weigher())
+          .readWrite(cacheDomain.readWrite())
+          .codec(cacheDomain.codec())
+          .blocking(cacheDomain.blocking())
+          .compressionThreshold(compressionThreshold)
+          .properties(props));
     }
   }
 
@@ -303,6 +330,9 @@ public class MapperAnnotationBuilder {
       final SqlSource sqlSource = buildSqlSource(statementAnnotation.getAnnotation(), parameterTypeClass, languageDriver, method);
       final SqlCommandType sqlCommandType = statementAnnotation.getSqlCommandType();
       final Options options = getAnnotationWrapper(method, false, Options.class).map(x -> (Options)x.getAnnotation()).orElse(null);
+      final CacheTables cacheTables = method.getAnnotation(CacheTables.class);
+      final CacheWarmup cacheWarmup = method.getAnnotation(CacheWarmup.class);
+      final CacheRegion cacheRegion = method.getAnnotation(CacheRegion.class);
       final String mappedStatementId = type.getName() + "." + method.getName();
 
       final KeyGenerator keyGenerator;
@@ -380,7 +410,13 @@ public class MapperAnnotationBuilder {
           statementAnnotation.getDatabaseId(),
           languageDriver,
           // ResultSets
-          options != null ? nullOrEmpty(options.resultSets()) : null);
+          options != null ? nullOrEmpty(options.resultSets()) : null,
+          new StatementCacheOptions()
+              .tables(cacheTables != null ? nullOrEmpty(String.join(",", cacheTables.value())) : null)
+              .warmup(cacheWarmup != null ? nullOrEmpty(String.join(";", cacheWarmup.value())) : null)
+              .warmupSupplier(cacheWarmup != null && cacheWarmup.supplier() != CacheWarmupSupplier.class
+                  ? cacheWarmup.supplier() : null)
+              .region(cacheRegion != null ? cacheRegion.value() : null));
     });
   }
 
@@ -412,13 +448,20 @@ public class MapperAnnotationBuilder {
   private Class<?> getReturnType(Method method) {
     Class<?> returnType = method.getReturnType();
     Type resolvedReturnType = TypeParameterResolver.resolveReturnType(method, type);
+    if (CompletableFuture.class.equals(returnType)) {
+      // the result is the value of the future
+      returnType = Object.class;
+      if (resolvedReturnType instanceof ParameterizedType) {
+        resolvedReturnType = ((ParameterizedType) resolvedReturnType).getActualTypeArguments()[0];
+      }
+    }
     if (resolvedReturnType instanceof Class) {
       returnType = (Class<?>) resolvedReturnType;
       if (returnType.isArray()) {
         returnType = returnType.getComponentType();
       }
       // gcode issue #508
-      if (void.class.equals(returnType)) {
+      if (void.class.equals(returnType) || Void.class.equals(returnType)) {
         ResultType rt = method.getAnnotation(ResultType.class);
         if (rt != null) {
           returnType = rt.value();
@@ -23,6 +23,9 @@ import javax.sql.DataSource;
 
 import org.apache.ibatis.builder.BaseBuilder;
 import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.cache.CacheMemoryBudget;
+import org.apache.ibatis.cache.invalidation.CacheInvalidationBus;
+import org.apache.ibatis.cache.invalidation.CacheInvalidationTransport;
 import org.apache.ibatis.datasource.DataSourceFactory;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.loader.ProxyFactory;
@@ -41,6 +44,9 @@ import org.apache.ibatis.reflection.factory.ObjectFactory;
 import org.apache.ibatis.reflection.wrapper.ObjectWrapperFactory;
 import org.apache.ibatis.session.AutoMappingBehavior;
 import org.apache.ibatis.session.AutoMappingUnknownColumnBehavior;
+import org.apache.ibatis.session.CacheFlushMode;
+import org.apache.ibatis.session.CacheWarmupMode;
+import org.apache.ibatis.session.CacheInvalidationScope;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.LocalCacheScope;
@@ -120,6 +126,7 @@ public class XMLConfigBuilder extends BaseBuilder {
       objectWrapperFactoryElement(root.evalNode("objectWrapperFactory"));
       reflectorFactoryElement(root.evalNode("reflectorFactory"));
       settingsElement(settings);
+      cacheInvalidationBusElement(root.evalNode("cacheInvalidationBus"));
       // read it after objectFactory and objectWrapperFactory issue #631
       environmentsElement(root.evalNode("environments"));
       databaseIdProviderElement(root.evalNode("databaseIdProvider"));
@@ -228,6 +235,20 @@ public class XMLConfigBuilder extends BaseBuilder {
     }
   }
 
+  private void cacheInvalidationBusElement(XNode context) throws Exception {
+    if (context != null) {
+      String transportType = context.getStringAttribute("transport");
+      Properties properties = context.getChildrenAsProperties();
+      CacheInvalidationTransport transport = (CacheInvalidationTransport) resolveClass(transportType)
+          .getDeclaredConstructor().newInstance();
+      transport.setProperties(properties);
+      CacheInvalidationBus bus = new CacheInvalidationBus(configuration, transport);
+      bus.setProperties(properties);
+      bus.start();
+      configuration.setCacheInvalidationBus(bus);
+    }
+  }
+
   private void propertiesElement(XNode context) throws Exception {
     if (context != null) {
       Properties defaults = context.getChildrenAsProperties();
@@ -265,6 +286,13 @@ public class XMLConfigBuilder extends BaseBuilder {
     configuration.setUseColumnLabel(booleanValueOf(props.getProperty("useColumnLabel"), true));
     configuration.setUseGeneratedKeys(booleanValueOf(props.getProperty("useGeneratedKeys"), false));
     configuration.setDefaultExecutorType(ExecutorType.valueOf(props.getProperty("defaultExecutorType", "SIMPLE")));
+    configuration.setBatchFlushStatements(integerValueOf(props.getProperty("batchFlushStatements"), 0));
+    configuration.setBatchFlushParameters(integerValueOf(props.getProperty("batchFlushParameters"), 0));
+    configuration.setBatchFlushBytes(longValueOf(props.getProperty("batchFlushBytes"), 0L));
+    configuration.setBatchRetainParameters(booleanValueOf(props.getProperty("batchRetainParameters"), true));
+    configuration.setBatchGroupStatements(booleanValueOf(props.getProperty("batchGroupStatements"), false));
+    configuration.setBatchRewriteInserts(booleanValueOf(props.getProperty("batchRewriteInserts"), false));
+    configuration.setBatchRewriteMaxParameters(integerValueOf(props.getProperty("batchRewriteMaxParameters"), 0));
     configuration.setDefaultStatementTimeout(integerValueOf(props.getProperty("defaultStatementTimeout"), null));
     configuration.setDefaultFetchSize(integerValueOf(props.getProperty("defaultFetchSize"), null));
     configuration.setDefaultResultSetType(resolveResultSetType(props.getProperty("defaultResultSetType")));
@@ -272,6 +300,15 @@ public class XMLConfigBuilder extends BaseBuilder {
     configuration.setSafeRowBoundsEnabled(booleanValueOf(props.getProperty("safeRowBoundsEnabled"), false));
     // 一级缓存作用域，默认为SESSION，可以通过配置修改成STATEMENT，来缩小一级缓存的作用范围
     configuration.setLocalCacheScope(LocalCacheScope.valueOf(props.getProperty("localCacheScope", "SESSION")));
+    configuration.setLocalCacheSize(integerValueOf(props.getProperty("localCacheSize"), 0));
+    configuration.setLocalCacheMaxBytes(longValueOf(props.getProperty("localCacheMaxBytes"), 0L));
+    configuration.setCacheStatisticsJmxEnabled(booleanValueOf(props.getProperty("cacheStatisticsJmxEnabled"), false));
+    configuration.setCacheFlushMode(CacheFlushMode.valueOf(props.getProperty("cacheFlushMode", "CLEAR")));
+    configuration.setCacheWriteBehind(booleanValueOf(props.getProperty("cacheWriteBehind"), false));
+    configuration.setCacheMemoryBudget(cacheMemoryBudgetOf(props.getProperty("cacheMemoryBudget")));
+    configuration.setCacheWarmupMode(CacheWarmupMode.valueOf(props.getProperty("cacheWarmupMode", "SYNC")));
+    configuration.setCacheWarmupThreads(integerValueOf(props.getProperty("cacheWarmupThreads"), 4));
+    configuration.setCacheInvalidationScope(CacheInvalidationScope.valueOf(props.getProperty("cacheInvalidationScope", "NAMESPACE")));
     configuration.setJdbcTypeForNull(JdbcType.valueOf(props.getProperty("jdbcTypeForNull", "OTHER")));
     configuration.setLazyLoadTriggerMethods(stringSetValueOf(props.getProperty("lazyLoadTriggerMethods"), "equals,clone,hashCode,toString"));
     configuration.setSafeResultHandlerEnabled(booleanValueOf(props.getProperty("safeResultHandlerEnabled"), true));
@@ -288,6 +325,10 @@ public class XMLConfigBuilder extends BaseBuilder {
     configuration.setNullableOnForEach(booleanValueOf(props.getProperty("nullableOnForEach"), false));
   }
 
+  private CacheMemoryBudget cacheMemoryBudgetOf(String maxBytes) {
+    return maxBytes == null ? null : new CacheMemoryBudget(Long.parseLong(maxBytes));
+  }
+
   private void environmentsElement(XNode context) throws Exception {
     if (context != null) {
       if (environment == null) {
@@ -34,8 +34,11 @@ import org.apache.ibatis.builder.IncompleteElementException;
 import org.apache.ibatis.builder.MapperBuilderAssistant;
 import org.apache.ibatis.builder.ResultMapResolver;
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheCodec;
+import org.apache.ibatis.cache.Weigher;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.CacheBuilder;
 import org.apache.ibatis.mapping.Discriminator;
 import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ParameterMode;
@@ -115,6 +118,7 @@ public class XMLMapperBuilder extends BaseBuilder {
       builderAssistant.setCurrentNamespace(namespace);
       cacheRefElement(context.evalNode("cache-ref"));
       cacheElement(context.evalNode("cache"));
+      cacheRegionElements(context.evalNodes("/mapper/cacheRegion"));
       parameterMapElement(context.evalNodes("/mapper/parameterMap"));
       resultMapElements(context.evalNodes("/mapper/resultMap"));
       sqlElement(context.evalNodes("/mapper/sql"));
@@ -144,7 +148,8 @@ public class XMLMapperBuilder extends BaseBuilder {
 
   private void parsePendingResultMaps() {
     Collection<ResultMapResolver> incompleteResultMaps = configuration.getIncompleteResultMaps();
-    synchronized (incompleteResultMaps) {
+    configuration.getIncompleteElementsLock().lock();
+    try {
       Iterator<ResultMapResolver> iter = incompleteResultMaps.iterator();
       while (iter.hasNext()) {
         try {
@@ -154,12 +159,15 @@ public class XMLMapperBuilder extends BaseBuilder {
           // ResultMap is still missing a resource...
         }
       }
+    } finally {
+      configuration.getIncompleteElementsLock().unlock();
     }
   }
 
   private void parsePendingCacheRefs() {
     Collection<CacheRefResolver> incompleteCacheRefs = configuration.getIncompleteCacheRefs();
-    synchronized (incompleteCacheRefs) {
+    configuration.getIncompleteElementsLock().lock();
+    try {
       Iterator<CacheRefResolver> iter = incompleteCacheRefs.iterator();
       while (iter.hasNext()) {
         try {
@@ -169,12 +177,15 @@ public class XMLMapperBuilder extends BaseBuilder {
           // Cache ref is still missing a resource...
         }
       }
+    } finally {
+      configuration.getIncompleteElementsLock().unlock();
     }
   }
 
   private void parsePendingStatements() {
     Collection<XMLStatementBuilder> incompleteStatements = configuration.getIncompleteStatements();
-    synchronized (incompleteStatements) {
+    configuration.getIncompleteElementsLock().lock();
+    try {
       Iterator<XMLStatementBuilder> iter = incompleteStatements.iterator();
       while (iter.hasNext()) {
         try {
@@ -184,6 +195,8 @@ public class XMLMapperBuilder extends BaseBuilder {
           // Statement is still missing a resource...
         }
       }
+    } finally {
+      configuration.getIncompleteElementsLock().unlock();
     }
   }
 
@@ -201,16 +214,52 @@ public class XMLMapperBuilder extends BaseBuilder {
 
   private void cacheElement(XNode context) {
     if (context != null) {
-      String type = context.getStringAttribute("type", "PERPETUAL");
-      Class<? extends Cache> typeClass = typeAliasRegistry.resolveAlias(type);
-      String eviction = context.getStringAttribute("eviction", "LRU");
-      Class<? extends Cache> evictionClass = typeAliasRegistry.resolveAlias(eviction);
-      Long flushInterval = context.getLongAttribute("flushInterval");
-      Integer size = context.getIntAttribute("size");
-      boolean readWrite = !context.getBooleanAttribute("readOnly", false);
-      boolean blocking = context.getBooleanAttribute("blocking", false);
-      Properties props = context.getChildrenAsProperties();
-      builderAssistant.useNewCache(typeClass, evictionClass, flushInterval, size, readWrite, blocking, props);
+      buildCache(context, null);
+    }
+  }
+
+  private void cacheRegionElements(List<XNode> list) {
+    for (XNode context : list) {
+      buildCache(context, context.getStringAttribute("id"));
+    }
+  }
+
+  private void buildCache(XNode context, String regionId) {
+    String type = context.getStringAttribute("type", "PERPETUAL");
+    Class<? extends Cache> typeClass = typeAliasRegistry.resolveAlias(type);
+    String eviction = context.getStringAttribute("eviction", "LRU");
+    Class<? extends Cache> evictionClass = typeAliasRegistry.resolveAlias(eviction);
+    Long flushInterval = context.getLongAttribute("flushInterval");
+    Long timeToLive = context.getLongAttribute("timeToLive");
+    Double jitter = context.getDoubleAttribute("jitter");
+    Double refreshAhead = context.getDoubleAttribute("refreshAhead");
+    Integer size = context.getIntAttribute("size");
+    Long maxBytes = context.getLongAttribute("maxBytes");
+    Class<? extends Weigher> weigherClass = resolveClass(context.getStringAttribute("weigher"));
+    boolean readWrite = !context.getBooleanAttribute("readOnly", false);
+    Class<? extends CacheCodec> codecClass = resolveClass(context.getStringAttribute("codec"));
+    boolean blocking = context.getBooleanAttribute("blocking", false);
+    Integer compressionThreshold = context.getIntAttribute("compressionThreshold");
+    Properties props = context.getChildrenAsProperties();
+    CacheBuilder cacheBuilder = new CacheBuilder(regionId == null ? builderAssistant.getCurrentNamespace() : regionId)
+        .implementation(typeClass)
+        .addDecorator(evictionClass)
+        .clearInterval(flushInterval)
+        .timeToLive(timeToLive)
+        .jitter(jitter)
+        .refreshAhead(refreshAhead)
+        .size(size)
+        .maxBytes(maxBytes)
+        .weigher(weigherClass)
+        .readWrite(readWrite)
+        .codec(codecClass)
+        .blocking(blocking)
+        .compressionThreshold(compressionThreshold)
+        .properties(props);
+    if (regionId == null) {
+      builderAssistant.useNewCache(cacheBuilder);
+    } else {
+      builderAssistant.addCacheRegion(cacheBuilder);
     }
   }
 
@@ -101,4 +101,14 @@ public interface Cache {
     return null;
   }
 
+  /**
+   * Optional. Decorators should return the statistics of the cache they decorate.
+   *
+   * @return The statistics of this cache, or {@code null} when it does not record any
+   * @since 3.5.11
+   */
+  default CacheStatistics getStatistics() {
+    return null;
+  }
+
 }
@@ -0,0 +1,46 @@
+/*
+ *    Copyright 2009-2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+/**
+ * SPI used by {@link org.apache.ibatis.cache.decorators.SerializedCache} to turn cached objects into bytes and back.
+ * <p>
+ * Every call to {@link #decode(byte[])} must return a new copy of the encoded object graph, callers rely on it to get
+ * an instance they can modify freely. Implementations must be thread safe and provide a public no-arg constructor.
+ *
+ * @since 3.5.11
+ */
+public interface CacheCodec {
+
+  /**
+   * @param value
+   *          the object to encode, may be {@code null}
+   * @return the encoded bytes
+   * @throws CacheException
+   *           if the object cannot be encoded
+   */
+  byte[] encode(Object value);
+
+  /**
+   * @param data
+   *          bytes returned by {@link #encode(Object)}
+   * @return a new copy of the encoded object
+   * @throws CacheException
+   *           if the bytes cannot be decoded
+   */
+  Object decode(byte[] data);
+
+}
@@ -0,0 +1,208 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.cache.decorators.BlockingCache;
+
+/**
+ * Remembers which second level cache entries depend on which tables so that a write only evicts the entries that read
+ * the modified tables, whatever namespace (or cache-ref) they were cached in.
+ * <p>
+ * Entries whose tables are unknown are kept in a separate bucket and are evicted by any write to their own cache, which
+ * is the classic namespace flush. The index never holds more than {@code maxKeysPerTable} keys for a given table and
+ * cache; past that limit the whole cache is cleared when the table is modified.
+ * <p>
+ * Recording a key and evicting the keys of a table are atomic for that table. A write may still run between the
+ * registration of an entry and its put, which only evicts an entry that is not there yet; {@link #confirm} is called
+ * once the entry is put to evict it again in that case.
+ *
+ * @since 3.5.11
+ */
+public class CacheDependencyIndex {
+
+  private static final String UNKNOWN_TABLES = "*";
+
+  private final ConcurrentMap<String, ConcurrentMap<Cache, Dependents>> dependents = new ConcurrentHashMap<>();
+  private final int maxKeysPerTable;
+
+  public CacheDependencyIndex() {
+    this(10000);
+  }
+
+  public CacheDependencyIndex(int maxKeysPerTable) {
+    this.maxKeysPerTable = maxKeysPerTable;
+  }
+
+  /**
+   * Records that the entry stored in {@code cache} under {@code key} was read from {@code tables}.
+   *
+   * @param cache
+   *          the cache holding the entry
+   * @param key
+   *          the entry key
+   * @param tables
+   *          the tables the entry depends on, {@code null} or empty when unknown
+   */
+  public void register(Cache cache, Object key, Set<String> tables) {
+    if (tables == null || tables.isEmpty()) {
+      add(UNKNOWN_TABLES, cache, key);
+    } else {
+      for (String table : tables) {
+        add(table, cache, key);
+      }
+    }
+  }
+
+  /**
+   * Evicts an entry put after its {@link #register registration} if one of its tables was modified in between.
+   *
+   * @param cache
+   *          the cache holding the entry
+   * @param key
+   *          the entry key
+   * @param tables
+   *          the tables it was registered with
+   */
+  public void confirm(Cache cache, Object key, Set<String> tables) {
+    if (tables == null || tables.isEmpty()) {
+      confirm(UNKNOWN_TABLES, cache, key);
+    } else {
+      for (String table : tables) {
+        if (!confirm(table, cache, key)) {
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Evicts every entry that depends on one of {@code tables}, plus the entries of unknown dependencies held by
+   * {@code writerCaches}.
+   *
+   * @param writerCaches
+   *          the caches of the statements that modified the tables
+   * @param tables
+   *          the modified tables
+   */
+  public void invalidate(Collection<Cache> writerCaches, Collection<String> tables) {
+    for (String table : tables) {
+      Map<Cache, Dependents> removed = dependents.remove(table);
+      if (removed != null) {
+        removed.forEach(CacheDependencyIndex::evict);
+      }
+    }
+    Map<Cache, Dependents> unknown = dependents.get(UNKNOWN_TABLES);
+    if (unknown != null) {
+      for (Cache cache : writerCaches) {
+        Dependents removed = unknown.remove(cache);
+        if (removed != null) {
+          evict(cache, removed);
+        }
+      }
+    }
+  }
+
+  /**
+   * Forgets every recorded dependency.
+   */
+  public void clear() {
+    dependents.clear();
+  }
+
+  /**
+   * Returns the number of keys recorded for a table.
+   *
+   * @param table
+   *          the table name
+   * @return the number of tracked keys, across caches
+   */
+  public int getDependentCount(String table) {
+    Map<Cache, Dependents> byCache = dependents.get(table);
+    if (byCache == null) {
+      return 0;
+    }
+    int count = 0;
+    for (Dependents entries : byCache.values()) {
+      count += entries.keys.size();
+    }
+    return count;
+  }
+
+  private void add(String table, Cache cache, Object key) {
+    // under the lock of the table and of its cache, so that an invalidation never takes the keys away meanwhile
+    dependents.compute(table, (k, byCache) -> {
+      ConcurrentMap<Cache, Dependents> result = byCache == null ? new ConcurrentHashMap<>() : byCache;
+      result.compute(cache, (c, entries) -> {
+        Dependents added = entries == null ? new Dependents() : entries;
+        added.add(key, maxKeysPerTable);
+        return added;
+      });
+      return result;
+    });
+  }
+
+  private boolean confirm(String table, Cache cache, Object key) {
+    Map<Cache, Dependents> byCache = dependents.get(table);
+    Dependents entries = byCache == null ? null : byCache.get(cache);
+    if (entries != null && (entries.overflowed || entries.keys.contains(key))) {
+      return true;
+    }
+    // evicted before it was put
+    if (cache instanceof BlockingCache) {
+      cache.clear();
+    } else {
+      cache.removeObject(key);
+    }
+    return false;
+  }
+
+  private static void evict(Cache cache, Dependents entries) {
+    // BlockingCache uses removeObject to release its locks, so it can only be cleared
+    if (entries.overflowed || cache instanceof BlockingCache) {
+      cache.clear();
+    } else {
+      for (Object key : entries.keys) {
+        cache.removeObject(key);
+      }
+    }
+  }
+
+  private static final class Dependents {
+    private final Set<Object> keys = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger size = new AtomicInteger();
+    private volatile boolean overflowed;
+
+    void add(Object key, int maxKeys) {
+      if (overflowed) {
+        return;
+      }
+      if (size.get() >= maxKeys) {
+        overflowed = true;
+        keys.clear();
+      } else if (keys.add(key)) {
+        size.incrementAndGet();
+      }
+    }
+  }
+
+}
@@ -16,18 +16,28 @@
 package org.apache.ibatis.cache;
 
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.StringJoiner;
 
 import org.apache.ibatis.reflection.ArrayUtil;
 
 /**
+ * The key of a cached result, made of the objects it was computed from.
+ * <p>
+ * The objects are kept in an array sized up front when their number is known, and folded into a 64-bit hash as they
+ * are added. Strings are hashed with a 64-bit fingerprint of their characters, which callers may precompute and pass
+ * to {@link #update(Object, long)} for texts they use repeatedly, such as statement ids and SQL. Two keys are only
+ * compared element by element when their hashes match, starting from the last element (parameters are usually more
+ * selective than the statement and its SQL).
+ *
  * @author Clinton Begin
  */
 public class CacheKey implements Cloneable, Serializable {
 
-  private static final long serialVersionUID = 1146682552656046210L;
+  private static final long serialVersionUID = -4453574208563718617L;
+
+  // must be initialized before the null key, which uses it
+  private static final Object[] NO_OBJECTS = {};
 
   public static final CacheKey NULL_CACHE_KEY = new CacheKey() {
 
@@ -36,49 +46,74 @@ public class CacheKey implements Cloneable, Serializable {
       throw new CacheException("Not allowed to update a null cache key instance.");
     }
 
+    @Override
+    public void update(Object object, long fingerprint) {
+      throw new CacheException("Not allowed to update a null cache key instance.");
+    }
+
     @Override
     public void updateAll(Object[] objects) {
       throw new CacheException("Not allowed to update a null cache key instance.");
     }
   };
 
-  private static final int DEFAULT_MULTIPLIER = 37;
-  private static final int DEFAULT_HASHCODE = 17;
+  private static final int DEFAULT_CAPACITY = 8;
+  private static final long SEED = 0x9E3779B97F4A7C15L;
+  private static final long NULL_HASH = 0x5851F42D4C957F2DL;
+  private static final long FNV_OFFSET_BASIS = 0xCBF29CE484222325L;
+  private static final long FNV_PRIME = 0x100000001B3L;
 
-  private final int multiplier;
-  private int hashcode;
-  private long checksum;
+  private long hash;
   private int count;
   // 8/21/2017 - Sonarlint flags this as needing to be marked transient. While true if content is not serializable, this
   // is not always true and thus should not be marked transient.
-  private List<Object> updateList;
+  private Object[] updateList;
 
   public CacheKey() {
-    this.hashcode = DEFAULT_HASHCODE;
-    this.multiplier = DEFAULT_MULTIPLIER;
-    this.count = 0;
-    this.updateList = new ArrayList<>();
+    this.hash = SEED;
+    this.updateList = NO_OBJECTS;
+  }
+
+  /**
+   * Creates a key that will be made of a known number of objects.
+   *
+   * @param expectedUpdates
+   *          the number of objects the key will be updated with
+   * @since 3.5.11
+   */
+  public CacheKey(int expectedUpdates) {
+    this.hash = SEED;
+    this.updateList = expectedUpdates > 0 ? new Object[expectedUpdates] : NO_OBJECTS;
   }
 
   public CacheKey(Object[] objects) {
-    this();
+    this(objects.length);
     updateAll(objects);
   }
 
   public int getUpdateCount() {
-    return updateList.size();
+    return count;
   }
 
   public void update(Object object) {
-    int baseHashCode = object == null ? 1 : ArrayUtil.hashCode(object);
-
-    count++;
-    checksum += baseHashCode;
-    baseHashCode *= count;
-
-    hashcode = multiplier * hashcode + baseHashCode;
+    update(object, hashOf(object));
+  }
 
-    updateList.add(object);
+  /**
+   * Adds an object whose fingerprint is already known.
+   *
+   * @param object
+   *          the object
+   * @param fingerprint
+   *          the fingerprint of the object, as computed by {@link #fingerprint(Object)}
+   * @since 3.5.11
+   */
+  public void update(Object object, long fingerprint) {
+    if (count == updateList.length) {
+      updateList = Arrays.copyOf(updateList, Math.max(DEFAULT_CAPACITY, count * 2));
+    }
+    updateList[count++] = object;
+    hash = mix(hash * FNV_PRIME + fingerprint);
   }
 
   public void updateAll(Object[] objects) {
@@ -87,6 +122,45 @@ public class CacheKey implements Cloneable, Serializable {
     }
   }
 
+  /**
+   * Computes the 64-bit fingerprint of an object, which is what {@link #update(Object)} folds into the key hash.
+   *
+   * @param object
+   *          the object, may be {@code null}
+   * @return the fingerprint
+   * @since 3.5.11
+   */
+  public static long fingerprint(Object object) {
+    return hashOf(object);
+  }
+
+  private static long hashOf(Object object) {
+    if (object == null) {
+      return NULL_HASH;
+    } else if (object instanceof String) {
+      String text = (String) object;
+      long h = FNV_OFFSET_BASIS;
+      for (int i = 0; i < text.length(); i++) {
+        h = (h ^ text.charAt(i)) * FNV_PRIME;
+      }
+      return mix(h);
+    }
+    return mix(ArrayUtil.hashCode(object) + SEED);
+  }
+
+  /**
+   * The finalizer of MurmurHash3, which spreads every input bit over the whole output.
+   */
+  private static long mix(long value) {
+    long h = value;
+    h ^= h >>> 33;
+    h *= 0xFF51AFD7ED558CCDL;
+    h ^= h >>> 33;
+    h *= 0xC4CEB9FE1A85EC53L;
+    h ^= h >>> 33;
+    return h;
+  }
+
   @Override
   public boolean equals(Object object) {
     if (this == object) {
@@ -98,20 +172,14 @@ public class CacheKey implements Cloneable, Serializable {
 
     final CacheKey cacheKey = (CacheKey) object;
 
-    if (hashcode != cacheKey.hashcode) {
-      return false;
-    }
-    if (checksum != cacheKey.checksum) {
-      return false;
-    }
-    if (count != cacheKey.count) {
+    if (hash != cacheKey.hash || count != cacheKey.count) {
       return false;
     }
 
-    for (int i = 0; i < updateList.size(); i++) {
-      Object thisObject = updateList.get(i);
-      Object thatObject = cacheKey.updateList.get(i);
-      if (!ArrayUtil.equals(thisObject, thatObject)) {
+    for (int i = count - 1; i >= 0; i--) {
+      Object thisObject = updateList[i];
+      Object thatObject = cacheKey.updateList[i];
+      if (thisObject != thatObject && !ArrayUtil.equals(thisObject, thatObject)) {
         return false;
       }
     }
@@ -120,22 +188,25 @@ public class CacheKey implements Cloneable, Serializable {
 
   @Override
   public int hashCode() {
-    return hashcode;
+    return (int) (hash ^ (hash >>> 32));
   }
 
   @Override
   public String toString() {
     StringJoiner returnValue = new StringJoiner(":");
-    returnValue.add(String.valueOf(hashcode));
-    returnValue.add(String.valueOf(checksum));
-    updateList.stream().map(ArrayUtil::toString).forEach(returnValue::add);
+    returnValue.add(String.valueOf(hashCode()));
+    returnValue.add(Long.toHexString(hash));
+    for (int i = 0; i < count; i++) {
+      returnValue.add(ArrayUtil.toString(updateList[i]));
+    }
     return returnValue.toString();
   }
 
   @Override
   public CacheKey clone() throws CloneNotSupportedException {
     CacheKey clonedCacheKey = (CacheKey) super.clone();
-    clonedCacheKey.updateList = new ArrayList<>(updateList);
+    // room for the usual extra update of a combined row key
+    clonedCacheKey.updateList = Arrays.copyOf(updateList, count + 1);
     return clonedCacheKey;
   }
 
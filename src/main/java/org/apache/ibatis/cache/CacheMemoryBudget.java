@@ -0,0 +1,109 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.ibatis.cache.decorators.WeightedCache;
+
+/**
+ * A memory budget shared by several {@link WeightedCache}s, typically every second level cache of a configuration.
+ * <p>
+ * The caches report every change of their weight to the budget. When a put takes the total over the budget, entries
+ * are evicted from the heaviest cache, least recently used first, until the total fits again. Only one thread reclaims
+ * memory at a time, the others go on without waiting, so the total may briefly exceed the budget under concurrent puts.
+ *
+ * @since 3.5.11
+ */
+public class CacheMemoryBudget {
+
+  private final long maxBytes;
+  private final AtomicLong usedBytes = new AtomicLong();
+  private final List<WeightedCache> caches = new CopyOnWriteArrayList<>();
+  private final ReentrantLock reclaimLock = new ReentrantLock();
+
+  /**
+   * Creates a budget.
+   *
+   * @param maxBytes
+   *          the total weight allowed, in bytes
+   */
+  public CacheMemoryBudget(long maxBytes) {
+    if (maxBytes <= 0) {
+      throw new IllegalArgumentException("The cache memory budget must be positive but was " + maxBytes);
+    }
+    this.maxBytes = maxBytes;
+  }
+
+  public long getMaxBytes() {
+    return maxBytes;
+  }
+
+  /**
+   * Gets the total weight of the caches sharing this budget.
+   *
+   * @return the weight in bytes
+   */
+  public long getUsedBytes() {
+    return usedBytes.get();
+  }
+
+  public void register(WeightedCache cache) {
+    caches.add(cache);
+  }
+
+  /**
+   * Records a change of the weight of one of the caches.
+   *
+   * @param delta
+   *          the change in bytes
+   */
+  public void add(long delta) {
+    usedBytes.addAndGet(delta);
+  }
+
+  /**
+   * Evicts entries from the heaviest caches until the total weight fits the budget. Must not be called while holding
+   * the lock of a cache.
+   */
+  public void reclaim() {
+    if (usedBytes.get() <= maxBytes || !reclaimLock.tryLock()) {
+      return;
+    }
+    try {
+      while (usedBytes.get() > maxBytes) {
+        WeightedCache heaviest = null;
+        long heaviestSize = 0;
+        for (WeightedCache cache : caches) {
+          long size = cache.getWeightedSize();
+          if (size > heaviestSize) {
+            heaviest = cache;
+            heaviestSize = size;
+          }
+        }
+        if (heaviest == null || !heaviest.evictEldest()) {
+          return;
+        }
+      }
+    } finally {
+      reclaimLock.unlock();
+    }
+  }
+
+}
@@ -0,0 +1,140 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * Background threads shared by every cache of the JVM.
+ * <p>
+ * A single timer thread runs the periodic maintenance of the caches, and a small bounded pool runs the work that may
+ * block such as refreshing entries from the database. All threads are daemons and are only started on first use.
+ *
+ * @since 3.5.11
+ */
+public final class CacheScheduler {
+
+  private static final Log log = LogFactory.getLog(CacheScheduler.class);
+
+  private static final int MAX_WORKERS = Math.max(2, Runtime.getRuntime().availableProcessors());
+  private static final int MAX_QUEUED_TASKS = 1024;
+
+  private CacheScheduler() {
+    // Prevent Instantiation of Static Class
+  }
+
+  /**
+   * Periodically runs a task against an object for as long as the object is reachable. The scheduler only holds a weak
+   * reference to the target, so registering a cache does not keep it (and its configuration) alive.
+   *
+   * @param <T>
+   *          the target type
+   * @param target
+   *          the object the task applies to
+   * @param task
+   *          the task
+   * @param periodMillis
+   *          the period in milliseconds
+   * @return a handle to cancel the task
+   */
+  public static <T> ScheduledFuture<?> scheduleWeakly(T target, Consumer<T> task, long periodMillis) {
+    WeakReference<T> reference = new WeakReference<>(target);
+    long period = Math.max(1, periodMillis);
+    return Holder.TIMER.scheduleWithFixedDelay(() -> {
+      T current = reference.get();
+      if (current == null) {
+        throw new CancellationSignal();
+      }
+      try {
+        task.accept(current);
+      } catch (RuntimeException e) {
+        log.warn("Periodic cache task failed. Cause: " + e);
+      }
+    }, period, period, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Runs a task on the shared worker pool.
+   *
+   * @param task
+   *          the task
+   * @return {@code false} when the pool is saturated and the task was not accepted
+   */
+  public static boolean execute(Runnable task) {
+    try {
+      Holder.WORKERS.execute(task);
+      return true;
+    } catch (RejectedExecutionException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Thrown to stop a periodic task whose target has been garbage collected. A periodic task that throws is not
+   * rescheduled.
+   */
+  private static final class CancellationSignal extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    CancellationSignal() {
+      super(null, null, false, false);
+    }
+  }
+
+  private static final class Holder {
+    private static final ScheduledExecutorService TIMER;
+    private static final ThreadPoolExecutor WORKERS;
+
+    static {
+      ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, new DaemonThreadFactory("timer"));
+      timer.setRemoveOnCancelPolicy(true);
+      TIMER = timer;
+      WORKERS = new ThreadPoolExecutor(MAX_WORKERS, MAX_WORKERS, 30, TimeUnit.SECONDS,
+          new ArrayBlockingQueue<>(MAX_QUEUED_TASKS), new DaemonThreadFactory("worker"));
+      WORKERS.allowCoreThreadTimeOut(true);
+    }
+  }
+
+  private static final class DaemonThreadFactory implements ThreadFactory {
+    private final String prefix;
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    DaemonThreadFactory(String kind) {
+      this.prefix = "mybatis-cache-" + kind + "-";
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, prefix + sequence.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+
+}
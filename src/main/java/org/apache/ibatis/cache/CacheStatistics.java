@@ -0,0 +1,440 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.io.Serializable;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.ibatis.cache.weigher.EstimatingWeigher;
+
+/**
+ * Statistics of a second level cache.
+ * <p>
+ * Every counter is a {@link LongAdder}, so recording never blocks and concurrent updates are spread over separate cells
+ * instead of contending on a single field. Reading a counter sums its cells; {@link #snapshot()} reads all of them at
+ * once into an immutable object, which is cheap enough to be polled every second. The values are not reset.
+ * <p>
+ * The estimated bytes are the number of entries times the average size of the values put so far. The size of a
+ * serialized value (a read-write cache) is recorded as it is serialized and is exact. The size of any other value is
+ * only estimated, by {@link EstimatingWeigher#estimate(Object)}, once the statistics are registered with JMX or
+ * {@link #setSizeEstimated(boolean)} is called: walking the value on every put has a cost nobody should pay unless the
+ * statistics are read.
+ * <p>
+ * A cache that compresses its serialized values reports the bytes it was given and the bytes it stored, from which the
+ * compression ratio is computed, and the time spent compressing and decompressing.
+ *
+ * @since 3.5.11
+ */
+public class CacheStatistics implements CacheStatisticsMXBean {
+
+  private final Cache cache;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder puts = new LongAdder();
+  private final LongAdder sizedPuts = new LongAdder();
+  private final LongAdder putBytes = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder removals = new LongAdder();
+  private final LongAdder loads = new LongAdder();
+  private final LongAdder loadFailures = new LongAdder();
+  private final LongAdder loadNanos = new LongAdder();
+  private final LongAdder uncompressedBytes = new LongAdder();
+  private final LongAdder compressedBytes = new LongAdder();
+  private final LongAdder compressionNanos = new LongAdder();
+  private final LongAdder decompressionNanos = new LongAdder();
+  private volatile boolean sizeEstimated;
+  private volatile boolean serialized;
+
+  /**
+   * Creates the statistics of a cache.
+   *
+   * @param cache
+   *          the cache, used for its id and size
+   */
+  public CacheStatistics(Cache cache) {
+    this.cache = cache;
+  }
+
+  public void recordHit() {
+    hits.increment();
+  }
+
+  public void recordMiss() {
+    misses.increment();
+  }
+
+  public void recordPut(Object value) {
+    puts.increment();
+    if (sizeEstimated && !serialized) {
+      sizedPuts.increment();
+      putBytes.add(EstimatingWeigher.estimate(value));
+    }
+  }
+
+  /**
+   * Records the size of a value serialized to be put in the cache. The other values of the cache are not estimated
+   * anymore.
+   *
+   * @param bytes
+   *          the size of the serialized value
+   */
+  public void recordSerializedPut(int bytes) {
+    serialized = true;
+    sizedPuts.increment();
+    putBytes.add(bytes);
+  }
+
+  /**
+   * Sets whether the size of the values that are not serialized is estimated when they are put.
+   *
+   * @param sizeEstimated
+   *          {@code true} to estimate it
+   */
+  public void setSizeEstimated(boolean sizeEstimated) {
+    this.sizeEstimated = sizeEstimated;
+  }
+
+  public void recordEviction() {
+    evictions.increment();
+  }
+
+  public void recordEvictions(int count) {
+    evictions.add(count);
+  }
+
+  public void recordRemoval() {
+    removals.increment();
+  }
+
+  public void recordRemovals(int count) {
+    removals.add(count);
+  }
+
+  /**
+   * Records the load of a value missing from the cache.
+   *
+   * @param nanos
+   *          the time spent loading, in nanoseconds
+   * @param success
+   *          whether the value could be loaded
+   */
+  public void recordLoad(long nanos, boolean success) {
+    loads.increment();
+    loadNanos.add(nanos);
+    if (!success) {
+      loadFailures.increment();
+    }
+  }
+
+  /**
+   * Records the compression of a serialized value.
+   *
+   * @param inputBytes
+   *          the size of the value
+   * @param storedBytes
+   *          the size stored, the same when the value was stored uncompressed
+   * @param nanos
+   *          the time spent compressing, in nanoseconds
+   */
+  public void recordCompression(long inputBytes, long storedBytes, long nanos) {
+    uncompressedBytes.add(inputBytes);
+    compressedBytes.add(storedBytes);
+    compressionNanos.add(nanos);
+  }
+
+  /**
+   * Records the decompression of a value.
+   *
+   * @param nanos
+   *          the time spent decompressing, in nanoseconds
+   */
+  public void recordDecompression(long nanos) {
+    decompressionNanos.add(nanos);
+  }
+
+  @Override
+  public String getId() {
+    return cache.getId();
+  }
+
+  @Override
+  public int getSize() {
+    return cache.getSize();
+  }
+
+  @Override
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  @Override
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  @Override
+  public double getHitRatio() {
+    return ratio(hits.sum(), misses.sum());
+  }
+
+  @Override
+  public long getPutCount() {
+    return puts.sum();
+  }
+
+  @Override
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  @Override
+  public long getRemovalCount() {
+    return removals.sum();
+  }
+
+  @Override
+  public long getEstimatedBytes() {
+    return estimatedBytes(cache.getSize(), sizedPuts.sum(), putBytes.sum());
+  }
+
+  @Override
+  public long getLoadCount() {
+    return loads.sum();
+  }
+
+  @Override
+  public long getLoadFailureCount() {
+    return loadFailures.sum();
+  }
+
+  @Override
+  public double getAverageLoadMillis() {
+    return averageMillis(loadNanos.sum(), loads.sum());
+  }
+
+  @Override
+  public double getCompressionRatio() {
+    return compressionRatio(uncompressedBytes.sum(), compressedBytes.sum());
+  }
+
+  @Override
+  public double getCompressionMillis() {
+    return millis(compressionNanos.sum());
+  }
+
+  @Override
+  public double getDecompressionMillis() {
+    return millis(decompressionNanos.sum());
+  }
+
+  /**
+   * Registers these statistics in the platform MBean server as
+   * {@code org.apache.ibatis:type=CacheStatistics,scope=<scope>,id=<cache id>}, replacing any statistics registered
+   * under that name before.
+   *
+   * @param scope
+   *          distinguishes caches of the same id that belong to different configurations
+   * @return the name of the MBean
+   */
+  public ObjectName registerMBean(String scope) {
+    try {
+      ObjectName name = new ObjectName("org.apache.ibatis:type=CacheStatistics,scope=" + ObjectName.quote(scope)
+          + ",id=" + ObjectName.quote(getId()));
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      if (server.isRegistered(name)) {
+        server.unregisterMBean(name);
+      }
+      server.registerMBean(this, name);
+      sizeEstimated = true;
+      return name;
+    } catch (JMException e) {
+      throw new CacheException("Error registering the statistics of cache " + getId() + ". Cause: " + e, e);
+    }
+  }
+
+  /**
+   * Reads every counter.
+   *
+   * @return the current values
+   */
+  public Snapshot snapshot() {
+    long putCount = puts.sum();
+    long loadCount = loads.sum();
+    long totalLoadNanos = loadNanos.sum();
+    int size = cache.getSize();
+    return new Snapshot(cache.getId(), size, hits.sum(), misses.sum(), putCount, evictions.sum(), removals.sum(),
+        estimatedBytes(size, sizedPuts.sum(), putBytes.sum()), loadCount, loadFailures.sum(), totalLoadNanos,
+        uncompressedBytes.sum(), compressedBytes.sum(), compressionNanos.sum(), decompressionNanos.sum());
+  }
+
+  private static double ratio(long hits, long misses) {
+    long requests = hits + misses;
+    return requests == 0 ? 0 : (double) hits / requests;
+  }
+
+  private static double averageMillis(long nanos, long count) {
+    return count == 0 ? 0 : (double) nanos / count / TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
+  private static double compressionRatio(long uncompressedBytes, long compressedBytes) {
+    return compressedBytes == 0 ? 0 : (double) uncompressedBytes / compressedBytes;
+  }
+
+  private static double millis(long nanos) {
+    return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
+  private static long estimatedBytes(int size, long sizedPutCount, long putBytes) {
+    return sizedPutCount == 0 ? 0 : (long) ((double) putBytes / sizedPutCount * size);
+  }
+
+  /**
+   * The values of the statistics of a cache at a point in time.
+   */
+  public static final class Snapshot implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String id;
+    private final int size;
+    private final long hitCount;
+    private final long missCount;
+    private final long putCount;
+    private final long evictionCount;
+    private final long removalCount;
+    private final long estimatedBytes;
+    private final long loadCount;
+    private final long loadFailureCount;
+    private final long totalLoadNanos;
+    private final long uncompressedBytes;
+    private final long compressedBytes;
+    private final long totalCompressionNanos;
+    private final long totalDecompressionNanos;
+
+    Snapshot(String id, int size, long hitCount, long missCount, long putCount, long evictionCount,
+        long removalCount, long estimatedBytes, long loadCount, long loadFailureCount, long totalLoadNanos,
+        long uncompressedBytes, long compressedBytes, long totalCompressionNanos, long totalDecompressionNanos) {
+      this.id = id;
+      this.size = size;
+      this.hitCount = hitCount;
+      this.missCount = missCount;
+      this.putCount = putCount;
+      this.evictionCount = evictionCount;
+      this.removalCount = removalCount;
+      this.estimatedBytes = estimatedBytes;
+      this.loadCount = loadCount;
+      this.loadFailureCount = loadFailureCount;
+      this.totalLoadNanos = totalLoadNanos;
+      this.uncompressedBytes = uncompressedBytes;
+      this.compressedBytes = compressedBytes;
+      this.totalCompressionNanos = totalCompressionNanos;
+      this.totalDecompressionNanos = totalDecompressionNanos;
+    }
+
+    public String getId() {
+      return id;
+    }
+
+    public int getSize() {
+      return size;
+    }
+
+    public long getHitCount() {
+      return hitCount;
+    }
+
+    public long getMissCount() {
+      return missCount;
+    }
+
+    public double getHitRatio() {
+      return ratio(hitCount, missCount);
+    }
+
+    public long getPutCount() {
+      return putCount;
+    }
+
+    public long getEvictionCount() {
+      return evictionCount;
+    }
+
+    public long getRemovalCount() {
+      return removalCount;
+    }
+
+    public long getEstimatedBytes() {
+      return estimatedBytes;
+    }
+
+    public long getLoadCount() {
+      return loadCount;
+    }
+
+    public long getLoadFailureCount() {
+      return loadFailureCount;
+    }
+
+    public long getTotalLoadNanos() {
+      return totalLoadNanos;
+    }
+
+    public double getAverageLoadMillis() {
+      return averageMillis(totalLoadNanos, loadCount);
+    }
+
+    /**
+     * @return the size of the values given to the compression, {@code 0} when the cache does not compress
+     */
+    public long getUncompressedBytes() {
+      return uncompressedBytes;
+    }
+
+    /**
+     * @return the size stored for the values given to the compression
+     */
+    public long getCompressedBytes() {
+      return compressedBytes;
+    }
+
+    public double getCompressionRatio() {
+      return compressionRatio(uncompressedBytes, compressedBytes);
+    }
+
+    public long getTotalCompressionNanos() {
+      return totalCompressionNanos;
+    }
+
+    public long getTotalDecompressionNanos() {
+      return totalDecompressionNanos;
+    }
+
+    @Override
+    public String toString() {
+      return "CacheStatistics[" + id + "] size=" + size + ", hits=" + hitCount + ", misses=" + missCount + ", puts="
+          + putCount + ", evictions=" + evictionCount + ", removals=" + removalCount + ", estimatedBytes="
+          + estimatedBytes + ", loads=" + loadCount + ", loadFailures=" + loadFailureCount + ", averageLoadMillis="
+          + getAverageLoadMillis() + (compressedBytes == 0 ? "" : ", compressionRatio=" + getCompressionRatio());
+    }
+  }
+
+}
@@ -0,0 +1,56 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+/**
+ * Management interface of the statistics of a second level cache.
+ *
+ * @since 3.5.11
+ * @see CacheStatistics
+ */
+public interface CacheStatisticsMXBean {
+
+  String getId();
+
+  int getSize();
+
+  long getHitCount();
+
+  long getMissCount();
+
+  double getHitRatio();
+
+  long getPutCount();
+
+  long getEvictionCount();
+
+  long getRemovalCount();
+
+  long getEstimatedBytes();
+
+  long getLoadCount();
+
+  long getLoadFailureCount();
+
+  double getAverageLoadMillis();
+
+  double getCompressionRatio();
+
+  double getCompressionMillis();
+
+  double getDecompressionMillis();
+
+}
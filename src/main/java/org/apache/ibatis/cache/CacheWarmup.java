@@ -0,0 +1,211 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.CacheWarmupMode;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+/**
+ * Preloads the second level caches with the results of the select statements that declare warm-up parameters, with
+ * the {@code cacheWarmup} and {@code cacheWarmupSupplier} attributes or the
+ * {@link org.apache.ibatis.annotations.CacheWarmup} annotation.
+ * <p>
+ * Every parameter is loaded in its own session on a pool of {@code cacheWarmupThreads} threads which is shut down once
+ * the warm-up is done. A failed load is logged and does not stop the others; the returned future then completes
+ * exceptionally once every load has been attempted. Statements whose namespace has no cache, or that do not use it,
+ * are skipped.
+ *
+ * @since 3.5.11
+ */
+public final class CacheWarmup {
+
+  private static final Log log = LogFactory.getLog(CacheWarmup.class);
+
+  private static final Map<Class<?>, Function<String, Object>> converters = new HashMap<>();
+
+  static {
+    converters.put(String.class, s -> s);
+    converters.put(Integer.class, Integer::valueOf);
+    converters.put(int.class, Integer::valueOf);
+    converters.put(Long.class, Long::valueOf);
+    converters.put(long.class, Long::valueOf);
+    converters.put(Short.class, Short::valueOf);
+    converters.put(short.class, Short::valueOf);
+    converters.put(Byte.class, Byte::valueOf);
+    converters.put(byte.class, Byte::valueOf);
+    converters.put(Double.class, Double::valueOf);
+    converters.put(double.class, Double::valueOf);
+    converters.put(Float.class, Float::valueOf);
+    converters.put(float.class, Float::valueOf);
+    converters.put(Boolean.class, Boolean::valueOf);
+    converters.put(boolean.class, Boolean::valueOf);
+    converters.put(BigDecimal.class, BigDecimal::new);
+    converters.put(BigInteger.class, BigInteger::new);
+  }
+
+  private CacheWarmup() {
+    // Prevent Instantiation of Static Class
+  }
+
+  /**
+   * Runs the warm-up of a factory according to its {@code cacheWarmupMode}.
+   *
+   * @param sqlSessionFactory
+   *          the factory to warm up
+   * @return a future completed when every load has been attempted
+   */
+  public static CompletableFuture<Void> start(SqlSessionFactory sqlSessionFactory) {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    List<MappedStatement> statements = declaringStatements(configuration);
+    if (configuration.getCacheWarmupMode() == CacheWarmupMode.NONE || statements.isEmpty()) {
+      return CompletableFuture.completedFuture(null);
+    }
+    int threads = Math.max(1, configuration.getCacheWarmupThreads());
+    AtomicInteger sequence = new AtomicInteger();
+    ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<>(), runnable -> {
+          Thread thread = new Thread(runnable, "mybatis-cache-warmup-" + sequence.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+    AtomicInteger loads = new AtomicInteger();
+    AtomicInteger failures = new AtomicInteger();
+    CompletableFuture<Void> warmup = CompletableFuture.supplyAsync(() -> {
+      List<CompletableFuture<Void>> tasks = new ArrayList<>();
+      for (MappedStatement statement : statements) {
+        for (Object parameter : parametersOf(statement, sqlSessionFactory, failures)) {
+          loads.incrementAndGet();
+          tasks.add(CompletableFuture.runAsync(() -> load(sqlSessionFactory, statement, parameter, failures), pool));
+        }
+      }
+      return tasks;
+    }, pool).thenCompose(tasks -> CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])))
+        .whenComplete((result, e) -> pool.shutdown()).thenRun(() -> {
+          if (failures.get() > 0) {
+            throw new CacheException(failures.get() + " of the " + loads.get() + " cache warm-up loads failed");
+          }
+          if (log.isDebugEnabled()) {
+            log.debug("Preloaded the results of " + loads.get() + " cache warm-up loads");
+          }
+        });
+    if (configuration.getCacheWarmupMode() == CacheWarmupMode.SYNC) {
+      try {
+        warmup.join();
+      } catch (CompletionException e) {
+        log.warn("Cache warm-up incomplete. Cause: " + e.getCause());
+      }
+    }
+    return warmup;
+  }
+
+  /**
+   * Converts the warm-up literals of a statement to parameter objects.
+   *
+   * @param literals
+   *          literals separated by semicolons, {@code null} for none
+   * @param parameterType
+   *          the parameter type of the statement, may be {@code null}
+   * @return the parameter objects
+   */
+  public static List<Object> parseParameters(String literals, Class<?> parameterType) {
+    if (literals == null) {
+      return Collections.emptyList();
+    }
+    List<Object> parameters = new ArrayList<>();
+    for (String literal : literals.split(";")) {
+      String value = literal.trim();
+      if (value.isEmpty()) {
+        continue;
+      }
+      Function<String, Object> converter = parameterType == null ? null : converters.get(parameterType);
+      if (converter != null) {
+        parameters.add(converter.apply(value));
+      } else if (value.indexOf('=') > 0) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (String pair : value.split(",")) {
+          int separator = pair.indexOf('=');
+          if (separator <= 0) {
+            throw new CacheException("Invalid cache warm-up parameter '" + value + "', expected name=value pairs");
+          }
+          map.put(pair.substring(0, separator).trim(), pair.substring(separator + 1).trim());
+        }
+        parameters.add(map);
+      } else {
+        parameters.add(value);
+      }
+    }
+    return Collections.unmodifiableList(parameters);
+  }
+
+  private static List<MappedStatement> declaringStatements(Configuration configuration) {
+    List<MappedStatement> statements = new ArrayList<>();
+    for (MappedStatement statement : configuration.getCacheWarmupStatements()) {
+      if (statement.getCache() == null || !statement.isUseCache()) {
+        log.warn("Skipping the cache warm-up of " + statement.getId() + ", it does not use a second level cache");
+      } else {
+        statements.add(statement);
+      }
+    }
+    return statements;
+  }
+
+  private static List<Object> parametersOf(MappedStatement statement, SqlSessionFactory sqlSessionFactory,
+      AtomicInteger failures) {
+    List<Object> parameters = new ArrayList<>(statement.getCacheWarmupParameters());
+    if (statement.getCacheWarmupSupplier() != null) {
+      try {
+        parameters.addAll(statement.getCacheWarmupSupplier().getParameters(statement, sqlSessionFactory));
+      } catch (RuntimeException e) {
+        failures.incrementAndGet();
+        log.warn("Error getting the cache warm-up parameters of " + statement.getId() + ". Cause: " + e);
+      }
+    }
+    return parameters;
+  }
+
+  private static void load(SqlSessionFactory sqlSessionFactory, MappedStatement statement, Object parameter,
+      AtomicInteger failures) {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.selectList(statement.getId(), parameter);
+      sqlSession.commit();
+    } catch (RuntimeException e) {
+      failures.incrementAndGet();
+      log.warn("Error warming up the cache of " + statement.getId() + " with " + parameter + ". Cause: " + e);
+    }
+  }
+
+}
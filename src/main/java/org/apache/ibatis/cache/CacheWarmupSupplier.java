@@ -0,0 +1,42 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.util.Collection;
+
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+/**
+ * SPI providing the parameters a select statement is executed with to preload its results into the second level
+ * cache, see {@link CacheWarmup}. Implementations must provide a public no-arg constructor.
+ *
+ * @since 3.5.11
+ */
+public interface CacheWarmupSupplier {
+
+  /**
+   * Returns the parameters to preload.
+   *
+   * @param statement
+   *          the statement to warm up
+   * @param sqlSessionFactory
+   *          the factory being warmed up, which may be used to look the parameters up
+   * @return the parameter objects, each one as it would be passed to {@code SqlSession.selectList}
+   */
+  Collection<?> getParameters(MappedStatement statement, SqlSessionFactory sqlSessionFactory);
+
+}
@@ -15,10 +15,18 @@
  */
 package org.apache.ibatis.cache;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+import org.apache.ibatis.cache.decorators.BlockingCache;
 import org.apache.ibatis.cache.decorators.TransactionalCache;
+import org.apache.ibatis.cache.invalidation.CacheInvalidation;
+import org.apache.ibatis.cache.invalidation.CacheInvalidationBus;
 import org.apache.ibatis.util.MapUtil;
 
 /**
@@ -27,33 +35,195 @@ import org.apache.ibatis.util.MapUtil;
 public class TransactionalCacheManager {
 
   private final Map<Cache, TransactionalCache> transactionalCaches = new HashMap<>();
+  private final CacheDependencyIndex dependencyIndex;
+  private final Set<String> invalidatedTables = new HashSet<>();
+  private final Set<Cache> writerCaches = new HashSet<>();
+  private final CacheInvalidationBus invalidationBus;
+  private final Set<Cache> clearedCaches = new HashSet<>();
+
+  public TransactionalCacheManager() {
+    this(null);
+  }
+
+  /**
+   * Creates a manager that invalidates second level cache entries by table instead of by namespace.
+   *
+   * @param dependencyIndex
+   *          the index of the tables cached entries depend on, {@code null} for namespace wide flushes
+   * @since 3.5.11
+   */
+  public TransactionalCacheManager(CacheDependencyIndex dependencyIndex) {
+    this(dependencyIndex, null);
+  }
+
+  /**
+   * Creates a manager that also publishes the invalidations of every commit to the other nodes of a cluster.
+   *
+   * @param dependencyIndex
+   *          the index of the tables cached entries depend on, {@code null} for namespace wide flushes
+   * @param invalidationBus
+   *          the bus to publish invalidations to, may be {@code null}
+   * @since 3.5.11
+   */
+  public TransactionalCacheManager(CacheDependencyIndex dependencyIndex, CacheInvalidationBus invalidationBus) {
+    this.dependencyIndex = dependencyIndex;
+    this.invalidationBus = invalidationBus;
+  }
 
   public void clear(Cache cache) {
     getTransactionalCache(cache).clear();
+    if (invalidationBus != null) {
+      clearedCaches.add(cache);
+    }
   }
 
   public Object getObject(Cache cache, CacheKey key) {
     return getTransactionalCache(cache).getObject(key);
   }
 
+  /**
+   * Looks an entry up, hiding it when the current transaction has modified one of the tables it depends on.
+   *
+   * @param cache
+   *          the cache
+   * @param key
+   *          the key
+   * @param tables
+   *          the tables the entry depends on, empty when unknown
+   * @return the cached value or {@code null}
+   * @since 3.5.11
+   */
+  public Object getObject(Cache cache, CacheKey key, Set<String> tables) {
+    Object value = getTransactionalCache(cache).getObject(key);
+    return isInvalidated(cache, tables) ? null : value;
+  }
+
   public void putObject(Cache cache, CacheKey key, Object value) {
     getTransactionalCache(cache).putObject(key, value);
   }
 
+  /**
+   * Buffers an entry that depends on the given tables until commit.
+   *
+   * @param cache
+   *          the cache
+   * @param key
+   *          the key
+   * @param value
+   *          the value
+   * @param tables
+   *          the tables the entry depends on, empty when unknown
+   * @since 3.5.11
+   */
+  public void putObject(Cache cache, CacheKey key, Object value, Set<String> tables) {
+    getTransactionalCache(cache).putObject(key, value, tables);
+  }
+
+  /**
+   * Hands a loaded value over to the sessions waiting for the same entry of a blocking cache, without waiting for the
+   * commit. Must only be used when the current transaction has not modified anything.
+   *
+   * @param cache
+   *          the cache
+   * @param key
+   *          the key
+   * @param value
+   *          the loaded value
+   * @since 3.5.11
+   */
+  public void handOff(Cache cache, CacheKey key, Object value) {
+    if (cache instanceof BlockingCache) {
+      ((BlockingCache) cache).handOff(key, value);
+    }
+  }
+
+  /**
+   * Reports that loading an entry missed in the current transaction failed.
+   *
+   * @param cache
+   *          the cache
+   * @param key
+   *          the key
+   * @param cause
+   *          the failure
+   * @since 3.5.11
+   */
+  public void fail(Cache cache, CacheKey key, Throwable cause) {
+    getTransactionalCache(cache).fail(key, cause);
+  }
+
+  /**
+   * Records that the current transaction modified some tables. On commit every cached entry that depends on them is
+   * evicted, in any cache.
+   *
+   * @param writerCache
+   *          the cache of the modifying statement, may be {@code null}
+   * @param tables
+   *          the modified tables
+   * @since 3.5.11
+   */
+  public void invalidate(Cache writerCache, Set<String> tables) {
+    invalidatedTables.addAll(tables);
+    if (writerCache != null) {
+      writerCaches.add(writerCache);
+    }
+    for (Map.Entry<Cache, TransactionalCache> entry : transactionalCaches.entrySet()) {
+      entry.getValue().discard(tables, entry.getKey().equals(writerCache));
+    }
+  }
+
   public void commit() {
+    if (dependencyIndex != null && (!invalidatedTables.isEmpty() || !writerCaches.isEmpty())) {
+      dependencyIndex.invalidate(writerCaches, invalidatedTables);
+    }
     for (TransactionalCache txCache : transactionalCaches.values()) {
       txCache.commit();
     }
+    if (invalidationBus != null) {
+      publishInvalidations();
+    }
+    resetInvalidations();
   }
 
   public void rollback() {
     for (TransactionalCache txCache : transactionalCaches.values()) {
       txCache.rollback();
     }
+    resetInvalidations();
+  }
+
+  private boolean isInvalidated(Cache cache, Set<String> tables) {
+    if (tables == null || tables.isEmpty()) {
+      return writerCaches.contains(cache);
+    }
+    return !Collections.disjoint(invalidatedTables, tables);
+  }
+
+  private void publishInvalidations() {
+    List<CacheInvalidation> invalidations = new ArrayList<>();
+    for (Cache cache : clearedCaches) {
+      invalidations.add(CacheInvalidation.namespace(cache.getId()));
+    }
+    if (!invalidatedTables.isEmpty() || !writerCaches.isEmpty()) {
+      List<String> writerCacheIds = new ArrayList<>();
+      for (Cache cache : writerCaches) {
+        writerCacheIds.add(cache.getId());
+      }
+      invalidations.add(CacheInvalidation.tables(invalidatedTables, writerCacheIds));
+    }
+    if (!invalidations.isEmpty()) {
+      invalidationBus.publish(invalidations);
+    }
+  }
+
+  private void resetInvalidations() {
+    invalidatedTables.clear();
+    writerCaches.clear();
+    clearedCaches.clear();
   }
 
   private TransactionalCache getTransactionalCache(Cache cache) {
-    return MapUtil.computeIfAbsent(transactionalCaches, cache, TransactionalCache::new);
+    return MapUtil.computeIfAbsent(transactionalCaches, cache, k -> new TransactionalCache(k, dependencyIndex));
   }
 
 }
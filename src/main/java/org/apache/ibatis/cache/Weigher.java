@@ -0,0 +1,40 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+/**
+ * SPI used by {@link org.apache.ibatis.cache.decorators.WeightedCache} to tell how much memory a cache entry takes, so
+ * that a cache can be bounded by bytes instead of by number of entries.
+ * <p>
+ * A weight is only compared with other weights and with the configured budgets, it does not need to be exact but should
+ * grow with the real footprint of the entry. Implementations must be thread safe and provide a public no-arg
+ * constructor.
+ *
+ * @since 3.5.11
+ * @see org.apache.ibatis.cache.weigher.EstimatingWeigher
+ */
+public interface Weigher {
+
+  /**
+   * @param key
+   *          the key of the entry
+   * @param value
+   *          the value of the entry, may be {@code null}
+   * @return the weight of the entry in bytes, never negative
+   */
+  long weigh(Object key, Object value);
+
+}
@@ -0,0 +1,223 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.codec;
+
+import java.util.Arrays;
+
+import org.apache.ibatis.cache.CacheException;
+
+/**
+ * Fast LZ77 block compressor for serialized cache entries, written in plain Java.
+ * <p>
+ * The format follows the LZ4 block format: a sequence is a token byte holding the number of literals and the length
+ * of the match that follows them, the literals, the offset of the match on two bytes and the extra length bytes. It
+ * favors speed over ratio with a single probe of a hash table per position and a step that grows on incompressible
+ * data, which suits the repeated class names, strings and enum names of serialized result lists. The uncompressed
+ * length is not part of the block and must be kept by the caller.
+ *
+ * @since 3.5.11
+ */
+public final class BlockCompressor {
+
+  private static final int MIN_MATCH = 4;
+  private static final int LAST_LITERALS = 5;
+  private static final int MATCH_FIND_LIMIT = 12;
+  private static final int MAX_DISTANCE = 65535;
+  private static final int HASH_LOG = 12;
+  private static final int SKIP_TRIGGER = 6;
+
+  private static final ThreadLocal<int[]> HASH_TABLES = ThreadLocal.withInitial(() -> new int[1 << HASH_LOG]);
+
+  private BlockCompressor() {
+    // Prevent Instantiation of Static Class
+  }
+
+  /**
+   * @param length
+   *          the length of the data to compress
+   * @return the maximum length of the compressed block
+   */
+  public static int maxCompressedLength(int length) {
+    return length + length / 255 + 16;
+  }
+
+  /**
+   * Compresses data.
+   *
+   * @param src
+   *          the data
+   * @return the compressed block, longer than the data when it cannot be compressed
+   */
+  public static byte[] compress(byte[] src) {
+    byte[] dest = new byte[maxCompressedLength(src.length)];
+    int length = compress(src, dest);
+    return Arrays.copyOf(dest, length);
+  }
+
+  private static int compress(byte[] src, byte[] dest) {
+    int srcEnd = src.length;
+    int anchor = 0;
+    int dp = 0;
+    if (srcEnd >= MATCH_FIND_LIMIT) {
+      int[] table = HASH_TABLES.get();
+      Arrays.fill(table, 0);
+      int matchLimit = srcEnd - LAST_LITERALS;
+      int findLimit = srcEnd - MATCH_FIND_LIMIT;
+      int sp = 1;
+      while (sp < findLimit) {
+        int sequence = readInt(src, sp);
+        int h = hash(sequence);
+        int ref = table[h];
+        table[h] = sp;
+        if (sp - ref > MAX_DISTANCE || readInt(src, ref) != sequence) {
+          // skip faster over data that does not compress
+          sp += 1 + ((sp - anchor) >>> SKIP_TRIGGER);
+          continue;
+        }
+        while (sp > anchor && ref > 0 && src[sp - 1] == src[ref - 1]) {
+          sp--;
+          ref--;
+        }
+        int matchLength = MIN_MATCH;
+        while (sp + matchLength < matchLimit && src[sp + matchLength] == src[ref + matchLength]) {
+          matchLength++;
+        }
+        dp = writeSequence(src, anchor, sp - anchor, dest, dp, sp - ref, matchLength);
+        sp += matchLength;
+        anchor = sp;
+        if (sp < findLimit) {
+          table[hash(readInt(src, sp - 2))] = sp - 2;
+        }
+      }
+    }
+    // the block ends with literals only
+    int literals = srcEnd - anchor;
+    int tokenPos = dp++;
+    dp = writeLiteralLength(dest, tokenPos, dp, literals);
+    System.arraycopy(src, anchor, dest, dp, literals);
+    return dp + literals;
+  }
+
+  /**
+   * Decompresses a block.
+   *
+   * @param src
+   *          the compressed block
+   * @param length
+   *          the length of the uncompressed data
+   * @return the data
+   * @throws CacheException
+   *           if the block is corrupted
+   */
+  public static byte[] decompress(byte[] src, int length) {
+    byte[] dest = new byte[length];
+    int sp = 0;
+    int dp = 0;
+    try {
+      while (true) {
+        int token = src[sp++] & 0xFF;
+        int literals = token >>> 4;
+        if (literals == 15) {
+          int b;
+          do {
+            b = src[sp++] & 0xFF;
+            literals += b;
+          } while (b == 255);
+        }
+        System.arraycopy(src, sp, dest, dp, literals);
+        sp += literals;
+        dp += literals;
+        if (sp == src.length) {
+          break;
+        }
+        int offset = (src[sp++] & 0xFF) | (src[sp++] & 0xFF) << 8;
+        int matchLength = token & 0x0F;
+        if (matchLength == 15) {
+          int b;
+          do {
+            b = src[sp++] & 0xFF;
+            matchLength += b;
+          } while (b == 255);
+        }
+        matchLength += MIN_MATCH;
+        int ref = dp - offset;
+        if (offset == 0 || ref < 0) {
+          throw new CacheException("Corrupted compressed block: invalid offset " + offset + " at " + sp);
+        }
+        if (offset >= matchLength) {
+          System.arraycopy(dest, ref, dest, dp, matchLength);
+        } else {
+          // the match overlaps the bytes it produces
+          for (int i = 0; i < matchLength; i++) {
+            dest[dp + i] = dest[ref + i];
+          }
+        }
+        dp += matchLength;
+      }
+    } catch (IndexOutOfBoundsException e) {
+      throw new CacheException("Corrupted compressed block. Cause: " + e, e);
+    }
+    if (dp != length) {
+      throw new CacheException("Corrupted compressed block: " + dp + " bytes decompressed, " + length + " expected");
+    }
+    return dest;
+  }
+
+  private static int writeSequence(byte[] src, int anchor, int literals, byte[] dest, int dp, int offset,
+      int matchLength) {
+    int tokenPos = dp++;
+    dp = writeLiteralLength(dest, tokenPos, dp, literals);
+    System.arraycopy(src, anchor, dest, dp, literals);
+    dp += literals;
+    dest[dp++] = (byte) offset;
+    dest[dp++] = (byte) (offset >>> 8);
+    int extra = matchLength - MIN_MATCH;
+    if (extra >= 15) {
+      dest[tokenPos] |= 15;
+      dp = writeLength(dest, dp, extra - 15);
+    } else {
+      dest[tokenPos] |= (byte) extra;
+    }
+    return dp;
+  }
+
+  private static int writeLiteralLength(byte[] dest, int tokenPos, int dp, int literals) {
+    if (literals >= 15) {
+      dest[tokenPos] = (byte) (15 << 4);
+      return writeLength(dest, dp, literals - 15);
+    }
+    dest[tokenPos] = (byte) (literals << 4);
+    return dp;
+  }
+
+  private static int writeLength(byte[] dest, int dp, int length) {
+    while (length >= 255) {
+      dest[dp++] = (byte) 255;
+      length -= 255;
+    }
+    dest[dp++] = (byte) length;
+    return dp;
+  }
+
+  private static int readInt(byte[] src, int i) {
+    return (src[i] & 0xFF) | (src[i + 1] & 0xFF) << 8 | (src[i + 2] & 0xFF) << 16 | (src[i + 3] & 0xFF) << 24;
+  }
+
+  private static int hash(int sequence) {
+    return (sequence * -1640531535) >>> (32 - HASH_LOG);
+  }
+
+}
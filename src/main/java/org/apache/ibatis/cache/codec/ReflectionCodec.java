@@ -0,0 +1,635 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.ibatis.cache.CacheCodec;
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.io.SerialFilterChecker;
+import org.apache.ibatis.reflection.DefaultReflectorFactory;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.util.MapUtil;
+
+/**
+ * Codec that copies result objects field by field using a plan computed once per class.
+ * <p>
+ * Strings, boxed primitives, big numbers, dates, the common {@code java.time} types, enums, object arrays, the common
+ * {@code java.util} lists, sets and maps and plain serializable beans are written without stream headers or class
+ * descriptors; a class name is written once per entry at most. Shared references and cycles are preserved. A bean is eligible when {@link Reflector} finds a
+ * default constructor and neither the bean nor its serializable superclasses customize serialization (e.g. declare
+ * {@code writeObject} or {@code writeReplace}, like lazy loading proxies do) or declare final instance fields. Its
+ * non-static, non-transient fields are copied, following the same rules as Java serialization except that the default
+ * constructor of the bean itself is invoked on decode.
+ * <p>
+ * Any other object is delegated to {@link JavaSerializationCodec}, so non-serializable objects are rejected. On decode,
+ * every class named in the data is passed to the JEP-290 serial filter before it is instantiated, and only the list,
+ * set and map types above are accepted as collections.
+ */
+public class ReflectionCodec implements CacheCodec {
+
+  private static final byte NULL = 0;
+  private static final byte REFERENCE = 1;
+  private static final byte STRING = 2;
+  private static final byte INTEGER = 3;
+  private static final byte LONG = 4;
+  private static final byte SHORT = 5;
+  private static final byte BYTE = 6;
+  private static final byte BOOLEAN = 7;
+  private static final byte CHARACTER = 8;
+  private static final byte FLOAT = 9;
+  private static final byte DOUBLE = 10;
+  private static final byte BIG_DECIMAL = 11;
+  private static final byte BIG_INTEGER = 12;
+  private static final byte DATE = 13;
+  private static final byte SQL_DATE = 14;
+  private static final byte SQL_TIME = 15;
+  private static final byte SQL_TIMESTAMP = 16;
+  private static final byte ENUM = 17;
+  private static final byte BYTE_ARRAY = 18;
+  private static final byte OBJECT_ARRAY = 19;
+  private static final byte COLLECTION = 20;
+  private static final byte MAP = 21;
+  private static final byte BEAN = 22;
+  private static final byte SERIALIZED = 23;
+  private static final byte LOCAL_DATE = 24;
+  private static final byte LOCAL_TIME = 25;
+  private static final byte LOCAL_DATE_TIME = 26;
+  private static final byte INSTANT = 27;
+  private static final byte OFFSET_DATE_TIME = 28;
+  private static final byte OFFSET_TIME = 29;
+  private static final byte ZONED_DATE_TIME = 30;
+  private static final byte DURATION = 31;
+
+  private static final int NEW_CLASS = -1;
+
+  private final ReflectorFactory reflectorFactory = new DefaultReflectorFactory();
+  private final ConcurrentMap<Class<?>, Optional<BeanPlan>> plans = new ConcurrentHashMap<>();
+  // the process-wide serial filter cannot be replaced once set, so a class it admitted stays admitted
+  private final Set<Class<?>> admittedClasses = ConcurrentHashMap.newKeySet();
+  private final JavaSerializationCodec fallback = new JavaSerializationCodec();
+
+  @Override
+  public byte[] encode(Object value) {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream(256);
+    try (DataOutputStream out = new DataOutputStream(bos)) {
+      new Encoder(out).writeValue(value);
+    } catch (CacheException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new CacheException("Error serializing object.  Cause: " + e, e);
+    }
+    return bos.toByteArray();
+  }
+
+  @Override
+  public Object decode(byte[] data) {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+      return new Decoder(in).readValue();
+    } catch (CacheException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new CacheException("Error deserializing object.  Cause: " + e, e);
+    }
+  }
+
+  private Optional<BeanPlan> planFor(Class<?> type) {
+    return MapUtil.computeIfAbsent(plans, type, this::createPlan);
+  }
+
+  private Optional<BeanPlan> createPlan(Class<?> type) {
+    if (!Serializable.class.isAssignableFrom(type) || Externalizable.class.isAssignableFrom(type)
+        || Proxy.isProxyClass(type) || type.isArray() || !Reflector.canControlMemberAccessible()) {
+      return Optional.empty();
+    }
+    Reflector reflector = reflectorFactory.findForClass(type);
+    if (!reflector.hasDefaultConstructor()) {
+      return Optional.empty();
+    }
+    try {
+      List<Field> fields = new ArrayList<>();
+      for (Class<?> c = type; c != null && Serializable.class.isAssignableFrom(c); c = c.getSuperclass()) {
+        if (customizesSerialization(c)) {
+          return Optional.empty();
+        }
+        for (Field field : c.getDeclaredFields()) {
+          int modifiers = field.getModifiers();
+          if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)) {
+            continue;
+          }
+          if (Modifier.isFinal(modifiers)) {
+            return Optional.empty();
+          }
+          field.setAccessible(true);
+          fields.add(field);
+        }
+      }
+      Constructor<?> constructor = reflector.getDefaultConstructor();
+      constructor.setAccessible(true);
+      return Optional.of(new BeanPlan(constructor, fields.toArray(new Field[0])));
+    } catch (RuntimeException e) {
+      // e.g. members of a module that is not open to MyBatis
+      return Optional.empty();
+    }
+  }
+
+  private static boolean customizesSerialization(Class<?> type) {
+    for (Method method : type.getDeclaredMethods()) {
+      switch (method.getName()) {
+        case "writeObject":
+        case "readObject":
+        case "readObjectNoData":
+        case "writeReplace":
+        case "readResolve":
+          return true;
+        default:
+          break;
+      }
+    }
+    try {
+      type.getDeclaredField("serialPersistentFields");
+      return true;
+    } catch (NoSuchFieldException e) {
+      return false;
+    }
+  }
+
+  private static boolean isPlainCollection(Class<?> type, Object value) {
+    return type == ArrayList.class || type == LinkedList.class || type == HashSet.class
+        || type == LinkedHashSet.class || type == TreeSet.class && ((TreeSet<?>) value).comparator() == null;
+  }
+
+  private static boolean isPlainMap(Class<?> type, Object value) {
+    return type == HashMap.class || type == LinkedHashMap.class
+        || type == TreeMap.class && ((TreeMap<?, ?>) value).comparator() == null;
+  }
+
+  private static final class BeanPlan {
+    private final Constructor<?> constructor;
+    private final Field[] fields;
+
+    BeanPlan(Constructor<?> constructor, Field[] fields) {
+      this.constructor = constructor;
+      this.fields = fields;
+    }
+  }
+
+  private final class Encoder {
+    private final DataOutputStream out;
+    private final Map<Object, Integer> references = new IdentityHashMap<>();
+    private final Map<Class<?>, Integer> classes = new HashMap<>();
+
+    Encoder(DataOutputStream out) {
+      this.out = out;
+    }
+
+    void writeValue(Object value) throws Exception {
+      if (value == null) {
+        out.writeByte(NULL);
+        return;
+      }
+      Class<?> type = value.getClass();
+      if (type == String.class) {
+        out.writeByte(STRING);
+        writeString((String) value);
+      } else if (type == Integer.class) {
+        out.writeByte(INTEGER);
+        out.writeInt((Integer) value);
+      } else if (type == Long.class) {
+        out.writeByte(LONG);
+        out.writeLong((Long) value);
+      } else if (type == Short.class) {
+        out.writeByte(SHORT);
+        out.writeShort((Short) value);
+      } else if (type == Byte.class) {
+        out.writeByte(BYTE);
+        out.writeByte((Byte) value);
+      } else if (type == Boolean.class) {
+        out.writeByte(BOOLEAN);
+        out.writeBoolean((Boolean) value);
+      } else if (type == Character.class) {
+        out.writeByte(CHARACTER);
+        out.writeChar((Character) value);
+      } else if (type == Float.class) {
+        out.writeByte(FLOAT);
+        out.writeFloat((Float) value);
+      } else if (type == Double.class) {
+        out.writeByte(DOUBLE);
+        out.writeDouble((Double) value);
+      } else if (type == BigDecimal.class) {
+        out.writeByte(BIG_DECIMAL);
+        writeBytes(((BigDecimal) value).unscaledValue().toByteArray());
+        out.writeInt(((BigDecimal) value).scale());
+      } else if (type == BigInteger.class) {
+        out.writeByte(BIG_INTEGER);
+        writeBytes(((BigInteger) value).toByteArray());
+      } else if (type == Date.class) {
+        out.writeByte(DATE);
+        out.writeLong(((Date) value).getTime());
+      } else if (type == java.sql.Date.class) {
+        out.writeByte(SQL_DATE);
+        out.writeLong(((Date) value).getTime());
+      } else if (type == Time.class) {
+        out.writeByte(SQL_TIME);
+        out.writeLong(((Date) value).getTime());
+      } else if (type == Timestamp.class) {
+        out.writeByte(SQL_TIMESTAMP);
+        out.writeLong(((Timestamp) value).getTime());
+        out.writeInt(((Timestamp) value).getNanos());
+      } else if (type == LocalDate.class) {
+        out.writeByte(LOCAL_DATE);
+        out.writeLong(((LocalDate) value).toEpochDay());
+      } else if (type == LocalTime.class) {
+        out.writeByte(LOCAL_TIME);
+        out.writeLong(((LocalTime) value).toNanoOfDay());
+      } else if (type == LocalDateTime.class) {
+        out.writeByte(LOCAL_DATE_TIME);
+        writeLocalDateTime((LocalDateTime) value);
+      } else if (type == Instant.class) {
+        out.writeByte(INSTANT);
+        out.writeLong(((Instant) value).getEpochSecond());
+        out.writeInt(((Instant) value).getNano());
+      } else if (type == OffsetDateTime.class) {
+        out.writeByte(OFFSET_DATE_TIME);
+        writeLocalDateTime(((OffsetDateTime) value).toLocalDateTime());
+        out.writeInt(((OffsetDateTime) value).getOffset().getTotalSeconds());
+      } else if (type == OffsetTime.class) {
+        out.writeByte(OFFSET_TIME);
+        out.writeLong(((OffsetTime) value).toLocalTime().toNanoOfDay());
+        out.writeInt(((OffsetTime) value).getOffset().getTotalSeconds());
+      } else if (type == ZonedDateTime.class) {
+        out.writeByte(ZONED_DATE_TIME);
+        writeLocalDateTime(((ZonedDateTime) value).toLocalDateTime());
+        out.writeInt(((ZonedDateTime) value).getOffset().getTotalSeconds());
+        writeString(((ZonedDateTime) value).getZone().getId());
+      } else if (type == Duration.class) {
+        out.writeByte(DURATION);
+        out.writeLong(((Duration) value).getSeconds());
+        out.writeInt(((Duration) value).getNano());
+      } else if (value instanceof Enum) {
+        out.writeByte(ENUM);
+        writeClass(((Enum<?>) value).getDeclaringClass());
+        writeString(((Enum<?>) value).name());
+      } else {
+        writeReferenceable(type, value);
+      }
+    }
+
+    private void writeReferenceable(Class<?> type, Object value) throws Exception {
+      Integer reference = references.get(value);
+      if (reference != null) {
+        out.writeByte(REFERENCE);
+        out.writeInt(reference);
+        return;
+      }
+      Optional<BeanPlan> plan;
+      if (type == byte[].class) {
+        references.put(value, references.size());
+        out.writeByte(BYTE_ARRAY);
+        writeBytes((byte[]) value);
+      } else if (type.isArray() && !type.getComponentType().isPrimitive()) {
+        references.put(value, references.size());
+        Object[] array = (Object[]) value;
+        out.writeByte(OBJECT_ARRAY);
+        writeClass(type.getComponentType());
+        out.writeInt(array.length);
+        for (Object element : array) {
+          writeValue(element);
+        }
+      } else if (isPlainCollection(type, value)) {
+        references.put(value, references.size());
+        Collection<?> collection = (Collection<?>) value;
+        out.writeByte(COLLECTION);
+        writeClass(type);
+        out.writeInt(collection.size());
+        for (Object element : collection) {
+          writeValue(element);
+        }
+      } else if (isPlainMap(type, value)) {
+        references.put(value, references.size());
+        Map<?, ?> map = (Map<?, ?>) value;
+        out.writeByte(MAP);
+        writeClass(type);
+        out.writeInt(map.size());
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+          writeValue(entry.getKey());
+          writeValue(entry.getValue());
+        }
+      } else if ((plan = planFor(type)).isPresent()) {
+        references.put(value, references.size());
+        out.writeByte(BEAN);
+        writeClass(type);
+        for (Field field : plan.get().fields) {
+          writeField(field, value);
+        }
+      } else {
+        out.writeByte(SERIALIZED);
+        writeBytes(fallback.encode(value));
+      }
+    }
+
+    private void writeField(Field field, Object target) throws Exception {
+      Class<?> type = field.getType();
+      if (!type.isPrimitive()) {
+        writeValue(field.get(target));
+      } else if (type == int.class) {
+        out.writeInt(field.getInt(target));
+      } else if (type == long.class) {
+        out.writeLong(field.getLong(target));
+      } else if (type == boolean.class) {
+        out.writeBoolean(field.getBoolean(target));
+      } else if (type == double.class) {
+        out.writeDouble(field.getDouble(target));
+      } else if (type == float.class) {
+        out.writeFloat(field.getFloat(target));
+      } else if (type == short.class) {
+        out.writeShort(field.getShort(target));
+      } else if (type == byte.class) {
+        out.writeByte(field.getByte(target));
+      } else {
+        out.writeChar(field.getChar(target));
+      }
+    }
+
+    private void writeLocalDateTime(LocalDateTime value) throws IOException {
+      out.writeLong(value.toLocalDate().toEpochDay());
+      out.writeLong(value.toLocalTime().toNanoOfDay());
+    }
+
+    private void writeClass(Class<?> type) throws IOException {
+      Integer id = classes.get(type);
+      if (id == null) {
+        classes.put(type, classes.size());
+        out.writeInt(NEW_CLASS);
+        writeString(type.getName());
+      } else {
+        out.writeInt(id);
+      }
+    }
+
+    private void writeString(String value) throws IOException {
+      writeBytes(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  private final class Decoder {
+    private final DataInputStream in;
+    private final List<Object> references = new ArrayList<>();
+    private final List<Class<?>> classes = new ArrayList<>();
+
+    Decoder(DataInputStream in) {
+      this.in = in;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    Object readValue() throws Exception {
+      byte tag = in.readByte();
+      switch (tag) {
+        case NULL:
+          return null;
+        case REFERENCE:
+          return references.get(in.readInt());
+        case STRING:
+          return readString();
+        case INTEGER:
+          return in.readInt();
+        case LONG:
+          return in.readLong();
+        case SHORT:
+          return in.readShort();
+        case BYTE:
+          return in.readByte();
+        case BOOLEAN:
+          return in.readBoolean();
+        case CHARACTER:
+          return in.readChar();
+        case FLOAT:
+          return in.readFloat();
+        case DOUBLE:
+          return in.readDouble();
+        case BIG_DECIMAL:
+          return new BigDecimal(new BigInteger(readBytes()), in.readInt());
+        case BIG_INTEGER:
+          return new BigInteger(readBytes());
+        case DATE:
+          return new Date(in.readLong());
+        case SQL_DATE:
+          return new java.sql.Date(in.readLong());
+        case SQL_TIME:
+          return new Time(in.readLong());
+        case SQL_TIMESTAMP:
+          Timestamp timestamp = new Timestamp(in.readLong());
+          timestamp.setNanos(in.readInt());
+          return timestamp;
+        case LOCAL_DATE:
+          return LocalDate.ofEpochDay(in.readLong());
+        case LOCAL_TIME:
+          return LocalTime.ofNanoOfDay(in.readLong());
+        case LOCAL_DATE_TIME:
+          return readLocalDateTime();
+        case INSTANT:
+          return Instant.ofEpochSecond(in.readLong(), in.readInt());
+        case OFFSET_DATE_TIME:
+          return OffsetDateTime.of(readLocalDateTime(), ZoneOffset.ofTotalSeconds(in.readInt()));
+        case OFFSET_TIME:
+          return OffsetTime.of(LocalTime.ofNanoOfDay(in.readLong()), ZoneOffset.ofTotalSeconds(in.readInt()));
+        case ZONED_DATE_TIME:
+          LocalDateTime dateTime = readLocalDateTime();
+          ZoneOffset offset = ZoneOffset.ofTotalSeconds(in.readInt());
+          return ZonedDateTime.ofLocal(dateTime, ZoneId.of(readString()), offset);
+        case DURATION:
+          return Duration.ofSeconds(in.readLong(), in.readInt());
+        case ENUM:
+          return Enum.valueOf((Class<Enum>) readClass(), readString());
+        case BYTE_ARRAY:
+          byte[] bytes = readBytes();
+          references.add(bytes);
+          return bytes;
+        case OBJECT_ARRAY:
+          return readArray();
+        case COLLECTION:
+          return readCollection();
+        case MAP:
+          return readMap();
+        case BEAN:
+          return readBean();
+        case SERIALIZED:
+          return fallback.decode(readBytes());
+        default:
+          throw new CacheException("Error deserializing object.  Cause: unknown tag " + tag);
+      }
+    }
+
+    private Object readArray() throws Exception {
+      Class<?> componentType = readClass();
+      int length = in.readInt();
+      Object[] array = (Object[]) Array.newInstance(componentType, length);
+      references.add(array);
+      for (int i = 0; i < length; i++) {
+        array[i] = readValue();
+      }
+      return array;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object readCollection() throws Exception {
+      Class<?> type = readClass();
+      if (type != ArrayList.class && type != LinkedList.class && type != HashSet.class && type != LinkedHashSet.class
+          && type != TreeSet.class) {
+        throw new CacheException("Error deserializing object.  Cause: unexpected collection " + type);
+      }
+      int size = in.readInt();
+      Collection<Object> collection = type == ArrayList.class ? new ArrayList<>(size)
+          : (Collection<Object>) type.getDeclaredConstructor().newInstance();
+      references.add(collection);
+      for (int i = 0; i < size; i++) {
+        collection.add(readValue());
+      }
+      return collection;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object readMap() throws Exception {
+      Class<?> type = readClass();
+      if (type != HashMap.class && type != LinkedHashMap.class && type != TreeMap.class) {
+        throw new CacheException("Error deserializing object.  Cause: unexpected map " + type);
+      }
+      int size = in.readInt();
+      Map<Object, Object> map = (Map<Object, Object>) type.getDeclaredConstructor().newInstance();
+      references.add(map);
+      for (int i = 0; i < size; i++) {
+        Object key = readValue();
+        map.put(key, readValue());
+      }
+      return map;
+    }
+
+    private Object readBean() throws Exception {
+      Class<?> type = readClass();
+      BeanPlan plan = planFor(type)
+          .orElseThrow(() -> new CacheException("Error deserializing object.  Cause: no plan for " + type));
+      Object bean = plan.constructor.newInstance();
+      references.add(bean);
+      for (Field field : plan.fields) {
+        readField(field, bean);
+      }
+      return bean;
+    }
+
+    private void readField(Field field, Object target) throws Exception {
+      Class<?> type = field.getType();
+      if (!type.isPrimitive()) {
+        field.set(target, readValue());
+      } else if (type == int.class) {
+        field.setInt(target, in.readInt());
+      } else if (type == long.class) {
+        field.setLong(target, in.readLong());
+      } else if (type == boolean.class) {
+        field.setBoolean(target, in.readBoolean());
+      } else if (type == double.class) {
+        field.setDouble(target, in.readDouble());
+      } else if (type == float.class) {
+        field.setFloat(target, in.readFloat());
+      } else if (type == short.class) {
+        field.setShort(target, in.readShort());
+      } else if (type == byte.class) {
+        field.setByte(target, in.readByte());
+      } else {
+        field.setChar(target, in.readChar());
+      }
+    }
+
+    private LocalDateTime readLocalDateTime() throws IOException {
+      LocalDate date = LocalDate.ofEpochDay(in.readLong());
+      return LocalDateTime.of(date, LocalTime.ofNanoOfDay(in.readLong()));
+    }
+
+    private Class<?> readClass() throws Exception {
+      int id = in.readInt();
+      if (id != NEW_CLASS) {
+        return classes.get(id);
+      }
+      Class<?> type = Resources.classForName(readString());
+      if (!admittedClasses.contains(type) && SerialFilterChecker.checkClass(type)) {
+        admittedClasses.add(type);
+      }
+      classes.add(type);
+      return type;
+    }
+
+    private String readString() throws IOException {
+      return new String(readBytes(), StandardCharsets.UTF_8);
+    }
+
+    private byte[] readBytes() throws IOException {
+      byte[] bytes = new byte[in.readInt()];
+      in.readFully(bytes);
+      return bytes;
+    }
+  }
+
+}
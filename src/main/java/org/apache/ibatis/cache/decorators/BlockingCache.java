@@ -15,12 +15,20 @@
  */
 package org.apache.ibatis.cache.decorators;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheCodec;
 import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.CacheStatistics;
 
 /**
  * <p>Simple blocking decorator
@@ -31,18 +39,30 @@ import org.apache.ibatis.cache.CacheException;
  *
  * <p>By its nature, this implementation can cause deadlock when used incorrectly.
  *
+ * <p>In single flight mode the first reader of a missing key becomes the loader of that key and the readers that come
+ * after it wait for its outcome instead of re-reading the cache: they receive the loaded value (a copy of it when a
+ * codec is set), or the loader's failure. When the loader gives up without a value (e.g. its session was rolled back)
+ * the longest waiting reader takes over the load. Without a write pending in its session the loader hands its result
+ * over as soon as it is read, it does not wait for the commit.
+ *
  * @author Eduardo Macarron
  *
  */
 public class BlockingCache implements Cache {
 
   private long timeout;
+  private boolean singleFlight;
+  private CacheCodec codec;
   private final Cache delegate;
   private final ConcurrentHashMap<Object, CountDownLatch> locks;
+  private final ConcurrentHashMap<Object, Flight> flights;
+  private final AtomicInteger waitingCount = new AtomicInteger();
+  private final AtomicLong timedOutCount = new AtomicLong();
 
   public BlockingCache(Cache delegate) {
     this.delegate = delegate;
     this.locks = new ConcurrentHashMap<>();
+    this.flights = new ConcurrentHashMap<>();
   }
 
   @Override
@@ -55,17 +75,29 @@ public class BlockingCache implements Cache {
     return delegate.getSize();
   }
 
+  @Override
+  public CacheStatistics getStatistics() {
+    return delegate.getStatistics();
+  }
+
   @Override
   public void putObject(Object key, Object value) {
     try {
       delegate.putObject(key, value);
     } finally {
-      releaseLock(key);
+      if (singleFlight) {
+        land(key, value);
+      } else {
+        releaseLock(key);
+      }
     }
   }
 
   @Override
   public Object getObject(Object key) {
+    if (singleFlight) {
+      return getOrJoinFlight(key);
+    }
     acquireLock(key);
     Object value = delegate.getObject(key);
     if (value != null) {
@@ -77,7 +109,11 @@ public class BlockingCache implements Cache {
   @Override
   public Object removeObject(Object key) {
     // despite its name, this method is called only to release locks
-    releaseLock(key);
+    if (singleFlight) {
+      land(key, null);
+    } else {
+      releaseLock(key);
+    }
     return null;
   }
 
@@ -86,6 +122,168 @@ public class BlockingCache implements Cache {
     delegate.clear();
   }
 
+  /**
+   * Hands the value loaded for a key over to the readers waiting for it, before it is stored in the cache. Does nothing
+   * unless in single flight mode.
+   *
+   * @param key
+   *          the key the caller got a miss for
+   * @param value
+   *          the loaded value
+   * @since 3.5.11
+   */
+  public void handOff(Object key, Object value) {
+    Flight flight = singleFlight && value != null ? flights.get(key) : null;
+    if (flight != null) {
+      flight.succeed(copyable(value));
+    }
+  }
+
+  /**
+   * Reports that loading the value of a key failed. Waiting readers get the failure in single flight mode, the lock is
+   * released otherwise.
+   *
+   * @param key
+   *          the key the caller got a miss for
+   * @param cause
+   *          the failure
+   * @since 3.5.11
+   */
+  public void fail(Object key, Throwable cause) {
+    if (!singleFlight) {
+      releaseLock(key);
+      return;
+    }
+    Flight flight = flights.get(key);
+    if (flight != null) {
+      flights.remove(key, flight);
+      flight.fail(cause);
+    }
+  }
+
+  private Object getOrJoinFlight(Object key) {
+    Object value = delegate.getObject(key);
+    if (value != null) {
+      return value;
+    }
+    long deadline = timeout > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout) : 0;
+    Waiter waiter = null;
+    while (true) {
+      Flight flight = flights.get(key);
+      if (flight == null) {
+        Flight newFlight = new Flight();
+        if (flights.putIfAbsent(key, newFlight) == null) {
+          return leadFlight(key, newFlight);
+        }
+        continue;
+      }
+      if (waiter == null) {
+        waiter = new Waiter();
+      }
+      Outcome outcome = awaitOutcome(key, flight, waiter, deadline);
+      if (outcome.failure != null) {
+        throw new CacheException("Loading " + key + " for cache " + getId() + " failed in another session.",
+            outcome.failure);
+      }
+      if (outcome.successor == waiter) {
+        return null;
+      }
+      if (outcome.value != null) {
+        return copy(outcome.value);
+      }
+    }
+  }
+
+  private Object leadFlight(Object key, Flight flight) {
+    // the previous loader may have stored the value between our first look up and the creation of the flight
+    Object value = delegate.getObject(key);
+    if (value != null) {
+      land(key, value);
+    }
+    return value;
+  }
+
+  private Outcome awaitOutcome(Object key, Flight flight, Waiter waiter, long deadline) {
+    flight.lock.lock();
+    try {
+      if (flight.outcome != null) {
+        // finished flights stay registered until their loader commits, late readers just take the value
+        return flight.outcome;
+      }
+      if (!flight.waiters.contains(waiter)) {
+        // readers queued on an abandoned flight have been moved to the next one in order
+        flight.waiters.addLast(waiter);
+      }
+      waitingCount.incrementAndGet();
+      try {
+        while (flight.outcome == null) {
+          long remaining = deadline == 0 ? 0 : deadline - System.nanoTime();
+          if (deadline != 0 && remaining <= 0) {
+            flight.waiters.remove(waiter);
+            timedOutCount.incrementAndGet();
+            throw new CacheException(
+                "Couldn't get a lock in " + timeout + " for the key " + key + " at the cache " + delegate.getId());
+          }
+          try {
+            if (deadline == 0) {
+              flight.completed.await();
+            } else {
+              flight.completed.awaitNanos(remaining);
+            }
+          } catch (InterruptedException e) {
+            flight.waiters.remove(waiter);
+            Thread.currentThread().interrupt();
+            throw new CacheException("Got interrupted while trying to acquire lock for key " + key, e);
+          }
+        }
+        return flight.outcome;
+      } finally {
+        waitingCount.decrementAndGet();
+      }
+    } finally {
+      flight.lock.unlock();
+    }
+  }
+
+  private void land(Object key, Object value) {
+    Flight flight = flights.get(key);
+    if (flight == null) {
+      return;
+    }
+    if (value != null) {
+      flights.remove(key, flight);
+      flight.succeed(copyable(value));
+      return;
+    }
+    flight.lock.lock();
+    try {
+      if (flight.outcome == null && !flight.waiters.isEmpty()) {
+        // the longest waiting reader becomes the loader, the others wait for it
+        Waiter successor = flight.waiters.pollFirst();
+        Flight next = new Flight();
+        next.waiters.addAll(flight.waiters);
+        flight.waiters.clear();
+        flights.replace(key, flight, next);
+        flight.complete(new Outcome(null, null, successor));
+      } else {
+        flights.remove(key, flight);
+        if (flight.outcome == null) {
+          flight.complete(new Outcome(null, null, null));
+        }
+      }
+    } finally {
+      flight.lock.unlock();
+    }
+  }
+
+  private Object copyable(Object value) {
+    return codec == null ? value : codec.encode(value);
+  }
+
+  private Object copy(Object value) {
+    return codec == null ? value : codec.decode((byte[]) value);
+  }
+
   private void acquireLock(Object key) {
     CountDownLatch newLatch = new CountDownLatch(1);
     while (true) {
@@ -93,10 +291,12 @@ public class BlockingCache implements Cache {
       if (latch == null) {
         break;
       }
+      waitingCount.incrementAndGet();
       try {
         if (timeout > 0) {
           boolean acquired = latch.await(timeout, TimeUnit.MILLISECONDS);
           if (!acquired) {
+            timedOutCount.incrementAndGet();
             throw new CacheException(
                 "Couldn't get a lock in " + timeout + " for the key " + key + " at the cache " + delegate.getId());
           }
@@ -105,6 +305,8 @@ public class BlockingCache implements Cache {
         }
       } catch (InterruptedException e) {
         throw new CacheException("Got interrupted while trying to acquire lock for key " + key, e);
+      } finally {
+        waitingCount.decrementAndGet();
       }
     }
   }
@@ -124,4 +326,111 @@ public class BlockingCache implements Cache {
   public void setTimeout(long timeout) {
     this.timeout = timeout;
   }
+
+  public boolean isSingleFlight() {
+    return singleFlight;
+  }
+
+  public void setSingleFlight(boolean singleFlight) {
+    this.singleFlight = singleFlight;
+  }
+
+  /**
+   * Sets the codec used to give each waiting reader its own copy of a loaded value, in single flight mode.
+   *
+   * @param codec
+   *          the codec, {@code null} to share the loaded instance
+   * @since 3.5.11
+   */
+  public void setCodec(CacheCodec codec) {
+    this.codec = codec;
+  }
+
+  /**
+   * Returns the number of keys being loaded.
+   *
+   * @return the in flight count
+   * @since 3.5.11
+   */
+  public int getInFlightCount() {
+    return singleFlight ? flights.size() : locks.size();
+  }
+
+  /**
+   * Returns the number of readers currently waiting for a key to be loaded.
+   *
+   * @return the waiting count
+   * @since 3.5.11
+   */
+  public int getWaitingCount() {
+    return waitingCount.get();
+  }
+
+  /**
+   * Returns the number of readers that gave up waiting for a key since this cache was created.
+   *
+   * @return the timed out count
+   * @since 3.5.11
+   */
+  public long getTimedOutCount() {
+    return timedOutCount.get();
+  }
+
+  private static final class Waiter {
+  }
+
+  private static final class Outcome {
+    private final Object value;
+    private final Throwable failure;
+    private final Waiter successor;
+
+    Outcome(Object value, Throwable failure, Waiter successor) {
+      this.value = value;
+      this.failure = failure;
+      this.successor = successor;
+    }
+  }
+
+  /**
+   * The load of one key. Guarded by its own lock rather than a monitor, so that virtual threads waiting for it do not
+   * pin their carrier thread.
+   */
+  private static final class Flight {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition completed = lock.newCondition();
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+    private Outcome outcome;
+
+    void succeed(Object value) {
+      lock.lock();
+      try {
+        if (outcome == null) {
+          complete(new Outcome(value, null, null));
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void fail(Throwable cause) {
+      lock.lock();
+      try {
+        if (outcome == null) {
+          complete(new Outcome(null, cause, null));
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void complete(Outcome result) {
+      lock.lock();
+      try {
+        outcome = result;
+        completed.signalAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
 }
@@ -0,0 +1,144 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheStatistics;
+import org.apache.ibatis.cache.CacheStatisticsAware;
+import org.apache.ibatis.cache.codec.BlockCompressor;
+
+/**
+ * Cache decorator that compresses serialized values.
+ * <p>
+ * It sits below a {@link SerializedCache}, so it is given the bytes of the values, and above the eviction and weight
+ * limits, so that they count the compressed size. Values smaller than {@code compressionThreshold} bytes, and values
+ * that do not get smaller, are stored as they are. Compression uses the {@link BlockCompressor} and is reported to
+ * the statistics of the cache along with the time it takes.
+ *
+ * @since 3.5.11
+ */
+public class CompressedCache implements Cache, CacheStatisticsAware {
+
+  private final Cache delegate;
+  private int compressionThreshold = 1024;
+  private CacheStatistics statistics;
+
+  public CompressedCache(Cache delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public String getId() {
+    return delegate.getId();
+  }
+
+  @Override
+  public int getSize() {
+    return delegate.getSize();
+  }
+
+  @Override
+  public void setStatistics(CacheStatistics statistics) {
+    this.statistics = statistics;
+  }
+
+  public int getCompressionThreshold() {
+    return compressionThreshold;
+  }
+
+  public void setCompressionThreshold(int compressionThreshold) {
+    this.compressionThreshold = compressionThreshold;
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    if (!(value instanceof byte[])) {
+      delegate.putObject(key, value);
+      return;
+    }
+    byte[] bytes = (byte[]) value;
+    if (bytes.length < compressionThreshold) {
+      recordCompression(bytes.length, bytes.length, 0);
+      delegate.putObject(key, bytes);
+      return;
+    }
+    long start = System.nanoTime();
+    byte[] compressed = BlockCompressor.compress(bytes);
+    long nanos = System.nanoTime() - start;
+    if (compressed.length < bytes.length) {
+      recordCompression(bytes.length, compressed.length, nanos);
+      delegate.putObject(key, new CompressedValue(compressed, bytes.length));
+    } else {
+      recordCompression(bytes.length, bytes.length, nanos);
+      delegate.putObject(key, bytes);
+    }
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    return decompress(delegate.getObject(key));
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    return decompress(delegate.removeObject(key));
+  }
+
+  @Override
+  public void clear() {
+    delegate.clear();
+  }
+
+  @Override
+  public int hashCode() {
+    return delegate.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return delegate.equals(obj);
+  }
+
+  private Object decompress(Object value) {
+    if (!(value instanceof CompressedValue)) {
+      return value;
+    }
+    CompressedValue compressedValue = (CompressedValue) value;
+    long start = System.nanoTime();
+    byte[] bytes = BlockCompressor.decompress(compressedValue.bytes, compressedValue.length);
+    if (statistics != null) {
+      statistics.recordDecompression(System.nanoTime() - start);
+    }
+    return bytes;
+  }
+
+  private void recordCompression(long inputBytes, long storedBytes, long nanos) {
+    if (statistics != null) {
+      statistics.recordCompression(inputBytes, storedBytes, nanos);
+    }
+  }
+
+  private static final class CompressedValue {
+    private final byte[] bytes;
+    private final int length;
+
+    CompressedValue(byte[] bytes, int length) {
+      this.bytes = bytes;
+      this.length = length;
+    }
+  }
+
+}
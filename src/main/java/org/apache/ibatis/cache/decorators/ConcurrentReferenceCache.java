@@ -0,0 +1,254 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheScheduler;
+import org.apache.ibatis.cache.CacheStatistics;
+import org.apache.ibatis.cache.CacheStatisticsAware;
+
+/**
+ * Base class of the natively concurrent reference cache decorators.
+ * <p>
+ * Values are held through references owned by a {@link ConcurrentHashMap} of this decorator, the delegate is only used
+ * for its id. Reads never lock: the values of the latest hits are kept strongly reachable in striped ring buffers,
+ * each thread overwriting the oldest slot of its stripe, so about {@code size} recently used values survive a
+ * collection. The entries whose values have been collected are removed by a few at a time on writes and entirely on
+ * the shared {@link CacheScheduler} timer every second, so until then they are counted by {@link #getSize()}.
+ *
+ * @since 3.5.11
+ */
+public abstract class ConcurrentReferenceCache implements Cache, CacheStatisticsAware {
+
+  private static final int STRIPES = ceilingPowerOfTwo(Math.min(64, 4 * Runtime.getRuntime().availableProcessors()));
+  private static final int MAX_CLEANUPS_PER_WRITE = 16;
+  private static final long CLEANUP_PERIOD_MILLIS = 1000;
+
+  private final Cache delegate;
+  private final boolean soft;
+  private final ConcurrentHashMap<Object, Reference<Object>> data = new ConcurrentHashMap<>();
+  private final ReferenceQueue<Object> queueOfGarbageCollectedEntries = new ReferenceQueue<>();
+  private final AtomicBoolean cleaning = new AtomicBoolean();
+  private volatile HardLinks[] hardLinks;
+  private final AtomicBoolean cleanerStarted = new AtomicBoolean();
+  private int numberOfHardLinks;
+  private CacheStatistics statistics;
+
+  /**
+   * @param delegate
+   *          the cache, only used for its id
+   * @param soft
+   *          whether the values are held through soft references rather than weak ones
+   */
+  protected ConcurrentReferenceCache(Cache delegate, boolean soft) {
+    this.delegate = delegate;
+    this.soft = soft;
+    setSize(256);
+  }
+
+  @Override
+  public String getId() {
+    return delegate.getId();
+  }
+
+  @Override
+  public int getSize() {
+    return data.size();
+  }
+
+  @Override
+  public void setStatistics(CacheStatistics statistics) {
+    this.statistics = statistics;
+  }
+
+  /**
+   * Sets the number of recently read values kept strongly reachable.
+   *
+   * @param size
+   *          the number of values, rounded up to a multiple of the number of stripes
+   */
+  public void setSize(int size) {
+    this.numberOfHardLinks = size;
+    this.hardLinks = newHardLinks(size);
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    cleanUp(MAX_CLEANUPS_PER_WRITE);
+    data.put(key, soft ? new SoftEntry(key, value, queueOfGarbageCollectedEntries)
+        : new WeakEntry(key, value, queueOfGarbageCollectedEntries));
+    if (!cleanerStarted.get()) {
+      startCleaner();
+    }
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    Reference<Object> reference = data.get(key);
+    if (reference == null) {
+      return null;
+    }
+    Object result = reference.get();
+    if (result == null) {
+      if (data.remove(key, reference)) {
+        recordEviction();
+      }
+    } else {
+      HardLinks[] stripes = hardLinks;
+      if (stripes != null) {
+        stripes[(int) (Thread.currentThread().getId() & (STRIPES - 1))].add(result);
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    Reference<Object> reference = data.remove(key);
+    return reference == null ? null : reference.get();
+  }
+
+  @Override
+  public void clear() {
+    hardLinks = newHardLinks(numberOfHardLinks);
+    data.clear();
+    cleanUp(Integer.MAX_VALUE);
+  }
+
+  /**
+   * Removes the entries whose values have been garbage collected.
+   */
+  public void cleanUp() {
+    cleanUp(Integer.MAX_VALUE);
+  }
+
+  @Override
+  public int hashCode() {
+    return delegate.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return delegate.equals(obj);
+  }
+
+  private void cleanUp(int maxEntries) {
+    if (!cleaning.compareAndSet(false, true)) {
+      // another thread is at it
+      return;
+    }
+    try {
+      Reference<?> reference;
+      for (int i = 0; i < maxEntries && (reference = queueOfGarbageCollectedEntries.poll()) != null; i++) {
+        // only if it was not replaced meanwhile
+        if (data.remove(((KeyedReference) reference).key(), reference)) {
+          recordEviction();
+        }
+      }
+    } finally {
+      cleaning.set(false);
+    }
+  }
+
+  private void startCleaner() {
+    if (cleanerStarted.compareAndSet(false, true)) {
+      CacheScheduler.scheduleWeakly(this, ConcurrentReferenceCache::cleanUp, CLEANUP_PERIOD_MILLIS);
+    }
+  }
+
+  private void recordEviction() {
+    if (statistics != null) {
+      statistics.recordEviction();
+    }
+  }
+
+  private static HardLinks[] newHardLinks(int size) {
+    if (size <= 0) {
+      return null;
+    }
+    int capacity = ceilingPowerOfTwo((size + STRIPES - 1) / STRIPES);
+    HardLinks[] stripes = new HardLinks[STRIPES];
+    for (int i = 0; i < STRIPES; i++) {
+      stripes[i] = new HardLinks(capacity);
+    }
+    return stripes;
+  }
+
+  private static int ceilingPowerOfTwo(int x) {
+    return 1 << -Integer.numberOfLeadingZeros(Math.max(1, x) - 1);
+  }
+
+  private interface KeyedReference {
+    Object key();
+  }
+
+  private static final class SoftEntry extends SoftReference<Object> implements KeyedReference {
+    private final Object key;
+
+    SoftEntry(Object key, Object value, ReferenceQueue<Object> garbageCollectionQueue) {
+      super(value, garbageCollectionQueue);
+      this.key = key;
+    }
+
+    @Override
+    public Object key() {
+      return key;
+    }
+  }
+
+  private static final class WeakEntry extends WeakReference<Object> implements KeyedReference {
+    private final Object key;
+
+    WeakEntry(Object key, Object value, ReferenceQueue<Object> garbageCollectionQueue) {
+      super(value, garbageCollectionQueue);
+      this.key = key;
+    }
+
+    @Override
+    public Object key() {
+      return key;
+    }
+  }
+
+  /**
+   * A ring buffer of values, overwritten without locking. Concurrent writers may overwrite each other, which only
+   * affects which values are retained.
+   */
+  private static final class HardLinks {
+    private final AtomicReferenceArray<Object> values;
+    private final AtomicInteger cursor = new AtomicInteger();
+    private final int mask;
+
+    HardLinks(int capacity) {
+      this.values = new AtomicReferenceArray<>(capacity);
+      this.mask = capacity - 1;
+    }
+
+    void add(Object value) {
+      values.lazySet(cursor.getAndIncrement() & mask, value);
+    }
+  }
+
+}
@@ -0,0 +1,32 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import org.apache.ibatis.cache.Cache;
+
+/**
+ * Soft reference cache decorator that does not lock on reads, a concurrent alternative to {@link SoftCache}.
+ *
+ * @since 3.5.11
+ * @see ConcurrentReferenceCache
+ */
+public class ConcurrentSoftCache extends ConcurrentReferenceCache {
+
+  public ConcurrentSoftCache(Cache delegate) {
+    super(delegate, true);
+  }
+
+}
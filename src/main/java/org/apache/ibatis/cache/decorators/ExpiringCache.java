@@ -0,0 +1,251 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.CacheScheduler;
+import org.apache.ibatis.cache.CacheStatistics;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * Per entry time to live.
+ * <p>
+ * Unlike {@link ScheduledCache}, which clears the whole cache at once, every entry expires on its own, optionally a
+ * random fraction ({@code jitter}) earlier than {@code timeToLive} so that entries cached together do not all expire
+ * together. The deadlines are stored along with the values in the delegate, so they are evicted with them. Expired
+ * entries are dropped when read; those no longer read are left to the eviction policy of the delegate, like any other
+ * entry that is no longer read.
+ * <p>
+ * With {@code refreshAhead} set, the first read of an entry past that fraction of its lifetime schedules an
+ * asynchronous reload on the shared worker pool and keeps serving the current value until the new one replaces it. The
+ * reload is provided after the lookup by the caller of {@link #getObject(Object)} through
+ * {@link #refreshDue(Runnable)}, which only needs to be called when {@link #isRefreshDue()}; the caching executor does
+ * so by re-running the statement in a new session. Refresh-ahead cannot be combined with a blocking cache, whose lock
+ * the reload would hold until it completes.
+ *
+ * @since 3.5.11
+ */
+public class ExpiringCache implements Cache {
+
+  private static final Log log = LogFactory.getLog(ExpiringCache.class);
+
+  private static final ThreadLocal<DueRefresh> dueRefresh = new ThreadLocal<>();
+  private static final ThreadLocal<Object> refreshingKey = new ThreadLocal<>();
+
+  private final Cache delegate;
+  private long timeToLive;
+  private double jitter;
+  private double refreshAhead;
+
+  public ExpiringCache(Cache delegate) {
+    this.delegate = delegate;
+    this.timeToLive = TimeUnit.HOURS.toMillis(1);
+  }
+
+  /**
+   * Returns whether a lookup on the current thread found an entry due for refresh that is not reloaded yet.
+   *
+   * @return whether {@link #refreshDue(Runnable)} should be called
+   */
+  public static boolean isRefreshDue() {
+    return dueRefresh.get() != null;
+  }
+
+  /**
+   * Schedules the reload of the entry the last lookups on the current thread found due for refresh, if any.
+   *
+   * @param reload
+   *          the reload, which must put the entry again, or {@code null} to leave the entry to a later read
+   */
+  public static void refreshDue(Runnable reload) {
+    DueRefresh due = dueRefresh.get();
+    if (due == null) {
+      return;
+    }
+    dueRefresh.remove();
+    if (reload == null || !CacheScheduler.execute(() -> due.cache.refresh(due.key, due.entry, reload))) {
+      due.entry.refreshing.set(false);
+    }
+  }
+
+  @Override
+  public String getId() {
+    return delegate.getId();
+  }
+
+  @Override
+  public int getSize() {
+    return delegate.getSize();
+  }
+
+  @Override
+  public CacheStatistics getStatistics() {
+    return delegate.getStatistics();
+  }
+
+  public long getTimeToLive() {
+    return timeToLive;
+  }
+
+  public void setTimeToLive(long timeToLive) {
+    if (timeToLive <= 0) {
+      throw new CacheException("The time to live of cache '" + getId() + "' must be positive.");
+    }
+    this.timeToLive = timeToLive;
+  }
+
+  public double getJitter() {
+    return jitter;
+  }
+
+  public void setJitter(double jitter) {
+    if (jitter < 0 || jitter >= 1) {
+      throw new CacheException(
+          "The jitter of cache '" + getId() + "' must be between 0 (inclusive) and 1 (exclusive).");
+    }
+    this.jitter = jitter;
+  }
+
+  public double getRefreshAhead() {
+    return refreshAhead;
+  }
+
+  public void setRefreshAhead(double refreshAhead) {
+    if (refreshAhead < 0 || refreshAhead >= 1) {
+      throw new CacheException(
+          "The refresh ahead factor of cache '" + getId() + "' must be between 0 (inclusive) and 1 (exclusive).");
+    }
+    this.refreshAhead = refreshAhead;
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    if (value == null) {
+      delegate.putObject(key, null);
+      return;
+    }
+    long now = System.nanoTime();
+    long lifetime = TimeUnit.MILLISECONDS.toNanos(timeToLive);
+    if (jitter > 0) {
+      lifetime -= (long) (lifetime * jitter * ThreadLocalRandom.current().nextDouble());
+    }
+    // without refresh ahead the refresh point is the expiry itself, which is never reached by a successful read
+    long refreshAt = now + (refreshAhead > 0 ? (long) (lifetime * refreshAhead) : lifetime);
+    delegate.putObject(key, new Entry(value, now + lifetime, refreshAt));
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    Object refreshing = refreshingKey.get();
+    if (refreshing != null && refreshing.equals(key)) {
+      // the reload itself must reach the database
+      return null;
+    }
+    Object stored = delegate.getObject(key);
+    if (!(stored instanceof Entry)) {
+      return stored;
+    }
+    Entry entry = (Entry) stored;
+    long now = System.nanoTime();
+    if (now - entry.expiresAt >= 0) {
+      // unless synchronized above, this may drop an entry put concurrently, which only costs a miss
+      delegate.removeObject(key);
+      return null;
+    }
+    if (now - entry.refreshAt >= 0) {
+      markDue(key, entry);
+    }
+    return entry.value;
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    Object removed = delegate.removeObject(key);
+    return removed instanceof Entry ? ((Entry) removed).value : removed;
+  }
+
+  @Override
+  public void clear() {
+    delegate.clear();
+  }
+
+  @Override
+  public int hashCode() {
+    return delegate.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return delegate.equals(obj);
+  }
+
+  private void markDue(Object key, Entry entry) {
+    if (!entry.refreshing.compareAndSet(false, true)) {
+      return;
+    }
+    DueRefresh previous = dueRefresh.get();
+    if (previous != null) {
+      // never claimed, a later read marks it again
+      previous.entry.refreshing.set(false);
+    }
+    dueRefresh.set(new DueRefresh(this, key, entry));
+  }
+
+  private void refresh(Object key, Entry entry, Runnable reload) {
+    refreshingKey.set(key);
+    try {
+      reload.run();
+    } catch (RuntimeException e) {
+      log.warn("Could not refresh entry " + key + " of cache " + getId() + ". Cause: " + e);
+    } finally {
+      refreshingKey.remove();
+      // the reload replaced the entry on success, on failure a later read tries again
+      entry.refreshing.set(false);
+    }
+  }
+
+  private static final class DueRefresh {
+    private final ExpiringCache cache;
+    private final Object key;
+    private final Entry entry;
+
+    DueRefresh(ExpiringCache cache, Object key, Entry entry) {
+      this.cache = cache;
+      this.key = key;
+      this.entry = entry;
+    }
+  }
+
+  private static final class Entry {
+    private final Object value;
+    private final long expiresAt;
+    private final long refreshAt;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    Entry(Object value, long expiresAt, long refreshAt) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+      this.refreshAt = refreshAt;
+    }
+  }
+
+}
@@ -19,17 +19,20 @@ import java.util.Deque;
 import java.util.LinkedList;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheStatistics;
+import org.apache.ibatis.cache.CacheStatisticsAware;
 
 /**
  * FIFO (first in, first out) cache decorator.
  *
  * @author Clinton Begin
  */
-public class FifoCache implements Cache {
+public class FifoCache implements Cache, CacheStatisticsAware {
 
   private final Cache delegate;
   private final Deque<Object> keyList;
   private int size;
+  private CacheStatistics statistics;
 
   public FifoCache(Cache delegate) {
     this.delegate = delegate;
@@ -47,6 +50,11 @@ public class FifoCache implements Cache {
     return delegate.getSize();
   }
 
+  @Override
+  public void setStatistics(CacheStatistics statistics) {
+    this.statistics = statistics;
+  }
+
   public void setSize(int size) {
     this.size = size;
   }
@@ -77,7 +85,9 @@ public class FifoCache implements Cache {
     keyList.addLast(key);
     if (keyList.size() > size) {
       Object oldestKey = keyList.removeFirst();
-      delegate.removeObject(oldestKey);
+      if (delegate.removeObject(oldestKey) != null && statistics != null) {
+        statistics.recordEviction();
+      }
     }
   }
 
@@ -0,0 +1,201 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheScheduler;
+import org.apache.ibatis.cache.CacheStatistics;
+
+/**
+ * Cache decorator that flushes in constant time.
+ * <p>
+ * Keys are stamped with the current generation of the cache before reaching the delegate. {@link #clear()} only starts
+ * a new generation, so the entries of the previous ones become invisible at once without touching the delegate or
+ * waiting for its lock. They are then removed one by one on the shared {@link CacheScheduler} workers, and in any case
+ * evicted by the eviction policy of the cache as they are never read again.
+ * <p>
+ * The keys of each generation are tracked for that background sweep, up to {@code maxTrackedKeys}; past it the entries
+ * of the generation are only reclaimed by eviction. The size of the cache includes the entries not reclaimed yet.
+ *
+ * @since 3.5.11
+ */
+public class GenerationalCache implements Cache {
+
+  private final Cache delegate;
+  private final Queue<Generation> retired = new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean sweeping = new AtomicBoolean();
+  private volatile Generation current = new Generation(0);
+  private int maxTrackedKeys = 65536;
+
+  public GenerationalCache(Cache delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public String getId() {
+    return delegate.getId();
+  }
+
+  @Override
+  public int getSize() {
+    return delegate.getSize();
+  }
+
+  @Override
+  public CacheStatistics getStatistics() {
+    return delegate.getStatistics();
+  }
+
+  public int getMaxTrackedKeys() {
+    return maxTrackedKeys;
+  }
+
+  public void setMaxTrackedKeys(int maxTrackedKeys) {
+    this.maxTrackedKeys = maxTrackedKeys;
+  }
+
+  /**
+   * @return the number of flushes so far
+   */
+  public long getGeneration() {
+    return current.number;
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    Generation generation = current;
+    generation.track(key, maxTrackedKeys);
+    StampedKey stampedKey = new StampedKey(generation.number, key);
+    delegate.putObject(stampedKey, value);
+    if (generation != current) {
+      // flushed meanwhile, the sweep may have missed this entry
+      delegate.removeObject(stampedKey);
+    }
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    return delegate.getObject(new StampedKey(current.number, key));
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    Generation generation = current;
+    generation.keys.remove(key);
+    return delegate.removeObject(new StampedKey(generation.number, key));
+  }
+
+  @Override
+  public void clear() {
+    Generation previous = current;
+    current = new Generation(previous.number + 1);
+    if (!previous.keys.isEmpty()) {
+      retired.add(previous);
+      if (sweeping.compareAndSet(false, true) && !CacheScheduler.execute(this::sweep)) {
+        // saturated, the next flush tries again
+        sweeping.set(false);
+      }
+    }
+  }
+
+  @Override
+  public int hashCode() {
+    return delegate.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return delegate.equals(obj);
+  }
+
+  void sweep() {
+    do {
+      try {
+        for (Generation generation = retired.poll(); generation != null; generation = retired.poll()) {
+          for (Object key : generation.keys) {
+            delegate.removeObject(new StampedKey(generation.number, key));
+          }
+        }
+      } finally {
+        sweeping.set(false);
+      }
+      // a flush may have retired a generation after the queue was found empty
+    } while (!retired.isEmpty() && sweeping.compareAndSet(false, true));
+  }
+
+  private static final class Generation {
+    private final long number;
+    private final Set<Object> keys = ConcurrentHashMap.newKeySet();
+    private volatile boolean overflowed;
+
+    Generation(long number) {
+      this.number = number;
+    }
+
+    void track(Object key, int maxKeys) {
+      if (overflowed) {
+        return;
+      }
+      keys.add(key);
+      if (keys.size() > maxKeys) {
+        // left to the eviction policy
+        overflowed = true;
+        keys.clear();
+      }
+    }
+  }
+
+  private static final class StampedKey {
+    private final long generation;
+    private final Object key;
+    private final int hashCode;
+
+    StampedKey(long generation, Object key) {
+      this.generation = generation;
+      this.key = key;
+      this.hashCode = 31 * key.hashCode() + Long.hashCode(generation);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof StampedKey)) {
+        return false;
+      }
+      StampedKey other = (StampedKey) obj;
+      return generation == other.generation && key.equals(other.key);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public String toString() {
+      return generation + ":" + key;
+    }
+  }
+
+}
@@ -15,11 +15,16 @@
  */
 package org.apache.ibatis.cache.decorators;
 
+import java.util.concurrent.atomic.LongAdder;
+
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheStatistics;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 
 /**
+ * Logs the hit ratio of the cache and records its {@link CacheStatistics}.
+ *
  * @author Clinton Begin
  */
 public class LoggingCache implements Cache {
@@ -28,10 +33,15 @@ public class LoggingCache implements Cache {
   private final Cache delegate;
   protected int requests = 0;
   protected int hits = 0;
+  // exact without the synchronization of a natively concurrent chain, where the fields above may lose updates
+  private final LongAdder requestCount = new LongAdder();
+  private final LongAdder hitCount = new LongAdder();
+  private final CacheStatistics statistics;
 
   public LoggingCache(Cache delegate) {
     this.delegate = delegate;
     this.log = LogFactory.getLog(getId());
+    this.statistics = new CacheStatistics(delegate);
   }
 
   @Override
@@ -44,17 +54,31 @@ public class LoggingCache implements Cache {
     return delegate.getSize();
   }
 
+  @Override
+  public CacheStatistics getStatistics() {
+    return statistics;
+  }
+
   @Override
   public void putObject(Object key, Object object) {
     delegate.putObject(key, object);
+    // null values only release the lock of a blocking cache
+    if (object != null) {
+      statistics.recordPut(object);
+    }
   }
 
   @Override
   public Object getObject(Object key) {
     requests++;
+    requestCount.increment();
     final Object value = delegate.getObject(key);
     if (value != null) {
       hits++;
+      hitCount.increment();
+      statistics.recordHit();
+    } else {
+      statistics.recordMiss();
     }
     if (log.isDebugEnabled()) {
       log.debug("Cache Hit Ratio [" + getId() + "]: " + getHitRatio());
@@ -64,12 +88,18 @@ public class LoggingCache implements Cache {
 
   @Override
   public Object removeObject(Object key) {
-    return delegate.removeObject(key);
+    Object value = delegate.removeObject(key);
+    if (value != null) {
+      statistics.recordRemoval();
+    }
+    return value;
   }
 
   @Override
   public void clear() {
+    int size = delegate.getSize();
     delegate.clear();
+    statistics.recordRemovals(size);
   }
 
   @Override
@@ -83,7 +113,7 @@ public class LoggingCache implements Cache {
   }
 
   private double getHitRatio() {
-    return (double) hits / (double) requests;
+    return (double) hitCount.sum() / (double) requestCount.sum();
   }
 
 }
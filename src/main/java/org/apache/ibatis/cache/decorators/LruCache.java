@@ -19,17 +19,20 @@ import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheStatistics;
+import org.apache.ibatis.cache.CacheStatisticsAware;
 
 /**
  * Lru (least recently used) cache decorator.
  *
  * @author Clinton Begin
  */
-public class LruCache implements Cache {
+public class LruCache implements Cache, CacheStatisticsAware {
 
   private final Cache delegate;
   private Map<Object, Object> keyMap;
   private Object eldestKey;
+  private CacheStatistics statistics;
 
   public LruCache(Cache delegate) {
     this.delegate = delegate;
@@ -46,6 +49,11 @@ public class LruCache implements Cache {
     return delegate.getSize();
   }
 
+  @Override
+  public void setStatistics(CacheStatistics statistics) {
+    this.statistics = statistics;
+  }
+
   public void setSize(final int size) {
     keyMap = new LinkedHashMap<Object, Object>(size, .75F, true) {
       private static final long serialVersionUID = 4267176411845948333L;
@@ -87,7 +95,9 @@ public class LruCache implements Cache {
   private void cycleKeyList(Object key) {
     keyMap.put(key, key);
     if (eldestKey != null) {
-      delegate.removeObject(eldestKey);
+      if (delegate.removeObject(eldestKey) != null && statistics != null) {
+        statistics.recordEviction();
+      }
       eldestKey = null;
     }
   }
@@ -16,17 +16,22 @@
 package org.apache.ibatis.cache.decorators;
 
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheStatistics;
+import org.apache.ibatis.cache.CacheStatisticsAware;
 
 /**
  * @author Clinton Begin
  */
-public class ScheduledCache implements Cache {
+public class ScheduledCache implements Cache, CacheStatisticsAware {
 
   private final Cache delegate;
+  private final ReentrantLock clearLock = new ReentrantLock();
   protected long clearInterval;
-  protected long lastClear;
+  protected volatile long lastClear;
+  private CacheStatistics statistics;
 
   public ScheduledCache(Cache delegate) {
     this.delegate = delegate;
@@ -34,6 +39,11 @@ public class ScheduledCache implements Cache {
     this.lastClear = System.currentTimeMillis();
   }
 
+  @Override
+  public void setStatistics(CacheStatistics statistics) {
+    this.statistics = statistics;
+  }
+
   public void setClearInterval(long clearInterval) {
     this.clearInterval = clearInterval;
   }
@@ -83,11 +93,23 @@ public class ScheduledCache implements Cache {
   }
 
   private boolean clearWhenStale() {
-    if (System.currentTimeMillis() - lastClear > clearInterval) {
-      clear();
-      return true;
+    if (System.currentTimeMillis() - lastClear <= clearInterval) {
+      return false;
+    }
+    // a natively concurrent chain is not synchronized, only one of the callers that found it stale clears it
+    clearLock.lock();
+    try {
+      if (System.currentTimeMillis() - lastClear > clearInterval) {
+        int size = delegate.getSize();
+        clear();
+        if (statistics != null) {
+          statistics.recordEvictions(size);
+        }
+      }
+    } finally {
+      clearLock.unlock();
     }
-    return false;
+    return true;
   }
 
 }
@@ -0,0 +1,464 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheStatistics;
+import org.apache.ibatis.cache.CacheStatisticsAware;
+
+/**
+ * W-TinyLFU (windowed tiny least frequently used) cache decorator.
+ * <p>
+ * Unlike the other eviction decorators this one is natively concurrent, so the cache builder does not wrap it with a
+ * {@link SynchronizedCache}. Entries are kept in a {@link ConcurrentHashMap} owned by this decorator and the delegate is
+ * only used for its id. Reads never block: accesses are recorded in striped, lossy ring buffers that are replayed
+ * against the eviction policy by whichever thread manages to take the eviction lock. Writes update the policy directly.
+ * <p>
+ * The policy is a small LRU admission window in front of a segmented LRU main space. When the window overflows its
+ * oldest entry is only admitted into the main space if a count-min frequency sketch estimates that it is accessed more
+ * often than the main space's eviction victim.
+ */
+public class TinyLfuCache implements Cache, CacheStatisticsAware {
+
+  private static final int WINDOW = 0;
+  private static final int PROBATION = 1;
+  private static final int PROTECTED = 2;
+  private static final int DEAD = 3;
+
+  private static final int READ_BUFFER_STRIPES = ceilingPowerOfTwo(
+      Math.min(64, 4 * Runtime.getRuntime().availableProcessors()));
+
+  private final Cache delegate;
+  private final ConcurrentHashMap<Object, Node> data;
+  private final ReentrantLock evictionLock;
+  private final ReadBuffer[] readBuffers;
+  private final AccessOrderDeque window;
+  private final AccessOrderDeque probation;
+  private final AccessOrderDeque protectedSpace;
+  private FrequencySketch sketch;
+  private int maximumSize;
+  private int windowMaximum;
+  private int protectedMaximum;
+  private int windowSize;
+  private int protectedSize;
+  private int size;
+  private CacheStatistics statistics;
+
+  public TinyLfuCache(Cache delegate) {
+    this.delegate = delegate;
+    this.data = new ConcurrentHashMap<>();
+    this.evictionLock = new ReentrantLock();
+    this.readBuffers = new ReadBuffer[READ_BUFFER_STRIPES];
+    for (int i = 0; i < readBuffers.length; i++) {
+      readBuffers[i] = new ReadBuffer();
+    }
+    this.window = new AccessOrderDeque();
+    this.probation = new AccessOrderDeque();
+    this.protectedSpace = new AccessOrderDeque();
+    setSize(1024);
+  }
+
+  @Override
+  public String getId() {
+    return delegate.getId();
+  }
+
+  @Override
+  public int getSize() {
+    return data.size();
+  }
+
+  @Override
+  public void setStatistics(CacheStatistics statistics) {
+    this.statistics = statistics;
+  }
+
+  public void setSize(final int size) {
+    evictionLock.lock();
+    try {
+      this.maximumSize = Math.max(1, size);
+      this.windowMaximum = Math.max(1, maximumSize / 100);
+      this.protectedMaximum = (int) ((maximumSize - windowMaximum) * 0.8);
+      this.sketch = new FrequencySketch(maximumSize);
+      evictEntries();
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    evictionLock.lock();
+    try {
+      drainReadBuffers();
+      Node node = data.get(key);
+      if (node == null) {
+        node = new Node(key, value);
+        data.put(key, node);
+        sketch.increment(key);
+        node.queue = WINDOW;
+        window.addLast(node);
+        windowSize++;
+        size++;
+        evictEntries();
+      } else {
+        node.value = value;
+        onAccess(node);
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    Node node = data.get(key);
+    if (node == null) {
+      return null;
+    }
+    afterRead(node);
+    return node.value;
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    evictionLock.lock();
+    try {
+      Node node = data.remove(key);
+      if (node == null) {
+        return null;
+      }
+      unlink(node);
+      return node.value;
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public void clear() {
+    evictionLock.lock();
+    try {
+      drainReadBuffers();
+      for (Node node : data.values()) {
+        node.queue = DEAD;
+      }
+      data.clear();
+      window.clear();
+      probation.clear();
+      protectedSpace.clear();
+      windowSize = 0;
+      protectedSize = 0;
+      size = 0;
+      delegate.clear();
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public int hashCode() {
+    return delegate.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return delegate.equals(obj);
+  }
+
+  private void afterRead(Node node) {
+    int stripe = (int) (Thread.currentThread().getId() & (READ_BUFFER_STRIPES - 1));
+    if (!readBuffers[stripe].offer(node) && evictionLock.tryLock()) {
+      try {
+        drainReadBuffers();
+      } finally {
+        evictionLock.unlock();
+      }
+    }
+  }
+
+  private void drainReadBuffers() {
+    for (ReadBuffer buffer : readBuffers) {
+      buffer.drainTo(this);
+    }
+  }
+
+  private void onAccess(Node node) {
+    if (node.queue == DEAD) {
+      return;
+    }
+    sketch.increment(node.key);
+    if (node.queue == WINDOW) {
+      window.moveToBack(node);
+    } else if (node.queue == PROBATION) {
+      probation.remove(node);
+      node.queue = PROTECTED;
+      protectedSpace.addLast(node);
+      protectedSize++;
+      while (protectedSize > protectedMaximum) {
+        Node demoted = protectedSpace.pollFirst();
+        protectedSize--;
+        demoted.queue = PROBATION;
+        probation.addLast(demoted);
+      }
+    } else {
+      protectedSpace.moveToBack(node);
+    }
+  }
+
+  private void evictEntries() {
+    while (windowSize > windowMaximum) {
+      Node candidate = window.pollFirst();
+      windowSize--;
+      candidate.queue = PROBATION;
+      probation.addLast(candidate);
+    }
+    while (size > maximumSize) {
+      Node victim = probation.peekFirst();
+      Node candidate = probation.peekLast();
+      if (victim == null) {
+        victim = protectedSpace.peekFirst() != null ? protectedSpace.peekFirst() : window.peekFirst();
+      } else if (victim != candidate && sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+        victim = candidate;
+      }
+      data.remove(victim.key, victim);
+      unlink(victim);
+      if (statistics != null) {
+        statistics.recordEviction();
+      }
+    }
+  }
+
+  private void unlink(Node node) {
+    if (node.queue == WINDOW) {
+      window.remove(node);
+      windowSize--;
+    } else if (node.queue == PROBATION) {
+      probation.remove(node);
+    } else if (node.queue == PROTECTED) {
+      protectedSpace.remove(node);
+      protectedSize--;
+    } else {
+      return;
+    }
+    node.queue = DEAD;
+    size--;
+  }
+
+  private static int ceilingPowerOfTwo(int x) {
+    return 1 << -Integer.numberOfLeadingZeros(x - 1);
+  }
+
+  private static final class Node {
+    private final Object key;
+    private volatile Object value;
+    private int queue;
+    private Node prev;
+    private Node next;
+
+    Node(Object key, Object value) {
+      this.key = key;
+      this.value = value;
+    }
+  }
+
+  /**
+   * Intrusive doubly linked list of nodes, guarded by the eviction lock.
+   */
+  private static final class AccessOrderDeque {
+    private Node first;
+    private Node last;
+
+    Node peekFirst() {
+      return first;
+    }
+
+    Node peekLast() {
+      return last;
+    }
+
+    Node pollFirst() {
+      Node node = first;
+      if (node != null) {
+        remove(node);
+      }
+      return node;
+    }
+
+    void addLast(Node node) {
+      node.prev = last;
+      node.next = null;
+      if (last == null) {
+        first = node;
+      } else {
+        last.next = node;
+      }
+      last = node;
+    }
+
+    void remove(Node node) {
+      if (node.prev == null) {
+        first = node.next;
+      } else {
+        node.prev.next = node.next;
+      }
+      if (node.next == null) {
+        last = node.prev;
+      } else {
+        node.next.prev = node.prev;
+      }
+      node.prev = null;
+      node.next = null;
+    }
+
+    void moveToBack(Node node) {
+      if (node != last) {
+        remove(node);
+        addLast(node);
+      }
+    }
+
+    void clear() {
+      first = null;
+      last = null;
+    }
+  }
+
+  /**
+   * Bounded, lossy, multiple producer / single consumer ring buffer of recorded reads. When it is full further reads
+   * are simply not recorded, which only makes the access order slightly less precise.
+   */
+  private static final class ReadBuffer {
+    private static final int CAPACITY = 64;
+    private static final int MASK = CAPACITY - 1;
+
+    private final AtomicReferenceArray<Node> buffer = new AtomicReferenceArray<>(CAPACITY);
+    private final AtomicLong writeCounter = new AtomicLong();
+    private volatile long readCounter;
+
+    boolean offer(Node node) {
+      long head = readCounter;
+      long tail = writeCounter.get();
+      if (tail - head >= CAPACITY) {
+        return false;
+      }
+      if (writeCounter.compareAndSet(tail, tail + 1)) {
+        buffer.lazySet((int) (tail & MASK), node);
+      }
+      return true;
+    }
+
+    void drainTo(TinyLfuCache cache) {
+      long head = readCounter;
+      long tail = writeCounter.get();
+      for (; head < tail; head++) {
+        int index = (int) (head & MASK);
+        Node node = buffer.get(index);
+        if (node == null) {
+          // the producer has claimed the slot but not published it yet
+          break;
+        }
+        buffer.lazySet(index, null);
+        cache.onAccess(node);
+      }
+      readCounter = head;
+    }
+  }
+
+  /**
+   * Count-min sketch of 4-bit counters used to estimate the popularity of keys. Counters are halved once the number of
+   * recorded increments reaches ten times the maximum size so that the history ages.
+   */
+  private static final class FrequencySketch {
+    private static final long[] SEED = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL,
+        0xcbf29ce484222325L };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int maximumSize) {
+      int length = ceilingPowerOfTwo(Math.max(maximumSize, 16));
+      this.table = new long[length];
+      this.tableMask = length - 1;
+      this.sampleSize = 10 * Math.max(maximumSize, 16);
+    }
+
+    int frequency(Object key) {
+      int hash = spread(key.hashCode());
+      int start = (hash & 3) << 2;
+      int frequency = Integer.MAX_VALUE;
+      for (int i = 0; i < 4; i++) {
+        int index = indexOf(hash, i);
+        int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+        frequency = Math.min(frequency, count);
+      }
+      return frequency;
+    }
+
+    void increment(Object key) {
+      int hash = spread(key.hashCode());
+      int start = (hash & 3) << 2;
+      boolean added = false;
+      for (int i = 0; i < 4; i++) {
+        added |= incrementAt(indexOf(hash, i), start + i);
+      }
+      if (added && ++additions == sampleSize) {
+        reset();
+      }
+    }
+
+    private boolean incrementAt(int index, int counter) {
+      int offset = counter << 2;
+      long mask = 0xfL << offset;
+      if ((table[index] & mask) != mask) {
+        table[index] += 1L << offset;
+        return true;
+      }
+      return false;
+    }
+
+    private void reset() {
+      int odd = 0;
+      for (int i = 0; i < table.length; i++) {
+        odd += Long.bitCount(table[i] & ONE_MASK);
+        table[i] = (table[i] >>> 1) & RESET_MASK;
+      }
+      additions = (additions >>> 1) - (odd >>> 2);
+    }
+
+    private int indexOf(int hash, int i) {
+      long h = (hash + SEED[i]) * SEED[i];
+      h += h >>> 32;
+      return ((int) h) & tableMask;
+    }
+
+    private static int spread(int x) {
+      x = ((x >>> 16) ^ x) * 0x45d9f3b;
+      x = ((x >>> 16) ^ x) * 0x45d9f3b;
+      return (x >>> 16) ^ x;
+    }
+  }
+
+}
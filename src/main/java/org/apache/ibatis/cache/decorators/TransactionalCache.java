@@ -21,6 +21,7 @@ import java.util.Map;
 import java.util.Set;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheDependencyIndex;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 
@@ -31,6 +32,9 @@ import org.apache.ibatis.logging.LogFactory;
  * Entries are sent to the cache when commit is called or discarded if the Session is rolled back.
  * Blocking cache support has been added. Therefore any get() that returns a cache miss
  * will be followed by a put() so any lock associated with the key can be released.
+ * <p>
+ * When the cache is a {@link WriteBehindCache} the entries are handed over to it on commit instead of being put one
+ * by one, so the commit does not take longer with the size of the results.
  *
  * @author Clinton Begin
  * @author Eduardo Macarron
@@ -41,14 +45,31 @@ public class TransactionalCache implements Cache {
 
   private final Cache delegate;
   private boolean clearOnCommit;
-  private final Map<Object, Object> entriesToAddOnCommit;
+  private Map<Object, Object> entriesToAddOnCommit;
   private final Set<Object> entriesMissedInCache;
+  private final CacheDependencyIndex dependencyIndex;
+  private final Map<Object, Set<String>> entryTables;
 
   public TransactionalCache(Cache delegate) {
+    this(delegate, null);
+  }
+
+  /**
+   * Creates a transactional buffer that records the tables of the entries it flushes in a dependency index.
+   *
+   * @param delegate
+   *          the second level cache
+   * @param dependencyIndex
+   *          the dependency index, {@code null} to not track dependencies
+   * @since 3.5.11
+   */
+  public TransactionalCache(Cache delegate, CacheDependencyIndex dependencyIndex) {
     this.delegate = delegate;
     this.clearOnCommit = false;
     this.entriesToAddOnCommit = new HashMap<>();
     this.entriesMissedInCache = new HashSet<>();
+    this.dependencyIndex = dependencyIndex;
+    this.entryTables = new HashMap<>();
   }
 
   @Override
@@ -81,6 +102,59 @@ public class TransactionalCache implements Cache {
     entriesToAddOnCommit.put(key, object);
   }
 
+  /**
+   * Buffers an entry that depends on the given tables.
+   *
+   * @param key
+   *          the key
+   * @param object
+   *          the value
+   * @param tables
+   *          the tables the value was read from, empty when unknown
+   * @since 3.5.11
+   */
+  public void putObject(Object key, Object object, Set<String> tables) {
+    entriesToAddOnCommit.put(key, object);
+    entryTables.put(key, tables);
+  }
+
+  /**
+   * Drops the buffered entries that depend on any of the given tables.
+   *
+   * @param tables
+   *          the modified tables
+   * @param includeUnknown
+   *          whether entries of unknown dependencies are dropped too
+   * @since 3.5.11
+   */
+  public void discard(Set<String> tables, boolean includeUnknown) {
+    entriesToAddOnCommit.keySet().removeIf(key -> {
+      Set<String> dependencies = entryTables.get(key);
+      boolean stale = dependencies == null || dependencies.isEmpty() ? includeUnknown
+          : dependencies.stream().anyMatch(tables::contains);
+      if (stale) {
+        entryTables.remove(key);
+      }
+      return stale;
+    });
+  }
+
+  /**
+   * Reports that the value of an entry missed in this transaction could not be loaded, releasing the entry for the
+   * other sessions.
+   *
+   * @param key
+   *          the key
+   * @param cause
+   *          the failure
+   * @since 3.5.11
+   */
+  public void fail(Object key, Throwable cause) {
+    if (entriesMissedInCache.remove(key) && delegate instanceof BlockingCache) {
+      ((BlockingCache) delegate).fail(key, cause);
+    }
+  }
+
   @Override
   public Object removeObject(Object key) {
     return null;
@@ -90,6 +164,7 @@ public class TransactionalCache implements Cache {
   public void clear() {
     clearOnCommit = true;
     entriesToAddOnCommit.clear();
+    entryTables.clear();
   }
 
   public void commit() {
@@ -109,17 +184,53 @@ public class TransactionalCache implements Cache {
     clearOnCommit = false;
     entriesToAddOnCommit.clear();
     entriesMissedInCache.clear();
+    entryTables.clear();
   }
 
   private void flushPendingEntries() {
+    if (delegate instanceof WriteBehindCache) {
+      handOverPendingEntries((WriteBehindCache) delegate);
+      return;
+    }
     for (Map.Entry<Object, Object> entry : entriesToAddOnCommit.entrySet()) {
-      delegate.putObject(entry.getKey(), entry.getValue());
+      if (dependencyIndex == null) {
+        delegate.putObject(entry.getKey(), entry.getValue());
+      } else {
+        Set<String> tables = entryTables.get(entry.getKey());
+        dependencyIndex.register(delegate, entry.getKey(), tables);
+        delegate.putObject(entry.getKey(), entry.getValue());
+        dependencyIndex.confirm(delegate, entry.getKey(), tables);
+      }
+    }
+    for (Object entry : entriesMissedInCache) {
+      if (!entriesToAddOnCommit.containsKey(entry)) {
+        delegate.putObject(entry, null);
+      }
+    }
+  }
+
+  private void handOverPendingEntries(WriteBehindCache writeBehindCache) {
+    if (dependencyIndex != null) {
+      // before the entries can be found, so that a write of their tables never misses them
+      for (Object key : entriesToAddOnCommit.keySet()) {
+        dependencyIndex.register(delegate, key, entryTables.get(key));
+      }
     }
     for (Object entry : entriesMissedInCache) {
       if (!entriesToAddOnCommit.containsKey(entry)) {
         delegate.putObject(entry, null);
       }
     }
+    if (!entriesToAddOnCommit.isEmpty()) {
+      writeBehindCache.putAllLater(entriesToAddOnCommit);
+      if (dependencyIndex != null) {
+        // queued by now, so that an eviction discards them
+        for (Object key : entriesToAddOnCommit.keySet()) {
+          dependencyIndex.confirm(delegate, key, entryTables.get(key));
+        }
+      }
+      entriesToAddOnCommit = new HashMap<>();
+    }
   }
 
   private void unlockMissedEntries() {
@@ -0,0 +1,212 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheMemoryBudget;
+import org.apache.ibatis.cache.CacheStatistics;
+import org.apache.ibatis.cache.CacheStatisticsAware;
+import org.apache.ibatis.cache.Weigher;
+import org.apache.ibatis.cache.weigher.EstimatingWeigher;
+
+/**
+ * Cache decorator bounding the memory of a cache: entries are weighed by a {@link Weigher} when they are put and the
+ * least recently used ones are evicted as long as the total weight exceeds {@code maxBytes}. An entry heavier than
+ * {@code maxBytes} on its own is not kept.
+ * <p>
+ * The cache can also take part in a {@link CacheMemoryBudget} shared with other caches, which evicts from the heaviest
+ * of them when their total weight exceeds the budget.
+ * <p>
+ * Entries evicted by a decorator below this one are forgotten the next time they are read.
+ *
+ * @since 3.5.11
+ */
+public class WeightedCache implements Cache, CacheStatisticsAware {
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Cache delegate;
+  private final LinkedHashMap<Object, Long> weights = new LinkedHashMap<>(16, .75F, true);
+  private long weightedSize;
+  private long maxBytes = Long.MAX_VALUE;
+  private Weigher weigher = new EstimatingWeigher();
+  private CacheMemoryBudget budget;
+  private CacheStatistics statistics;
+
+  public WeightedCache(Cache delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public String getId() {
+    return delegate.getId();
+  }
+
+  @Override
+  public int getSize() {
+    return delegate.getSize();
+  }
+
+  @Override
+  public void setStatistics(CacheStatistics statistics) {
+    this.statistics = statistics;
+  }
+
+  public long getMaxBytes() {
+    return maxBytes;
+  }
+
+  public void setMaxBytes(long maxBytes) {
+    this.maxBytes = maxBytes;
+  }
+
+  public Weigher getWeigher() {
+    return weigher;
+  }
+
+  public void setWeigher(Weigher weigher) {
+    this.weigher = weigher;
+  }
+
+  public CacheMemoryBudget getBudget() {
+    return budget;
+  }
+
+  /**
+   * Makes this cache take part in a budget shared with other caches.
+   *
+   * @param budget
+   *          the shared budget
+   */
+  public void setBudget(CacheMemoryBudget budget) {
+    this.budget = budget;
+    budget.register(this);
+  }
+
+  /**
+   * Gets the total weight of the entries of this cache.
+   *
+   * @return the weight in bytes
+   */
+  public long getWeightedSize() {
+    lock.lock();
+    try {
+      return weightedSize;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    // weighing may walk a large graph, keep it out of the lock
+    long weight = value == null ? 0 : weigher.weigh(key, value);
+    lock.lock();
+    try {
+      delegate.putObject(key, value);
+      Long previous = weights.put(key, weight);
+      adjust(previous == null ? weight : weight - previous);
+      while (weightedSize > maxBytes && !weights.isEmpty()) {
+        evictEldest();
+      }
+    } finally {
+      lock.unlock();
+    }
+    if (budget != null) {
+      // outside of the lock, reclaiming locks the caches it evicts from
+      budget.reclaim();
+    }
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    lock.lock();
+    try {
+      Long weight = weights.get(key); // touch
+      Object value = delegate.getObject(key);
+      if (value == null && weight != null) {
+        // evicted below
+        weights.remove(key);
+        adjust(-weight);
+      }
+      return value;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    lock.lock();
+    try {
+      Long weight = weights.remove(key);
+      if (weight != null) {
+        adjust(-weight);
+      }
+      return delegate.removeObject(key);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void clear() {
+    lock.lock();
+    try {
+      delegate.clear();
+      weights.clear();
+      adjust(-weightedSize);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Evicts the least recently used entry.
+   *
+   * @return {@code false} if the cache is empty
+   */
+  public boolean evictEldest() {
+    lock.lock();
+    try {
+      Iterator<Map.Entry<Object, Long>> eldest = weights.entrySet().iterator();
+      if (!eldest.hasNext()) {
+        return false;
+      }
+      Map.Entry<Object, Long> entry = eldest.next();
+      eldest.remove();
+      adjust(-entry.getValue());
+      if (delegate.removeObject(entry.getKey()) != null && statistics != null) {
+        statistics.recordEviction();
+      }
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void adjust(long delta) {
+    weightedSize += delta;
+    if (budget != null) {
+      budget.add(delta);
+    }
+  }
+
+}
@@ -0,0 +1,256 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheScheduler;
+import org.apache.ibatis.cache.CacheStatistics;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * Cache decorator that populates its delegate in the background.
+ * <p>
+ * {@link #putAllLater(Map)} queues the entries of a committed transaction and returns at once; they are put in the
+ * delegate in order by a single task at a time on the shared {@link CacheScheduler} workers, so the cost of the rest
+ * of the chain (serialization in particular) is no longer paid by the committing session. When the workers are
+ * saturated the entries are put by the calling thread instead.
+ * <p>
+ * Every {@link #clear()} starts a new epoch before reaching the delegate, and queued entries committed in an earlier
+ * epoch are discarded. A {@link #removeObject(Object)} only discards the queued entries of its key: while entries are
+ * queued it leaves a tombstone holding a removal sequence number, and an entry committed before it is discarded. An
+ * entry put while an invalidation happens is removed again, so an invalidation is never overwritten by an entry read
+ * before it. The tombstones are dropped whenever the queue is found empty. Past {@code maxPending} queued entries the
+ * new ones are dropped, which only costs a later miss.
+ *
+ * @since 3.5.11
+ */
+public class WriteBehindCache implements Cache {
+
+  private static final Log log = LogFactory.getLog(WriteBehindCache.class);
+
+  private final Cache delegate;
+  private final Queue<PendingEntry> pending = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger pendingCount = new AtomicInteger();
+  private final AtomicBoolean draining = new AtomicBoolean();
+  private final AtomicLong epoch = new AtomicLong();
+  private final AtomicLong removals = new AtomicLong();
+  private final Map<Object, Long> tombstones = new ConcurrentHashMap<>();
+  private final AtomicInteger queueing = new AtomicInteger();
+  private final LongAdder dropped = new LongAdder();
+  private final LongAdder discarded = new LongAdder();
+  private int maxPending = 65536;
+
+  public WriteBehindCache(Cache delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public String getId() {
+    return delegate.getId();
+  }
+
+  @Override
+  public int getSize() {
+    return delegate.getSize();
+  }
+
+  @Override
+  public CacheStatistics getStatistics() {
+    return delegate.getStatistics();
+  }
+
+  public int getMaxPending() {
+    return maxPending;
+  }
+
+  public void setMaxPending(int maxPending) {
+    this.maxPending = maxPending;
+  }
+
+  /**
+   * @return the number of entries queued and not put yet
+   */
+  public int getPendingCount() {
+    return pendingCount.get();
+  }
+
+  /**
+   * @return the number of entries not queued because {@code maxPending} entries were already
+   */
+  public long getDroppedCount() {
+    return dropped.sum();
+  }
+
+  /**
+   * @return the number of queued entries discarded because an invalidation happened after their commit
+   */
+  public long getDiscardedCount() {
+    return discarded.sum();
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    delegate.putObject(key, value);
+  }
+
+  /**
+   * Queues entries to be put in the delegate in the background.
+   *
+   * @param entries
+   *          the entries, which must not be modified afterwards
+   */
+  public void putAllLater(Map<Object, Object> entries) {
+    // announced before reading the sequences, so that the tombstones they need are kept
+    queueing.incrementAndGet();
+    try {
+      long current = epoch.get();
+      long removal = removals.get();
+      for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+        if (pendingCount.incrementAndGet() > maxPending) {
+          pendingCount.decrementAndGet();
+          dropped.increment();
+        } else {
+          pending.add(new PendingEntry(entry.getKey(), entry.getValue(), current, removal));
+        }
+      }
+    } finally {
+      queueing.decrementAndGet();
+    }
+    if (draining.compareAndSet(false, true) && !CacheScheduler.execute(this::drainQueue)) {
+      // saturated, the caller pays for it
+      drainQueue();
+    }
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    return delegate.getObject(key);
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    long removal = removals.incrementAndGet();
+    if (queueing.get() > 0 || pendingCount.get() > 0 || draining.get()) {
+      tombstones.merge(key, removal, Math::max);
+    }
+    return delegate.removeObject(key);
+  }
+
+  @Override
+  public void clear() {
+    epoch.incrementAndGet();
+    delegate.clear();
+  }
+
+  /**
+   * Puts the queued entries in the delegate from the calling thread, waiting for a background drain in progress.
+   */
+  public void drain() {
+    while (!pending.isEmpty() || draining.get()) {
+      if (draining.compareAndSet(false, true)) {
+        drainQueue();
+      } else {
+        Thread.yield();
+      }
+    }
+  }
+
+  @Override
+  public int hashCode() {
+    return delegate.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return delegate.equals(obj);
+  }
+
+  private void drainQueue() {
+    do {
+      try {
+        for (PendingEntry entry = pending.poll(); entry != null; entry = pending.poll()) {
+          pendingCount.decrementAndGet();
+          publish(entry);
+        }
+        pruneTombstones();
+      } finally {
+        draining.set(false);
+      }
+      // entries may have been queued after the queue was found empty
+    } while (!pending.isEmpty() && draining.compareAndSet(false, true));
+  }
+
+  private void pruneTombstones() {
+    if (tombstones.isEmpty()) {
+      return;
+    }
+    // read first: an entry queued after the checks below reads a later sequence, which these tombstones do not affect
+    long removal = removals.get();
+    if (queueing.get() == 0 && pending.isEmpty()) {
+      tombstones.values().removeIf(tombstone -> tombstone <= removal);
+    }
+  }
+
+  private boolean isInvalidated(PendingEntry entry) {
+    if (entry.epoch != epoch.get()) {
+      return true;
+    }
+    Long tombstone = tombstones.get(entry.key);
+    return tombstone != null && tombstone > entry.removal;
+  }
+
+  private void publish(PendingEntry entry) {
+    if (isInvalidated(entry)) {
+      discarded.increment();
+      return;
+    }
+    try {
+      delegate.putObject(entry.key, entry.value);
+      if (isInvalidated(entry)) {
+        // invalidated meanwhile, the invalidation may have missed this entry
+        delegate.removeObject(entry.key);
+        discarded.increment();
+      }
+    } catch (RuntimeException e) {
+      log.warn("Could not put an entry in cache " + getId() + ". Cause: " + e);
+    }
+  }
+
+  private static final class PendingEntry {
+    private final Object key;
+    private final Object value;
+    private final long epoch;
+    private final long removal;
+
+    PendingEntry(Object key, Object value, long epoch, long removal) {
+      this.key = key;
+      this.value = value;
+      this.epoch = epoch;
+      this.removal = removal;
+    }
+  }
+
+}
@@ -0,0 +1,165 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.ibatis.cache.Weigher;
+import org.apache.ibatis.cache.weigher.EstimatingWeigher;
+
+/**
+ * Local (session) cache holding at most {@code maxSize} entries and {@code maxBytes} of estimated weight, evicting the
+ * least recently used entries first.
+ * <p>
+ * The entries used by the statement being executed are never evicted: they hold the placeholders that protect nested
+ * queries from circular references and the results that deferred loads are waiting for. The executor calls
+ * {@link #beginStatement()} when a top level statement starts, after which only entries of earlier statements are
+ * evicted, and {@link #trim()} when it ends, which brings the cache back within its bounds.
+ *
+ * @since 3.5.11
+ */
+public class BoundedLocalCache extends PerpetualCache {
+
+  private final LinkedHashMap<Object, Entry> entries = new LinkedHashMap<>(16, .75F, true);
+  private final int maxSize;
+  private final long maxBytes;
+  private final Weigher weigher;
+  private long weightedSize;
+  private long statement;
+  private long evictionCount;
+
+  /**
+   * Creates a bounded local cache.
+   *
+   * @param id
+   *          the cache id
+   * @param maxSize
+   *          the maximum number of entries, 0 for no limit
+   * @param maxBytes
+   *          the maximum weight in bytes, 0 for no limit
+   */
+  public BoundedLocalCache(String id, int maxSize, long maxBytes) {
+    this(id, maxSize, maxBytes, new EstimatingWeigher());
+  }
+
+  public BoundedLocalCache(String id, int maxSize, long maxBytes, Weigher weigher) {
+    super(id);
+    this.maxSize = maxSize <= 0 ? Integer.MAX_VALUE : maxSize;
+    this.maxBytes = maxBytes <= 0 ? Long.MAX_VALUE : maxBytes;
+    this.weigher = weigher;
+  }
+
+  @Override
+  public int getSize() {
+    return entries.size();
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    long weight = maxBytes == Long.MAX_VALUE ? 0 : weigher.weigh(key, value);
+    Entry previous = entries.put(key, new Entry(value, weight, statement));
+    if (previous != null) {
+      weightedSize -= previous.weight;
+    }
+    weightedSize += weight;
+    evict(false);
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      return null;
+    }
+    entry.statement = statement;
+    return entry.value;
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    Entry entry = entries.remove(key);
+    if (entry == null) {
+      return null;
+    }
+    weightedSize -= entry.weight;
+    return entry.value;
+  }
+
+  @Override
+  public void clear() {
+    entries.clear();
+    weightedSize = 0;
+  }
+
+  /**
+   * Marks the start of a top level statement: the entries it puts or reads are kept until it ends.
+   */
+  public void beginStatement() {
+    statement++;
+  }
+
+  /**
+   * Evicts entries until the cache fits within its bounds, including the entries of the last statement.
+   */
+  public void trim() {
+    evict(true);
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  public long getMaxBytes() {
+    return maxBytes;
+  }
+
+  public long getWeightedSize() {
+    return weightedSize;
+  }
+
+  public long getEvictionCount() {
+    return evictionCount;
+  }
+
+  private void evict(boolean all) {
+    Iterator<Map.Entry<Object, Entry>> iterator = entries.entrySet().iterator();
+    while ((entries.size() > maxSize || weightedSize > maxBytes) && iterator.hasNext()) {
+      Entry eldest = iterator.next().getValue();
+      if (!all && eldest.statement == statement) {
+        // Every following entry was used more recently, hence by the current statement too
+        return;
+      }
+      iterator.remove();
+      weightedSize -= eldest.weight;
+      evictionCount++;
+    }
+  }
+
+  private static final class Entry {
+    final Object value;
+    final long weight;
+    long statement;
+
+    Entry(Object value, long weight, long statement) {
+      this.value = value;
+      this.weight = weight;
+      this.statement = statement;
+    }
+  }
+
+}
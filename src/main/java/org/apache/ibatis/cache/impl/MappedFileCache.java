@@ -0,0 +1,853 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+import org.apache.ibatis.builder.InitializingObject;
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheCodec;
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cache.CacheStatistics;
+import org.apache.ibatis.cache.CacheStatisticsAware;
+import org.apache.ibatis.cache.codec.JavaSerializationCodec;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * Cache that stores serialized entries in memory-mapped files, so that they survive a restart of the application.
+ * <p>
+ * Each cache owns a sub directory of {@code directory} named after its id, holding up to {@code maxSegments} segment
+ * files of {@code segmentSize} bytes. Entries are appended to the current segment; replacing or removing an entry
+ * only marks its record as deleted. The heap holds the keys and the location of their record. When opened, the
+ * segments are scanned to rebuild that index, so that entries written before a restart are hits right away.
+ * <p>
+ * Every segment starts with a header holding the format version of the file and a fingerprint of
+ * {@code schemaVersion} and of the codec. Segments whose header does not match are discarded: changing
+ * {@code schemaVersion} when the mappers or the result classes change in an incompatible way drops the stale entries.
+ * Every record carries a CRC of its content, the scan of a segment stops at the first record that does not match it,
+ * so a crash can lose entries but does not return corrupted ones.
+ * <p>
+ * When all the segments are full, the segments holding deleted or expired records ({@code timeToLive}) are compacted
+ * in place, and if none of them has room left the oldest segment is evicted as a whole. {@link #compact()} runs the
+ * compaction on demand.
+ * <p>
+ * The directory is locked while the cache is open, it cannot be shared by two caches or two processes. The mapped
+ * pages are written back by the operating system; {@link #flush()} forces them to the disk.
+ * <p>
+ * The keys, and the values unless another {@code codec} is given, are read back with Java deserialization, so anyone
+ * able to write to the segment files can make the application deserialize classes of their choice. {@code directory}
+ * has no default and the sub directory of the cache is created readable by its owner only on file systems that support
+ * POSIX permissions; it must not be shared with other users. A JEP 290 deserialization filter
+ * ({@code jdk.serialFilter}) accepting only the key and result classes is required.
+ *
+ * <pre>
+ * &lt;cache type="org.apache.ibatis.cache.impl.MappedFileCache"&gt;
+ *   &lt;property name="directory" value="/var/cache/myapp"/&gt;
+ *   &lt;property name="schemaVersion" value="42"/&gt;
+ *   &lt;property name="timeToLive" value="3600000"/&gt;
+ * &lt;/cache&gt;
+ * </pre>
+ *
+ * @since 3.5.11
+ */
+public class MappedFileCache implements Cache, InitializingObject, CacheStatisticsAware {
+
+  private static final Log log = LogFactory.getLog(MappedFileCache.class);
+
+  private static final int MAGIC = 0x4D424346;
+  private static final int FORMAT_VERSION = 1;
+  private static final int HEADER_SIZE = 32;
+  // length, status, expiry, key length, CRC
+  private static final int RECORD_HEADER_SIZE = 21;
+  private static final byte LIVE = 1;
+  private static final byte DELETED = 0;
+  private static final String SEGMENT_PREFIX = "segment-";
+  private static final String SEGMENT_SUFFIX = ".dat";
+
+  private final String id;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Map<Object, Location> index = new HashMap<>();
+  private final CacheCodec keyCodec = new JavaSerializationCodec();
+
+  private String directory;
+  private int segmentSize = 16 * 1024 * 1024;
+  private int maxSegments = 8;
+  private long timeToLive;
+  private String schemaVersion = "";
+  private String codec = JavaSerializationCodec.class.getName();
+
+  private CacheCodec valueCodec;
+  private long schema;
+  private Path path;
+  private FileChannel lockChannel;
+  private FileLock fileLock;
+  private Segment[] segments;
+  private Segment current;
+  private long generation;
+  private CacheStatistics statistics;
+
+  public MappedFileCache(String id) {
+    this.id = id;
+  }
+
+  /**
+   * Opens the segments of this cache, closing them first if they are open.
+   */
+  @Override
+  public void initialize() {
+    if (segmentSize < HEADER_SIZE + RECORD_HEADER_SIZE) {
+      throw new CacheException("The segment size of cache '" + id + "' is too small: " + segmentSize);
+    }
+    if (maxSegments < 1) {
+      throw new CacheException("Cache '" + id + "' needs at least one segment");
+    }
+    if (directory == null || directory.isEmpty()) {
+      throw new CacheException("Cache '" + id + "' needs a directory");
+    }
+    lock.lock();
+    try {
+      close();
+      open();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public String getId() {
+    return id;
+  }
+
+  @Override
+  public int getSize() {
+    lock.lock();
+    try {
+      ensureOpen();
+      return index.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    if (value == null) {
+      // a null value is a miss for every caller, there is no need to spend disk on it
+      removeObject(key);
+      return;
+    }
+    if (!(value instanceof Serializable)) {
+      throw new CacheException("MappedFileCache failed to store a non-serializable object: " + value);
+    }
+    byte[] keyBytes = keyCodec.encode(key);
+    byte[] valueBytes = valueCodec().encode(value);
+    lock.lock();
+    try {
+      ensureOpen();
+      delete(index.remove(key));
+      int length = RECORD_HEADER_SIZE + keyBytes.length + valueBytes.length;
+      Segment segment = segmentFor(length);
+      if (segment == null) {
+        // larger than a segment
+        return;
+      }
+      long expiresAt = timeToLive > 0 ? System.currentTimeMillis() + timeToLive : 0;
+      index.put(key, segment.append(key, keyBytes, valueBytes, expiresAt));
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    byte[] valueBytes;
+    CacheCodec codec;
+    lock.lock();
+    try {
+      ensureOpen();
+      Location location = index.get(key);
+      if (location == null) {
+        return null;
+      }
+      if (location.isExpired(System.currentTimeMillis())) {
+        index.remove(key);
+        delete(location);
+        return null;
+      }
+      valueBytes = location.segment.readValue(location);
+      codec = valueCodec;
+    } finally {
+      lock.unlock();
+    }
+    try {
+      return codec.decode(valueBytes);
+    } catch (CacheException e) {
+      // e.g. a result class changed without a new schema version
+      log.debug("Discarding an entry of cache " + id + " that cannot be read. Cause: " + e);
+      removeObject(key);
+      return null;
+    }
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    lock.lock();
+    try {
+      ensureOpen();
+      delete(index.remove(key));
+      return null;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void clear() {
+    lock.lock();
+    try {
+      ensureOpen();
+      index.clear();
+      for (Segment segment : segments) {
+        if (segment != null) {
+          segment.reset(++generation);
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void setStatistics(CacheStatistics statistics) {
+    this.statistics = statistics;
+  }
+
+  /**
+   * Removes the deleted and expired records from every segment.
+   */
+  public void compact() {
+    lock.lock();
+    try {
+      ensureOpen();
+      long now = System.currentTimeMillis();
+      for (Segment segment : segments) {
+        if (segment != null) {
+          compact(segment, now);
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Forces the content of the segments to the disk.
+   */
+  public void flush() {
+    lock.lock();
+    try {
+      if (segments != null) {
+        for (Segment segment : segments) {
+          if (segment != null) {
+            segment.buffer.force();
+          }
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Flushes and closes the segments and releases the directory. The cache is opened again on next use.
+   */
+  public void close() {
+    lock.lock();
+    try {
+      if (segments == null) {
+        return;
+      }
+      flush();
+      for (Segment segment : segments) {
+        if (segment != null) {
+          closeQuietly(segment.channel);
+        }
+      }
+      segments = null;
+      current = null;
+      index.clear();
+      closeQuietly(lockChannel);
+      lockChannel = null;
+      fileLock = null;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public String getDirectory() {
+    return directory;
+  }
+
+  public void setDirectory(String directory) {
+    this.directory = directory;
+  }
+
+  public int getSegmentSize() {
+    return segmentSize;
+  }
+
+  public void setSegmentSize(int segmentSize) {
+    this.segmentSize = segmentSize;
+  }
+
+  public int getMaxSegments() {
+    return maxSegments;
+  }
+
+  public void setMaxSegments(int maxSegments) {
+    this.maxSegments = maxSegments;
+  }
+
+  public long getTimeToLive() {
+    return timeToLive;
+  }
+
+  /**
+   * @param timeToLive
+   *          the time to live of the entries in milliseconds, {@code 0} for no expiry
+   */
+  public void setTimeToLive(long timeToLive) {
+    this.timeToLive = timeToLive;
+  }
+
+  public String getSchemaVersion() {
+    return schemaVersion;
+  }
+
+  public void setSchemaVersion(String schemaVersion) {
+    this.schemaVersion = schemaVersion;
+  }
+
+  public String getCodec() {
+    return codec;
+  }
+
+  /**
+   * @param codec
+   *          the class name of the {@link CacheCodec} of the values, {@link JavaSerializationCodec} by default
+   */
+  public void setCodec(String codec) {
+    this.codec = codec;
+  }
+
+  /**
+   * @return bytes of the records of live entries
+   */
+  public long getLiveBytes() {
+    return sum(true);
+  }
+
+  /**
+   * @return bytes of the records of deleted entries, reclaimed by the next compaction of their segment
+   */
+  public long getDeadBytes() {
+    return sum(false);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Cache)) {
+      return false;
+    }
+    return id.equals(((Cache) o).getId());
+  }
+
+  @Override
+  public int hashCode() {
+    return id.hashCode();
+  }
+
+  private long sum(boolean live) {
+    lock.lock();
+    try {
+      ensureOpen();
+      long bytes = 0;
+      for (Segment segment : segments) {
+        if (segment != null) {
+          bytes += live ? segment.liveBytes : segment.deadBytes;
+        }
+      }
+      return bytes;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private CacheCodec valueCodec() {
+    lock.lock();
+    try {
+      ensureOpen();
+      return valueCodec;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void ensureOpen() {
+    if (segments == null) {
+      open();
+    }
+  }
+
+  private void open() {
+    valueCodec = newCodecInstance();
+    schema = CacheKey.fingerprint(schemaVersion + '|' + codec);
+    if (directory == null || directory.isEmpty()) {
+      throw new CacheException("Cache '" + id + "' needs a directory");
+    }
+    path = Paths.get(directory, id.replaceAll("[^A-Za-z0-9._-]", "_"));
+    try {
+      createPrivateDirectory(path);
+      lockChannel = FileChannel.open(path.resolve(".lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+      fileLock = lockChannel.tryLock();
+    } catch (OverlappingFileLockException e) {
+      fileLock = null;
+    } catch (IOException e) {
+      closeQuietly(lockChannel);
+      throw new CacheException("Error opening the directory of cache " + id + ". Cause: " + e, e);
+    }
+    if (fileLock == null) {
+      closeQuietly(lockChannel);
+      throw new CacheException("The directory " + path + " of cache " + id + " is in use by another cache");
+    }
+    segments = new Segment[maxSegments];
+    try {
+      deleteExtraSegments();
+      for (int slot = 0; slot < maxSegments; slot++) {
+        Path file = path.resolve(SEGMENT_PREFIX + slot + SEGMENT_SUFFIX);
+        if (Files.exists(file)) {
+          segments[slot] = openSegment(file);
+        }
+      }
+    } catch (IOException e) {
+      close();
+      throw new CacheException("Error opening the segments of cache " + id + ". Cause: " + e, e);
+    }
+    recover();
+  }
+
+  private void deleteExtraSegments() throws IOException {
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(path, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+      for (Path file : files) {
+        String name = file.getFileName().toString();
+        String slot = name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length());
+        if (!slot.matches("\\d+") || Integer.parseInt(slot) >= maxSegments) {
+          Files.delete(file);
+        }
+      }
+    }
+  }
+
+  private Segment openSegment(Path file) throws IOException {
+    if (Files.size(file) != segmentSize) {
+      // written with another segment size
+      Files.delete(file);
+      return null;
+    }
+    return new Segment(file);
+  }
+
+  /**
+   * Rebuilds the index from the segments, oldest first so that the last record of a key wins.
+   */
+  private void recover() {
+    long now = System.currentTimeMillis();
+    int discarded = 0;
+    List<Segment> ordered = new ArrayList<>();
+    for (Segment segment : segments) {
+      if (segment != null) {
+        ordered.add(segment);
+      }
+    }
+    ordered.sort((a, b) -> Long.compare(a.generation, b.generation));
+    for (Segment segment : ordered) {
+      if (!segment.hasValidHeader()) {
+        discarded++;
+        segment.reset(++generation);
+        continue;
+      }
+      generation = Math.max(generation, segment.generation);
+      segment.scan(now);
+      current = segment;
+    }
+    if (discarded > 0) {
+      log.debug("Discarded " + discarded + " stale segments of cache " + id + " in " + path);
+    }
+    if (current != null && log.isDebugEnabled()) {
+      log.debug("Reopened " + index.size() + " entries of cache " + id + " from " + path);
+    }
+  }
+
+  private Segment segmentFor(int length) {
+    if (length > segmentSize - HEADER_SIZE) {
+      return null;
+    }
+    if (current != null && current.fits(length)) {
+      return current;
+    }
+    for (Segment segment : segments) {
+      if (segment != null && segment.fits(length)) {
+        return use(segment);
+      }
+    }
+    try {
+      for (int slot = 0; slot < segments.length; slot++) {
+        if (segments[slot] == null) {
+          Segment segment = new Segment(path.resolve(SEGMENT_PREFIX + slot + SEGMENT_SUFFIX));
+          segment.reset(++generation);
+          segments[slot] = segment;
+          return use(segment);
+        }
+      }
+    } catch (IOException e) {
+      throw new CacheException("Error creating a segment of cache " + id + ". Cause: " + e, e);
+    }
+    // reclaim deleted and expired records, then the oldest segment
+    long now = System.currentTimeMillis();
+    Segment oldest = segments[0];
+    for (Segment segment : segments) {
+      if (segment.needsCompaction(now)) {
+        compact(segment, now);
+      }
+      if (segment.generation < oldest.generation) {
+        oldest = segment;
+      }
+    }
+    for (Segment segment : segments) {
+      if (segment.fits(length)) {
+        return use(segment);
+      }
+    }
+    evict(oldest);
+    return use(oldest);
+  }
+
+  /**
+   * Makes a segment the one entries are appended to. It becomes the youngest, the last to be evicted.
+   */
+  private Segment use(Segment segment) {
+    segment.setGeneration(++generation);
+    current = segment;
+    return segment;
+  }
+
+  private void delete(Location location) {
+    if (location != null) {
+      location.segment.delete(location);
+    }
+  }
+
+  private void compact(Segment segment, long now) {
+    int expired = segment.compact(now);
+    if (expired > 0 && statistics != null) {
+      statistics.recordEvictions(expired);
+    }
+  }
+
+  private void evict(Segment segment) {
+    int evicted = segment.locations.size();
+    for (Location location : segment.locations.values()) {
+      index.remove(location.key);
+    }
+    segment.reset(++generation);
+    if (statistics != null) {
+      statistics.recordEvictions(evicted);
+    }
+  }
+
+  private CacheCodec newCodecInstance() {
+    try {
+      return (CacheCodec) Resources.classForName(codec).getConstructor().newInstance();
+    } catch (Exception e) {
+      throw new CacheException("Could not instantiate cache codec (" + codec + "). Cause: " + e, e);
+    }
+  }
+
+  private Object decodeKey(byte[] keyBytes) {
+    try {
+      return keyCodec.decode(keyBytes);
+    } catch (CacheException e) {
+      return null;
+    }
+  }
+
+  private static int crc(byte[] keyBytes, byte[] valueBytes) {
+    CRC32 crc = new CRC32();
+    crc.update(keyBytes);
+    crc.update(valueBytes);
+    return (int) crc.getValue();
+  }
+
+  private static void createPrivateDirectory(Path path) throws IOException {
+    Files.createDirectories(path);
+    try {
+      // the entries are deserialized when read back, nobody else may write them
+      Set<PosixFilePermission> ownerOnly = PosixFilePermissions.fromString("rwx------");
+      Files.setPosixFilePermissions(path, ownerOnly);
+    } catch (UnsupportedOperationException e) {
+      // not a POSIX file system, left to its access control lists
+    }
+  }
+
+  private static void closeQuietly(FileChannel channel) {
+    if (channel != null) {
+      try {
+        channel.close();
+      } catch (IOException e) {
+        // ignore
+      }
+    }
+  }
+
+  private final class Segment {
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    // offset of each live record
+    private final Map<Integer, Location> locations = new HashMap<>();
+    private long generation;
+    private int position = HEADER_SIZE;
+    private long liveBytes;
+    private long deadBytes;
+    private long minExpiresAt;
+
+    Segment(Path file) throws IOException {
+      this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+          StandardOpenOption.WRITE);
+      try {
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+      } catch (IOException e) {
+        closeQuietly(channel);
+        throw e;
+      }
+      this.generation = buffer.getLong(16);
+    }
+
+    boolean hasValidHeader() {
+      return buffer.getInt(0) == MAGIC && buffer.getInt(4) == FORMAT_VERSION && buffer.getLong(8) == schema;
+    }
+
+    void reset(long newGeneration) {
+      locations.clear();
+      generation = newGeneration;
+      position = HEADER_SIZE;
+      liveBytes = 0;
+      deadBytes = 0;
+      minExpiresAt = 0;
+      buffer.putInt(0, MAGIC);
+      buffer.putInt(4, FORMAT_VERSION);
+      buffer.putLong(8, schema);
+      buffer.putLong(16, generation);
+      buffer.putInt(HEADER_SIZE, 0);
+    }
+
+    void setGeneration(long newGeneration) {
+      generation = newGeneration;
+      buffer.putLong(16, generation);
+    }
+
+    boolean fits(int length) {
+      return position + length <= segmentSize;
+    }
+
+    boolean needsCompaction(long now) {
+      return deadBytes > 0 || minExpiresAt != 0 && minExpiresAt <= now;
+    }
+
+    Location append(Object key, byte[] keyBytes, byte[] valueBytes, long expiresAt) {
+      int offset = position;
+      int length = RECORD_HEADER_SIZE + keyBytes.length + valueBytes.length;
+      buffer.put(offset + 4, LIVE);
+      buffer.putLong(offset + 5, expiresAt);
+      buffer.putInt(offset + 13, keyBytes.length);
+      buffer.putInt(offset + 17, crc(keyBytes, valueBytes));
+      ((Buffer) buffer).position(offset + RECORD_HEADER_SIZE);
+      buffer.put(keyBytes);
+      buffer.put(valueBytes);
+      markEnd(offset + length);
+      // the length comes last, a record is not valid until it is complete
+      buffer.putInt(offset, length);
+      position = offset + length;
+      return track(key, offset, length, keyBytes.length, expiresAt);
+    }
+
+    byte[] readValue(Location location) {
+      byte[] valueBytes = new byte[location.length - RECORD_HEADER_SIZE - location.keyLength];
+      ((Buffer) buffer).position(location.offset + RECORD_HEADER_SIZE + location.keyLength);
+      buffer.get(valueBytes);
+      return valueBytes;
+    }
+
+    void delete(Location location) {
+      buffer.put(location.offset + 4, DELETED);
+      locations.remove(location.offset);
+      liveBytes -= location.length;
+      deadBytes += location.length;
+    }
+
+    /**
+     * Indexes the valid records, up to the first incomplete or corrupted one.
+     */
+    void scan(long now) {
+      int offset = HEADER_SIZE;
+      while (offset + RECORD_HEADER_SIZE <= segmentSize) {
+        int length = buffer.getInt(offset);
+        int keyLength = buffer.getInt(offset + 13);
+        if (length < RECORD_HEADER_SIZE || length > segmentSize - offset || keyLength < 0
+            || keyLength > length - RECORD_HEADER_SIZE) {
+          break;
+        }
+        byte[] keyBytes = new byte[keyLength];
+        byte[] valueBytes = new byte[length - RECORD_HEADER_SIZE - keyLength];
+        ((Buffer) buffer).position(offset + RECORD_HEADER_SIZE);
+        buffer.get(keyBytes);
+        buffer.get(valueBytes);
+        if (buffer.getInt(offset + 17) != crc(keyBytes, valueBytes)) {
+          break;
+        }
+        long expiresAt = buffer.getLong(offset + 5);
+        Object key = buffer.get(offset + 4) == LIVE && (expiresAt == 0 || expiresAt > now) ? decodeKey(keyBytes)
+            : null;
+        if (key == null) {
+          buffer.put(offset + 4, DELETED);
+          deadBytes += length;
+        } else {
+          MappedFileCache.this.delete(index.put(key, track(key, offset, length, keyLength, expiresAt)));
+        }
+        offset += length;
+      }
+      position = offset;
+      markEnd(offset);
+    }
+
+    /**
+     * Moves the live records towards the start of the segment, over the deleted and expired ones.
+     *
+     * @return the number of expired entries removed
+     */
+    int compact(long now) {
+      Map<Integer, Location> live = new HashMap<>(locations);
+      locations.clear();
+      liveBytes = 0;
+      deadBytes = 0;
+      minExpiresAt = 0;
+      int expired = 0;
+      int write = HEADER_SIZE;
+      for (int read = HEADER_SIZE; read < position;) {
+        int length = buffer.getInt(read);
+        Location location = live.get(read);
+        if (location != null && location.isExpired(now)) {
+          index.remove(location.key);
+          expired++;
+        } else if (location != null) {
+          if (write != read) {
+            byte[] record = new byte[length];
+            ((Buffer) buffer).position(read);
+            buffer.get(record);
+            ((Buffer) buffer).position(write);
+            buffer.put(record);
+          }
+          location.offset = write;
+          track(location);
+          write += length;
+        }
+        read += length;
+      }
+      position = write;
+      markEnd(write);
+      return expired;
+    }
+
+    private Location track(Object key, int offset, int length, int keyLength, long expiresAt) {
+      Location location = new Location(this, key, offset, length, keyLength, expiresAt);
+      track(location);
+      return location;
+    }
+
+    private void track(Location location) {
+      locations.put(location.offset, location);
+      liveBytes += location.length;
+      if (location.expiresAt != 0 && (minExpiresAt == 0 || location.expiresAt < minExpiresAt)) {
+        minExpiresAt = location.expiresAt;
+      }
+    }
+
+    private void markEnd(int offset) {
+      if (offset + 4 <= segmentSize) {
+        buffer.putInt(offset, 0);
+      }
+    }
+  }
+
+  private static final class Location {
+    private final Segment segment;
+    private final Object key;
+    private final int length;
+    private final int keyLength;
+    private final long expiresAt;
+    private int offset;
+
+    Location(Segment segment, Object key, int offset, int length, int keyLength, long expiresAt) {
+      this.segment = segment;
+      this.key = key;
+      this.offset = offset;
+      this.length = length;
+      this.keyLength = keyLength;
+      this.expiresAt = expiresAt;
+    }
+
+    boolean isExpired(long now) {
+      return expiresAt != 0 && expiresAt <= now;
+    }
+  }
+
+}
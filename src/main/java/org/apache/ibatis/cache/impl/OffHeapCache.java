@@ -0,0 +1,627 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.io.Serializable;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.ibatis.builder.InitializingObject;
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheCodec;
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.CacheStatistics;
+import org.apache.ibatis.cache.CacheStatisticsAware;
+import org.apache.ibatis.cache.codec.ReflectionCodec;
+import org.apache.ibatis.io.Resources;
+
+/**
+ * Cache that keeps serialized entries outside of the Java heap.
+ * <p>
+ * Memory is reserved lazily as direct {@link ByteBuffer} slabs of {@code slabSize} bytes, up to {@code capacity} bytes
+ * in total. Each slab is carved into equally sized chunks of one size class and every serialized value is stored in the
+ * smallest chunk that fits. The heap only holds the cache key and a small index entry per cached object, so that
+ * lookups do not serialize the key.
+ * Entries are evicted in least recently used order within their size class and, when a size class has no slab at all,
+ * the least used slab of the size class that owns the most slabs is taken over.
+ * <p>
+ * As values are always deserialized on read, callers get a copy of the cached object just like with a read/write
+ * cache. Entries that do not fit in a slab are not cached. Values are serialized with {@link ReflectionCodec} unless
+ * another {@code codec} is given; as they never leave the process, they can only have been written by this cache.
+ * The settings are applied by {@link #initialize()}, which the cache otherwise calls on first use.
+ *
+ * <pre>
+ * &lt;cache type="org.apache.ibatis.cache.impl.OffHeapCache"&gt;
+ *   &lt;property name="capacity" value="1073741824"/&gt;
+ *   &lt;property name="slabSize" value="4194304"/&gt;
+ *   &lt;property name="codec" value="org.apache.ibatis.cache.codec.JavaSerializationCodec"/&gt;
+ * &lt;/cache&gt;
+ * </pre>
+ */
+public class OffHeapCache implements Cache, InitializingObject, CacheStatisticsAware {
+
+  private static final int HEADER_SIZE = 4;
+  private static final int MIN_CHUNK_SIZE = 64;
+  private static final double GROWTH_FACTOR = 1.25;
+
+  private final String id;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Map<Object, Entry> index = new HashMap<>();
+
+  private long capacity = 64L * 1024 * 1024;
+  private int slabSize = 1024 * 1024;
+  private String codec = ReflectionCodec.class.getName();
+
+  private CacheCodec valueCodec;
+  private int[] chunkSizes;
+  private SizeClass[] sizeClasses;
+  private Slab[] slabs;
+  private int entries;
+  private long usedBytes;
+  private long chunkBytes;
+  private long evictions;
+  private long rejections;
+  private CacheStatistics statistics;
+
+  public OffHeapCache(String id) {
+    this.id = id;
+  }
+
+  /**
+   * Applies the settings of this cache, discarding its entries.
+   */
+  @Override
+  public void initialize() {
+    lock.lock();
+    try {
+      setUp();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public String getId() {
+    return id;
+  }
+
+  @Override
+  public int getSize() {
+    lock.lock();
+    try {
+      return entries;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    if (value == null) {
+      // a null value is a miss for every caller, there is no need to spend memory on it
+      removeObject(key);
+      return;
+    }
+    if (!(value instanceof Serializable)) {
+      throw new CacheException("OffHeapCache failed to store a non-serializable object: " + value);
+    }
+    byte[] valueBytes = valueCodec().encode(value);
+    int length = HEADER_SIZE + valueBytes.length;
+    lock.lock();
+    try {
+      ensureInitialized();
+      Entry existing = index.remove(key);
+      if (existing != null) {
+        remove(existing);
+      }
+      int sizeClass = sizeClassFor(length);
+      if (sizeClass < 0) {
+        rejections++;
+        return;
+      }
+      long address = allocate(sizeClass);
+      if (address < 0) {
+        rejections++;
+        return;
+      }
+      Entry entry = new Entry(key, sizeClass, address, length);
+      write(entry, valueBytes);
+      index.put(key, entry);
+      sizeClasses[sizeClass].addLast(entry);
+      entries++;
+      usedBytes += length;
+      chunkBytes += chunkSizes[sizeClass];
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    byte[] valueBytes;
+    CacheCodec codec;
+    lock.lock();
+    try {
+      Entry entry = index.get(key);
+      if (entry == null) {
+        return null;
+      }
+      sizeClasses[entry.sizeClass].moveToBack(entry);
+      valueBytes = readValue(entry);
+      codec = valueCodec;
+    } finally {
+      lock.unlock();
+    }
+    return codec.decode(valueBytes);
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    lock.lock();
+    try {
+      Entry entry = index.remove(key);
+      if (entry != null) {
+        remove(entry);
+      }
+      return null;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void clear() {
+    lock.lock();
+    try {
+      ensureInitialized();
+      index.clear();
+      for (SizeClass sizeClass : sizeClasses) {
+        sizeClass.clear();
+      }
+      for (Slab slab : slabs) {
+        if (slab != null) {
+          slab.sizeClass = -1;
+          slab.live = 0;
+        }
+      }
+      entries = 0;
+      usedBytes = 0;
+      chunkBytes = 0;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void setStatistics(CacheStatistics statistics) {
+    this.statistics = statistics;
+  }
+
+  public long getCapacity() {
+    return capacity;
+  }
+
+  public void setCapacity(long capacity) {
+    this.capacity = capacity;
+  }
+
+  public int getSlabSize() {
+    return slabSize;
+  }
+
+  public void setSlabSize(int slabSize) {
+    this.slabSize = slabSize;
+  }
+
+  public String getCodec() {
+    return codec;
+  }
+
+  /**
+   * @param codec
+   *          the class name of the {@link CacheCodec} of the values, {@link ReflectionCodec} by default
+   */
+  public void setCodec(String codec) {
+    this.codec = codec;
+  }
+
+  /**
+   * @return bytes reserved as direct memory so far
+   */
+  public long getReservedBytes() {
+    lock.lock();
+    try {
+      ensureInitialized();
+      long reserved = 0;
+      for (Slab slab : slabs) {
+        if (slab != null) {
+          reserved += slabSize;
+        }
+      }
+      return reserved;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return bytes of serialized values currently stored
+   */
+  public long getUsedBytes() {
+    lock.lock();
+    try {
+      return usedBytes;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return ratio of the used bytes to the capacity, between 0 and 1
+   */
+  public double getOccupancy() {
+    return (double) getUsedBytes() / capacity;
+  }
+
+  /**
+   * @return ratio of the bytes wasted at the end of occupied chunks to the bytes of occupied chunks, between 0 and 1
+   */
+  public double getFragmentation() {
+    lock.lock();
+    try {
+      return chunkBytes == 0 ? 0 : 1 - (double) usedBytes / chunkBytes;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public long getEvictionCount() {
+    lock.lock();
+    try {
+      return evictions;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return number of entries that were not cached because they are larger than a slab or no memory could be freed
+   */
+  public long getRejectionCount() {
+    lock.lock();
+    try {
+      return rejections;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Cache)) {
+      return false;
+    }
+    return id.equals(((Cache) o).getId());
+  }
+
+  @Override
+  public int hashCode() {
+    return id.hashCode();
+  }
+
+  private CacheCodec valueCodec() {
+    lock.lock();
+    try {
+      ensureInitialized();
+      return valueCodec;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void ensureInitialized() {
+    if (sizeClasses == null) {
+      setUp();
+    }
+  }
+
+  private void setUp() {
+    if (slabSize < MIN_CHUNK_SIZE) {
+      throw new CacheException("The slab size of cache '" + id + "' must be at least " + MIN_CHUNK_SIZE + " bytes");
+    }
+    if (capacity < slabSize) {
+      throw new CacheException("The capacity of cache '" + id + "' must be at least one slab (" + slabSize + " bytes)");
+    }
+    valueCodec = newCodecInstance();
+    List<Integer> sizes = new ArrayList<>();
+    int size = MIN_CHUNK_SIZE;
+    while (size < slabSize) {
+      sizes.add(size);
+      size = Math.max(size + 8, (int) (size * GROWTH_FACTOR) & ~7);
+    }
+    sizes.add(slabSize);
+    this.chunkSizes = sizes.stream().mapToInt(Integer::intValue).toArray();
+    this.sizeClasses = new SizeClass[chunkSizes.length];
+    for (int i = 0; i < sizeClasses.length; i++) {
+      sizeClasses[i] = new SizeClass();
+    }
+    this.slabs = new Slab[(int) Math.min(Integer.MAX_VALUE, capacity / slabSize)];
+    index.clear();
+    entries = 0;
+    usedBytes = 0;
+    chunkBytes = 0;
+  }
+
+  private CacheCodec newCodecInstance() {
+    try {
+      return (CacheCodec) Resources.classForName(codec).getConstructor().newInstance();
+    } catch (Exception e) {
+      throw new CacheException("Could not instantiate cache codec (" + codec + "). Cause: " + e, e);
+    }
+  }
+
+  private int sizeClassFor(int length) {
+    int i = Arrays.binarySearch(chunkSizes, length);
+    i = i < 0 ? -i - 1 : i;
+    return i < chunkSizes.length ? i : -1;
+  }
+
+  private long allocate(int sizeClassIndex) {
+    SizeClass sizeClass = sizeClasses[sizeClassIndex];
+    if (sizeClass.freeChunks.isEmpty()) {
+      int slab = acquireSlab(sizeClassIndex);
+      if (slab >= 0) {
+        assign(slab, sizeClassIndex);
+      } else if (sizeClass.first != null) {
+        evict(sizeClass.first);
+      } else {
+        return -1;
+      }
+    }
+    long address = sizeClass.freeChunks.pop();
+    slabs[slabOf(address)].live++;
+    return address;
+  }
+
+  private int acquireSlab(int sizeClassIndex) {
+    for (int i = 0; i < slabs.length; i++) {
+      if (slabs[i] == null) {
+        slabs[i] = new Slab(ByteBuffer.allocateDirect(slabSize));
+        return i;
+      }
+      if (slabs[i].sizeClass < 0) {
+        return i;
+      }
+    }
+    if (sizeClasses[sizeClassIndex].first != null) {
+      return -1;
+    }
+    return reclaimSlab();
+  }
+
+  /**
+   * Takes a slab away from the size class owning the most slabs, evicting the entries it holds.
+   */
+  private int reclaimSlab() {
+    int[] owned = new int[sizeClasses.length];
+    for (Slab slab : slabs) {
+      owned[slab.sizeClass]++;
+    }
+    int victimClass = 0;
+    for (int i = 1; i < owned.length; i++) {
+      if (owned[i] > owned[victimClass]) {
+        victimClass = i;
+      }
+    }
+    int victimSlab = -1;
+    for (int i = 0; i < slabs.length; i++) {
+      if (slabs[i].sizeClass == victimClass && (victimSlab < 0 || slabs[i].live < slabs[victimSlab].live)) {
+        victimSlab = i;
+      }
+    }
+    SizeClass sizeClass = sizeClasses[victimClass];
+    for (Entry entry = sizeClass.first; entry != null;) {
+      Entry next = entry.after;
+      if (slabOf(entry.address) == victimSlab) {
+        evict(entry);
+      }
+      entry = next;
+    }
+    sizeClass.freeChunks.removeSlab(victimSlab);
+    slabs[victimSlab].sizeClass = -1;
+    return victimSlab;
+  }
+
+  private void assign(int slabIndex, int sizeClassIndex) {
+    Slab slab = slabs[slabIndex];
+    slab.sizeClass = sizeClassIndex;
+    slab.live = 0;
+    int chunkSize = chunkSizes[sizeClassIndex];
+    LongStack freeChunks = sizeClasses[sizeClassIndex].freeChunks;
+    for (int offset = slabSize - chunkSize - (slabSize % chunkSize); offset >= 0; offset -= chunkSize) {
+      freeChunks.push(address(slabIndex, offset));
+    }
+  }
+
+  private void evict(Entry entry) {
+    index.remove(entry.key);
+    remove(entry);
+    evictions++;
+    if (statistics != null) {
+      statistics.recordEviction();
+    }
+  }
+
+  /**
+   * Frees the chunk of an entry already removed from the index.
+   */
+  private void remove(Entry entry) {
+    SizeClass sizeClass = sizeClasses[entry.sizeClass];
+    sizeClass.unlink(entry);
+    sizeClass.freeChunks.push(entry.address);
+    slabs[slabOf(entry.address)].live--;
+    entries--;
+    usedBytes -= entry.length;
+    chunkBytes -= chunkSizes[entry.sizeClass];
+  }
+
+  private void write(Entry entry, byte[] valueBytes) {
+    ByteBuffer buffer = slabs[slabOf(entry.address)].buffer;
+    int offset = offsetOf(entry.address);
+    buffer.putInt(offset, valueBytes.length);
+    ((Buffer) buffer).position(offset + HEADER_SIZE);
+    buffer.put(valueBytes);
+  }
+
+  private byte[] readValue(Entry entry) {
+    ByteBuffer buffer = slabs[slabOf(entry.address)].buffer;
+    int offset = offsetOf(entry.address);
+    byte[] valueBytes = new byte[buffer.getInt(offset)];
+    ((Buffer) buffer).position(offset + HEADER_SIZE);
+    buffer.get(valueBytes);
+    return valueBytes;
+  }
+
+  private static long address(int slab, int offset) {
+    return ((long) slab << 32) | offset;
+  }
+
+  private static int slabOf(long address) {
+    return (int) (address >>> 32);
+  }
+
+  private static int offsetOf(long address) {
+    return (int) address;
+  }
+
+  private static final class Entry {
+    private final Object key;
+    private final int sizeClass;
+    private final long address;
+    private final int length;
+    private Entry before;
+    private Entry after;
+
+    Entry(Object key, int sizeClass, long address, int length) {
+      this.key = key;
+      this.sizeClass = sizeClass;
+      this.address = address;
+      this.length = length;
+    }
+  }
+
+  private static final class Slab {
+    private final ByteBuffer buffer;
+    private int sizeClass = -1;
+    private int live;
+
+    Slab(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+  }
+
+  /**
+   * Free chunks and least recently used order of the entries of one chunk size.
+   */
+  private static final class SizeClass {
+    private final LongStack freeChunks = new LongStack();
+    private Entry first;
+    private Entry last;
+
+    void addLast(Entry entry) {
+      entry.before = last;
+      entry.after = null;
+      if (last == null) {
+        first = entry;
+      } else {
+        last.after = entry;
+      }
+      last = entry;
+    }
+
+    void unlink(Entry entry) {
+      if (entry.before == null) {
+        first = entry.after;
+      } else {
+        entry.before.after = entry.after;
+      }
+      if (entry.after == null) {
+        last = entry.before;
+      } else {
+        entry.after.before = entry.before;
+      }
+      entry.before = null;
+      entry.after = null;
+    }
+
+    void moveToBack(Entry entry) {
+      if (entry != last) {
+        unlink(entry);
+        addLast(entry);
+      }
+    }
+
+    void clear() {
+      first = null;
+      last = null;
+      freeChunks.clear();
+    }
+  }
+
+  private static final class LongStack {
+    private long[] elements = new long[16];
+    private int size;
+
+    boolean isEmpty() {
+      return size == 0;
+    }
+
+    void push(long value) {
+      if (size == elements.length) {
+        elements = Arrays.copyOf(elements, size * 2);
+      }
+      elements[size++] = value;
+    }
+
+    long pop() {
+      return elements[--size];
+    }
+
+    void removeSlab(int slab) {
+      int kept = 0;
+      for (int i = 0; i < size; i++) {
+        if (slabOf(elements[i]) != slab) {
+          elements[kept++] = elements[i];
+        }
+      }
+      size = kept;
+    }
+
+    void clear() {
+      size = 0;
+    }
+  }
+
+}
@@ -0,0 +1,132 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.invalidation;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * An invalidation of second level cache entries, as sent to the other nodes of a cluster.
+ *
+ * @since 3.5.11
+ */
+public final class CacheInvalidation implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  public enum Type {
+    /** Every entry of a cache. */
+    NAMESPACE,
+    /** Some entries of a cache. */
+    KEYS,
+    /** Every entry depending on some tables, see {@link org.apache.ibatis.cache.CacheDependencyIndex}. */
+    TABLES,
+    /** Every entry of every cache, sent when invalidations may have been lost. */
+    ALL
+  }
+
+  private final Type type;
+  private final String cacheId;
+  private final Set<Object> keys;
+  private final Set<String> tables;
+  private final Set<String> writerCacheIds;
+
+  private CacheInvalidation(Type type, String cacheId, Set<Object> keys, Set<String> tables,
+      Set<String> writerCacheIds) {
+    this.type = type;
+    this.cacheId = cacheId;
+    this.keys = keys;
+    this.tables = tables;
+    this.writerCacheIds = writerCacheIds;
+  }
+
+  public static CacheInvalidation namespace(String cacheId) {
+    return new CacheInvalidation(Type.NAMESPACE, cacheId, Collections.emptySet(), Collections.emptySet(),
+        Collections.emptySet());
+  }
+
+  /**
+   * Creates an invalidation of some entries of a cache.
+   *
+   * @param cacheId
+   *          the cache id
+   * @param keys
+   *          the keys, which must be serializable to be sent to other JVMs
+   * @return the invalidation
+   */
+  public static CacheInvalidation keys(String cacheId, Collection<?> keys) {
+    return new CacheInvalidation(Type.KEYS, cacheId, Collections.unmodifiableSet(new LinkedHashSet<>(keys)),
+        Collections.emptySet(), Collections.emptySet());
+  }
+
+  /**
+   * Creates an invalidation of the entries depending on some tables.
+   *
+   * @param tables
+   *          the modified tables
+   * @param writerCacheIds
+   *          the ids of the caches of the modifying statements, whose entries of unknown dependencies are evicted too
+   * @return the invalidation
+   */
+  public static CacheInvalidation tables(Collection<String> tables, Collection<String> writerCacheIds) {
+    return new CacheInvalidation(Type.TABLES, null, Collections.emptySet(),
+        Collections.unmodifiableSet(new LinkedHashSet<>(tables)),
+        Collections.unmodifiableSet(new LinkedHashSet<>(writerCacheIds)));
+  }
+
+  public static CacheInvalidation all() {
+    return new CacheInvalidation(Type.ALL, null, Collections.emptySet(), Collections.emptySet(),
+        Collections.emptySet());
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  public String getCacheId() {
+    return cacheId;
+  }
+
+  public Set<Object> getKeys() {
+    return keys;
+  }
+
+  public Set<String> getTables() {
+    return tables;
+  }
+
+  public Set<String> getWriterCacheIds() {
+    return writerCacheIds;
+  }
+
+  @Override
+  public String toString() {
+    switch (type) {
+      case NAMESPACE:
+        return "NAMESPACE[" + cacheId + "]";
+      case KEYS:
+        return "KEYS[" + cacheId + "] " + keys.size() + " keys";
+      case TABLES:
+        return "TABLES" + tables + " writers=" + writerCacheIds;
+      default:
+        return "ALL";
+    }
+  }
+
+}
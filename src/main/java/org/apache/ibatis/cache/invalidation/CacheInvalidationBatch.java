@@ -0,0 +1,60 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.invalidation;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The invalidations published together by a node.
+ *
+ * @since 3.5.11
+ */
+public final class CacheInvalidationBatch implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String origin;
+  private final List<CacheInvalidation> invalidations;
+
+  /**
+   * Creates a batch.
+   *
+   * @param origin
+   *          the id of the publishing node, used to ignore the batches a node receives from itself
+   * @param invalidations
+   *          the invalidations
+   */
+  public CacheInvalidationBatch(String origin, List<CacheInvalidation> invalidations) {
+    this.origin = origin;
+    this.invalidations = Collections.unmodifiableList(invalidations);
+  }
+
+  public String getOrigin() {
+    return origin;
+  }
+
+  public List<CacheInvalidation> getInvalidations() {
+    return invalidations;
+  }
+
+  @Override
+  public String toString() {
+    return "CacheInvalidationBatch[" + origin + "] " + invalidations;
+  }
+
+}
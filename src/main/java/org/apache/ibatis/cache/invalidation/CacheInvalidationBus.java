@@ -0,0 +1,372 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.invalidation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheDependencyIndex;
+import org.apache.ibatis.cache.CacheScheduler;
+import org.apache.ibatis.cache.decorators.BlockingCache;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.session.CacheInvalidationScope;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Propagates the second level cache invalidations of a configuration to the same configuration running in other JVMs,
+ * and applies theirs.
+ * <p>
+ * Commits publish the namespaces they flushed (or, with the {@code TABLE} invalidation scope, the tables they
+ * modified) through a {@link CacheInvalidationTransport}. Invalidations are collected for {@code batchWindow}
+ * milliseconds (default 0, every commit is sent at once) or until {@code maxBatchSize} of them (default 256) are
+ * pending, and are coalesced on the way: a namespace flush absorbs the pending key invalidations of the same cache, a
+ * cache with more than {@code maxBatchSize} pending keys is flushed as a whole and table invalidations are merged.
+ * Batches received from other nodes are applied directly to the local caches, outside of any transaction.
+ * <p>
+ * A bus delays remote invalidations by the batch window plus the latency of the transport; entries read on another
+ * node within that time may be stale.
+ *
+ * @since 3.5.11
+ */
+public class CacheInvalidationBus {
+
+  private static final Log log = LogFactory.getLog(CacheInvalidationBus.class);
+
+  private final Configuration configuration;
+  private final CacheInvalidationTransport transport;
+  private final String nodeId = UUID.randomUUID().toString();
+  private long batchWindow;
+  private int maxBatchSize = 256;
+
+  private final ReentrantLock pendingLock = new ReentrantLock();
+  private final Set<String> pendingNamespaces = new LinkedHashSet<>();
+  private final Map<String, Set<Object>> pendingKeys = new LinkedHashMap<>();
+  private final Set<String> pendingTables = new LinkedHashSet<>();
+  private final Set<String> pendingWriterCacheIds = new LinkedHashSet<>();
+  private int pendingCount;
+  private ScheduledFuture<?> flusher;
+
+  private final LongAdder publishedBatches = new LongAdder();
+  private final LongAdder publishedInvalidations = new LongAdder();
+  private final LongAdder coalescedInvalidations = new LongAdder();
+  private final LongAdder receivedBatches = new LongAdder();
+  private final LongAdder appliedInvalidations = new LongAdder();
+
+  public CacheInvalidationBus(Configuration configuration, CacheInvalidationTransport transport) {
+    this.configuration = configuration;
+    this.transport = transport;
+  }
+
+  public void setProperties(Properties properties) {
+    String value = properties.getProperty("batchWindow");
+    if (value != null) {
+      batchWindow = Long.parseLong(value);
+    }
+    value = properties.getProperty("maxBatchSize");
+    if (value != null) {
+      maxBatchSize = Integer.parseInt(value);
+    }
+  }
+
+  /**
+   * Starts the transport and, with a batch window, the periodic flush of pending invalidations.
+   */
+  public void start() {
+    transport.start(this::receive);
+    if (batchWindow > 0) {
+      flusher = CacheScheduler.scheduleWeakly(this, CacheInvalidationBus::flush, batchWindow);
+    }
+  }
+
+  /**
+   * Publishes invalidations to the other nodes, at once or with the next batch.
+   *
+   * @param invalidations
+   *          the invalidations
+   */
+  public void publish(Collection<CacheInvalidation> invalidations) {
+    boolean full;
+    pendingLock.lock();
+    try {
+      for (CacheInvalidation invalidation : invalidations) {
+        enqueue(invalidation);
+      }
+      full = pendingCount >= maxBatchSize;
+    } finally {
+      pendingLock.unlock();
+    }
+    if (batchWindow <= 0 || full) {
+      flush();
+    }
+  }
+
+  /**
+   * Publishes the invalidation of some entries, for applications that modify data behind the back of the statements.
+   *
+   * @param cacheId
+   *          the cache id
+   * @param keys
+   *          the keys of the entries
+   */
+  public void invalidateKeys(String cacheId, Collection<?> keys) {
+    publish(Collections.singletonList(CacheInvalidation.keys(cacheId, keys)));
+  }
+
+  /**
+   * Sends the pending invalidations.
+   */
+  public void flush() {
+    List<CacheInvalidation> invalidations = drain();
+    if (invalidations.isEmpty()) {
+      return;
+    }
+    try {
+      transport.publish(new CacheInvalidationBatch(nodeId, invalidations));
+      publishedBatches.increment();
+      publishedInvalidations.add(invalidations.size());
+    } catch (RuntimeException e) {
+      log.warn("Error publishing " + invalidations.size() + " cache invalidations. Cause: " + e);
+    }
+  }
+
+  /**
+   * Flushes the pending invalidations and closes the transport.
+   */
+  public void close() {
+    if (flusher != null) {
+      flusher.cancel(false);
+    }
+    flush();
+    transport.close();
+  }
+
+  public String getNodeId() {
+    return nodeId;
+  }
+
+  public CacheInvalidationTransport getTransport() {
+    return transport;
+  }
+
+  public long getBatchWindow() {
+    return batchWindow;
+  }
+
+  public int getMaxBatchSize() {
+    return maxBatchSize;
+  }
+
+  public long getPublishedBatchCount() {
+    return publishedBatches.sum();
+  }
+
+  public long getPublishedInvalidationCount() {
+    return publishedInvalidations.sum();
+  }
+
+  /**
+   * Gets the number of invalidations that were absorbed by another one before being sent.
+   *
+   * @return the count
+   */
+  public long getCoalescedInvalidationCount() {
+    return coalescedInvalidations.sum();
+  }
+
+  public long getReceivedBatchCount() {
+    return receivedBatches.sum();
+  }
+
+  public long getAppliedInvalidationCount() {
+    return appliedInvalidations.sum();
+  }
+
+  private void enqueue(CacheInvalidation invalidation) {
+    switch (invalidation.getType()) {
+      case NAMESPACE:
+        enqueueNamespace(invalidation.getCacheId());
+        break;
+      case KEYS:
+        if (pendingNamespaces.contains(invalidation.getCacheId())) {
+          coalescedInvalidations.add(invalidation.getKeys().size());
+          break;
+        }
+        Set<Object> keys = pendingKeys.computeIfAbsent(invalidation.getCacheId(), k -> new LinkedHashSet<>());
+        for (Object key : invalidation.getKeys()) {
+          if (keys.add(key)) {
+            pendingCount++;
+          } else {
+            coalescedInvalidations.increment();
+          }
+        }
+        if (keys.size() > maxBatchSize) {
+          enqueueNamespace(invalidation.getCacheId());
+        }
+        break;
+      case TABLES:
+        for (String table : invalidation.getTables()) {
+          if (pendingTables.add(table)) {
+            pendingCount++;
+          } else {
+            coalescedInvalidations.increment();
+          }
+        }
+        pendingWriterCacheIds.addAll(invalidation.getWriterCacheIds());
+        break;
+      default:
+        for (Cache cache : localCaches()) {
+          enqueueNamespace(cache.getId());
+        }
+    }
+  }
+
+  private void enqueueNamespace(String cacheId) {
+    Set<Object> keys = pendingKeys.remove(cacheId);
+    if (keys != null) {
+      coalescedInvalidations.add(keys.size());
+      pendingCount -= keys.size();
+    }
+    if (pendingNamespaces.add(cacheId)) {
+      pendingCount++;
+    } else {
+      coalescedInvalidations.increment();
+    }
+  }
+
+  private List<CacheInvalidation> drain() {
+    pendingLock.lock();
+    try {
+      if (pendingCount == 0 && pendingWriterCacheIds.isEmpty()) {
+        return Collections.emptyList();
+      }
+      List<CacheInvalidation> invalidations = new ArrayList<>();
+      for (String cacheId : pendingNamespaces) {
+        invalidations.add(CacheInvalidation.namespace(cacheId));
+      }
+      for (Map.Entry<String, Set<Object>> entry : pendingKeys.entrySet()) {
+        invalidations.add(CacheInvalidation.keys(entry.getKey(), entry.getValue()));
+      }
+      if (!pendingTables.isEmpty() || !pendingWriterCacheIds.isEmpty()) {
+        invalidations.add(CacheInvalidation.tables(pendingTables, pendingWriterCacheIds));
+      }
+      pendingNamespaces.clear();
+      pendingKeys.clear();
+      pendingTables.clear();
+      pendingWriterCacheIds.clear();
+      pendingCount = 0;
+      return invalidations;
+    } finally {
+      pendingLock.unlock();
+    }
+  }
+
+  private void receive(CacheInvalidationBatch batch) {
+    if (nodeId.equals(batch.getOrigin())) {
+      return;
+    }
+    receivedBatches.increment();
+    for (CacheInvalidation invalidation : batch.getInvalidations()) {
+      try {
+        apply(invalidation);
+        appliedInvalidations.increment();
+      } catch (RuntimeException e) {
+        log.warn("Error applying the cache invalidation " + invalidation + ". Cause: " + e);
+      }
+    }
+  }
+
+  private void apply(CacheInvalidation invalidation) {
+    switch (invalidation.getType()) {
+      case NAMESPACE:
+        Cache cache = localCache(invalidation.getCacheId());
+        if (cache != null) {
+          cache.clear();
+        }
+        break;
+      case KEYS:
+        cache = localCache(invalidation.getCacheId());
+        if (cache instanceof BlockingCache) {
+          // Removing an entry of a blocking cache releases a lock the current thread does not hold
+          cache.clear();
+        } else if (cache != null) {
+          for (Object key : invalidation.getKeys()) {
+            cache.removeObject(key);
+          }
+        }
+        break;
+      case TABLES:
+        List<Cache> writerCaches = new ArrayList<>();
+        for (String cacheId : invalidation.getWriterCacheIds()) {
+          cache = localCache(cacheId);
+          if (cache != null) {
+            writerCaches.add(cache);
+          }
+        }
+        CacheDependencyIndex dependencyIndex = dependencyIndex();
+        if (dependencyIndex == null) {
+          // this node does not know which entries read the tables, the caches of the writers are flushed as a whole
+          writerCaches.forEach(Cache::clear);
+        } else {
+          dependencyIndex.invalidate(writerCaches, invalidation.getTables());
+        }
+        break;
+      default:
+        dependencyIndex = dependencyIndex();
+        if (dependencyIndex != null) {
+          dependencyIndex.clear();
+        }
+        for (Cache each : localCaches()) {
+          each.clear();
+        }
+    }
+  }
+
+  private CacheDependencyIndex dependencyIndex() {
+    // only filled when the invalidation scope of this node is TABLE
+    return configuration.getCacheInvalidationScope() == CacheInvalidationScope.TABLE
+        ? configuration.getCacheDependencyIndex() : null;
+  }
+
+  private Set<Cache> localCaches() {
+    // The cache map also holds short names, which may resolve to an ambiguity marker
+    Set<Cache> caches = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (Object each : configuration.getCaches()) {
+      if (each instanceof Cache) {
+        caches.add((Cache) each);
+      }
+    }
+    return caches;
+  }
+
+  private Cache localCache(String cacheId) {
+    return cacheId != null && configuration.hasCache(cacheId) ? configuration.getCache(cacheId) : null;
+  }
+
+}
@@ -0,0 +1,60 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.invalidation;
+
+import java.util.Properties;
+import java.util.function.Consumer;
+
+/**
+ * SPI carrying cache invalidation batches between the nodes of a cluster.
+ * <p>
+ * A transport delivers every published batch to the listener of every started transport of the same channel,
+ * including the publishing one; the bus ignores its own batches. Delivery may be asynchronous and may happen on any
+ * thread. A transport that detects it may have missed batches should deliver a batch holding
+ * {@link CacheInvalidation#all()}. Implementations must provide a public no-arg constructor.
+ *
+ * @since 3.5.11
+ */
+public interface CacheInvalidationTransport {
+
+  default void setProperties(Properties properties) {
+    // NOP
+  }
+
+  /**
+   * Starts receiving batches.
+   *
+   * @param listener
+   *          called with every received batch
+   */
+  void start(Consumer<CacheInvalidationBatch> listener);
+
+  /**
+   * Sends a batch to the other nodes.
+   *
+   * @param batch
+   *          the batch
+   */
+  void publish(CacheInvalidationBatch batch);
+
+  /**
+   * Stops receiving batches and releases the resources of the transport.
+   */
+  default void close() {
+    // NOP
+  }
+
+}
@@ -0,0 +1,78 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.invalidation;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Transport connecting the configurations of a single JVM, mostly useful for tests.
+ * <p>
+ * Transports with the same {@code channel} property (default {@code default}) see each other. Batches are delivered
+ * synchronously, on the publishing thread, so a commit returns after every other configuration has applied its
+ * invalidations.
+ *
+ * @since 3.5.11
+ */
+public class LoopbackTransport implements CacheInvalidationTransport {
+
+  private static final ConcurrentMap<String, List<LoopbackTransport>> channels = new ConcurrentHashMap<>();
+
+  private String channel = "default";
+  private volatile Consumer<CacheInvalidationBatch> listener;
+
+  @Override
+  public void setProperties(Properties properties) {
+    channel = properties.getProperty("channel", channel);
+  }
+
+  @Override
+  public void start(Consumer<CacheInvalidationBatch> listener) {
+    this.listener = listener;
+    channels.computeIfAbsent(channel, k -> new CopyOnWriteArrayList<>()).add(this);
+  }
+
+  @Override
+  public void publish(CacheInvalidationBatch batch) {
+    List<LoopbackTransport> subscribers = channels.get(channel);
+    if (subscribers != null) {
+      for (LoopbackTransport subscriber : subscribers) {
+        Consumer<CacheInvalidationBatch> target = subscriber.listener;
+        if (target != null) {
+          target.accept(batch);
+        }
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    listener = null;
+    List<LoopbackTransport> subscribers = channels.get(channel);
+    if (subscribers != null) {
+      subscribers.remove(this);
+    }
+  }
+
+  public String getChannel() {
+    return channel;
+  }
+
+}
@@ -0,0 +1,288 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.invalidation;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.CacheScheduler;
+import org.apache.ibatis.cache.codec.JavaSerializationCodec;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * Transport exchanging batches through a file every node can access, such as a file on a shared volume. It needs no
+ * network service, which makes it convenient to test a cluster on a single machine.
+ * <p>
+ * The file starts with an epoch followed by the serialized batches, each prefixed with its length. Publishers append
+ * under an exclusive file lock and every node polls the file every {@code pollInterval} milliseconds (default 100) for
+ * the batches appended since its last read. When the file would grow past {@code maxFileSize} bytes (default 1MB) the
+ * publisher truncates it and increments the epoch: a node that sees a new epoch may have missed batches and receives
+ * {@link CacheInvalidation#all()}.
+ * <p>
+ * The batches are read back with Java deserialization, so anyone able to write to the file can make every node
+ * deserialize classes of their choice. The {@code file} property is therefore required, the file is made readable and
+ * writable by its owner only on file systems that support POSIX permissions, and a file owned by another user is
+ * refused. All the nodes must run as that user. A JEP 290 deserialization filter ({@code jdk.serialFilter}) accepting
+ * only the classes of {@link CacheInvalidationBatch} and of the cache keys is required.
+ *
+ * @since 3.5.11
+ */
+public class SharedFileTransport implements CacheInvalidationTransport {
+
+  private static final Log log = LogFactory.getLog(SharedFileTransport.class);
+
+  private static final int HEADER_SIZE = 8;
+  private static final ConcurrentMap<String, ReentrantLock> channelLocks = new ConcurrentHashMap<>();
+
+  private final JavaSerializationCodec codec = new JavaSerializationCodec();
+  private File file;
+  private long pollInterval = 100;
+  private long maxFileSize = 1024 * 1024;
+
+  private ReentrantLock channelLock;
+  private FileChannel channel;
+  private Consumer<CacheInvalidationBatch> listener;
+  private ScheduledFuture<?> poller;
+  private long epoch;
+  private long position;
+
+  @Override
+  public void setProperties(Properties properties) {
+    String value = properties.getProperty("file");
+    if (value != null) {
+      file = new File(value);
+    }
+    value = properties.getProperty("pollInterval");
+    if (value != null) {
+      pollInterval = Long.parseLong(value);
+    }
+    value = properties.getProperty("maxFileSize");
+    if (value != null) {
+      maxFileSize = Long.parseLong(value);
+    }
+  }
+
+  @Override
+  public void start(Consumer<CacheInvalidationBatch> listener) {
+    if (file == null) {
+      throw new CacheException("The shared file cache invalidation transport needs a file property");
+    }
+    this.listener = listener;
+    try {
+      File parent = file.getAbsoluteFile().getParentFile();
+      if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+        throw new IOException("Cannot create directory " + parent);
+      }
+      // Channels of the same JVM may not hold overlapping locks on a file, so they take turns on a shared lock
+      channelLock = channelLocks.computeIfAbsent(file.getCanonicalPath(), k -> new ReentrantLock());
+      channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+          StandardOpenOption.WRITE);
+      makePrivate();
+      channelLock.lock();
+      try {
+        try (FileLock lock = channel.lock()) {
+          epoch = readEpoch();
+          position = channel.size();
+        }
+      } finally {
+        channelLock.unlock();
+      }
+    } catch (IOException e) {
+      throw new CacheException("Error opening the cache invalidation file " + file + ". Cause: " + e, e);
+    }
+    poller = CacheScheduler.scheduleWeakly(this, SharedFileTransport::poll, pollInterval);
+  }
+
+  @Override
+  public void publish(CacheInvalidationBatch batch) {
+    byte[] data = codec.encode(batch);
+    ByteBuffer frame = ByteBuffer.allocate(4 + data.length);
+    frame.putInt(data.length).put(data).flip();
+    List<CacheInvalidationBatch> received = new ArrayList<>();
+    channelLock.lock();
+    try {
+      try (FileLock lock = channel.lock()) {
+        read(received);
+        long size = channel.size();
+        if (size > HEADER_SIZE && size + frame.remaining() > maxFileSize) {
+          // Nodes that have not read the pending batches yet will see the new epoch and clear everything
+          channel.truncate(HEADER_SIZE);
+          epoch++;
+          writeEpoch(epoch);
+          size = HEADER_SIZE;
+        }
+        while (frame.hasRemaining()) {
+          size += channel.write(frame, size);
+        }
+        position = size;
+      } catch (IOException e) {
+        throw new CacheException("Error writing the cache invalidation file " + file + ". Cause: " + e, e);
+      }
+    } finally {
+      channelLock.unlock();
+    }
+    deliver(received);
+  }
+
+  /**
+   * Reads the batches published since the last read and delivers them to the listener.
+   */
+  public void poll() {
+    List<CacheInvalidationBatch> received = new ArrayList<>();
+    channelLock.lock();
+    try {
+      if (!channel.isOpen()) {
+        return;
+      }
+      try (FileLock lock = channel.lock()) {
+        read(received);
+      } catch (IOException e) {
+        log.warn("Error reading the cache invalidation file " + file + ". Cause: " + e);
+        return;
+      }
+    } finally {
+      channelLock.unlock();
+    }
+    deliver(received);
+  }
+
+  @Override
+  public void close() {
+    if (poller != null) {
+      poller.cancel(false);
+    }
+    if (channelLock != null) {
+      channelLock.lock();
+      try {
+        try {
+          channel.close();
+        } catch (IOException e) {
+          log.warn("Error closing the cache invalidation file " + file + ". Cause: " + e);
+        }
+      } finally {
+        channelLock.unlock();
+      }
+    }
+  }
+
+  private void makePrivate() throws IOException {
+    try {
+      // the batches are deserialized when read, nobody else may write them; fails on a file of another user
+      Files.setPosixFilePermissions(file.toPath(), PosixFilePermissions.fromString("rw-------"));
+    } catch (UnsupportedOperationException e) {
+      // not a POSIX file system, left to its access control lists
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  public File getFile() {
+    return file;
+  }
+
+  private void read(List<CacheInvalidationBatch> received) throws IOException {
+    long currentEpoch = readEpoch();
+    long size = channel.size();
+    if (currentEpoch != epoch || size < position) {
+      epoch = currentEpoch;
+      position = size;
+      received.add(gap());
+      return;
+    }
+    ByteBuffer length = ByteBuffer.allocate(4);
+    while (position + 4 <= size) {
+      length.clear();
+      readFully(length, position);
+      int dataLength = length.getInt(0);
+      if (dataLength <= 0 || position + 4 + dataLength > size) {
+        // Torn write of a crashed publisher
+        position = size;
+        received.add(gap());
+        return;
+      }
+      ByteBuffer data = ByteBuffer.allocate(dataLength);
+      readFully(data, position + 4);
+      position += 4 + dataLength;
+      try {
+        received.add((CacheInvalidationBatch) codec.decode(data.array()));
+      } catch (RuntimeException e) {
+        log.warn("Skipping an unreadable cache invalidation batch. Cause: " + e);
+        received.add(gap());
+      }
+    }
+  }
+
+  private long readEpoch() throws IOException {
+    if (channel.size() < HEADER_SIZE) {
+      long initial = System.currentTimeMillis();
+      channel.truncate(0);
+      writeEpoch(initial);
+      return initial;
+    }
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    readFully(header, 0);
+    return header.getLong(0);
+  }
+
+  private void writeEpoch(long value) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    header.putLong(value).flip();
+    long offset = 0;
+    while (header.hasRemaining()) {
+      offset += channel.write(header, offset);
+    }
+  }
+
+  private void readFully(ByteBuffer buffer, long offset) throws IOException {
+    long current = offset;
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, current);
+      if (read < 0) {
+        throw new IOException("Unexpected end of file " + file);
+      }
+      current += read;
+    }
+  }
+
+  private void deliver(List<CacheInvalidationBatch> received) {
+    for (CacheInvalidationBatch batch : received) {
+      listener.accept(batch);
+    }
+  }
+
+  private static CacheInvalidationBatch gap() {
+    return new CacheInvalidationBatch(null, Collections.singletonList(CacheInvalidation.all()));
+  }
+
+}
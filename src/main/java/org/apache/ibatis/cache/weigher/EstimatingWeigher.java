@@ -0,0 +1,199 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.weigher;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.cache.Weigher;
+import org.apache.ibatis.reflection.Reflector;
+
+/**
+ * Default {@link Weigher}, estimates the footprint of an entry by walking the objects it is made of.
+ * <p>
+ * Cached values are mostly result lists, so collections and maps are walked element by element; past
+ * {@value #SAMPLE_SIZE} elements only the first ones are weighed and their average is extrapolated to the whole
+ * collection, which keeps the cost of a put bounded for lists of any length. Result objects are walked through their
+ * reference fields, down to {@value #MAX_DEPTH} levels below the value, which covers the strings, dates and nested
+ * results of a row. Sizes assume a 64-bit JVM with compressed references. Classes of the JDK, enums and objects that
+ * cannot be reflected upon only count for their shallow size.
+ *
+ * @since 3.5.11
+ */
+public class EstimatingWeigher implements Weigher {
+
+  private static final int SAMPLE_SIZE = 64;
+  private static final int MAX_DEPTH = 4;
+
+  private static final ClassValue<Shape> SHAPES = new ClassValue<Shape>() {
+    @Override
+    protected Shape computeValue(Class<?> type) {
+      return new Shape(type);
+    }
+  };
+
+  @Override
+  public long weigh(Object key, Object value) {
+    return estimate(key) + estimate(value);
+  }
+
+  /**
+   * Estimates the number of bytes an object graph takes.
+   *
+   * @param value
+   *          the object, may be {@code null}
+   * @return the estimated size in bytes
+   */
+  public static long estimate(Object value) {
+    return estimate(value, MAX_DEPTH);
+  }
+
+  private static long estimate(Object value, int depth) {
+    if (value == null || value instanceof Enum || value instanceof Class) {
+      // absent or shared by every entry
+      return 0;
+    } else if (value instanceof String) {
+      return 40L + 2L * ((String) value).length();
+    } else if (value instanceof byte[]) {
+      return align(16L + ((byte[]) value).length);
+    } else if (value instanceof Collection) {
+      Collection<?> collection = (Collection<?>) value;
+      // backing array or table
+      long size = SHAPES.get(value.getClass()).size + 16L + 4L * collection.size();
+      return size + estimateElements(collection.iterator(), collection.size(), depth);
+    } else if (value instanceof Map) {
+      Map<?, ?> map = (Map<?, ?>) value;
+      // table slot and node of each entry
+      long size = SHAPES.get(value.getClass()).size + 16L + 36L * map.size();
+      return size + estimateElements(map.entrySet().iterator(), map.size(), depth);
+    } else if (value instanceof Map.Entry) {
+      Map.Entry<?, ?> entry = (Map.Entry<?, ?>) value;
+      return estimate(entry.getKey(), depth) + estimate(entry.getValue(), depth);
+    } else if (value instanceof Object[]) {
+      Object[] array = (Object[]) value;
+      long size = align(16L + 4L * array.length);
+      return size + estimateElements(new ArrayIterator(array), array.length, depth);
+    } else if (value.getClass().isArray()) {
+      return align(16L + (long) Array.getLength(value) * fieldSize(value.getClass().getComponentType()));
+    }
+    Shape shape = SHAPES.get(value.getClass());
+    long size = shape.size;
+    if (depth > 0) {
+      for (Field field : shape.references) {
+        try {
+          size += estimate(field.get(value), depth - 1);
+        } catch (IllegalAccessException e) {
+          // counted as a reference only
+        }
+      }
+    }
+    return size;
+  }
+
+  private static long estimateElements(Iterator<?> elements, int count, int depth) {
+    if (depth == 0 || count == 0) {
+      return 0;
+    }
+    long size = 0;
+    int sampled = 0;
+    while (sampled < SAMPLE_SIZE && elements.hasNext()) {
+      size += estimate(elements.next(), depth - 1);
+      sampled++;
+    }
+    return sampled == 0 || sampled == count ? size : (long) ((double) size / sampled * count);
+  }
+
+  private static long align(long size) {
+    return (size + 7) & ~7L;
+  }
+
+  private static int fieldSize(Class<?> type) {
+    if (type == long.class || type == double.class) {
+      return 8;
+    } else if (type == short.class || type == char.class) {
+      return 2;
+    } else if (type == byte.class || type == boolean.class) {
+      return 1;
+    }
+    return 4;
+  }
+
+  private static final class Shape {
+
+    private static final Field[] NO_FIELDS = {};
+
+    private final long size;
+    private final Field[] references;
+
+    Shape(Class<?> type) {
+      // object header and fields, padded to 8 bytes
+      long shallowSize = 12;
+      List<Field> fields = new ArrayList<>();
+      boolean walkable = !isPlatformClass(type) && Reflector.canControlMemberAccessible();
+      try {
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+          for (Field field : c.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+              continue;
+            }
+            shallowSize += fieldSize(field.getType());
+            if (walkable && !field.getType().isPrimitive() && !isPlatformClass(c)) {
+              field.setAccessible(true);
+              fields.add(field);
+            }
+          }
+        }
+      } catch (RuntimeException e) {
+        // e.g. members of a module that is not open to MyBatis
+        fields.clear();
+      }
+      this.size = align(shallowSize);
+      this.references = fields.isEmpty() ? NO_FIELDS : fields.toArray(NO_FIELDS);
+    }
+
+    private static boolean isPlatformClass(Class<?> type) {
+      String name = type.getName();
+      return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("sun.");
+    }
+  }
+
+  private static final class ArrayIterator implements Iterator<Object> {
+
+    private final Object[] array;
+    private int index;
+
+    ArrayIterator(Object[] array) {
+      this.array = array;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return index < array.length;
+    }
+
+    @Override
+    public Object next() {
+      return array[index++];
+    }
+  }
+
+}
@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cache.impl.BoundedLocalCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.statement.StatementUtil;
@@ -71,13 +72,21 @@ public abstract class BaseExecutor implements Executor {
   protected BaseExecutor(Configuration configuration, Transaction transaction) {
     this.transaction = transaction;
     this.deferredLoads = new ConcurrentLinkedQueue<>();
-    this.localCache = new PerpetualCache("LocalCache");
+    this.localCache = newLocalCache(configuration);
     this.localOutputParameterCache = new PerpetualCache("LocalOutputParameterCache");
     this.closed = false;
     this.configuration = configuration;
     this.wrapper = this;
   }
 
+  private static PerpetualCache newLocalCache(Configuration configuration) {
+    if (configuration != null && (configuration.getLocalCacheSize() > 0 || configuration.getLocalCacheMaxBytes() > 0)) {
+      return new BoundedLocalCache("LocalCache", configuration.getLocalCacheSize(),
+          configuration.getLocalCacheMaxBytes());
+    }
+    return new PerpetualCache("LocalCache");
+  }
+
   @Override
   public Transaction getTransaction() {
     if (closed) {
@@ -154,6 +163,9 @@ public abstract class BaseExecutor implements Executor {
     if (queryStack == 0 && ms.isFlushCacheRequired()) {
       clearLocalCache();
     }
+    if (queryStack == 0 && localCache instanceof BoundedLocalCache) {
+      ((BoundedLocalCache) localCache).beginStatement();
+    }
     List<E> list;
     try {
       queryStack++;
@@ -175,9 +187,11 @@ public abstract class BaseExecutor implements Executor {
       }
       // issue #601
       deferredLoads.clear();
-      if (configuration.getLocalCacheScope() == LocalCacheScope.STATEMENT) {
+      if (configuration.getLocalCacheScope() != LocalCacheScope.SESSION) {
         // issue #482
         clearLocalCache();
+      } else if (localCache instanceof BoundedLocalCache) {
+        ((BoundedLocalCache) localCache).trim();
       }
     }
     return list;
@@ -207,12 +221,12 @@ public abstract class BaseExecutor implements Executor {
     if (closed) {
       throw new ExecutorException("Executor was closed.");
     }
-    CacheKey cacheKey = new CacheKey();
-    cacheKey.update(ms.getId());
+    List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+    CacheKey cacheKey = new CacheKey(parameterMappings.size() + 5);
+    cacheKey.update(ms.getId(), ms.getIdFingerprint());
     cacheKey.update(rowBounds.getOffset());
     cacheKey.update(rowBounds.getLimit());
-    cacheKey.update(boundSql.getSql());
-    List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+    cacheKey.update(boundSql.getSql(), boundSql.getSqlFingerprint());
     TypeHandlerRegistry typeHandlerRegistry = ms.getConfiguration().getTypeHandlerRegistry();
     // mimic DefaultParameterHandler logic
     for (ParameterMapping parameterMapping : parameterMappings) {
@@ -337,6 +351,10 @@ public abstract class BaseExecutor implements Executor {
     } finally {
       localCache.removeObject(key);
     }
+    if (configuration.getLocalCacheScope() == LocalCacheScope.KEYS && !isAwaited(key)) {
+      // Only the deferred loads of the current statement need the result
+      return list;
+    }
     localCache.putObject(key, list);
     if (ms.getStatementType() == StatementType.CALLABLE) {
       localOutputParameterCache.putObject(key, parameter);
@@ -344,6 +362,15 @@ public abstract class BaseExecutor implements Executor {
     return list;
   }
 
+  private boolean isAwaited(CacheKey key) {
+    for (DeferredLoad deferredLoad : deferredLoads) {
+      if (deferredLoad.key.equals(key)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   protected Connection getConnection(Log statementLog) throws SQLException {
     Connection connection = transaction.getConnection();
     if (statementLog.isDebugEnabled()) {
@@ -17,12 +17,18 @@ package org.apache.ibatis.executor;
 
 import java.sql.BatchUpdateException;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import org.apache.ibatis.cache.weigher.EstimatingWeigher;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
@@ -30,12 +36,38 @@ import org.apache.ibatis.executor.keygen.NoKeyGenerator;
 import org.apache.ibatis.executor.statement.StatementHandler;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.StatementType;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.transaction.Transaction;
 
 /**
+ * Buffers updates in JDBC batches until they are flushed.
+ * <p>
+ * The batches are flushed when a query runs, on commit, on {@code flushStatements} and, when the configuration sets
+ * thresholds on the number of buffered statements, the number of parameters bound to them or the estimated size of
+ * their parameter objects, as soon as one of them is reached. The results of these batches are kept and returned,
+ * ahead of its own, by the next flush requested by the session, so that no update count is lost. Together with
+ * releasing the parameter objects instead of keeping them in the batch results, this keeps the memory flat however many
+ * rows are written: only the update counts are kept.
+ * <p>
+ * By default a statement joins the batch opened by the statement executed just before it when both share the same
+ * mapped statement and SQL, so interleaving two statements produces one batch per row. When the configuration enables
+ * statement grouping, every distinct mapped statement and SQL keeps its own open batch and the batches are flushed in
+ * the order they were opened. A statement only joins its batch if no batch opened after it touches one of its tables
+ * (tables that cannot be told are assumed to conflict), otherwise it opens a new batch and no later statement joins any
+ * of the batches opened before, so that statements on the same table are always executed in the order they were issued
+ * and a statement never runs before one it may depend on through a foreign key. Statements on different tables are
+ * otherwise reordered: with foreign keys, the statement writing the referenced table has to be issued first, as in a
+ * parent then child insert loop.
+ * <p>
+ * When the configuration enables insert rewriting, the rows of a batch of single row {@code INSERT ... VALUES (...)}
+ * statements are sent as multi row {@code INSERT ... VALUES (...), (...)} statements holding as many rows as the
+ * parameter limit of the database allows. The update counts of such a batch are those of the multi row statements,
+ * one per statement instead of one per row, and the generated keys are set on the parameter objects in row order.
+ *
  * @author Jeff Butler
  */
 public class BatchExecutor extends BaseExecutor {
@@ -44,11 +76,31 @@ public class BatchExecutor extends BaseExecutor {
 
   private final List<Statement> statementList = new ArrayList<>();
   private final List<BatchResult> batchResultList = new ArrayList<>();
+  private final List<RowBatch> rowBatchList = new ArrayList<>();
+  private final List<BatchResult> flushedResults = new ArrayList<>();
   private String currentSql;
   private MappedStatement currentStatement;
+  private final int flushStatements;
+  private final int flushParameters;
+  private final long flushBytes;
+  private final boolean retainParameters;
+  private final boolean groupStatements;
+  private final boolean rewriteInserts;
+  private int maxParameters = -1;
+  private final Map<MappedStatement, Map<String, Integer>> groupIndexes = new HashMap<>();
+  private final List<Set<String>> groupTables = new ArrayList<>();
+  private int pendingStatements;
+  private long pendingParameters;
+  private long pendingBytes;
 
   public BatchExecutor(Configuration configuration, Transaction transaction) {
     super(configuration, transaction);
+    this.flushStatements = configuration.getBatchFlushStatements();
+    this.flushParameters = configuration.getBatchFlushParameters();
+    this.flushBytes = configuration.getBatchFlushBytes();
+    this.retainParameters = configuration.isBatchRetainParameters();
+    this.groupStatements = configuration.isBatchGroupStatements();
+    this.rewriteInserts = configuration.isBatchRewriteInserts();
   }
 
   @Override
@@ -57,27 +109,154 @@ public class BatchExecutor extends BaseExecutor {
     final StatementHandler handler = configuration.newStatementHandler(this, ms, parameterObject, RowBounds.DEFAULT, null, null);
     final BoundSql boundSql = handler.getBoundSql();
     final String sql = boundSql.getSql();
-    final Statement stmt;
-    if (sql.equals(currentSql) && ms.equals(currentStatement)) {
-      int last = statementList.size() - 1;
-      stmt = statementList.get(last);
-      applyTransactionTimeout(stmt);
-      handler.parameterize(stmt);// fix Issues 322
-      BatchResult batchResult = batchResultList.get(last);
-      batchResult.addParameterObject(parameterObject);
+    final Set<String> tables = groupStatements ? ms.getCacheTables(boundSql) : null;
+    final int index = findBatch(ms, sql, tables);
+    final RowBatch rowBatch;
+    if (index >= 0) {
+      rowBatch = rowBatchList.get(index);
+      if (rowBatch == null) {
+        Statement stmt = statementList.get(index);
+        applyTransactionTimeout(stmt);
+        handler.parameterize(stmt);// fix Issues 322
+        handler.batch(stmt);
+      }
+      BatchResult batchResult = batchResultList.get(index);
+      if (isRetained(ms)) {
+        batchResult.addParameterObject(parameterObject);
+      }
     } else {
-      Connection connection = getConnection(ms.getStatementLog());
-      stmt = handler.prepare(connection, transaction.getTimeout());
-      handler.parameterize(stmt);    // fix Issues 322
+      rowBatch = newRowBatch(ms, boundSql);
+      if (rowBatch == null) {
+        Connection connection = getConnection(ms.getStatementLog());
+        Statement stmt = handler.prepare(connection, transaction.getTimeout());
+        handler.parameterize(stmt);    // fix Issues 322
+        handler.batch(stmt);
+        statementList.add(stmt);
+      } else {
+        // prepared once enough rows are added
+        statementList.add(null);
+      }
       currentSql = sql;
       currentStatement = ms;
-      statementList.add(stmt);
-      batchResultList.add(new BatchResult(ms, sql, parameterObject));
+      if (groupStatements) {
+        groupIndexes.computeIfAbsent(ms, k -> new HashMap<>()).put(sql, statementList.size() - 1);
+        groupTables.add(tables);
+      }
+      rowBatchList.add(rowBatch);
+      batchResultList.add(isRetained(ms) ? new BatchResult(ms, sql, parameterObject) : new BatchResult(ms, sql));
+    }
+    if (rowBatch != null) {
+      addRow(index >= 0 ? index : statementList.size() - 1, rowBatch, handler);
+    }
+    if (isFlushRequired(boundSql, parameterObject)) {
+      // the results are returned by the next explicit flush, along with its own
+      flushedResults.addAll(flushStatements());
     }
-    handler.batch(stmt);
     return BATCH_UPDATE_RETURN_VALUE;
   }
 
+  private RowBatch newRowBatch(MappedStatement ms, BoundSql boundSql) throws SQLException {
+    if (!rewriteInserts || ms.getSqlCommandType() != SqlCommandType.INSERT
+        || ms.getStatementType() != StatementType.PREPARED) {
+      return null;
+    }
+    Class<?> keyGeneratorType = ms.getKeyGenerator().getClass();
+    if (!NoKeyGenerator.class.equals(keyGeneratorType) && !Jdbc3KeyGenerator.class.equals(keyGeneratorType)) {
+      return null;
+    }
+    MultiRowInsert insert = MultiRowInsert.parse(boundSql.getSql(), boundSql.getParameterMappings().size());
+    if (insert == null) {
+      return null;
+    }
+    int rows = insert.getMaxRows(getMaxParameters(ms));
+    return rows > 1 ? new RowBatch(ms, insert, rows) : null;
+  }
+
+  private int getMaxParameters(MappedStatement ms) throws SQLException {
+    if (maxParameters < 0) {
+      int configured = configuration.getBatchRewriteMaxParameters();
+      maxParameters = configured > 0 ? configured
+          : MultiRowInsert.getMaxParameters(getConnection(ms.getStatementLog()).getMetaData().getDatabaseProductName());
+    }
+    return maxParameters;
+  }
+
+  private void addRow(int index, RowBatch rowBatch, StatementHandler handler) throws SQLException {
+    rowBatch.pendingRows.add(handler);
+    if (rowBatch.pendingRows.size() < rowBatch.rowsPerStatement) {
+      return;
+    }
+    Statement stmt = statementList.get(index);
+    if (stmt == null) {
+      stmt = prepareRows(rowBatch, rowBatch.rowsPerStatement);
+      statementList.set(index, stmt);
+    } else {
+      applyTransactionTimeout(stmt);
+    }
+    parameterizeRows(rowBatch, stmt);
+    ((PreparedStatement) stmt).addBatch();
+    rowBatch.batchedRows += rowBatch.pendingRows.size();
+    rowBatch.pendingRows.clear();
+  }
+
+  private Statement prepareRows(RowBatch rowBatch, int rows) throws SQLException {
+    MappedStatement ms = rowBatch.mappedStatement;
+    StatementHandler rowHandler = rowBatch.pendingRows.get(0);
+    Object parameterObject = rowHandler.getParameterHandler().getParameterObject();
+    BoundSql boundSql = new BoundSql(ms.getConfiguration(), rowBatch.insert.toSql(rows),
+        rowHandler.getBoundSql().getParameterMappings(), parameterObject);
+    StatementHandler handler = ms.getConfiguration().newStatementHandler(this, ms, parameterObject, RowBounds.DEFAULT,
+        null, boundSql);
+    return handler.prepare(getConnection(ms.getStatementLog()), transaction.getTimeout());
+  }
+
+  private void parameterizeRows(RowBatch rowBatch, Statement stmt) throws SQLException {
+    int parametersPerRow = rowBatch.insert.getParametersPerRow();
+    for (int i = 0, n = rowBatch.pendingRows.size(); i < n; i++) {
+      rowBatch.pendingRows.get(i).parameterize(MultiRowInsert.shiftParameters((PreparedStatement) stmt, i * parametersPerRow));
+    }
+  }
+
+  private int findBatch(MappedStatement ms, String sql, Set<String> tables) {
+    if (!groupStatements) {
+      return sql.equals(currentSql) && ms.equals(currentStatement) ? statementList.size() - 1 : -1;
+    }
+    Map<String, Integer> indexes = groupIndexes.get(ms);
+    Integer index = indexes == null ? null : indexes.get(sql);
+    if (index == null) {
+      return -1;
+    }
+    for (int i = index + 1, n = groupTables.size(); i < n; i++) {
+      if (isConflicting(tables, groupTables.get(i))) {
+        // joining the batch would move this statement before a later one on the same table, and joining any batch
+        // opened before the new one would move the next statements before this one
+        groupIndexes.clear();
+        return -1;
+      }
+    }
+    return index;
+  }
+
+  private static boolean isConflicting(Set<String> tables, Set<String> otherTables) {
+    return tables.isEmpty() || otherTables.isEmpty() || !Collections.disjoint(tables, otherTables);
+  }
+
+  private boolean isRetained(MappedStatement ms) {
+    // key generators set the generated keys on the parameter objects when the batch is flushed
+    return retainParameters || !NoKeyGenerator.class.equals(ms.getKeyGenerator().getClass());
+  }
+
+  private boolean isFlushRequired(BoundSql boundSql, Object parameterObject) {
+    pendingStatements++;
+    pendingParameters += boundSql.getParameterMappings().size();
+    if (flushBytes > 0) {
+      pendingBytes += EstimatingWeigher.estimate(parameterObject);
+    }
+    return flushStatements > 0 && pendingStatements >= flushStatements
+        || flushParameters > 0 && pendingParameters >= flushParameters
+        || flushBytes > 0 && pendingBytes >= flushBytes;
+  }
+
   @Override
   public <E> List<E> doQuery(MappedStatement ms, Object parameterObject, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql)
       throws SQLException {
@@ -111,26 +290,29 @@ public class BatchExecutor extends BaseExecutor {
   @Override
   public List<BatchResult> doFlushStatements(boolean isRollback) throws SQLException {
     try {
-      List<BatchResult> results = new ArrayList<>();
+      List<BatchResult> results = new ArrayList<>(flushedResults);
+      flushedResults.clear();
       if (isRollback) {
         return Collections.emptyList();
       }
       for (int i = 0, n = statementList.size(); i < n; i++) {
         Statement stmt = statementList.get(i);
-        applyTransactionTimeout(stmt);
+        if (stmt != null) {
+          applyTransactionTimeout(stmt);
+        }
         BatchResult batchResult = batchResultList.get(i);
+        RowBatch rowBatch = rowBatchList.get(i);
         try {
-          batchResult.setUpdateCounts(stmt.executeBatch());
           MappedStatement ms = batchResult.getMappedStatement();
           List<Object> parameterObjects = batchResult.getParameterObjects();
-          KeyGenerator keyGenerator = ms.getKeyGenerator();
-          if (Jdbc3KeyGenerator.class.equals(keyGenerator.getClass())) {
-            Jdbc3KeyGenerator jdbc3KeyGenerator = (Jdbc3KeyGenerator) keyGenerator;
-            jdbc3KeyGenerator.processBatch(ms, stmt, parameterObjects);
-          } else if (!NoKeyGenerator.class.equals(keyGenerator.getClass())) { //issue #141
-            for (Object parameter : parameterObjects) {
-              keyGenerator.processAfter(this, ms, stmt, parameter);
-            }
+          if (rowBatch == null) {
+            batchResult.setUpdateCounts(stmt.executeBatch());
+            processGeneratedKeys(ms, stmt, parameterObjects);
+          } else {
+            batchResult.setUpdateCounts(executeRows(rowBatch, stmt, parameterObjects));
+          }
+          if (!retainParameters) {
+            parameterObjects.clear();
           }
           // Close statement to close cursor #1109
           closeStatement(stmt);
@@ -156,8 +338,73 @@ public class BatchExecutor extends BaseExecutor {
         closeStatement(stmt);
       }
       currentSql = null;
+      groupIndexes.clear();
+      groupTables.clear();
       statementList.clear();
+      rowBatchList.clear();
       batchResultList.clear();
+      pendingStatements = 0;
+      pendingParameters = 0;
+      pendingBytes = 0;
+    }
+  }
+
+  private int[] executeRows(RowBatch rowBatch, Statement stmt, List<Object> parameterObjects) throws SQLException {
+    MappedStatement ms = rowBatch.mappedStatement;
+    int[] updateCounts = new int[0];
+    if (stmt != null) {
+      updateCounts = stmt.executeBatch();
+      processGeneratedKeys(ms, stmt, rows(parameterObjects, 0, rowBatch.batchedRows));
+    }
+    if (!rowBatch.pendingRows.isEmpty()) {
+      // the remaining rows do not fill a whole statement
+      Statement lastStmt = prepareRows(rowBatch, rowBatch.pendingRows.size());
+      try {
+        parameterizeRows(rowBatch, lastStmt);
+        ((PreparedStatement) lastStmt).addBatch();
+        int[] lastUpdateCounts = lastStmt.executeBatch();
+        processGeneratedKeys(ms, lastStmt, rows(parameterObjects, rowBatch.batchedRows, parameterObjects.size()));
+        int[] allUpdateCounts = Arrays.copyOf(updateCounts, updateCounts.length + lastUpdateCounts.length);
+        System.arraycopy(lastUpdateCounts, 0, allUpdateCounts, updateCounts.length, lastUpdateCounts.length);
+        updateCounts = allUpdateCounts;
+      } finally {
+        closeStatement(lastStmt);
+      }
+    }
+    return updateCounts;
+  }
+
+  private static List<Object> rows(List<Object> parameterObjects, int fromIndex, int toIndex) {
+    // the key generator expects an ArrayList of parameter maps
+    return parameterObjects.isEmpty() ? parameterObjects : new ArrayList<>(parameterObjects.subList(fromIndex, toIndex));
+  }
+
+  private void processGeneratedKeys(MappedStatement ms, Statement stmt, List<Object> parameterObjects) {
+    KeyGenerator keyGenerator = ms.getKeyGenerator();
+    if (Jdbc3KeyGenerator.class.equals(keyGenerator.getClass())) {
+      Jdbc3KeyGenerator jdbc3KeyGenerator = (Jdbc3KeyGenerator) keyGenerator;
+      jdbc3KeyGenerator.processBatch(ms, stmt, parameterObjects);
+    } else if (!NoKeyGenerator.class.equals(keyGenerator.getClass())) { //issue #141
+      for (Object parameter : parameterObjects) {
+        keyGenerator.processAfter(this, ms, stmt, parameter);
+      }
+    }
+  }
+
+  /**
+   * The rows of a batch of single row inserts rewritten to multi row inserts.
+   */
+  private static class RowBatch {
+    private final MappedStatement mappedStatement;
+    private final MultiRowInsert insert;
+    private final int rowsPerStatement;
+    private final List<StatementHandler> pendingRows = new ArrayList<>();
+    private int batchedRows;
+
+    RowBatch(MappedStatement mappedStatement, MultiRowInsert insert, int rowsPerStatement) {
+      this.mappedStatement = mappedStatement;
+      this.insert = insert;
+      this.rowsPerStatement = rowsPerStatement;
     }
   }
 
@@ -17,17 +17,26 @@ package org.apache.ibatis.executor;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheDependencyIndex;
 import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cache.CacheStatistics;
 import org.apache.ibatis.cache.TransactionalCacheManager;
+import org.apache.ibatis.cache.decorators.ExpiringCache;
+import org.apache.ibatis.cache.invalidation.CacheInvalidationBus;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.mapping.SqlCommandType;
 import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.mapping.Environment;
 import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.transaction.Transaction;
@@ -46,10 +55,43 @@ public class CachingExecutor implements Executor {
    * Executor代理对象，为BaseExecutor三种子类中的一种
    */
   private final Executor delegate;
-  private final TransactionalCacheManager tcm = new TransactionalCacheManager();
+  private final TransactionalCacheManager tcm;
+  private final boolean tableScoped;
+  private boolean dirty;
 
   public CachingExecutor(Executor delegate) {
+    this(delegate, null);
+  }
+
+  /**
+   * Creates a caching executor that invalidates cached entries by the tables they depend on instead of by namespace.
+   *
+   * @param delegate
+   *          the delegate
+   * @param dependencyIndex
+   *          the shared dependency index, {@code null} for namespace wide flushes
+   * @since 3.5.11
+   */
+  public CachingExecutor(Executor delegate, CacheDependencyIndex dependencyIndex) {
+    this(delegate, dependencyIndex, null);
+  }
+
+  /**
+   * Creates a caching executor that publishes the invalidations of its commits to the other nodes of a cluster.
+   *
+   * @param delegate
+   *          the delegate
+   * @param dependencyIndex
+   *          the shared dependency index, {@code null} for namespace wide flushes
+   * @param invalidationBus
+   *          the invalidation bus, may be {@code null}
+   * @since 3.5.11
+   */
+  public CachingExecutor(Executor delegate, CacheDependencyIndex dependencyIndex,
+      CacheInvalidationBus invalidationBus) {
     this.delegate = delegate;
+    this.tcm = new TransactionalCacheManager(dependencyIndex, invalidationBus);
+    this.tableScoped = dependencyIndex != null;
     delegate.setExecutorWrapper(this);
   }
 
@@ -79,7 +121,8 @@ public class CachingExecutor implements Executor {
 
   @Override
   public int update(MappedStatement ms, Object parameterObject) throws SQLException {
-    flushCacheIfRequired(ms);
+    dirty = true;
+    flushCacheIfRequired(ms, parameterObject);
     return delegate.update(ms, parameterObject);
   }
 
@@ -106,12 +149,16 @@ public class CachingExecutor implements Executor {
       if (ms.isUseCache() && resultHandler == null) {
         ensureNoOutParams(ms, boundSql);
         // 先从二级缓存查询
+        if (tableScoped) {
+          return queryTableScoped(ms, parameterObject, rowBounds, cache, key, boundSql);
+        }
         @SuppressWarnings("unchecked")
-        List<E> list = (List<E>) tcm.getObject(cache, key);
+        List<E> list = (List<E>) getCachedObject(ms, parameterObject, rowBounds, cache, key, null);
         if (list == null) {
           // 二级缓存未命中，则调BaseExecutor，BaseExecutor会先从一级缓存查询
-          list = delegate.query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
+          list = load(ms, parameterObject, rowBounds, cache, key, boundSql);
           tcm.putObject(cache, key, list); // issue #578 and #116
+          handOff(cache, key, list);
         }
         return list;
       }
@@ -120,6 +167,78 @@ public class CachingExecutor implements Executor {
     return delegate.query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
   }
 
+  private <E> List<E> queryTableScoped(MappedStatement ms, Object parameterObject, RowBounds rowBounds, Cache cache,
+      CacheKey key, BoundSql boundSql) throws SQLException {
+    Set<String> tables = ms.getCacheTables(boundSql);
+    @SuppressWarnings("unchecked")
+    List<E> list = (List<E>) getCachedObject(ms, parameterObject, rowBounds, cache, key, tables);
+    if (list == null) {
+      list = load(ms, parameterObject, rowBounds, cache, key, boundSql);
+      tcm.putObject(cache, key, list, tables);
+      handOff(cache, key, list);
+    }
+    return list;
+  }
+
+  private <E> List<E> load(MappedStatement ms, Object parameterObject, RowBounds rowBounds, Cache cache, CacheKey key,
+      BoundSql boundSql) throws SQLException {
+    CacheStatistics statistics = cache.getStatistics();
+    long start = statistics == null ? 0 : System.nanoTime();
+    boolean loaded = false;
+    try {
+      List<E> list = delegate.query(ms, parameterObject, rowBounds, null, key, boundSql);
+      loaded = true;
+      return list;
+    } catch (SQLException | RuntimeException e) {
+      // sessions waiting for the same entry get the failure instead of loading it again
+      tcm.fail(cache, key, e);
+      throw e;
+    } finally {
+      if (statistics != null) {
+        statistics.recordLoad(System.nanoTime() - start, loaded);
+      }
+    }
+  }
+
+  private void handOff(Cache cache, CacheKey key, Object value) {
+    // results read after a write of this transaction must not be seen by other sessions before the commit
+    if (!dirty) {
+      tcm.handOff(cache, key, value);
+    }
+  }
+
+  private Object getCachedObject(MappedStatement ms, Object parameterObject, RowBounds rowBounds, Cache cache,
+      CacheKey key, Set<String> tables) {
+    Object value = tables == null ? tcm.getObject(cache, key) : tcm.getObject(cache, key, tables);
+    if (ExpiringCache.isRefreshDue()) {
+      // an expiring cache found the entry due for refresh, reload it in the background
+      ExpiringCache.refreshDue(() -> refresh(ms, parameterObject, rowBounds));
+    }
+    return value;
+  }
+
+  /**
+   * Re-runs a query in a new session so that the second level cache entry it produced is replaced. Used by caches that
+   * refresh their entries ahead of expiry.
+   */
+  private void refresh(MappedStatement ms, Object parameterObject, RowBounds rowBounds) {
+    Configuration configuration = ms.getConfiguration();
+    Environment environment = configuration.getEnvironment();
+    if (environment == null) {
+      return;
+    }
+    Transaction tx = environment.getTransactionFactory().newTransaction(environment.getDataSource(), null, false);
+    Executor executor = configuration.newExecutor(tx, ExecutorType.SIMPLE);
+    try {
+      executor.query(ms, parameterObject, rowBounds, Executor.NO_RESULT_HANDLER);
+    } catch (SQLException e) {
+      throw new ExecutorException("Error refreshing cached results of " + ms.getId() + ". Cause: " + e, e);
+    } finally {
+      // closing without rollback commits the pending cache entry
+      executor.close(false);
+    }
+  }
+
   @Override
   public List<BatchResult> flushStatements() throws SQLException {
     return delegate.flushStatements();
@@ -129,6 +248,7 @@ public class CachingExecutor implements Executor {
   public void commit(boolean required) throws SQLException {
     delegate.commit(required);
     tcm.commit();
+    dirty = false;
   }
 
   @Override
@@ -138,6 +258,7 @@ public class CachingExecutor implements Executor {
     } finally {
       if (required) {
         tcm.rollback();
+        dirty = false;
       }
     }
   }
@@ -172,11 +293,38 @@ public class CachingExecutor implements Executor {
     delegate.clearLocalCache();
   }
 
+  private void flushCacheIfRequired(MappedStatement ms, Object parameterObject) {
+    if (tableScoped && ms.isFlushCacheRequired() && ms.getSqlCommandType() != SqlCommandType.SELECT) {
+      Set<String> tables = ms.getCacheTables();
+      if (tables == null) {
+        tables = ms.getCacheTables(ms.getBoundSql(parameterObject));
+      }
+      if (!tables.isEmpty()) {
+        // entries depending on the modified tables are evicted on commit, in every namespace
+        tcm.invalidate(ms.getCache(), tables);
+        for (Cache region : ms.getFlushedCacheRegions()) {
+          tcm.invalidate(region, tables);
+        }
+        return;
+      }
+    }
+    flushCacheIfRequired(ms);
+  }
+
   private void flushCacheIfRequired(MappedStatement ms) {
+    if (!ms.isFlushCacheRequired()) {
+      return;
+    }
     Cache cache = ms.getCache();
-    if (cache != null && ms.isFlushCacheRequired()) {
+    if (cache != null) {
       tcm.clear(cache);
     }
+    // the regions used by the statements of the namespace, the statement may use one of them
+    for (Cache region : ms.getFlushedCacheRegions()) {
+      if (region != cache) {
+        tcm.clear(region);
+      }
+    }
   }
 
   @Override
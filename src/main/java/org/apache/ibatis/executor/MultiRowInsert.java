@@ -0,0 +1,264 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.ibatis.reflection.ExceptionUtil;
+
+/**
+ * A single row {@code INSERT ... VALUES (...)} statement that can be rewritten to insert several rows at once, as in
+ * {@code INSERT ... VALUES (...), (...), (...)}.
+ * <p>
+ * Only statements made of an insert verb, a column list or table name free of parameters, a {@code VALUES} keyword and
+ * exactly one group of values holding all the parameters are rewritten. Anything after the group of values ({@code ON
+ * DUPLICATE KEY UPDATE}, {@code RETURNING}, ...) leaves the statement as it is.
+ */
+final class MultiRowInsert {
+
+  /**
+   * Upper bound of the rows inserted by one statement, whatever the number of parameters per row.
+   */
+  static final int MAX_ROWS = 1000;
+
+  private static final int DEFAULT_MAX_PARAMETERS = 1000;
+
+  private static final Map<String, Integer> MAX_PARAMETERS = new LinkedHashMap<>();
+
+  static {
+    // keyed by the beginning of the database product name, a limit of 0 means multi row inserts are not supported
+    MAX_PARAMETERS.put("microsoft sql server", 2000);
+    MAX_PARAMETERS.put("postgresql", 32767);
+    MAX_PARAMETERS.put("mysql", 65535);
+    MAX_PARAMETERS.put("mariadb", 65535);
+    MAX_PARAMETERS.put("sqlite", 999);
+    MAX_PARAMETERS.put("db2", 32767);
+    // embedded databases save no round trip, parsing very long statements costs more than it saves
+    MAX_PARAMETERS.put("h2", 200);
+    MAX_PARAMETERS.put("hsql database engine", 200);
+    MAX_PARAMETERS.put("oracle", 0);
+  }
+
+  private final String head;
+  private final String values;
+  private final int parametersPerRow;
+
+  private MultiRowInsert(String head, String values, int parametersPerRow) {
+    this.head = head;
+    this.values = values;
+    this.parametersPerRow = parametersPerRow;
+  }
+
+  /**
+   * Analyses a statement.
+   *
+   * @param sql
+   *          the sql of the statement
+   * @param parameterCount
+   *          the number of parameters bound to the statement
+   * @return the rewritable statement, or {@code null} when it cannot be rewritten
+   */
+  static MultiRowInsert parse(String sql, int parameterCount) {
+    int length = sql.length();
+    int i = skipBlanks(sql, 0);
+    if (!isWordAt(sql, i, "insert")) {
+      return null;
+    }
+    int depth = 0;
+    int valuesStart = -1;
+    while (i < length && valuesStart < 0) {
+      char c = sql.charAt(i);
+      if (c == '?') {
+        // a parameter outside of the values would be bound once per row
+        return null;
+      } else if (c == '(') {
+        depth++;
+      } else if (c == ')') {
+        depth--;
+      } else if (depth == 0 && isWordAt(sql, i, "values")) {
+        valuesStart = skipBlanks(sql, i + "values".length());
+        break;
+      } else if (isWordStart(c)) {
+        i = skipWord(sql, i);
+        continue;
+      }
+      i = skip(sql, i);
+    }
+    if (valuesStart < 0 || valuesStart >= length || sql.charAt(valuesStart) != '(') {
+      return null;
+    }
+    int parameters = 0;
+    depth = 0;
+    i = valuesStart;
+    do {
+      char c = sql.charAt(i);
+      if (c == '?') {
+        parameters++;
+      } else if (c == '(') {
+        depth++;
+      } else if (c == ')') {
+        depth--;
+      }
+      i = skip(sql, i);
+    } while (depth > 0 && i < length);
+    if (depth > 0 || parameters != parameterCount) {
+      return null;
+    }
+    int valuesEnd = i;
+    i = skipBlanks(sql, i);
+    if (i < length && sql.charAt(i) == ';') {
+      i = skipBlanks(sql, i + 1);
+    }
+    if (i < length) {
+      return null;
+    }
+    return new MultiRowInsert(sql.substring(0, valuesStart), sql.substring(valuesStart, valuesEnd), parameters);
+  }
+
+  /**
+   * Returns the largest number of rows one statement may insert.
+   *
+   * @param maxParameters
+   *          the maximum number of parameters of a statement
+   * @return the number of rows
+   */
+  int getMaxRows(int maxParameters) {
+    return parametersPerRow == 0 ? MAX_ROWS : Math.min(MAX_ROWS, maxParameters / parametersPerRow);
+  }
+
+  int getParametersPerRow() {
+    return parametersPerRow;
+  }
+
+  /**
+   * Builds the statement inserting several rows.
+   *
+   * @param rows
+   *          the number of rows
+   * @return the sql
+   */
+  String toSql(int rows) {
+    StringBuilder sql = new StringBuilder(head.length() + rows * (values.length() + 2));
+    sql.append(head).append(values);
+    for (int i = 1; i < rows; i++) {
+      sql.append(", ").append(values);
+    }
+    return sql.toString();
+  }
+
+  /**
+   * Returns the maximum number of parameters of a statement of a database.
+   *
+   * @param databaseProductName
+   *          the name returned by the database metadata
+   * @return the maximum, {@code 0} when the database does not support multi row inserts
+   */
+  static int getMaxParameters(String databaseProductName) {
+    String name = databaseProductName == null ? "" : databaseProductName.toLowerCase(Locale.ENGLISH);
+    for (Map.Entry<String, Integer> entry : MAX_PARAMETERS.entrySet()) {
+      if (name.startsWith(entry.getKey())) {
+        return entry.getValue();
+      }
+    }
+    return DEFAULT_MAX_PARAMETERS;
+  }
+
+  /**
+   * Returns a view of a statement that shifts the index of the parameters set through it, so that the parameter
+   * handler of a row binds the parameters of its group of values.
+   *
+   * @param statement
+   *          the multi row statement
+   * @param offset
+   *          the number of parameters of the rows before
+   * @return the view
+   */
+  static PreparedStatement shiftParameters(PreparedStatement statement, int offset) {
+    if (offset == 0) {
+      return statement;
+    }
+    return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+        new Class<?>[] { PreparedStatement.class }, (proxy, method, args) -> {
+          if (isParameterSetter(method)) {
+            args[0] = (Integer) args[0] + offset;
+          }
+          try {
+            return method.invoke(statement, args);
+          } catch (InvocationTargetException e) {
+            throw ExceptionUtil.unwrapThrowable(e);
+          }
+        });
+  }
+
+  private static boolean isParameterSetter(Method method) {
+    return PreparedStatement.class.equals(method.getDeclaringClass()) && method.getName().startsWith("set")
+        && method.getParameterCount() > 1 && int.class.equals(method.getParameterTypes()[0]);
+  }
+
+  private static int skip(String sql, int i) {
+    char c = sql.charAt(i);
+    if (c == '\'' || c == '"' || c == '`') {
+      int end = sql.indexOf(c, i + 1);
+      return end < 0 ? sql.length() : end + 1;
+    }
+    if (c == '-' && sql.startsWith("--", i)) {
+      int end = sql.indexOf('\n', i);
+      return end < 0 ? sql.length() : end + 1;
+    }
+    if (c == '/' && sql.startsWith("/*", i)) {
+      int end = sql.indexOf("*/", i + 2);
+      return end < 0 ? sql.length() : end + 2;
+    }
+    return i + 1;
+  }
+
+  private static int skipBlanks(String sql, int start) {
+    int i = start;
+    while (i < sql.length()) {
+      char c = sql.charAt(i);
+      if (Character.isWhitespace(c) || sql.startsWith("--", i) || sql.startsWith("/*", i)) {
+        i = skip(sql, i);
+      } else {
+        break;
+      }
+    }
+    return i;
+  }
+
+  private static boolean isWordStart(char c) {
+    return Character.isLetter(c) || c == '_';
+  }
+
+  private static int skipWord(String sql, int start) {
+    int i = start;
+    while (i < sql.length() && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '_'
+        || sql.charAt(i) == '$')) {
+      i++;
+    }
+    return i;
+  }
+
+  private static boolean isWordAt(String sql, int i, String word) {
+    return sql.regionMatches(true, i, word, 0, word.length()) && skipWord(sql, i) == i + word.length();
+  }
+
+}
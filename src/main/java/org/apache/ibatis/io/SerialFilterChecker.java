@@ -15,6 +15,9 @@
  */
 package org.apache.ibatis.io;
 
+import java.io.InvalidClassException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.security.Security;
 
 import org.apache.ibatis.logging.Log;
@@ -26,17 +29,29 @@ public final class SerialFilterChecker {
   private static final String JDK_SERIAL_FILTER = "jdk.serialFilter";
   private static final boolean SERIAL_FILTER_MISSING;
   private static boolean firstInvocation = true;
+  private static final Method GET_SERIAL_FILTER;
+  private static final Method CHECK_INPUT;
+  private static final Class<?> FILTER_INFO;
 
   static {
     Object serialFilter;
+    Method getSerialFilter = null;
+    Method checkInput = null;
+    Class<?> filterInfo = null;
     try {
       Class<?> objectFilterConfig = Class.forName("java.io.ObjectInputFilter$Config");
-      serialFilter = objectFilterConfig.getMethod("getSerialFilter").invoke(null);
+      getSerialFilter = objectFilterConfig.getMethod("getSerialFilter");
+      serialFilter = getSerialFilter.invoke(null);
+      filterInfo = Class.forName("java.io.ObjectInputFilter$FilterInfo");
+      checkInput = Class.forName("java.io.ObjectInputFilter").getMethod("checkInput", filterInfo);
     } catch (ReflectiveOperationException e) {
       // Java 1.8
       serialFilter = System.getProperty(JDK_SERIAL_FILTER, Security.getProperty(JDK_SERIAL_FILTER));
     }
     SERIAL_FILTER_MISSING = serialFilter == null;
+    GET_SERIAL_FILTER = getSerialFilter;
+    CHECK_INPUT = checkInput;
+    FILTER_INFO = filterInfo;
   }
 
   public static void check() {
@@ -48,6 +63,57 @@ public final class SerialFilterChecker {
     }
   }
 
+  /**
+   * Applies the JEP-290 serial filter to a class about to be instantiated from a stream that is not read by an
+   * {@link java.io.ObjectInputStream}, such as the compact format of a cache codec.
+   * <p>
+   * The class is passed to the process-wide filter as if it were the only object of the stream. Nothing is checked on
+   * Java 8, where the filter is not exposed through a public API.
+   *
+   * @param type
+   *          the class to check
+   *
+   * @return whether a filter admitted the class, {@code false} when there is no filter to apply
+   *
+   * @throws InvalidClassException
+   *           if the filter rejects the class
+   *
+   * @since 3.5.11
+   */
+  public static boolean checkClass(Class<?> type) throws InvalidClassException {
+    check();
+    if (CHECK_INPUT == null) {
+      return false;
+    }
+    Object status;
+    try {
+      Object filter = GET_SERIAL_FILTER.invoke(null);
+      if (filter == null) {
+        return false;
+      }
+      Object info = Proxy.newProxyInstance(FILTER_INFO.getClassLoader(), new Class<?>[] { FILTER_INFO },
+          (proxy, method, args) -> {
+            switch (method.getName()) {
+              case "serialClass":
+                return type;
+              case "arrayLength":
+                return type.isArray() ? 0L : -1L;
+              case "depth":
+                return 1L;
+              default:
+                return 0L;
+            }
+          });
+      status = CHECK_INPUT.invoke(filter, info);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Could not apply the serial filter to " + type, e);
+    }
+    if ("REJECTED".equals(String.valueOf(status))) {
+      throw new InvalidClassException(type.getName(), "filter status: REJECTED");
+    }
+    return true;
+  }
+
   private SerialFilterChecker() {
   }
 }
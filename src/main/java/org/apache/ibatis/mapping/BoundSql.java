@@ -19,6 +19,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.property.PropertyTokenizer;
 import org.apache.ibatis.session.Configuration;
@@ -40,6 +41,8 @@ public class BoundSql {
   private final Object parameterObject;
   private final Map<String, Object> additionalParameters;
   private final MetaObject metaParameters;
+  private long sqlFingerprint;
+  private boolean sqlFingerprinted;
 
   public BoundSql(Configuration configuration, String sql, List<ParameterMapping> parameterMappings, Object parameterObject) {
     this.sql = sql;
@@ -49,10 +52,47 @@ public class BoundSql {
     this.metaParameters = configuration.newMetaObject(additionalParameters);
   }
 
+  /**
+   * Creates a bound SQL whose SQL fingerprint was computed beforehand, typically once for a static SQL.
+   *
+   * @param configuration
+   *          the configuration
+   * @param sql
+   *          the SQL
+   * @param sqlFingerprint
+   *          the fingerprint of the SQL, as computed by {@link CacheKey#fingerprint(Object)}
+   * @param parameterMappings
+   *          the parameter mappings
+   * @param parameterObject
+   *          the parameter object
+   * @since 3.5.11
+   */
+  public BoundSql(Configuration configuration, String sql, long sqlFingerprint,
+      List<ParameterMapping> parameterMappings, Object parameterObject) {
+    this(configuration, sql, parameterMappings, parameterObject);
+    this.sqlFingerprint = sqlFingerprint;
+    this.sqlFingerprinted = true;
+  }
+
   public String getSql() {
     return sql;
   }
 
+  /**
+   * Gets the fingerprint of the SQL, for cache keys.
+   *
+   * @return the fingerprint
+   * @since 3.5.11
+   * @see CacheKey#fingerprint(Object)
+   */
+  public long getSqlFingerprint() {
+    if (!sqlFingerprinted) {
+      sqlFingerprint = CacheKey.fingerprint(sql);
+      sqlFingerprinted = true;
+    }
+    return sqlFingerprint;
+  }
+
   public List<ParameterMapping> getParameterMappings() {
     return parameterMappings;
   }
@@ -23,14 +23,28 @@ import java.util.Properties;
 
 import org.apache.ibatis.builder.InitializingObject;
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheCodec;
 import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.CacheMemoryBudget;
+import org.apache.ibatis.cache.CacheStatistics;
+import org.apache.ibatis.cache.CacheStatisticsAware;
+import org.apache.ibatis.cache.Weigher;
+import org.apache.ibatis.cache.codec.JavaSerializationCodec;
 import org.apache.ibatis.cache.decorators.BlockingCache;
+import org.apache.ibatis.cache.decorators.CompressedCache;
+import org.apache.ibatis.cache.decorators.ConcurrentReferenceCache;
+import org.apache.ibatis.cache.decorators.ExpiringCache;
+import org.apache.ibatis.cache.decorators.GenerationalCache;
 import org.apache.ibatis.cache.decorators.LoggingCache;
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.decorators.ScheduledCache;
 import org.apache.ibatis.cache.decorators.SerializedCache;
 import org.apache.ibatis.cache.decorators.SynchronizedCache;
+import org.apache.ibatis.cache.decorators.TinyLfuCache;
+import org.apache.ibatis.cache.decorators.WeightedCache;
+import org.apache.ibatis.cache.decorators.WriteBehindCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.cache.weigher.EstimatingWeigher;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.SystemMetaObject;
 
@@ -42,10 +56,20 @@ public class CacheBuilder {
   private Class<? extends Cache> implementation;
   private final List<Class<? extends Cache>> decorators;
   private Integer size;
+  private Long maxBytes;
+  private Class<? extends Weigher> weigher;
+  private CacheMemoryBudget memoryBudget;
   private Long clearInterval;
+  private Long timeToLive;
+  private Double jitter;
+  private Double refreshAhead;
   private boolean readWrite;
+  private Class<? extends CacheCodec> codec;
   private Properties properties;
   private boolean blocking;
+  private boolean generational;
+  private boolean writeBehind;
+  private Integer compressionThreshold;
 
   public CacheBuilder(String id) {
     this.id = id;
@@ -69,43 +93,155 @@ public class CacheBuilder {
     return this;
   }
 
+  /**
+   * Bounds the cache by the weight of its entries instead of their number. The least recently used entries are evicted
+   * by weight, which replaces the default LRU eviction; any other eviction policy keeps its own limit.
+   *
+   * @param maxBytes
+   *          the maximum weight of the entries, in bytes
+   * @return this builder
+   * @since 3.5.11
+   */
+  public CacheBuilder maxBytes(Long maxBytes) {
+    this.maxBytes = maxBytes;
+    return this;
+  }
+
+  /**
+   * @param weigher
+   *          weighs the entries when the cache is bounded by memory, {@link EstimatingWeigher} by default
+   * @return this builder
+   * @since 3.5.11
+   */
+  public CacheBuilder weigher(Class<? extends Weigher> weigher) {
+    this.weigher = weigher;
+    return this;
+  }
+
+  /**
+   * @param memoryBudget
+   *          a budget shared with other caches, the cache is then weighed even without {@code maxBytes}
+   * @return this builder
+   * @since 3.5.11
+   */
+  public CacheBuilder memoryBudget(CacheMemoryBudget memoryBudget) {
+    this.memoryBudget = memoryBudget;
+    return this;
+  }
+
   public CacheBuilder clearInterval(Long clearInterval) {
     this.clearInterval = clearInterval;
     return this;
   }
 
+  public CacheBuilder timeToLive(Long timeToLive) {
+    this.timeToLive = timeToLive;
+    return this;
+  }
+
+  public CacheBuilder jitter(Double jitter) {
+    this.jitter = jitter;
+    return this;
+  }
+
+  public CacheBuilder refreshAhead(Double refreshAhead) {
+    this.refreshAhead = refreshAhead;
+    return this;
+  }
+
   public CacheBuilder readWrite(boolean readWrite) {
     this.readWrite = readWrite;
     return this;
   }
 
+  public CacheBuilder codec(Class<? extends CacheCodec> codec) {
+    this.codec = codec;
+    return this;
+  }
+
   public CacheBuilder blocking(boolean blocking) {
     this.blocking = blocking;
     return this;
   }
 
+  /**
+   * @param generational
+   *          whether a flush starts a new generation of entries instead of clearing the cache
+   * @return this builder
+   * @since 3.5.11
+   */
+  public CacheBuilder generational(boolean generational) {
+    this.generational = generational;
+    return this;
+  }
+
+  /**
+   * @param writeBehind
+   *          whether committed entries are put in the cache in the background, ignored by a blocking cache
+   * @return this builder
+   * @since 3.5.11
+   */
+  public CacheBuilder writeBehind(boolean writeBehind) {
+    this.writeBehind = writeBehind;
+    return this;
+  }
+
+  /**
+   * @param compressionThreshold
+   *          the size in bytes from which the serialized values of a read-write cache are compressed, {@code null} to
+   *          not compress them
+   * @return this builder
+   * @since 3.5.11
+   */
+  public CacheBuilder compressionThreshold(Integer compressionThreshold) {
+    this.compressionThreshold = compressionThreshold;
+    return this;
+  }
+
   public CacheBuilder properties(Properties properties) {
     this.properties = properties;
     return this;
   }
 
   public Cache build() {
+    if (blocking && timeToLive != null && refreshAhead != null && refreshAhead > 0) {
+      // the reload would hold the lock of the entry, blocking the readers it is meant to keep serving
+      throw new CacheException("Cache '" + id + "' cannot both refresh ahead and be blocking.");
+    }
     setDefaultImplementations();
     Cache cache = newBaseCacheInstance(implementation, id);
     setCacheProperties(cache);
+    List<Cache> layers = new ArrayList<>();
+    layers.add(cache);
     // issue #352, do not apply decorators to custom caches
     if (PerpetualCache.class.equals(cache.getClass())) {
       for (Class<? extends Cache> decorator : decorators) {
+        if (maxBytes != null && LruCache.class.equals(decorator)) {
+          // evicted by weight instead
+          continue;
+        }
         cache = newCacheDecoratorInstance(decorator, cache);
         setCacheProperties(cache);
+        layers.add(cache);
       }
-      cache = setStandardDecorators(cache);
+      cache = setStandardDecorators(cache, layers);
     } else if (!LoggingCache.class.isAssignableFrom(cache.getClass())) {
       cache = new LoggingCache(cache);
     }
+    setStatistics(layers, cache.getStatistics());
     return cache;
   }
 
+  private void setStatistics(List<Cache> layers, CacheStatistics statistics) {
+    if (statistics != null) {
+      for (Cache layer : layers) {
+        if (layer instanceof CacheStatisticsAware) {
+          ((CacheStatisticsAware) layer).setStatistics(statistics);
+        }
+      }
+    }
+  }
+
   private void setDefaultImplementations() {
     if (implementation == null) {
       implementation = PerpetualCache.class;
@@ -115,23 +251,79 @@ public class CacheBuilder {
     }
   }
 
-  private Cache setStandardDecorators(Cache cache) {
+  private Cache setStandardDecorators(Cache cache, List<Cache> layers) {
     try {
       MetaObject metaCache = SystemMetaObject.forObject(cache);
       if (size != null && metaCache.hasSetter("size")) {
         metaCache.setValue("size", size);
       }
+      if (timeToLive != null) {
+        // right above the eviction policy, which stores the deadlines with the values and evicts them together,
+        // and below the weighing and the serialization, which only see the values
+        ExpiringCache expiringCache = new ExpiringCache(cache);
+        expiringCache.setTimeToLive(timeToLive);
+        if (jitter != null) {
+          expiringCache.setJitter(jitter);
+        }
+        if (refreshAhead != null) {
+          expiringCache.setRefreshAhead(refreshAhead);
+        }
+        cache = expiringCache;
+        layers.add(cache);
+      }
+      if (maxBytes != null || memoryBudget != null) {
+        // above the eviction policy and below the serialization, so that read-write values are weighed exactly
+        WeightedCache weightedCache = new WeightedCache(cache);
+        if (maxBytes != null) {
+          weightedCache.setMaxBytes(maxBytes);
+        }
+        weightedCache.setWeigher(newWeigherInstance(weigher == null ? EstimatingWeigher.class : weigher));
+        setCacheProperties(weightedCache);
+        if (memoryBudget != null) {
+          weightedCache.setBudget(memoryBudget);
+        }
+        cache = weightedCache;
+        layers.add(cache);
+      }
       if (clearInterval != null) {
         cache = new ScheduledCache(cache);
         ((ScheduledCache) cache).setClearInterval(clearInterval);
+        layers.add(cache);
+      }
+      CacheCodec cacheCodec = readWrite ? newCodecInstance(codec == null ? JavaSerializationCodec.class : codec) : null;
+      if (readWrite && compressionThreshold != null) {
+        // below the serialization to be given bytes, above the limits so that they count the compressed size
+        CompressedCache compressedCache = new CompressedCache(cache);
+        compressedCache.setCompressionThreshold(compressionThreshold);
+        cache = compressedCache;
+        layers.add(cache);
       }
       if (readWrite) {
-        cache = new SerializedCache(cache);
+        cache = new SerializedCache(cache, cacheCodec);
+        layers.add(cache);
       }
       cache = new LoggingCache(cache);
-      cache = new SynchronizedCache(cache);
+      if (!isConcurrent()) {
+        cache = new SynchronizedCache(cache);
+      }
+      if (generational) {
+        // above the synchronization so that a flush never waits for it
+        GenerationalCache generationalCache = new GenerationalCache(cache);
+        setCacheProperties(generationalCache);
+        cache = generationalCache;
+      }
+      if (writeBehind && !blocking) {
+        // the locks of a blocking cache must be released by the sessions that acquired them
+        WriteBehindCache writeBehindCache = new WriteBehindCache(cache);
+        setCacheProperties(writeBehindCache);
+        cache = writeBehindCache;
+      }
       if (blocking) {
-        cache = new BlockingCache(cache);
+        BlockingCache blockingCache = new BlockingCache(cache);
+        // timeout and singleFlight
+        setCacheProperties(blockingCache);
+        blockingCache.setCodec(cacheCodec);
+        cache = blockingCache;
       }
       return cache;
     } catch (Exception e) {
@@ -139,6 +331,24 @@ public class CacheBuilder {
     }
   }
 
+  /**
+   * Natively concurrent decorators own their storage and do their own locking, so a chain made only of them does not
+   * need to be serialized through {@link SynchronizedCache}. The standard decorators stacked on top of them must then be
+   * safe on their own: {@link LoggingCache} counts with adders, {@link ScheduledCache} clears under a lock,
+   * {@link WeightedCache} weighs under a lock, and the serializing and compressing decorators keep no state.
+   */
+  private boolean isConcurrent() {
+    if (decorators.isEmpty()) {
+      return false;
+    }
+    for (Class<? extends Cache> decorator : decorators) {
+      if (!TinyLfuCache.class.equals(decorator) && !ConcurrentReferenceCache.class.isAssignableFrom(decorator)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private void setCacheProperties(Cache cache) {
     if (properties != null) {
       MetaObject metaCache = SystemMetaObject.forObject(cache);
@@ -186,6 +396,22 @@ public class CacheBuilder {
     }
   }
 
+  private CacheCodec newCodecInstance(Class<? extends CacheCodec> codecClass) {
+    try {
+      return codecClass.getConstructor().newInstance();
+    } catch (Exception e) {
+      throw new CacheException("Could not instantiate cache codec (" + codecClass + "). Cause: " + e, e);
+    }
+  }
+
+  private Weigher newWeigherInstance(Class<? extends Weigher> weigherClass) {
+    try {
+      return weigherClass.getConstructor().newInstance();
+    } catch (Exception e) {
+      throw new CacheException("Could not instantiate cache weigher (" + weigherClass + "). Cause: " + e, e);
+    }
+  }
+
   private Cache newBaseCacheInstance(Class<? extends Cache> cacheClass, String id) {
     Constructor<? extends Cache> cacheConstructor = getBaseCacheConstructor(cacheClass);
     try {
@@ -16,10 +16,15 @@
 package org.apache.ibatis.mapping;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cache.CacheWarmupSupplier;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.keygen.NoKeyGenerator;
@@ -36,6 +41,7 @@ public final class MappedStatement {
   private String resource;
   private Configuration configuration;
   private String id;
+  private long idFingerprint;
   private Integer fetchSize;
   private Integer timeout;
   private StatementType statementType;
@@ -56,6 +62,12 @@ public final class MappedStatement {
   private Log statementLog;
   private LanguageDriver lang;
   private String[] resultSets;
+  private Set<String> cacheTables;
+  private List<Object> cacheWarmupParameters = Collections.emptyList();
+  private CacheWarmupSupplier cacheWarmupSupplier;
+  private String cacheRegion;
+  private Collection<Cache> flushedCacheRegions = Collections.emptySet();
+  private volatile AnalyzedTables analyzedTables;
 
   MappedStatement() {
     // constructor disabled
@@ -174,6 +186,88 @@ public final class MappedStatement {
       return this;
     }
 
+    /**
+     * Declares the tables this statement reads (or writes, for insert, update and delete statements) instead of
+     * deriving them from the SQL. Used when {@code cacheInvalidationScope} is {@code TABLE}.
+     *
+     * @param cacheTables
+     *          comma separated table names
+     * @return the builder
+     * @since 3.5.11
+     */
+    public Builder cacheTables(String cacheTables) {
+      String[] tables = delimitedStringToArray(cacheTables);
+      if (tables == null) {
+        mappedStatement.cacheTables = null;
+      } else {
+        Set<String> names = new LinkedHashSet<>();
+        for (String table : tables) {
+          String name = SqlTableExtractor.normalize(table.trim());
+          if (!name.isEmpty()) {
+            names.add(name);
+          }
+        }
+        mappedStatement.cacheTables = Collections.unmodifiableSet(names);
+      }
+      return this;
+    }
+
+    /**
+     * Declares the parameters the statement is executed with to preload the second level cache, see
+     * {@link org.apache.ibatis.cache.CacheWarmup}.
+     *
+     * @param cacheWarmupParameters
+     *          the parameter objects
+     * @return the builder
+     * @since 3.5.11
+     */
+    public Builder cacheWarmupParameters(List<Object> cacheWarmupParameters) {
+      mappedStatement.cacheWarmupParameters = cacheWarmupParameters == null ? Collections.emptyList()
+          : Collections.unmodifiableList(cacheWarmupParameters);
+      return this;
+    }
+
+    /**
+     * Declares a supplier of the parameters the statement is executed with to preload the second level cache.
+     *
+     * @param cacheWarmupSupplier
+     *          the supplier, may be {@code null}
+     * @return the builder
+     * @since 3.5.11
+     */
+    public Builder cacheWarmupSupplier(CacheWarmupSupplier cacheWarmupSupplier) {
+      mappedStatement.cacheWarmupSupplier = cacheWarmupSupplier;
+      return this;
+    }
+
+    /**
+     * Sets the name of the cache region the statement uses, its {@link #cache(Cache)} being the cache of the region.
+     *
+     * @param cacheRegion
+     *          the region, {@code null} for the cache of the namespace
+     * @return the builder
+     * @since 3.5.11
+     */
+    public Builder cacheRegion(String cacheRegion) {
+      mappedStatement.cacheRegion = cacheRegion;
+      return this;
+    }
+
+    /**
+     * Sets the cache regions flushed along with the cache of the statement when it requires a flush.
+     *
+     * @param flushedCacheRegions
+     *          the caches of the regions, read on every flush so that regions used later by the namespace are included;
+     *          the collection has to support being modified while it is iterated, e.g. a {@code CopyOnWriteArraySet}
+     * @return the builder
+     * @since 3.5.11
+     */
+    public Builder flushedCacheRegions(Collection<Cache> flushedCacheRegions) {
+      mappedStatement.flushedCacheRegions = flushedCacheRegions == null ? Collections.emptySet()
+          : Collections.unmodifiableCollection(flushedCacheRegions);
+      return this;
+    }
+
     /**
      * Resul sets.
      *
@@ -193,6 +287,7 @@ public final class MappedStatement {
       assert mappedStatement.id != null;
       assert mappedStatement.sqlSource != null;
       assert mappedStatement.lang != null;
+      mappedStatement.idFingerprint = CacheKey.fingerprint(mappedStatement.id);
       mappedStatement.resultMaps = Collections.unmodifiableList(mappedStatement.resultMaps);
       return mappedStatement;
     }
@@ -218,6 +313,17 @@ public final class MappedStatement {
     return id;
   }
 
+  /**
+   * Gets the fingerprint of the id, for cache keys.
+   *
+   * @return the fingerprint
+   * @since 3.5.11
+   * @see CacheKey#fingerprint(Object)
+   */
+  public long getIdFingerprint() {
+    return idFingerprint;
+  }
+
   public boolean hasNestedResultMaps() {
     return hasNestedResultMaps;
   }
@@ -301,11 +407,100 @@ public final class MappedStatement {
     return resultSets;
   }
 
+  /**
+   * Returns the tables declared with the {@code cacheTables} attribute.
+   *
+   * @return the declared tables, or {@code null} when they have to be derived from the SQL
+   * @since 3.5.11
+   */
+  public Set<String> getCacheTables() {
+    return cacheTables;
+  }
+
+  /**
+   * Returns the parameters declared to preload the second level cache.
+   *
+   * @return the parameter objects, empty when none are declared
+   * @since 3.5.11
+   */
+  public List<Object> getCacheWarmupParameters() {
+    return cacheWarmupParameters;
+  }
+
+  /**
+   * Returns the supplier of parameters declared to preload the second level cache.
+   *
+   * @return the supplier or {@code null}
+   * @since 3.5.11
+   */
+  public CacheWarmupSupplier getCacheWarmupSupplier() {
+    return cacheWarmupSupplier;
+  }
+
+  /**
+   * Tells whether the statement declares a second level cache warm-up.
+   *
+   * @return {@code true} when parameters or a supplier are declared
+   * @since 3.5.11
+   */
+  public boolean hasCacheWarmup() {
+    return !cacheWarmupParameters.isEmpty() || cacheWarmupSupplier != null;
+  }
+
+  /**
+   * Returns the name of the cache region the statement uses.
+   *
+   * @return the region or {@code null} when the statement uses the cache of its namespace
+   * @since 3.5.11
+   */
+  public String getCacheRegion() {
+    return cacheRegion;
+  }
+
+  /**
+   * Returns the caches of the regions used by the statements of the namespace, flushed along with the cache of this
+   * statement.
+   *
+   * @return the caches of the regions
+   * @since 3.5.11
+   */
+  public Collection<Cache> getFlushedCacheRegions() {
+    return flushedCacheRegions;
+  }
+
+  /**
+   * Returns the tables second level cache entries of this statement depend on (for a select) or invalidate (for an
+   * insert, update or delete). Declared tables win over the ones found by analysing the SQL. An empty set means the
+   * tables are unknown and the statement falls back to namespace wide flushing.
+   *
+   * @param boundSql
+   *          the bound sql about to be executed
+   * @return the table names, lower cased and without schema
+   * @since 3.5.11
+   */
+  public Set<String> getCacheTables(BoundSql boundSql) {
+    if (cacheTables != null) {
+      return cacheTables;
+    }
+    if (statementType == StatementType.CALLABLE) {
+      return Collections.emptySet();
+    }
+    String sql = boundSql.getSql();
+    AnalyzedTables analyzed = analyzedTables;
+    if (analyzed == null || !analyzed.sql.equals(sql)) {
+      // dynamic sql usually renders a handful of variants, remembering the last one is enough for static statements
+      analyzed = new AnalyzedTables(sql, SqlTableExtractor.extract(sql));
+      analyzedTables = analyzed;
+    }
+    return analyzed.tables;
+  }
+
   public BoundSql getBoundSql(Object parameterObject) {
     BoundSql boundSql = sqlSource.getBoundSql(parameterObject);
     List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
     if (parameterMappings == null || parameterMappings.isEmpty()) {
-      boundSql = new BoundSql(configuration, boundSql.getSql(), parameterMap.getParameterMappings(), parameterObject);
+      boundSql = new BoundSql(configuration, boundSql.getSql(), boundSql.getSqlFingerprint(),
+          parameterMap.getParameterMappings(), parameterObject);
     }
 
     // check for nested result maps in parameter mappings (issue #30)
@@ -322,6 +517,16 @@ public final class MappedStatement {
     return boundSql;
   }
 
+  private static final class AnalyzedTables {
+    private final String sql;
+    private final Set<String> tables;
+
+    AnalyzedTables(String sql, Set<String> tables) {
+      this.sql = sql;
+      this.tables = tables;
+    }
+  }
+
   private static String[] delimitedStringToArray(String in) {
     if (in == null || in.trim().length() == 0) {
       return null;
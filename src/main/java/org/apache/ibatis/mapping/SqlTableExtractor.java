@@ -0,0 +1,307 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.mapping;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Lightweight SQL scanner that finds the tables a statement depends on.
+ * <p>
+ * This is not a parser. It tokenizes the SQL (skipping literals and comments) and looks at the verb of each statement:
+ * for a query it collects every table that follows a {@code FROM} or {@code JOIN}, for a data modification statement
+ * it collects the modified table only. Names are lower cased and stripped of their schema and quotes. When the verb is
+ * not recognised (stored procedure calls, DDL, ...) an empty set is returned, meaning "unknown".
+ */
+final class SqlTableExtractor {
+
+  private static final Set<String> WRITE_VERBS = new HashSet<>(
+      Arrays.asList("insert", "update", "delete", "merge", "replace", "upsert", "truncate"));
+
+  private static final Set<String> RESERVED = new HashSet<>(Arrays.asList("select", "from", "join", "inner", "outer",
+      "left", "right", "full", "cross", "natural", "on", "using", "where", "group", "order", "having", "limit",
+      "offset", "fetch", "union", "intersect", "except", "minus", "for", "with", "as", "into", "values", "set",
+      "lateral", "straight_join", "window", "returning", "table", "only", "partition", "connect", "start", "when",
+      "then"));
+
+  private SqlTableExtractor() {
+    // Prevent Instantiation of Static Class
+  }
+
+  static Set<String> extract(String sql) {
+    if (sql == null) {
+      return Collections.emptySet();
+    }
+    List<String> tokens = tokenize(sql);
+    Set<String> tables = new LinkedHashSet<>();
+    int start = 0;
+    for (int i = 0; i <= tokens.size(); i++) {
+      if (i == tokens.size() || ";".equals(tokens.get(i))) {
+        if (i > start && !extractStatement(tokens.subList(start, i), tables)) {
+          return Collections.emptySet();
+        }
+        start = i + 1;
+      }
+    }
+    return tables.isEmpty() ? Collections.<String>emptySet() : Collections.unmodifiableSet(tables);
+  }
+
+  static String normalize(String name) {
+    String table = name;
+    int dot = lastUnquotedDot(table);
+    if (dot >= 0) {
+      table = table.substring(dot + 1);
+    }
+    if (table.length() >= 2) {
+      char first = table.charAt(0);
+      char last = table.charAt(table.length() - 1);
+      if (first == '"' && last == '"' || first == '`' && last == '`' || first == '[' && last == ']') {
+        table = table.substring(1, table.length() - 1);
+      }
+    }
+    return table.toLowerCase(Locale.ENGLISH);
+  }
+
+  private static boolean extractStatement(List<String> tokens, Set<String> tables) {
+    String verb = null;
+    int verbIndex = -1;
+    boolean nestedSelect = false;
+    int depth = 0;
+    for (int i = 0; i < tokens.size() && verb == null; i++) {
+      String token = tokens.get(i);
+      String lower = token.toLowerCase(Locale.ENGLISH);
+      if ("(".equals(token)) {
+        depth++;
+      } else if (")".equals(token)) {
+        depth--;
+      } else if (depth > 0) {
+        nestedSelect |= "select".equals(lower);
+      } else if ("select".equals(lower) || WRITE_VERBS.contains(lower)) {
+        verb = lower;
+        verbIndex = i;
+      } else if (!"with".equals(lower) && !"recursive".equals(lower) && !"as".equals(lower)
+          && !",".equals(token) && !isIdentifier(token)) {
+        return false;
+      }
+    }
+    if (verb == null && !nestedSelect) {
+      return false;
+    }
+    if (verb == null || "select".equals(verb)) {
+      // a plain query, possibly a parenthesized set operation such as (select ..) union (select ..)
+      collectReadTables(tokens, tables);
+      return true;
+    }
+    String target = writeTarget(tokens, verbIndex + 1);
+    if (target == null) {
+      return false;
+    }
+    tables.add(target);
+    return true;
+  }
+
+  private static String writeTarget(List<String> tokens, int index) {
+    int i = index;
+    // skip modifiers such as LOW_PRIORITY, IGNORE, TOP (n), INTO, FROM, TABLE, ONLY
+    while (i < tokens.size()) {
+      String lower = tokens.get(i).toLowerCase(Locale.ENGLISH);
+      if ("(".equals(lower)) {
+        i = skipParentheses(tokens, i);
+      } else if ("into".equals(lower) || "from".equals(lower) || "table".equals(lower) || "only".equals(lower)
+          || "low_priority".equals(lower) || "delayed".equals(lower) || "high_priority".equals(lower)
+          || "ignore".equals(lower) || "quick".equals(lower) || "top".equals(lower) || isNumber(lower)) {
+        i++;
+      } else {
+        break;
+      }
+    }
+    if (i < tokens.size() && isIdentifier(tokens.get(i))
+        && !RESERVED.contains(tokens.get(i).toLowerCase(Locale.ENGLISH))) {
+      return normalize(tokens.get(i));
+    }
+    return null;
+  }
+
+  private static void collectReadTables(List<String> tokens, Set<String> tables) {
+    for (int i = 0; i < tokens.size(); i++) {
+      String lower = tokens.get(i).toLowerCase(Locale.ENGLISH);
+      if ("from".equals(lower) || "join".equals(lower) || "straight_join".equals(lower)) {
+        i = collectTableList(tokens, i + 1, tables) - 1;
+      }
+    }
+  }
+
+  private static int collectTableList(List<String> tokens, int index, Set<String> tables) {
+    int i = index;
+    while (i < tokens.size()) {
+      String token = tokens.get(i);
+      String lower = token.toLowerCase(Locale.ENGLISH);
+      if ("lateral".equals(lower) || "only".equals(lower)) {
+        i++;
+        continue;
+      }
+      if ("(".equals(token)) {
+        // derived table, its own FROM clauses are picked up by the outer scan
+        return i;
+      }
+      if (!isIdentifier(token) || RESERVED.contains(lower)) {
+        return i;
+      }
+      tables.add(normalize(token));
+      i++;
+      // optional alias
+      if (i < tokens.size() && "as".equalsIgnoreCase(tokens.get(i))) {
+        i++;
+      }
+      if (i < tokens.size() && isIdentifier(tokens.get(i))
+          && !RESERVED.contains(tokens.get(i).toLowerCase(Locale.ENGLISH))) {
+        i++;
+      }
+      if (i < tokens.size() && ",".equals(tokens.get(i))) {
+        i++;
+      } else {
+        return i;
+      }
+    }
+    return i;
+  }
+
+  private static int skipParentheses(List<String> tokens, int index) {
+    int depth = 0;
+    int i = index;
+    for (; i < tokens.size(); i++) {
+      String token = tokens.get(i);
+      if ("(".equals(token)) {
+        depth++;
+      } else if (")".equals(token) && --depth == 0) {
+        return i + 1;
+      }
+    }
+    return i;
+  }
+
+  private static List<String> tokenize(String sql) {
+    List<String> tokens = new ArrayList<>();
+    int length = sql.length();
+    int i = 0;
+    while (i < length) {
+      char c = sql.charAt(i);
+      if (Character.isWhitespace(c)) {
+        i++;
+      } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+        i = skipTo(sql, i + 2, "\n");
+      } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+        i = skipTo(sql, i + 2, "*/");
+      } else if (c == '\'') {
+        i = skipLiteral(sql, i + 1, '\'');
+        tokens.add("?");
+      } else if (isIdentifierPart(c) || c == '"' || c == '`' || c == '[') {
+        int end = identifierEnd(sql, i);
+        tokens.add(sql.substring(i, end));
+        i = end;
+      } else {
+        tokens.add(String.valueOf(c));
+        i++;
+      }
+    }
+    return tokens;
+  }
+
+  private static int identifierEnd(String sql, int start) {
+    int length = sql.length();
+    int i = start;
+    while (i < length) {
+      char c = sql.charAt(i);
+      if (c == '"' || c == '`') {
+        i = skipLiteral(sql, i + 1, c);
+      } else if (c == '[') {
+        i = skipLiteral(sql, i + 1, ']');
+      } else if (isIdentifierPart(c) || c == '.') {
+        i++;
+      } else {
+        break;
+      }
+    }
+    return i;
+  }
+
+  private static int skipLiteral(String sql, int start, char quote) {
+    int length = sql.length();
+    int i = start;
+    while (i < length) {
+      if (sql.charAt(i) == quote) {
+        if (i + 1 < length && sql.charAt(i + 1) == quote) {
+          i += 2;
+        } else {
+          return i + 1;
+        }
+      } else {
+        i++;
+      }
+    }
+    return length;
+  }
+
+  private static int skipTo(String sql, int start, String terminator) {
+    int end = sql.indexOf(terminator, start);
+    return end < 0 ? sql.length() : end + terminator.length();
+  }
+
+  private static int lastUnquotedDot(String name) {
+    char quote = 0;
+    int dot = -1;
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      if (quote != 0) {
+        if (c == quote) {
+          quote = 0;
+        }
+      } else if (c == '"' || c == '`') {
+        quote = c;
+      } else if (c == '[') {
+        quote = ']';
+      } else if (c == '.') {
+        dot = i;
+      }
+    }
+    return dot;
+  }
+
+  private static boolean isIdentifier(String token) {
+    char c = token.charAt(0);
+    return (isIdentifierPart(c) && !Character.isDigit(c)) || c == '"' || c == '`' || c == '[';
+  }
+
+  private static boolean isIdentifierPart(char c) {
+    return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '#';
+  }
+
+  private static boolean isNumber(String token) {
+    for (int i = 0; i < token.length(); i++) {
+      if (!Character.isDigit(token.charAt(i))) {
+        return false;
+      }
+    }
+    return !token.isEmpty();
+  }
+
+}
@@ -0,0 +1,182 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Runs statements without blocking the calling thread.
+ * <p>
+ * Every call runs on the executor of the session in its own {@link SqlSession}, which is committed and closed as soon
+ * as the statement completes. A connection is therefore only held while a statement runs, and independent calls run
+ * concurrently on as many connections as the data source hands out. As there is no shared transaction, the local
+ * cache is not shared between calls either.
+ * <p>
+ * Mappers obtained from this session run the methods returning {@link CompletableFuture} in the same way. Their other
+ * methods run in a session of their own too, and block until it is closed.
+ *
+ * @since 3.5.11
+ * @see SqlSessionFactory#openAsyncSession()
+ */
+public interface AsyncSqlSession {
+
+  /**
+   * Retrieve a single row mapped from the statement key.
+   *
+   * @param <T>
+   *          the returned object type
+   * @param statement
+   *          Unique identifier matching the statement to use.
+   * @return a future of the mapped object
+   */
+  <T> CompletableFuture<T> selectOne(String statement);
+
+  /**
+   * Retrieve a single row mapped from the statement key and parameter.
+   *
+   * @param <T>
+   *          the returned object type
+   * @param statement
+   *          Unique identifier matching the statement to use.
+   * @param parameter
+   *          A parameter object to pass to the statement.
+   * @return a future of the mapped object
+   */
+  <T> CompletableFuture<T> selectOne(String statement, Object parameter);
+
+  /**
+   * Retrieve a list of mapped objects from the statement key.
+   *
+   * @param <E>
+   *          the returned list element type
+   * @param statement
+   *          Unique identifier matching the statement to use.
+   * @return a future of the list of mapped objects
+   */
+  <E> CompletableFuture<List<E>> selectList(String statement);
+
+  /**
+   * Retrieve a list of mapped objects from the statement key and parameter.
+   *
+   * @param <E>
+   *          the returned list element type
+   * @param statement
+   *          Unique identifier matching the statement to use.
+   * @param parameter
+   *          A parameter object to pass to the statement.
+   * @return a future of the list of mapped objects
+   */
+  <E> CompletableFuture<List<E>> selectList(String statement, Object parameter);
+
+  /**
+   * Retrieve a list of mapped objects from the statement key and parameter, within the specified row bounds.
+   *
+   * @param <E>
+   *          the returned list element type
+   * @param statement
+   *          Unique identifier matching the statement to use.
+   * @param parameter
+   *          A parameter object to pass to the statement.
+   * @param rowBounds
+   *          Bounds to limit object retrieval
+   * @return a future of the list of mapped objects
+   */
+  <E> CompletableFuture<List<E>> selectList(String statement, Object parameter, RowBounds rowBounds);
+
+  /**
+   * Retrieve the mapped objects from the statement key and parameter as a Map keyed by one of their properties.
+   *
+   * @param <K>
+   *          the returned Map keys type
+   * @param <V>
+   *          the returned Map values type
+   * @param statement
+   *          Unique identifier matching the statement to use.
+   * @param parameter
+   *          A parameter object to pass to the statement.
+   * @param mapKey
+   *          The property to use as key for each value in the list.
+   * @return a future of the Map
+   */
+  <K, V> CompletableFuture<Map<K, V>> selectMap(String statement, Object parameter, String mapKey);
+
+  /**
+   * Execute an insert statement with the given parameter object.
+   *
+   * @param statement
+   *          Unique identifier matching the statement to execute.
+   * @param parameter
+   *          A parameter object to pass to the statement.
+   * @return a future of the number of rows affected
+   */
+  CompletableFuture<Integer> insert(String statement, Object parameter);
+
+  /**
+   * Execute an update statement with the given parameter object.
+   *
+   * @param statement
+   *          Unique identifier matching the statement to execute.
+   * @param parameter
+   *          A parameter object to pass to the statement.
+   * @return a future of the number of rows affected
+   */
+  CompletableFuture<Integer> update(String statement, Object parameter);
+
+  /**
+   * Execute a delete statement with the given parameter object.
+   *
+   * @param statement
+   *          Unique identifier matching the statement to execute.
+   * @param parameter
+   *          A parameter object to pass to the statement.
+   * @return a future of the number of rows affected
+   */
+  CompletableFuture<Integer> delete(String statement, Object parameter);
+
+  /**
+   * Runs some work in a session of its own, committed when the work returns and rolled back when it throws. The
+   * connection is held for the whole work, which is the way to run several statements in a transaction.
+   *
+   * @param <T>
+   *          the result type
+   * @param work
+   *          the work
+   * @return a future of the result of the work
+   */
+  <T> CompletableFuture<T> execute(Function<SqlSession, T> work);
+
+  /**
+   * Retrieves a mapper whose methods each run in a session of their own.
+   *
+   * @param <T>
+   *          the mapper type
+   * @param type
+   *          Mapper interface class
+   * @return a mapper bound to this session
+   */
+  <T> T getMapper(Class<T> type);
+
+  /**
+   * Retrieves current configuration.
+   *
+   * @return Configuration
+   */
+  Configuration getConfiguration();
+
+}
@@ -0,0 +1,137 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.ibatis.exceptions.PersistenceException;
+
+/**
+ * The outcome of a bulk write: how many rows were read, committed and updated, and the chunks of rows that failed.
+ * The rows themselves are not kept.
+ *
+ * @since 3.5.11
+ * @see SqlSession#bulkWrite(String, java.util.Iterator, int)
+ */
+public class BulkWriteResult {
+
+  private long rowCount;
+  private long committedRowCount;
+  private long updateCount;
+  private int commitCount;
+  private final List<Failure> failures = new ArrayList<>();
+
+  void addRow() {
+    rowCount++;
+  }
+
+  void addCommit(long rows, long updates) {
+    committedRowCount += rows;
+    updateCount += updates;
+    commitCount++;
+  }
+
+  void addFailure(long firstRow, long rows, PersistenceException cause) {
+    failures.add(new Failure(firstRow, rows, cause));
+  }
+
+  /**
+   * @return the number of rows read from the input
+   */
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  /**
+   * @return the number of rows committed
+   */
+  public long getCommittedRowCount() {
+    return committedRowCount;
+  }
+
+  /**
+   * Returns the sum of the update counts reported by the driver for the committed rows. Counts the driver does not
+   * know ({@link java.sql.Statement#SUCCESS_NO_INFO}) are not included.
+   *
+   * @return the number of updated rows
+   */
+  public long getUpdateCount() {
+    return updateCount;
+  }
+
+  public int getCommitCount() {
+    return commitCount;
+  }
+
+  /**
+   * @return the chunks of rows rolled back, in input order
+   */
+  public List<Failure> getFailures() {
+    return Collections.unmodifiableList(failures);
+  }
+
+  public boolean isSuccessful() {
+    return failures.isEmpty();
+  }
+
+  @Override
+  public String toString() {
+    return "BulkWriteResult rows=" + rowCount + ", committedRows=" + committedRowCount + ", updates=" + updateCount
+        + ", commits=" + commitCount + ", failures=" + failures.size();
+  }
+
+  /**
+   * A chunk of rows rolled back because one of them could not be written.
+   */
+  public static final class Failure {
+
+    private final long firstRow;
+    private final long rowCount;
+    private final PersistenceException cause;
+
+    Failure(long firstRow, long rowCount, PersistenceException cause) {
+      this.firstRow = firstRow;
+      this.rowCount = rowCount;
+      this.cause = cause;
+    }
+
+    /**
+     * @return the position in the input of the first row of the chunk, starting at 0
+     */
+    public long getFirstRow() {
+      return firstRow;
+    }
+
+    /**
+     * @return the number of rows of the chunk
+     */
+    public long getRowCount() {
+      return rowCount;
+    }
+
+    public PersistenceException getCause() {
+      return cause;
+    }
+
+    @Override
+    public String toString() {
+      return "Failure rows " + firstRow + " to " + (firstRow + rowCount - 1) + ": " + cause;
+    }
+  }
+
+}
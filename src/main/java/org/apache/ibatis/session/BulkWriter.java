@@ -0,0 +1,95 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+import java.util.Iterator;
+
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.BatchExecutor;
+import org.apache.ibatis.executor.BatchResult;
+
+/**
+ * Writes rows through the public methods of a session, so that it works with any implementation of it.
+ */
+final class BulkWriter {
+
+  private final SqlSession sqlSession;
+  private final String statement;
+  private final int commitInterval;
+  private final BulkWriteResult result = new BulkWriteResult();
+  private long chunkStart;
+  private long rows;
+  private long chunkUpdateCount;
+
+  BulkWriter(SqlSession sqlSession, String statement, int commitInterval) {
+    this.sqlSession = sqlSession;
+    this.statement = statement;
+    this.commitInterval = commitInterval;
+  }
+
+  BulkWriteResult write(Iterator<?> parameters) {
+    while (parameters.hasNext()) {
+      Object parameter = parameters.next();
+      rows++;
+      result.addRow();
+      try {
+        int updateCount = sqlSession.update(statement, parameter);
+        if (updateCount != BatchExecutor.BATCH_UPDATE_RETURN_VALUE && updateCount > 0) {
+          chunkUpdateCount += updateCount;
+        }
+        if (commitInterval > 0 && rows - chunkStart >= commitInterval) {
+          commit();
+        }
+      } catch (PersistenceException e) {
+        rollback(e);
+      }
+    }
+    if (rows > chunkStart) {
+      try {
+        commit();
+      } catch (PersistenceException e) {
+        rollback(e);
+      }
+    }
+    return result;
+  }
+
+  private void commit() {
+    long updateCount = chunkUpdateCount;
+    for (BatchResult batchResult : sqlSession.flushStatements()) {
+      for (int count : batchResult.getUpdateCounts()) {
+        if (count > 0) {
+          updateCount += count;
+        }
+      }
+    }
+    sqlSession.commit();
+    result.addCommit(rows - chunkStart, updateCount);
+    startChunk();
+  }
+
+  private void rollback(PersistenceException cause) {
+    sqlSession.rollback();
+    result.addFailure(chunkStart, rows - chunkStart, cause);
+    startChunk();
+  }
+
+  private void startChunk() {
+    chunkStart = rows;
+    chunkUpdateCount = 0;
+  }
+
+}
@@ -0,0 +1,33 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+/**
+ * Specifies how a second level cache is flushed when a write commits.
+ *
+ * @since 3.5.11
+ */
+public enum CacheFlushMode {
+  /**
+   * Clears the cache, which takes a time proportional to its size (default).
+   */
+  CLEAR,
+  /**
+   * Starts a new generation of entries in constant time. The entries of older generations are invisible at once and
+   * removed in the background.
+   */
+  GENERATION
+}
@@ -0,0 +1,37 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+/**
+ * Specifies when the second level cache warm-up declared on statements runs.
+ *
+ * @since 3.5.11
+ */
+public enum CacheWarmupMode {
+  /**
+   * Skips the warm-up.
+   */
+  NONE,
+  /**
+   * Runs the warm-up before {@link SqlSessionFactoryBuilder} returns the factory (default).
+   */
+  SYNC,
+  /**
+   * Starts the warm-up in the background once the factory is built. {@link Configuration#getCacheWarmup()} tells when
+   * it is done.
+   */
+  ASYNC
+}
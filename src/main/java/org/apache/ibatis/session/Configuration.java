@@ -15,8 +15,10 @@
  */
 package org.apache.ibatis.session;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -25,6 +27,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.BiFunction;
 
 import org.apache.ibatis.binding.MapperRegistry;
@@ -34,11 +39,21 @@ import org.apache.ibatis.builder.ResultMapResolver;
 import org.apache.ibatis.builder.annotation.MethodResolver;
 import org.apache.ibatis.builder.xml.XMLStatementBuilder;
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheDependencyIndex;
+import org.apache.ibatis.cache.CacheMemoryBudget;
+import org.apache.ibatis.cache.codec.JavaSerializationCodec;
+import org.apache.ibatis.cache.codec.ReflectionCodec;
+import org.apache.ibatis.cache.decorators.ConcurrentSoftCache;
+import org.apache.ibatis.cache.decorators.ConcurrentWeakCache;
 import org.apache.ibatis.cache.decorators.FifoCache;
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.decorators.SoftCache;
+import org.apache.ibatis.cache.decorators.TinyLfuCache;
 import org.apache.ibatis.cache.decorators.WeakCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.cache.invalidation.CacheInvalidationBus;
+import org.apache.ibatis.cache.invalidation.LoopbackTransport;
+import org.apache.ibatis.cache.invalidation.SharedFileTransport;
 import org.apache.ibatis.datasource.jndi.JndiDataSourceFactory;
 import org.apache.ibatis.datasource.pooled.PooledDataSourceFactory;
 import org.apache.ibatis.datasource.unpooled.UnpooledDataSourceFactory;
@@ -87,6 +102,7 @@ import org.apache.ibatis.scripting.LanguageDriver;
 import org.apache.ibatis.scripting.LanguageDriverRegistry;
 import org.apache.ibatis.scripting.defaults.RawLanguageDriver;
 import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
+import org.apache.ibatis.session.defaults.DefaultAsyncSqlSession;
 import org.apache.ibatis.transaction.Transaction;
 import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
 import org.apache.ibatis.transaction.managed.ManagedTransactionFactory;
@@ -129,12 +145,31 @@ public class Configuration {
    * 一级缓存作用域
    */
   protected LocalCacheScope localCacheScope = LocalCacheScope.SESSION;
+  protected int localCacheSize;
+  protected long localCacheMaxBytes;
+  protected CacheInvalidationScope cacheInvalidationScope = CacheInvalidationScope.NAMESPACE;
+  protected boolean cacheStatisticsJmxEnabled;
+  protected CacheMemoryBudget cacheMemoryBudget;
+  protected CacheFlushMode cacheFlushMode = CacheFlushMode.CLEAR;
+  protected boolean cacheWriteBehind;
+  protected CacheInvalidationBus cacheInvalidationBus;
+  protected CacheWarmupMode cacheWarmupMode = CacheWarmupMode.SYNC;
+  protected int cacheWarmupThreads = 4;
+  protected CompletableFuture<Void> cacheWarmup = CompletableFuture.completedFuture(null);
+  protected java.util.concurrent.Executor asyncExecutor;
   protected JdbcType jdbcTypeForNull = JdbcType.OTHER;
   protected Set<String> lazyLoadTriggerMethods = new HashSet<>(Arrays.asList("equals", "clone", "hashCode", "toString"));
   protected Integer defaultStatementTimeout;
   protected Integer defaultFetchSize;
   protected ResultSetType defaultResultSetType;
   protected ExecutorType defaultExecutorType = ExecutorType.SIMPLE;
+  protected int batchFlushStatements;
+  protected int batchFlushParameters;
+  protected long batchFlushBytes;
+  protected boolean batchRetainParameters = true;
+  protected boolean batchGroupStatements;
+  protected boolean batchRewriteInserts;
+  protected int batchRewriteMaxParameters;
   protected AutoMappingBehavior autoMappingBehavior = AutoMappingBehavior.PARTIAL;
   protected AutoMappingUnknownColumnBehavior autoMappingUnknownColumnBehavior = AutoMappingUnknownColumnBehavior.NONE;
 
@@ -157,6 +192,7 @@ public class Configuration {
 
   protected final MapperRegistry mapperRegistry = new MapperRegistry(this);
   protected final InterceptorChain interceptorChain = new InterceptorChain();
+  protected final CacheDependencyIndex cacheDependencyIndex = new CacheDependencyIndex();
   /**
    * 类型处理器
    */
@@ -170,10 +206,13 @@ public class Configuration {
   protected final Map<String, MappedStatement> mappedStatements = new StrictMap<MappedStatement>("Mapped Statements collection")
       .conflictMessageProducer((savedValue, targetValue) ->
           ". please check " + savedValue.getResource() + " and " + targetValue.getResource());
+  protected final List<MappedStatement> cacheWarmupStatements = new ArrayList<>();
   /**
    * 二级缓存
    */
   protected final Map<String, Cache> caches = new StrictMap<>("Caches collection");
+  protected final Set<String> cacheRegionIds = new HashSet<>();
+  protected final Map<String, Set<Cache>> namespaceCacheRegions = new HashMap<>();
   protected final Map<String, ResultMap> resultMaps = new StrictMap<>("Result Maps collection");
   protected final Map<String, ParameterMap> parameterMaps = new StrictMap<>("Parameter Maps collection");
   protected final Map<String, KeyGenerator> keyGenerators = new StrictMap<>("Key Generators collection");
@@ -185,6 +224,7 @@ public class Configuration {
   protected final Collection<CacheRefResolver> incompleteCacheRefs = new LinkedList<>();
   protected final Collection<ResultMapResolver> incompleteResultMaps = new LinkedList<>();
   protected final Collection<MethodResolver> incompleteMethods = new LinkedList<>();
+  protected final ReentrantLock incompleteElementsLock = new ReentrantLock();
 
   /*
    * A map holds cache-ref relationship. The key is the namespace that
@@ -211,6 +251,15 @@ public class Configuration {
     typeAliasRegistry.registerAlias("LRU", LruCache.class);
     typeAliasRegistry.registerAlias("SOFT", SoftCache.class);
     typeAliasRegistry.registerAlias("WEAK", WeakCache.class);
+    typeAliasRegistry.registerAlias("TINYLFU", TinyLfuCache.class);
+    typeAliasRegistry.registerAlias("CONCURRENT_SOFT", ConcurrentSoftCache.class);
+    typeAliasRegistry.registerAlias("CONCURRENT_WEAK", ConcurrentWeakCache.class);
+
+    typeAliasRegistry.registerAlias("REFLECTION", ReflectionCodec.class);
+    typeAliasRegistry.registerAlias("JAVA_SERIALIZATION", JavaSerializationCodec.class);
+
+    typeAliasRegistry.registerAlias("LOOPBACK", LoopbackTransport.class);
+    typeAliasRegistry.registerAlias("SHARED_FILE", SharedFileTransport.class);
 
     typeAliasRegistry.registerAlias("DB_VENDOR", VendorDatabaseIdProvider.class);
 
@@ -489,6 +538,164 @@ public class Configuration {
     this.defaultExecutorType = defaultExecutorType;
   }
 
+  /**
+   * Gets the number of statements a batch executor buffers before flushing them on its own.
+   *
+   * @return the number of statements, 0 for no limit
+   * @since 3.5.11
+   */
+  public int getBatchFlushStatements() {
+    return batchFlushStatements;
+  }
+
+  /**
+   * Sets the number of statements the batch executors created from now on buffer before flushing them on its own. The
+   * results of such a flush are returned, ahead of its own, by the next {@code flushStatements}.
+   *
+   * @param batchFlushStatements
+   *          the number of statements, 0 for no limit
+   * @since 3.5.11
+   */
+  public void setBatchFlushStatements(int batchFlushStatements) {
+    this.batchFlushStatements = batchFlushStatements;
+  }
+
+  /**
+   * Gets the number of parameters bound to the buffered statements of a batch executor above which it flushes them.
+   *
+   * @return the number of parameters, 0 for no limit
+   * @since 3.5.11
+   */
+  public int getBatchFlushParameters() {
+    return batchFlushParameters;
+  }
+
+  /**
+   * Sets the number of parameters bound to the buffered statements of the batch executors created from now on above
+   * which they flush them.
+   *
+   * @param batchFlushParameters
+   *          the number of parameters, 0 for no limit
+   * @since 3.5.11
+   */
+  public void setBatchFlushParameters(int batchFlushParameters) {
+    this.batchFlushParameters = batchFlushParameters;
+  }
+
+  /**
+   * Gets the estimated size of the parameter objects of the buffered statements of a batch executor above which it
+   * flushes them.
+   *
+   * @return the size in bytes, 0 for no limit
+   * @since 3.5.11
+   */
+  public long getBatchFlushBytes() {
+    return batchFlushBytes;
+  }
+
+  /**
+   * Sets the estimated size of the parameter objects of the buffered statements of the batch executors created from
+   * now on above which they flush them.
+   *
+   * @param batchFlushBytes
+   *          the size in bytes, 0 for no limit
+   * @since 3.5.11
+   */
+  public void setBatchFlushBytes(long batchFlushBytes) {
+    this.batchFlushBytes = batchFlushBytes;
+  }
+
+  /**
+   * Gets whether the batch results keep the parameter objects of their statements.
+   *
+   * @return {@code true} if they are kept
+   * @since 3.5.11
+   */
+  public boolean isBatchRetainParameters() {
+    return batchRetainParameters;
+  }
+
+  /**
+   * Sets whether the batch results keep the parameter objects of their statements. When they do not, the parameter
+   * objects are released as soon as they are bound, or once their generated keys are set, and
+   * {@code BatchResult.getParameterObjects()} is empty.
+   *
+   * @param batchRetainParameters
+   *          {@code false} to release them
+   * @since 3.5.11
+   */
+  public void setBatchRetainParameters(boolean batchRetainParameters) {
+    this.batchRetainParameters = batchRetainParameters;
+  }
+
+  /**
+   * Gets whether the batch executor keeps an open batch per distinct statement instead of only extending the last one.
+   *
+   * @return {@code true} if the statements are grouped
+   * @since 3.5.11
+   */
+  public boolean isBatchGroupStatements() {
+    return batchGroupStatements;
+  }
+
+  /**
+   * Sets whether the batch executor keeps an open batch per distinct statement, so that interleaved statements (a parent
+   * then child insert loop) produce one batch per statement instead of one batch per row. The batches are flushed in
+   * the order they were opened and statements on the same table are never reordered.
+   *
+   * @param batchGroupStatements
+   *          {@code true} to group the statements
+   * @since 3.5.11
+   */
+  public void setBatchGroupStatements(boolean batchGroupStatements) {
+    this.batchGroupStatements = batchGroupStatements;
+  }
+
+  /**
+   * Gets whether the batch executor rewrites single row inserts to multi row inserts.
+   *
+   * @return {@code true} if the inserts are rewritten
+   * @since 3.5.11
+   */
+  public boolean isBatchRewriteInserts() {
+    return batchRewriteInserts;
+  }
+
+  /**
+   * Sets whether the batch executor sends the rows of a batch of single row {@code INSERT ... VALUES (...)} statements
+   * as multi row {@code INSERT ... VALUES (...), (...)} statements. The update counts of such a batch are one per multi
+   * row statement.
+   *
+   * @param batchRewriteInserts
+   *          {@code true} to rewrite the inserts
+   * @since 3.5.11
+   */
+  public void setBatchRewriteInserts(boolean batchRewriteInserts) {
+    this.batchRewriteInserts = batchRewriteInserts;
+  }
+
+  /**
+   * Gets the maximum number of parameters of a rewritten multi row insert.
+   *
+   * @return the maximum, {@code 0} for the limit of the database
+   * @since 3.5.11
+   */
+  public int getBatchRewriteMaxParameters() {
+    return batchRewriteMaxParameters;
+  }
+
+  /**
+   * Sets the maximum number of parameters of a rewritten multi row insert, which bounds the number of rows it holds
+   * (never more than 1000). When not set, the limit of the database is used, based on its product name.
+   *
+   * @param batchRewriteMaxParameters
+   *          the maximum, {@code 0} for the limit of the database
+   * @since 3.5.11
+   */
+  public void setBatchRewriteMaxParameters(int batchRewriteMaxParameters) {
+    this.batchRewriteMaxParameters = batchRewriteMaxParameters;
+  }
+
   public boolean isCacheEnabled() {
     return cacheEnabled;
   }
@@ -563,6 +770,280 @@ public class Configuration {
     this.localCacheScope = localCacheScope;
   }
 
+  /**
+   * Gets the maximum number of entries of the local cache of a session.
+   *
+   * @return the maximum number of entries, 0 for no limit
+   * @since 3.5.11
+   */
+  public int getLocalCacheSize() {
+    return localCacheSize;
+  }
+
+  /**
+   * Sets the maximum number of entries of the local cache of the sessions opened from now on. The least recently used
+   * entries of earlier statements are evicted first.
+   *
+   * @param localCacheSize
+   *          the maximum number of entries, 0 for no limit
+   * @since 3.5.11
+   */
+  public void setLocalCacheSize(int localCacheSize) {
+    this.localCacheSize = localCacheSize;
+  }
+
+  /**
+   * Gets the maximum estimated weight of the local cache of a session.
+   *
+   * @return the maximum weight in bytes, 0 for no limit
+   * @since 3.5.11
+   */
+  public long getLocalCacheMaxBytes() {
+    return localCacheMaxBytes;
+  }
+
+  /**
+   * Sets the maximum estimated weight of the local cache of the sessions opened from now on.
+   *
+   * @param localCacheMaxBytes
+   *          the maximum weight in bytes, 0 for no limit
+   * @since 3.5.11
+   */
+  public void setLocalCacheMaxBytes(long localCacheMaxBytes) {
+    this.localCacheMaxBytes = localCacheMaxBytes;
+  }
+
+  /**
+   * Gets what insert, update and delete statements evict from the second level cache.
+   *
+   * @return the cache invalidation scope
+   * @since 3.5.11
+   */
+  public CacheInvalidationScope getCacheInvalidationScope() {
+    return cacheInvalidationScope;
+  }
+
+  /**
+   * Sets what insert, update and delete statements evict from the second level cache.
+   *
+   * @param cacheInvalidationScope
+   *          the cache invalidation scope
+   * @since 3.5.11
+   */
+  public void setCacheInvalidationScope(CacheInvalidationScope cacheInvalidationScope) {
+    this.cacheInvalidationScope = cacheInvalidationScope;
+  }
+
+  /**
+   * Gets whether the statistics of the second level caches are registered as MBeans.
+   *
+   * @return {@code true} when registered
+   * @since 3.5.11
+   */
+  public boolean isCacheStatisticsJmxEnabled() {
+    return cacheStatisticsJmxEnabled;
+  }
+
+  /**
+   * Sets whether the statistics of the second level caches added from now on are registered in the platform MBean
+   * server. The scope of their names is {@link #getCacheStatisticsJmxScope()}.
+   *
+   * @param cacheStatisticsJmxEnabled
+   *          {@code true} to register them
+   * @since 3.5.11
+   */
+  public void setCacheStatisticsJmxEnabled(boolean cacheStatisticsJmxEnabled) {
+    this.cacheStatisticsJmxEnabled = cacheStatisticsJmxEnabled;
+  }
+
+  /**
+   * Gets how second level caches are flushed.
+   *
+   * @return the cache flush mode
+   * @since 3.5.11
+   */
+  public CacheFlushMode getCacheFlushMode() {
+    return cacheFlushMode;
+  }
+
+  /**
+   * Sets how the second level caches created from now on are flushed.
+   *
+   * @param cacheFlushMode
+   *          the cache flush mode
+   * @since 3.5.11
+   */
+  public void setCacheFlushMode(CacheFlushMode cacheFlushMode) {
+    this.cacheFlushMode = cacheFlushMode;
+  }
+
+  /**
+   * Gets whether the entries of a committed transaction are put in the second level caches in the background.
+   *
+   * @return {@code true} if they are
+   * @since 3.5.11
+   */
+  public boolean isCacheWriteBehind() {
+    return cacheWriteBehind;
+  }
+
+  /**
+   * Sets whether the entries of a committed transaction are put in the second level caches created from now on in the
+   * background, instead of during the commit. Blocking caches ignore it.
+   *
+   * @param cacheWriteBehind
+   *          {@code true} to put them in the background
+   * @since 3.5.11
+   */
+  public void setCacheWriteBehind(boolean cacheWriteBehind) {
+    this.cacheWriteBehind = cacheWriteBehind;
+  }
+
+  /**
+   * Gets when the second level cache warm-up declared on statements runs.
+   *
+   * @return the cache warm-up mode
+   * @since 3.5.11
+   */
+  public CacheWarmupMode getCacheWarmupMode() {
+    return cacheWarmupMode;
+  }
+
+  /**
+   * Sets when the second level cache warm-up declared on statements runs.
+   *
+   * @param cacheWarmupMode
+   *          the cache warm-up mode
+   * @since 3.5.11
+   */
+  public void setCacheWarmupMode(CacheWarmupMode cacheWarmupMode) {
+    this.cacheWarmupMode = cacheWarmupMode;
+  }
+
+  /**
+   * Gets the number of threads loading the second level cache warm-up in parallel.
+   *
+   * @return the number of threads
+   * @since 3.5.11
+   */
+  public int getCacheWarmupThreads() {
+    return cacheWarmupThreads;
+  }
+
+  /**
+   * Sets the number of threads loading the second level cache warm-up in parallel.
+   *
+   * @param cacheWarmupThreads
+   *          the number of threads
+   * @since 3.5.11
+   */
+  public void setCacheWarmupThreads(int cacheWarmupThreads) {
+    this.cacheWarmupThreads = cacheWarmupThreads;
+  }
+
+  /**
+   * Gets the progress of the second level cache warm-up started when the session factory was built.
+   *
+   * @return a future completed when every warm-up load has been attempted, exceptionally if some of them failed
+   * @since 3.5.11
+   */
+  public CompletableFuture<Void> getCacheWarmup() {
+    return cacheWarmup;
+  }
+
+  void setCacheWarmup(CompletableFuture<Void> cacheWarmup) {
+    this.cacheWarmup = cacheWarmup;
+  }
+
+  /**
+   * Gets the executor running the statements of the async sessions.
+   *
+   * @return the configured executor, or {@link DefaultAsyncSqlSession#defaultExecutor()} when none is
+   * @since 3.5.11
+   */
+  public java.util.concurrent.Executor getAsyncExecutor() {
+    return asyncExecutor == null ? DefaultAsyncSqlSession.defaultExecutor() : asyncExecutor;
+  }
+
+  /**
+   * Sets the executor running the statements of the async sessions opened from now on. Each statement blocks a thread
+   * of the executor while it runs, so a pool should have at least as many threads as the data source has connections.
+   *
+   * @param asyncExecutor
+   *          the executor, {@code null} for the default one
+   * @since 3.5.11
+   */
+  public void setAsyncExecutor(java.util.concurrent.Executor asyncExecutor) {
+    this.asyncExecutor = asyncExecutor;
+  }
+
+  /**
+   * Gets the bus propagating the second level cache invalidations of this configuration to other JVMs.
+   *
+   * @return the cache invalidation bus, {@code null} when invalidations stay local
+   * @since 3.5.11
+   */
+  public CacheInvalidationBus getCacheInvalidationBus() {
+    return cacheInvalidationBus;
+  }
+
+  /**
+   * Sets the bus propagating second level cache invalidations to other JVMs. It must be started, and applies to the
+   * sessions opened from now on.
+   *
+   * @param cacheInvalidationBus
+   *          the cache invalidation bus, {@code null} to keep invalidations local
+   * @since 3.5.11
+   */
+  public void setCacheInvalidationBus(CacheInvalidationBus cacheInvalidationBus) {
+    this.cacheInvalidationBus = cacheInvalidationBus;
+  }
+
+  /**
+   * Gets the memory budget shared by the second level caches of this configuration.
+   *
+   * @return the budget, {@code null} when the caches are not bounded as a whole
+   * @since 3.5.11
+   */
+  public CacheMemoryBudget getCacheMemoryBudget() {
+    return cacheMemoryBudget;
+  }
+
+  /**
+   * Sets a memory budget shared by the second level caches created from now on: when their total weight exceeds it,
+   * entries are evicted from the heaviest of them.
+   *
+   * @param cacheMemoryBudget
+   *          the budget, {@code null} to leave the caches unbounded as a whole
+   * @since 3.5.11
+   */
+  public void setCacheMemoryBudget(CacheMemoryBudget cacheMemoryBudget) {
+    this.cacheMemoryBudget = cacheMemoryBudget;
+  }
+
+  /**
+   * Gets the scope of the MBean names of the cache statistics of this configuration: the id of the environment followed
+   * by an identifier of this configuration, which tells apart configurations sharing cache ids.
+   *
+   * @return the scope
+   * @since 3.5.11
+   */
+  public String getCacheStatisticsJmxScope() {
+    String environmentId = environment == null ? "default" : environment.getId();
+    return environmentId + "@" + Integer.toHexString(System.identityHashCode(this));
+  }
+
+  /**
+   * Gets the index of the tables second level cache entries depend on, used when the cache invalidation scope is
+   * {@link CacheInvalidationScope#TABLE}.
+   *
+   * @return the cache dependency index
+   * @since 3.5.11
+   */
+  public CacheDependencyIndex getCacheDependencyIndex() {
+    return cacheDependencyIndex;
+  }
+
   public JdbcType getJdbcTypeForNull() {
     return jdbcTypeForNull;
   }
@@ -725,7 +1206,8 @@ public class Configuration {
     // 通过cacheEnabled属性配置成true，来判断是否有二级缓存的条件；是否开启二级缓存要看其他条件
     if (cacheEnabled) {
       // 把二级缓存的代理对象，指向BaseExecutor三种子类中的一种
-      executor = new CachingExecutor(executor);
+      executor = new CachingExecutor(executor,
+          cacheInvalidationScope == CacheInvalidationScope.TABLE ? cacheDependencyIndex : null, cacheInvalidationBus);
     }
     executor = (Executor) interceptorChain.pluginAll(executor);
     return executor;
@@ -753,6 +1235,9 @@ public class Configuration {
 
   public void addCache(Cache cache) {
     caches.put(cache.getId(), cache);
+    if (cacheStatisticsJmxEnabled && cache.getStatistics() != null) {
+      cache.getStatistics().registerMBean(getCacheStatisticsJmxScope());
+    }
   }
 
   public Collection<String> getCacheNames() {
@@ -771,6 +1256,59 @@ public class Configuration {
     return caches.containsKey(id);
   }
 
+  /**
+   * Adds the cache of a region that statements of any namespace can use.
+   *
+   * @param cache
+   *          the cache, whose id is the id of the region
+   * @since 3.5.11
+   */
+  public void addCacheRegion(Cache cache) {
+    addCache(cache);
+    cacheRegionIds.add(cache.getId());
+  }
+
+  /**
+   * @param id
+   *          the id of a cache region
+   * @return whether the region has been added
+   * @since 3.5.11
+   */
+  public boolean hasCacheRegion(String id) {
+    return cacheRegionIds.contains(id);
+  }
+
+  /**
+   * Gets the cache of a region.
+   *
+   * @param id
+   *          the id of the region
+   * @return the cache of the region
+   * @throws IllegalArgumentException
+   *           if there is no such region
+   * @since 3.5.11
+   */
+  public Cache getCacheRegion(String id) {
+    if (!cacheRegionIds.contains(id)) {
+      throw new IllegalArgumentException("Cache region " + id + " does not exist");
+    }
+    return caches.get(id);
+  }
+
+  /**
+   * Gets the caches of the regions used by the statements of a namespace, which its writes flush along with the cache
+   * of the namespace. The builders add to the returned set, which can be iterated while statements are still being
+   * resolved.
+   *
+   * @param namespace
+   *          the namespace
+   * @return the caches of the regions
+   * @since 3.5.11
+   */
+  public Set<Cache> getNamespaceCacheRegions(String namespace) {
+    return namespaceCacheRegions.computeIfAbsent(namespace, k -> new CopyOnWriteArraySet<>());
+  }
+
   public void addResultMap(ResultMap rm) {
     resultMaps.put(rm.getId(), rm);
     checkLocallyForDiscriminatedNestedResultMaps(rm);
@@ -815,6 +1353,19 @@ public class Configuration {
 
   public void addMappedStatement(MappedStatement ms) {
     mappedStatements.put(ms.getId(), ms);
+    if (ms.hasCacheWarmup()) {
+      cacheWarmupStatements.add(ms);
+    }
+  }
+
+  /**
+   * Gets the statements declaring a second level cache warm-up, without building the incomplete statements.
+   *
+   * @return the statements
+   * @since 3.5.11
+   */
+  public List<MappedStatement> getCacheWarmupStatements() {
+    return Collections.unmodifiableList(cacheWarmupStatements);
   }
 
   public Collection<String> getMappedStatementNames() {
@@ -859,6 +1410,17 @@ public class Configuration {
     return incompleteMethods;
   }
 
+  /**
+   * Gets the lock guarding the incomplete statements, cache refs, result maps and methods while they are resolved. It is
+   * not a monitor, so that a virtual thread resolving them does not pin its carrier thread.
+   *
+   * @return the lock
+   * @since 3.5.11
+   */
+  public ReentrantLock getIncompleteElementsLock() {
+    return incompleteElementsLock;
+  }
+
   public MappedStatement getMappedStatement(String id) {
     return this.getMappedStatement(id, true);
   }
@@ -921,24 +1483,33 @@ public class Configuration {
   protected void buildAllStatements() {
     parsePendingResultMaps();
     if (!incompleteCacheRefs.isEmpty()) {
-      synchronized (incompleteCacheRefs) {
+      incompleteElementsLock.lock();
+      try {
         incompleteCacheRefs.removeIf(x -> x.resolveCacheRef() != null);
+      } finally {
+        incompleteElementsLock.unlock();
       }
     }
     if (!incompleteStatements.isEmpty()) {
-      synchronized (incompleteStatements) {
+      incompleteElementsLock.lock();
+      try {
         incompleteStatements.removeIf(x -> {
           x.parseStatementNode();
           return true;
         });
+      } finally {
+        incompleteElementsLock.unlock();
       }
     }
     if (!incompleteMethods.isEmpty()) {
-      synchronized (incompleteMethods) {
+      incompleteElementsLock.lock();
+      try {
         incompleteMethods.removeIf(x -> {
           x.resolve();
           return true;
         });
+      } finally {
+        incompleteElementsLock.unlock();
       }
     }
   }
@@ -947,7 +1518,8 @@ public class Configuration {
     if (incompleteResultMaps.isEmpty()) {
       return;
     }
-    synchronized (incompleteResultMaps) {
+    incompleteElementsLock.lock();
+    try {
       boolean resolved;
       IncompleteElementException ex = null;
       do {
@@ -967,6 +1539,8 @@ public class Configuration {
         // At least one result map is unresolvable.
         throw ex;
       }
+    } finally {
+      incompleteElementsLock.unlock();
     }
   }
 
@@ -19,5 +19,12 @@ package org.apache.ibatis.session;
  * @author Eduardo Macarron
  */
 public enum LocalCacheScope {
-  SESSION,STATEMENT
+  SESSION,STATEMENT,
+  /**
+   * Like {@link #STATEMENT}, but within a statement only the keys of the running queries are kept, to detect circular
+   * references, plus the results deferred loads are waiting for. Repeated nested queries are executed again.
+   *
+   * @since 3.5.11
+   */
+  KEYS
 }
@@ -17,8 +17,10 @@ package org.apache.ibatis.session;
 
 import java.io.Closeable;
 import java.sql.Connection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.BatchResult;
@@ -257,6 +259,48 @@ public interface SqlSession extends Closeable {
    */
   List<BatchResult> flushStatements();
 
+  /**
+   * Executes an insert, update or delete statement once per parameter object, committing every {@code commitInterval}
+   * rows. The parameter objects are read one at a time and are not kept by the bulk write. On a session opened with
+   * {@link ExecutorType#BATCH} the rows are sent in JDBC batches and generated keys are set on them as each batch is
+   * executed. A batch holds its parameter objects until it is executed, on commit or once one of the batch flush
+   * thresholds of the configuration is reached: the memory used is bounded by the commit interval or by those
+   * thresholds, but with neither of them every row of the input is held until the end.
+   * <p>
+   * When a row cannot be written, the rows since the last commit are rolled back and reported as a failure, and the
+   * write goes on with the next rows.
+   *
+   * @param statement
+   *          Unique identifier matching the statement to execute.
+   * @param parameters
+   *          the parameter objects
+   * @param commitInterval
+   *          the number of rows per transaction, {@code 0} to commit once all of them are written
+   * @return the number of rows written and the failures
+   * @since 3.5.11
+   */
+  default BulkWriteResult bulkWrite(String statement, Iterator<?> parameters, int commitInterval) {
+    return new BulkWriter(this, statement, commitInterval).write(parameters);
+  }
+
+  /**
+   * Executes an insert, update or delete statement once per parameter object of a stream, committing every
+   * {@code commitInterval} rows. The stream is not closed.
+   *
+   * @param statement
+   *          Unique identifier matching the statement to execute.
+   * @param parameters
+   *          the parameter objects
+   * @param commitInterval
+   *          the number of rows per transaction, {@code 0} to commit once all of them are written
+   * @return the number of rows written and the failures
+   * @since 3.5.11
+   * @see #bulkWrite(String, Iterator, int)
+   */
+  default BulkWriteResult bulkWrite(String statement, Stream<?> parameters, int commitInterval) {
+    return bulkWrite(statement, parameters.iterator(), commitInterval);
+  }
+
   /**
    * Closes the session.
    */
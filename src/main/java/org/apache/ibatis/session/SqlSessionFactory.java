@@ -16,6 +16,9 @@
 package org.apache.ibatis.session;
 
 import java.sql.Connection;
+import java.util.concurrent.Executor;
+
+import org.apache.ibatis.session.defaults.DefaultAsyncSqlSession;
 
 /**
  * Creates an {@link SqlSession} out of a connection or a DataSource
@@ -42,4 +45,27 @@ public interface SqlSessionFactory {
 
   Configuration getConfiguration();
 
+  /**
+   * Opens a session running its statements on the async executor of the configuration.
+   *
+   * @return the async session
+   * @since 3.5.11
+   * @see Configuration#getAsyncExecutor()
+   */
+  default AsyncSqlSession openAsyncSession() {
+    return openAsyncSession(getConfiguration().getAsyncExecutor());
+  }
+
+  /**
+   * Opens a session running its statements on an executor.
+   *
+   * @param executor
+   *          the executor
+   * @return the async session
+   * @since 3.5.11
+   */
+  default AsyncSqlSession openAsyncSession(Executor executor) {
+    return new DefaultAsyncSqlSession(this, executor);
+  }
+
 }
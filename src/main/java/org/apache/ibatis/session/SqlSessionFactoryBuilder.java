@@ -21,6 +21,7 @@ import java.io.Reader;
 import java.util.Properties;
 
 import org.apache.ibatis.builder.xml.XMLConfigBuilder;
+import org.apache.ibatis.cache.CacheWarmup;
 import org.apache.ibatis.exceptions.ExceptionFactory;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.session.defaults.DefaultSqlSessionFactory;
@@ -93,7 +94,9 @@ public class SqlSessionFactoryBuilder {
   }
 
   public SqlSessionFactory build(Configuration config) {
-    return new DefaultSqlSessionFactory(config);
+    SqlSessionFactory sqlSessionFactory = new DefaultSqlSessionFactory(config);
+    config.setCacheWarmup(CacheWarmup.start(sqlSessionFactory));
+    return sqlSessionFactory;
   }
 
 }
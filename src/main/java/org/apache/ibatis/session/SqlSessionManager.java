@@ -21,6 +21,7 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.sql.Connection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -279,6 +280,12 @@ public class SqlSessionManager implements SqlSessionFactory, SqlSession {
     sqlSession.clearCache();
   }
 
+  @Override
+  public BulkWriteResult bulkWrite(String statement, Iterator<?> parameters, int commitInterval) {
+    // commits its chunks, hence runs in a single session of its own when none is managed
+    return sqlSessionProxy.bulkWrite(statement, parameters, commitInterval);
+  }
+
   @Override
   public void commit() {
     final SqlSession sqlSession = localSqlSession.get();
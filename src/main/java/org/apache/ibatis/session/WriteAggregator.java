@@ -0,0 +1,272 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.ibatis.mapping.SqlCommandType;
+
+/**
+ * Coalesces the rows inserted by many threads into shared batches (group commit).
+ * <p>
+ * Each call to {@link #insert(String, Object)} queues a row and returns at once. A background thread takes the queued
+ * rows as soon as {@code maxRows} of them are waiting or {@code maxDelayMillis} after the first one arrived, executes
+ * them in a session opened with {@link ExecutorType#BATCH} and commits. The future of each row completes once the
+ * transaction holding it is committed, and its generated keys, if any, are set by then. A caller therefore waits at
+ * most the delay plus the time of one batch, and many rows share one round trip and one commit.
+ * <p>
+ * When a row of a batch cannot be written, the rows of the batch are written again one per transaction, so that only
+ * the rows that cannot be written fail. When the commit itself fails, its outcome is unknown and every row of the
+ * batch fails, since writing them again could duplicate them. Callers wait in {@code insert} while two batches of rows
+ * are queued. The futures complete on the background thread: heavy work depending on them should use the asynchronous
+ * methods of {@link CompletableFuture}.
+ * <p>
+ * Only the insert statements given when the aggregator is created are accepted. Rows are written in the order they
+ * were queued; with several statements, see the {@code batchGroupStatements} setting.
+ *
+ * @since 3.5.11
+ */
+public class WriteAggregator implements Closeable {
+
+  private final SqlSessionFactory sqlSessionFactory;
+  private final int maxRows;
+  private final long maxDelayNanos;
+  private final Set<String> statements;
+  private final ArrayDeque<Row> queue = new ArrayDeque<>();
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition rowsQueued = lock.newCondition();
+  private final Condition rowsTaken = lock.newCondition();
+  private final LongAdder rowCount = new LongAdder();
+  private final LongAdder commitCount = new LongAdder();
+  private final Thread writer;
+  private boolean closed;
+
+  /**
+   * Creates an aggregator and starts its background thread.
+   *
+   * @param sqlSessionFactory
+   *          the factory of the sessions writing the rows
+   * @param maxRows
+   *          the number of rows written in one transaction at most
+   * @param maxDelayMillis
+   *          the time a row waits for others at most before being written
+   * @param statements
+   *          the ids of the insert statements accepted
+   */
+  public WriteAggregator(SqlSessionFactory sqlSessionFactory, int maxRows, long maxDelayMillis,
+      String... statements) {
+    if (maxRows < 1) {
+      throw new IllegalArgumentException("The maximum number of rows must be positive, was " + maxRows);
+    }
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    for (String statement : statements) {
+      if (configuration.getMappedStatement(statement).getSqlCommandType() != SqlCommandType.INSERT) {
+        throw new IllegalArgumentException("Statement " + statement + " is not an insert statement.");
+      }
+    }
+    this.sqlSessionFactory = sqlSessionFactory;
+    this.maxRows = maxRows;
+    this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+    this.statements = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(statements)));
+    this.writer = new Thread(this::run, "mybatis-write-aggregator");
+    this.writer.setDaemon(true);
+    this.writer.start();
+  }
+
+  /**
+   * Queues a row.
+   *
+   * @param statement
+   *          the id of one of the insert statements of this aggregator
+   * @param parameter
+   *          the parameter object of the statement
+   * @return a future completed once the row is committed, or failed with the reason it could not be written
+   */
+  public CompletableFuture<Void> insert(String statement, Object parameter) {
+    if (!statements.contains(statement)) {
+      throw new IllegalArgumentException("Statement " + statement + " is not written by this aggregator.");
+    }
+    Row row = new Row(statement, parameter);
+    lock.lock();
+    try {
+      while (!closed && queue.size() >= 2 * maxRows) {
+        rowsTaken.await();
+      }
+      if (closed) {
+        throw new IllegalStateException("The write aggregator is closed.");
+      }
+      queue.add(row);
+      if (queue.size() == 1 || queue.size() == maxRows) {
+        rowsQueued.signal();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      row.future.completeExceptionally(e);
+    } finally {
+      lock.unlock();
+    }
+    return row.future;
+  }
+
+  /**
+   * @return the number of rows committed so far
+   */
+  public long getRowCount() {
+    return rowCount.sum();
+  }
+
+  /**
+   * @return the number of transactions committed so far
+   */
+  public long getCommitCount() {
+    return commitCount.sum();
+  }
+
+  /**
+   * Stops accepting rows and waits until the queued ones are written.
+   */
+  @Override
+  public void close() {
+    lock.lock();
+    try {
+      closed = true;
+      rowsQueued.signal();
+      rowsTaken.signalAll();
+    } finally {
+      lock.unlock();
+    }
+    try {
+      writer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void run() {
+    try {
+      List<Row> rows;
+      while ((rows = take()) != null) {
+        write(rows);
+      }
+    } finally {
+      // should the writer die anyway, no caller is left waiting
+      lock.lock();
+      try {
+        closed = true;
+        Throwable cause = new IllegalStateException("The write aggregator is closed.");
+        for (Row row : queue) {
+          row.future.completeExceptionally(cause);
+        }
+        queue.clear();
+        rowsTaken.signalAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  private List<Row> take() {
+    lock.lock();
+    try {
+      while (true) {
+        try {
+          return awaitRows();
+        } catch (InterruptedException e) {
+          // the writer thread is private and only stopped by close, the queued rows are still written
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private List<Row> awaitRows() throws InterruptedException {
+    while (queue.isEmpty()) {
+      if (closed) {
+        return null;
+      }
+      rowsQueued.await();
+    }
+    long remaining = maxDelayNanos;
+    while (!closed && queue.size() < maxRows && remaining > 0) {
+      remaining = rowsQueued.awaitNanos(remaining);
+    }
+    List<Row> rows = new ArrayList<>(Math.min(queue.size(), maxRows));
+    while (!queue.isEmpty() && rows.size() < maxRows) {
+      rows.add(queue.poll());
+    }
+    rowsTaken.signalAll();
+    return rows;
+  }
+
+  private void write(List<Row> rows) {
+    boolean committing = false;
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      for (Row row : rows) {
+        sqlSession.insert(row.statement, row.parameter);
+      }
+      // executes the batch, so that a row that cannot be written fails before the commit
+      sqlSession.flushStatements();
+      committing = true;
+      sqlSession.commit();
+      committed(rows);
+      return;
+    } catch (Throwable e) {
+      if (committing || rows.size() == 1) {
+        // the outcome of a failed commit is unknown, writing the rows again could duplicate them
+        for (Row row : rows) {
+          row.future.completeExceptionally(e);
+        }
+        return;
+      }
+    }
+    for (Row row : rows) {
+      write(Collections.singletonList(row));
+    }
+  }
+
+  private void committed(List<Row> rows) {
+    rowCount.add(rows.size());
+    commitCount.increment();
+    for (Row row : rows) {
+      row.future.complete(null);
+    }
+  }
+
+  private static class Row {
+    private final String statement;
+    private final Object parameter;
+    private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+    Row(String statement, Object parameter) {
+      this.statement = statement;
+      this.parameter = parameter;
+    }
+  }
+
+}
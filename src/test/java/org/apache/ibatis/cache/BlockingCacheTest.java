@@ -0,0 +1,149 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.apache.ibatis.cache.codec.ReflectionCodec;
+import org.apache.ibatis.cache.decorators.BlockingCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BlockingCacheTest {
+
+  private ExecutorService executor;
+  private BlockingCache cache;
+
+  @BeforeEach
+  void setUp() {
+    executor = Executors.newCachedThreadPool();
+    cache = new BlockingCache(new PerpetualCache("DefaultCache"));
+    cache.setSingleFlight(true);
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void shouldHandTheLoadedValueToAllWaiters() throws Exception {
+    assertNull(cache.getObject("key"));
+    List<Future<Object>> readers = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      readers.add(executor.submit(() -> cache.getObject("key")));
+    }
+    awaitUntil(() -> cache.getWaitingCount() == 3);
+    assertEquals(1, cache.getInFlightCount());
+    cache.putObject("key", "value");
+    for (Future<Object> reader : readers) {
+      assertEquals("value", reader.get(5, TimeUnit.SECONDS));
+    }
+    assertEquals(0, cache.getInFlightCount());
+  }
+
+  @Test
+  void shouldHandOffBeforeTheValueIsStored() throws Exception {
+    assertNull(cache.getObject("key"));
+    Future<Object> reader = executor.submit(() -> cache.getObject("key"));
+    awaitUntil(() -> cache.getWaitingCount() == 1);
+    cache.handOff("key", "value");
+    assertEquals("value", reader.get(5, TimeUnit.SECONDS));
+    // late readers get the handed off value as well until the loader stores it
+    assertEquals("value", cache.getObject("key"));
+    assertEquals(1, cache.getInFlightCount());
+    cache.putObject("key", "value");
+    assertEquals(0, cache.getInFlightCount());
+  }
+
+  @Test
+  void shouldPropagateTheLoaderFailure() throws Exception {
+    assertNull(cache.getObject("key"));
+    Future<Object> reader = executor.submit(() -> cache.getObject("key"));
+    awaitUntil(() -> cache.getWaitingCount() == 1);
+    SQLException failure = new SQLException("boom");
+    cache.fail("key", failure);
+    ExecutionException e = assertThrows(ExecutionException.class, () -> reader.get(5, TimeUnit.SECONDS));
+    assertTrue(e.getCause() instanceof CacheException);
+    assertSame(failure, e.getCause().getCause());
+    assertEquals(0, cache.getInFlightCount());
+  }
+
+  @Test
+  void shouldElectTheLongestWaitingReaderWhenTheLoaderGivesUp() throws Exception {
+    assertNull(cache.getObject("key"));
+    Future<Object> first = executor.submit(() -> cache.getObject("key"));
+    awaitUntil(() -> cache.getWaitingCount() == 1);
+    Future<Object> second = executor.submit(() -> cache.getObject("key"));
+    awaitUntil(() -> cache.getWaitingCount() == 2);
+    cache.removeObject("key");
+    assertNull(first.get(5, TimeUnit.SECONDS));
+    assertFalse(second.isDone());
+    cache.putObject("key", "value");
+    assertEquals("value", second.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void shouldGiveEachWaiterItsOwnCopy() throws Exception {
+    cache.setCodec(new ReflectionCodec());
+    assertNull(cache.getObject("key"));
+    Future<Object> first = executor.submit(() -> cache.getObject("key"));
+    Future<Object> second = executor.submit(() -> cache.getObject("key"));
+    awaitUntil(() -> cache.getWaitingCount() == 2);
+    List<String> value = new ArrayList<>(Arrays.asList("a", "b"));
+    cache.putObject("key", value);
+    Object firstValue = first.get(5, TimeUnit.SECONDS);
+    Object secondValue = second.get(5, TimeUnit.SECONDS);
+    assertEquals(value, firstValue);
+    assertEquals(value, secondValue);
+    assertNotSame(value, firstValue);
+    assertNotSame(firstValue, secondValue);
+  }
+
+  @Test
+  void shouldCountReadersThatTimedOut() {
+    cache.setTimeout(50);
+    assertNull(cache.getObject("key"));
+    assertThrows(CacheException.class, () -> cache.getObject("key"));
+    assertEquals(1, cache.getTimedOutCount());
+    assertEquals(0, cache.getWaitingCount());
+    assertEquals(1, cache.getInFlightCount());
+  }
+
+  private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!condition.getAsBoolean()) {
+      if (System.nanoTime() > deadline) {
+        fail("Condition not met in time");
+      }
+      Thread.sleep(5);
+    }
+  }
+
+}
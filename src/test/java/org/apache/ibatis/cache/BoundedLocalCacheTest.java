@@ -0,0 +1,61 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.apache.ibatis.cache.impl.BoundedLocalCache;
+import org.junit.jupiter.api.Test;
+
+class BoundedLocalCacheTest {
+
+  @Test
+  void shouldEvictEntriesOfEarlierStatementsOnly() {
+    BoundedLocalCache cache = new BoundedLocalCache("local", 2, 0);
+    cache.beginStatement();
+    cache.putObject(1, "1");
+    cache.putObject(2, "2");
+    cache.putObject(3, "3");
+    assertEquals(3, cache.getSize());
+
+    cache.trim();
+    assertEquals(2, cache.getSize());
+    assertNull(cache.getObject(1));
+
+    cache.beginStatement();
+    cache.getObject(2);
+    cache.putObject(4, "4");
+    assertNull(cache.getObject(3));
+    assertEquals("2", cache.getObject(2));
+    assertEquals("4", cache.getObject(4));
+    assertEquals(2, cache.getEvictionCount());
+  }
+
+  @Test
+  void shouldBoundTheWeight() {
+    BoundedLocalCache cache = new BoundedLocalCache("local", 0, 100, (key, value) -> ((String) value).length());
+    cache.beginStatement();
+    cache.putObject(1, new String(new char[60]));
+    cache.beginStatement();
+    cache.putObject(2, new String(new char[60]));
+    assertNull(cache.getObject(1));
+    assertEquals(60, cache.getWeightedSize());
+
+    cache.removeObject(2);
+    assertEquals(0, cache.getWeightedSize());
+  }
+
+}
@@ -0,0 +1,160 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import org.apache.ibatis.cache.decorators.ConcurrentSoftCache;
+import org.apache.ibatis.cache.decorators.ConcurrentWeakCache;
+import org.apache.ibatis.cache.decorators.FifoCache;
+import org.apache.ibatis.cache.decorators.LruCache;
+import org.apache.ibatis.cache.decorators.SoftCache;
+import org.apache.ibatis.cache.decorators.TinyLfuCache;
+import org.apache.ibatis.cache.decorators.WeakCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares eviction policies built through {@link CacheBuilder} under a skewed, read-mostly workload shared by many
+ * threads, and the reference caches with a plain cache that keeps everything. It is excluded from the default build,
+ * run it with {@code mvn test -DexcludedGroups= -Dtest=CacheContentionBenchmarkTest}.
+ */
+@Tag("Benchmarks")
+class CacheContentionBenchmarkTest {
+
+  private static final int THREADS = 16;
+  private static final int OPERATIONS_PER_THREAD = 200_000;
+  private static final int KEY_SPACE = 20_000;
+  private static final int CACHE_SIZE = 1_000;
+
+  private static final double[] ZIPF = zipfCumulativeDistribution(KEY_SPACE, 0.9);
+
+  @Test
+  void compareEvictionPolicies() throws Exception {
+    Result lru = run("LRU", () -> newCache(LruCache.class));
+    Result fifo = run("FIFO", () -> newCache(FifoCache.class));
+    Result tinyLfu = run("TINYLFU", () -> newCache(TinyLfuCache.class));
+    System.out.println(String.format("%-8s %10s %14s", "policy", "hit ratio", "ops/s"));
+    for (Result result : Arrays.asList(lru, fifo, tinyLfu)) {
+      System.out.println(String.format("%-8s %10.4f %14.0f", result.name, result.hitRatio, result.throughput));
+    }
+    assertTrue(tinyLfu.hitRatio >= lru.hitRatio);
+  }
+
+  @Test
+  void compareReferenceCaches() throws Exception {
+    Result perpetual = run("PERPETUAL", () -> new CacheBuilder("benchmark").implementation(PerpetualCache.class).build());
+    Result soft = run("SOFT", () -> newCache(SoftCache.class));
+    Result weak = run("WEAK", () -> newCache(WeakCache.class));
+    Result concurrentSoft = run("CONCURRENT_SOFT", () -> newCache(ConcurrentSoftCache.class));
+    Result concurrentWeak = run("CONCURRENT_WEAK", () -> newCache(ConcurrentWeakCache.class));
+    System.out.println(String.format("%-16s %10s %14s", "cache", "hit ratio", "ops/s"));
+    for (Result result : Arrays.asList(perpetual, soft, weak, concurrentSoft, concurrentWeak)) {
+      System.out.println(String.format("%-16s %10.4f %14.0f", result.name, result.hitRatio, result.throughput));
+    }
+    assertTrue(concurrentSoft.throughput >= perpetual.throughput / 2);
+  }
+
+  private static Cache newCache(Class<? extends Cache> eviction) {
+    return new CacheBuilder("benchmark").addDecorator(eviction).size(CACHE_SIZE).build();
+  }
+
+  private static Result run(String name, Supplier<Cache> cacheSupplier) throws Exception {
+    // warm up the code paths once, then measure on a fresh cache
+    execute(cacheSupplier.get());
+    Cache cache = cacheSupplier.get();
+    long start = System.nanoTime();
+    long hits = execute(cache);
+    long elapsed = System.nanoTime() - start;
+    long operations = (long) THREADS * OPERATIONS_PER_THREAD;
+    return new Result(name, (double) hits / operations, operations * 1_000_000_000.0 / elapsed);
+  }
+
+  private static long execute(Cache cache) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch startSignal = new CountDownLatch(1);
+    try {
+      List<Future<Long>> futures = new ArrayList<>();
+      for (int t = 0; t < THREADS; t++) {
+        futures.add(executor.submit(() -> {
+          startSignal.await();
+          ThreadLocalRandom random = ThreadLocalRandom.current();
+          long hits = 0;
+          for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+            Integer key = nextKey(random);
+            if (cache.getObject(key) == null) {
+              cache.putObject(key, key);
+            } else {
+              hits++;
+            }
+          }
+          return hits;
+        }));
+      }
+      startSignal.countDown();
+      long hits = 0;
+      for (Future<Long> future : futures) {
+        hits += future.get();
+      }
+      return hits;
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static Integer nextKey(ThreadLocalRandom random) {
+    int index = Arrays.binarySearch(ZIPF, random.nextDouble());
+    return index < 0 ? -index - 1 : index;
+  }
+
+  private static double[] zipfCumulativeDistribution(int size, double skew) {
+    double[] distribution = new double[size];
+    double sum = 0;
+    for (int i = 0; i < size; i++) {
+      sum += 1.0 / Math.pow(i + 1, skew);
+      distribution[i] = sum;
+    }
+    for (int i = 0; i < size; i++) {
+      distribution[i] /= sum;
+    }
+    return distribution;
+  }
+
+  private static class Result {
+    private final String name;
+    private final double hitRatio;
+    private final double throughput;
+
+    Result(String name, double hitRatio, double throughput) {
+      this.name = name;
+      this.hitRatio = hitRatio;
+      this.throughput = throughput;
+    }
+  }
+
+}
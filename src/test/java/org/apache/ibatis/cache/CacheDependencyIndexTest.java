@@ -0,0 +1,85 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.ibatis.cache.decorators.SynchronizedCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.junit.jupiter.api.Test;
+
+class CacheDependencyIndexTest {
+
+  private static final Set<String> TABLES = Collections.singleton("person");
+
+  @Test
+  void shouldEvictEntriesOfModifiedTables() {
+    CacheDependencyIndex index = new CacheDependencyIndex();
+    Cache cache = new PerpetualCache("test");
+    index.register(cache, 1, TABLES);
+    cache.putObject(1, "a");
+    index.register(cache, 2, Collections.singleton("other"));
+    cache.putObject(2, "b");
+    assertEquals(1, index.getDependentCount("person"));
+
+    index.invalidate(Collections.emptyList(), TABLES);
+    assertNull(cache.getObject(1));
+    assertEquals("b", cache.getObject(2));
+    assertEquals(0, index.getDependentCount("person"));
+  }
+
+  @Test
+  void shouldEvictAnEntryInvalidatedBeforeItWasPut() {
+    CacheDependencyIndex index = new CacheDependencyIndex();
+    Cache cache = new PerpetualCache("test");
+    index.register(cache, 1, TABLES);
+    index.invalidate(Collections.emptyList(), TABLES);
+    cache.putObject(1, "a");
+    index.confirm(cache, 1, TABLES);
+    assertNull(cache.getObject(1));
+  }
+
+  @Test
+  void shouldTrackEveryEntryPutWhileTheTableIsModified() throws Exception {
+    CacheDependencyIndex index = new CacheDependencyIndex();
+    Cache cache = new SynchronizedCache(new PerpetualCache("test"));
+    AtomicBoolean writing = new AtomicBoolean(true);
+    Thread writer = new Thread(() -> {
+      while (writing.get()) {
+        index.invalidate(Collections.emptyList(), TABLES);
+      }
+    });
+    writer.start();
+    try {
+      for (int i = 0; i < 100000; i++) {
+        index.register(cache, i, TABLES);
+        cache.putObject(i, i);
+        index.confirm(cache, i, TABLES);
+      }
+    } finally {
+      writing.set(false);
+      writer.join();
+    }
+    // every entry left is tracked, so the next write evicts it
+    index.invalidate(Collections.emptyList(), TABLES);
+    assertEquals(0, cache.getSize());
+  }
+
+}
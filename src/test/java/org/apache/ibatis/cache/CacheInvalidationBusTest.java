@@ -0,0 +1,216 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.Consumer;
+
+import org.apache.ibatis.cache.invalidation.CacheInvalidation;
+import org.apache.ibatis.cache.invalidation.CacheInvalidationBatch;
+import org.apache.ibatis.cache.invalidation.CacheInvalidationBus;
+import org.apache.ibatis.cache.invalidation.CacheInvalidationTransport;
+import org.apache.ibatis.cache.invalidation.LoopbackTransport;
+import org.apache.ibatis.cache.invalidation.SharedFileTransport;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CacheInvalidationBusTest {
+
+  @Test
+  void shouldApplyRemoteInvalidations() {
+    Node a = new Node(new LoopbackTransport(), "remote", "0");
+    Node b = new Node(new LoopbackTransport(), "remote", "0");
+    a.cache.putObject(1, "a");
+    b.cache.putObject(1, "b");
+    b.cache.putObject(2, "b");
+
+    a.bus.invalidateKeys("test", Collections.singletonList(2));
+    assertEquals("a", a.cache.getObject(1));
+    assertEquals("b", b.cache.getObject(1));
+    assertNull(b.cache.getObject(2));
+
+    a.bus.publish(Collections.singletonList(CacheInvalidation.namespace("test")));
+    assertEquals("a", a.cache.getObject(1));
+    assertNull(b.cache.getObject(1));
+    assertEquals(2, b.bus.getReceivedBatchCount());
+    close(a, b);
+  }
+
+  @Test
+  void shouldFlushTheWriterCachesOfTableInvalidationsWithoutADependencyIndex() {
+    Node a = new Node(new LoopbackTransport(), "tables", "0");
+    Node b = new Node(new LoopbackTransport(), "tables", "0");
+    b.cache.putObject(1, "b");
+
+    // both nodes use the NAMESPACE scope, which records no dependencies
+    a.bus.publish(Collections.singletonList(CacheInvalidation.tables(Arrays.asList("a"), Arrays.asList("other"))));
+    assertEquals("b", b.cache.getObject(1));
+    a.bus.publish(Collections.singletonList(CacheInvalidation.tables(Arrays.asList("a"), Arrays.asList("test"))));
+    assertNull(b.cache.getObject(1));
+    assertEquals(2, b.bus.getAppliedInvalidationCount());
+    close(a, b);
+  }
+
+  @Test
+  void shouldCoalescePendingInvalidations() {
+    RecordingTransport transport = new RecordingTransport();
+    Node node = new Node(transport, "coalesce", "60000");
+    node.bus.invalidateKeys("test", Arrays.asList(1, 2));
+    node.bus.invalidateKeys("test", Arrays.asList(2, 3));
+    node.bus.invalidateKeys("other", Collections.singletonList(1));
+    node.bus.publish(Collections.singletonList(CacheInvalidation.namespace("other")));
+    node.bus.publish(Arrays.asList(CacheInvalidation.tables(Arrays.asList("a", "b"), Collections.emptyList()),
+        CacheInvalidation.tables(Arrays.asList("b"), Collections.singletonList("test"))));
+    assertTrue(transport.published.isEmpty());
+
+    node.bus.flush();
+    assertEquals(1, transport.published.size());
+    List<CacheInvalidation> invalidations = transport.published.get(0).getInvalidations();
+    assertEquals(3, invalidations.size());
+    assertEquals(CacheInvalidation.Type.NAMESPACE, invalidations.get(0).getType());
+    assertEquals("other", invalidations.get(0).getCacheId());
+    assertEquals(Arrays.asList(1, 2, 3), new ArrayList<>(invalidations.get(1).getKeys()));
+    assertEquals(Arrays.asList("a", "b"), new ArrayList<>(invalidations.get(2).getTables()));
+    assertEquals(Collections.singleton("test"), invalidations.get(2).getWriterCacheIds());
+    assertEquals(3, node.bus.getCoalescedInvalidationCount());
+  }
+
+  @Test
+  void shouldFlushWhenTheBatchIsFull() {
+    RecordingTransport transport = new RecordingTransport();
+    Properties properties = new Properties();
+    properties.setProperty("batchWindow", "60000");
+    properties.setProperty("maxBatchSize", "2");
+    Node node = new Node(transport, properties);
+    node.bus.invalidateKeys("test", Collections.singletonList(1));
+    assertTrue(transport.published.isEmpty());
+    node.bus.invalidateKeys("test", Collections.singletonList(2));
+    assertEquals(1, transport.published.size());
+    node.bus.invalidateKeys("test", Arrays.asList(3, 4, 5));
+    node.bus.flush();
+    assertEquals(CacheInvalidation.Type.NAMESPACE, transport.published.get(1).getInvalidations().get(0).getType());
+  }
+
+  @Test
+  void shouldExchangeInvalidationsThroughASharedFile(@TempDir Path directory) throws Exception {
+    Properties properties = new Properties();
+    properties.setProperty("file", directory.resolve("invalidations").toString());
+    properties.setProperty("pollInterval", "10");
+    Node a = new Node(new SharedFileTransport(), properties);
+    Node b = new Node(new SharedFileTransport(), properties);
+    b.cache.putObject(1, "b");
+    b.cache.putObject(2, "b");
+
+    a.bus.invalidateKeys("test", Collections.singletonList(1));
+    ((SharedFileTransport) b.bus.getTransport()).poll();
+    assertNull(b.cache.getObject(1));
+    assertEquals("b", b.cache.getObject(2));
+    assertEquals(0, a.bus.getReceivedBatchCount());
+    close(a, b);
+  }
+
+  @Test
+  void shouldClearEverythingAfterMissingInvalidations(@TempDir Path directory) throws Exception {
+    Properties properties = new Properties();
+    properties.setProperty("file", directory.resolve("invalidations").toString());
+    properties.setProperty("pollInterval", "60000");
+    properties.setProperty("maxFileSize", "1024");
+    Node a = new Node(new SharedFileTransport(), properties);
+    Node b = new Node(new SharedFileTransport(), properties);
+    b.cache.putObject(1, "b");
+    b.cache.putObject(2, "b");
+
+    for (int i = 0; i < 10; i++) {
+      a.bus.invalidateKeys("test", Collections.singletonList(i + 100));
+    }
+    ((SharedFileTransport) b.bus.getTransport()).poll();
+    assertEquals(0, b.cache.getSize());
+    close(a, b);
+  }
+
+  @Test
+  void shouldRequireAPrivateSharedFile(@TempDir Path directory) throws Exception {
+    assertThrows(CacheException.class, () -> new SharedFileTransport().start(batch -> {
+    }));
+
+    Properties properties = new Properties();
+    properties.setProperty("file", directory.resolve("invalidations").toString());
+    Node node = new Node(new SharedFileTransport(), properties);
+    Path file = directory.resolve("invalidations");
+    if (Files.getFileStore(file).supportsFileAttributeView(PosixFileAttributeView.class)) {
+      assertEquals(PosixFilePermissions.fromString("rw-------"), Files.getPosixFilePermissions(file));
+    }
+    close(node);
+  }
+
+  private static void close(Node... nodes) {
+    for (Node node : nodes) {
+      node.bus.close();
+    }
+  }
+
+  private static class Node {
+    final Cache cache = new CacheBuilder("test").build();
+    final CacheInvalidationBus bus;
+
+    Node(CacheInvalidationTransport transport, String channel, String batchWindow) {
+      this(transport, properties(channel, batchWindow));
+    }
+
+    Node(CacheInvalidationTransport transport, Properties properties) {
+      Configuration configuration = new Configuration();
+      configuration.addCache(cache);
+      transport.setProperties(properties);
+      bus = new CacheInvalidationBus(configuration, transport);
+      bus.setProperties(properties);
+      bus.start();
+    }
+
+    private static Properties properties(String channel, String batchWindow) {
+      Properties properties = new Properties();
+      properties.setProperty("channel", channel);
+      properties.setProperty("batchWindow", batchWindow);
+      return properties;
+    }
+  }
+
+  private static class RecordingTransport implements CacheInvalidationTransport {
+    final List<CacheInvalidationBatch> published = new ArrayList<>();
+
+    @Override
+    public void start(Consumer<CacheInvalidationBatch> listener) {
+      // NOP
+    }
+
+    @Override
+    public void publish(CacheInvalidationBatch batch) {
+      published.add(batch);
+    }
+  }
+
+}
@@ -23,6 +23,8 @@ import java.io.NotSerializableException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.junit.jupiter.api.Test;
 
@@ -122,6 +124,43 @@ class CacheKeyTest {
     assertEquals(cacheKey, serialize(cacheKey));
   }
 
+  @Test
+  void shouldBeEqualWhetherFingerprintsArePrecomputedOrNot() {
+    String sql = "select * from person where id = ?";
+    CacheKey key1 = new CacheKey(3);
+    key1.update("statement", CacheKey.fingerprint("statement"));
+    key1.update(sql, CacheKey.fingerprint(sql));
+    key1.update(1);
+    CacheKey key2 = new CacheKey();
+    key2.update("statement");
+    key2.update(new String(sql.toCharArray()));
+    key2.update(1);
+    assertEquals(key1, key2);
+    assertEquals(key1.hashCode(), key2.hashCode());
+    assertEquals(3, key1.getUpdateCount());
+  }
+
+  @Test
+  void shouldNotShareStateWithClones() throws Exception {
+    CacheKey key = new CacheKey(new Object[] { 1, "hello" });
+    CacheKey clone = key.clone();
+    clone.update(2);
+    clone.update(3);
+    assertEquals(2, key.getUpdateCount());
+    assertEquals(4, clone.getUpdateCount());
+    assertNotEquals(key, clone);
+    assertEquals(new CacheKey(new Object[] { 1, "hello", 2, 3 }), clone);
+  }
+
+  @Test
+  void shouldSpreadSimilarKeysOverDistinctHashes() {
+    Set<Integer> hashes = new HashSet<>();
+    for (int i = 0; i < 10000; i++) {
+      hashes.add(new CacheKey(new Object[] { "statement", 0, Integer.MAX_VALUE, "select ?", i }).hashCode());
+    }
+    assertEquals(10000, hashes.size());
+  }
+
   private static <T> T serialize(T object) throws Exception {
       ByteArrayOutputStream baos = new ByteArrayOutputStream();
       new ObjectOutputStream(baos).writeObject(object);
@@ -0,0 +1,104 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+
+import org.apache.ibatis.cache.decorators.FifoCache;
+import org.apache.ibatis.cache.decorators.TinyLfuCache;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.junit.jupiter.api.Test;
+
+class CacheStatisticsTest {
+
+  @Test
+  void shouldRecordCacheOperations() {
+    Cache cache = new CacheBuilder("test").size(2).readWrite(false).build();
+    cache.putObject(1, Arrays.asList("a", "b"));
+    cache.putObject(2, Arrays.asList("c"));
+    cache.putObject(3, Arrays.asList("d"));
+    assertNull(cache.getObject(1));
+    assertNotNull(cache.getObject(2));
+    cache.removeObject(2);
+    cache.clear();
+
+    CacheStatistics.Snapshot snapshot = cache.getStatistics().snapshot();
+    assertEquals("test", snapshot.getId());
+    assertEquals(1, snapshot.getHitCount());
+    assertEquals(1, snapshot.getMissCount());
+    assertEquals(0.5, snapshot.getHitRatio());
+    assertEquals(3, snapshot.getPutCount());
+    assertEquals(1, snapshot.getEvictionCount());
+    assertEquals(2, snapshot.getRemovalCount());
+    assertEquals(0, snapshot.getSize());
+    assertEquals(0, snapshot.getEstimatedBytes());
+  }
+
+  @Test
+  void shouldEstimateTheSizeOfSerializedValues() {
+    Cache cache = new CacheBuilder("test").readWrite(true).build();
+    cache.putObject(1, "value");
+    cache.putObject(2, "value");
+    CacheStatistics statistics = cache.getStatistics();
+    assertTrue(statistics.getEstimatedBytes() > 2 * "value".length());
+  }
+
+  @Test
+  void shouldOnlyEstimateValuesThatAreNotSerializedOnDemand() {
+    Cache cache = new CacheBuilder("test").readWrite(false).build();
+    CacheStatistics statistics = cache.getStatistics();
+    cache.putObject(1, Arrays.asList("a", "b"));
+    assertEquals(1, statistics.getPutCount());
+    assertEquals(0, statistics.getEstimatedBytes());
+    statistics.setSizeEstimated(true);
+    cache.putObject(2, Arrays.asList("c", "d"));
+    assertTrue(statistics.getEstimatedBytes() > 0);
+  }
+
+  @Test
+  void shouldRecordEvictionsOfEveryPolicy() {
+    for (Class<? extends Cache> policy : Arrays.asList(FifoCache.class, TinyLfuCache.class)) {
+      Cache cache = new CacheBuilder("test").addDecorator(policy).size(10).build();
+      for (int i = 0; i < 100; i++) {
+        cache.putObject(i, i);
+      }
+      assertEquals(90, cache.getStatistics().getEvictionCount(), policy.getSimpleName());
+    }
+  }
+
+  @Test
+  void shouldTurnExpiredHitsIntoMisses() throws Exception {
+    Cache cache = new CacheBuilder("test").timeToLive(20L).build();
+    cache.putObject(1, 1);
+    Thread.sleep(40);
+    assertNull(cache.getObject(1));
+    assertEquals(0, cache.getStatistics().getHitCount());
+    assertEquals(1, cache.getStatistics().getMissCount());
+  }
+
+  @Test
+  void shouldRecordLoads() {
+    CacheStatistics statistics = new CacheBuilder("test").build().getStatistics();
+    statistics.recordLoad(2_000_000, true);
+    statistics.recordLoad(4_000_000, false);
+    assertEquals(2, statistics.getLoadCount());
+    assertEquals(1, statistics.getLoadFailureCount());
+    assertEquals(3.0, statistics.getAverageLoadMillis());
+  }
+
+}
@@ -0,0 +1,46 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class CacheWarmupTest {
+
+  @Test
+  void shouldConvertLiteralsToTheParameterType() {
+    assertEquals(Arrays.asList(1, 2), CacheWarmup.parseParameters("1; 2;", int.class));
+    assertEquals(Arrays.asList(1L), CacheWarmup.parseParameters("1", Long.class));
+    assertEquals(Arrays.asList("a=b"), CacheWarmup.parseParameters("a=b", String.class));
+    assertEquals(Collections.emptyList(), CacheWarmup.parseParameters(null, int.class));
+  }
+
+  @Test
+  void shouldParseMaps() {
+    Map<String, Object> expected = new LinkedHashMap<>();
+    expected.put("id", "1");
+    expected.put("name", "Jane");
+    assertEquals(Arrays.asList(expected, "plain"), CacheWarmup.parseParameters("id=1, name=Jane;plain", null));
+    assertThrows(CacheException.class, () -> CacheWarmup.parseParameters("id=1,name", Map.class));
+  }
+
+}
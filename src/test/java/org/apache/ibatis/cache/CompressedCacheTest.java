@@ -0,0 +1,136 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.ibatis.cache.codec.BlockCompressor;
+import org.apache.ibatis.cache.codec.ReflectionCodec;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.junit.jupiter.api.Test;
+
+class CompressedCacheTest {
+
+  @Test
+  void shouldRoundTripBlocks() {
+    Random random = new Random(42);
+    List<byte[]> samples = new ArrayList<>();
+    samples.add(new byte[0]);
+    samples.add(new byte[] { 1, 2, 3 });
+    samples.add(new byte[12]);
+    samples.add(new byte[100_000]);
+    byte[] noise = new byte[70_000];
+    random.nextBytes(noise);
+    samples.add(noise);
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 5_000; i++) {
+      text.append("row ").append(i % 37).append(random.nextBoolean() ? " ACTIVE " : " SUSPENDED ");
+    }
+    samples.add(text.toString().getBytes());
+    for (byte[] sample : samples) {
+      byte[] compressed = BlockCompressor.compress(sample);
+      assertTrue(compressed.length <= BlockCompressor.maxCompressedLength(sample.length));
+      assertArrayEquals(sample, BlockCompressor.decompress(compressed, sample.length));
+    }
+  }
+
+  @Test
+  void shouldRejectCorruptedBlocks() {
+    byte[] compressed = BlockCompressor.compress(new byte[1000]);
+    assertThrows(CacheException.class, () -> BlockCompressor.decompress(compressed, 999));
+    assertThrows(CacheException.class, () -> BlockCompressor.decompress(Arrays.copyOf(compressed, 3), 1000));
+  }
+
+  @Test
+  void shouldCompressSerializedValuesAboveTheThreshold() {
+    Cache cache = new CacheBuilder("test").readWrite(true).compressionThreshold(1024).build();
+    List<Row> rows = rows(500);
+    cache.putObject(1, rows);
+    cache.putObject(2, "small");
+    assertEquals(rows, cache.getObject(1));
+    assertEquals("small", cache.getObject(2));
+
+    CacheStatistics.Snapshot snapshot = cache.getStatistics().snapshot();
+    assertTrue(snapshot.getCompressionRatio() > 3, snapshot.toString());
+    assertTrue(snapshot.getTotalCompressionNanos() > 0);
+    assertTrue(snapshot.getTotalDecompressionNanos() > 0);
+  }
+
+  @Test
+  void shouldKeepMoreEntriesInTheSameWeight() {
+    Cache plain = new CacheBuilder("plain").readWrite(true).codec(ReflectionCodec.class).maxBytes(1_000_000L).build();
+    Cache compressed = new CacheBuilder("compressed").readWrite(true).codec(ReflectionCodec.class).maxBytes(1_000_000L)
+        .compressionThreshold(1024).build();
+    for (int i = 0; i < 200; i++) {
+      plain.putObject(i, rows(200));
+      compressed.putObject(i, rows(200));
+    }
+    assertTrue(compressed.getSize() > 3 * plain.getSize(), compressed.getSize() + " vs " + plain.getSize());
+  }
+
+  @Test
+  void shouldNotCompressReadOnlyCaches() {
+    Cache cache = new CacheBuilder("test").readWrite(false).compressionThreshold(0).build();
+    cache.putObject(1, rows(10));
+    assertEquals(0, cache.getStatistics().getCompressionRatio());
+  }
+
+  private static List<Row> rows(int count) {
+    List<Row> rows = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      rows.add(new Row(i, "customer-" + (i % 20), i % 3 == 0 ? Status.ACTIVE : Status.SUSPENDED));
+    }
+    return rows;
+  }
+
+  enum Status {
+    ACTIVE, SUSPENDED
+  }
+
+  static class Row implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final int id;
+    private final String name;
+    private final Status status;
+
+    Row(int id, String name, Status status) {
+      this.id = id;
+      this.name = name;
+      this.status = status;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Row)) {
+        return false;
+      }
+      Row other = (Row) obj;
+      return id == other.id && name.equals(other.name) && status == other.status;
+    }
+
+    @Override
+    public int hashCode() {
+      return id;
+    }
+  }
+
+}
@@ -0,0 +1,124 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.cache.decorators.ConcurrentSoftCache;
+import org.apache.ibatis.cache.decorators.ConcurrentWeakCache;
+import org.apache.ibatis.cache.decorators.LoggingCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.junit.jupiter.api.Test;
+
+class ConcurrentReferenceCacheTest {
+
+  @Test
+  void shouldDemonstrateObjectsBeingCollectedAsNeeded() {
+    final int N = 3000000;
+    ConcurrentSoftCache cache = new ConcurrentSoftCache(new PerpetualCache("default"));
+    for (int i = 0; i < N; i++) {
+      byte[] array = new byte[5001]; //waste a bunch of memory
+      array[5000] = 1;
+      cache.putObject(i, array);
+      cache.getObject(i);
+      if (cache.getSize() < i + 1) {
+        break;
+      }
+    }
+    assertTrue(cache.getSize() < N);
+  }
+
+  @Test
+  void shouldRemoveCollectedEntries() throws Exception {
+    ConcurrentWeakCache cache = new ConcurrentWeakCache(new PerpetualCache("default"));
+    for (int i = 0; i < 1000; i++) {
+      cache.putObject(i, new Object());
+    }
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (cache.getSize() > 0 && System.nanoTime() < deadline) {
+      System.gc();
+      cache.cleanUp();
+      Thread.sleep(10);
+    }
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  void shouldKeepRecentlyReadValuesReachable() {
+    ConcurrentWeakCache cache = new ConcurrentWeakCache(new PerpetualCache("default"));
+    cache.putObject(1, new Object());
+    assertNotNull(cache.getObject(1));
+    System.gc();
+    cache.cleanUp();
+    assertNotNull(cache.getObject(1));
+
+    cache.clear();
+    assertNull(cache.getObject(1));
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  void shouldRemoveItemOnDemand() {
+    Cache cache = new ConcurrentSoftCache(new PerpetualCache("default"));
+    cache.putObject(0, 0);
+    assertNotNull(cache.getObject(0));
+    assertEquals(0, cache.removeObject(0));
+    assertNull(cache.getObject(0));
+  }
+
+  @Test
+  void shouldReadAndWriteFromManyThreads() throws Exception {
+    Cache cache = new ConcurrentSoftCache(new PerpetualCache("default"));
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < 10_000; i++) {
+            Integer key = i % 500;
+            Object value = cache.getObject(key);
+            if (value == null) {
+              cache.putObject(key, key);
+            } else {
+              assertEquals(key, value);
+            }
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(500, cache.getSize());
+  }
+
+  @Test
+  void shouldNotBeSynchronizedByTheCacheBuilder() {
+    Cache cache = new CacheBuilder("test").addDecorator(ConcurrentWeakCache.class).build();
+    assertTrue(cache instanceof LoggingCache);
+  }
+
+}
@@ -0,0 +1,150 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.cache.decorators.ExpiringCache;
+import org.apache.ibatis.cache.decorators.LruCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.junit.jupiter.api.Test;
+
+class ExpiringCacheTest {
+
+  @Test
+  void shouldExpireEntriesIndividually() throws Exception {
+    ExpiringCache cache = new ExpiringCache(new PerpetualCache("DefaultCache"));
+    cache.setTimeToLive(200);
+    cache.putObject(0, 0);
+    Thread.sleep(120);
+    cache.putObject(1, 1);
+    Thread.sleep(120);
+    assertNull(cache.getObject(0));
+    assertEquals(1, cache.getObject(1));
+    assertEquals(1, cache.getSize());
+  }
+
+  @Test
+  void shouldNeverExceedTheTimeToLiveWithJitter() throws Exception {
+    ExpiringCache cache = new ExpiringCache(new PerpetualCache("DefaultCache"));
+    cache.setTimeToLive(100);
+    cache.setJitter(0.5);
+    for (int i = 0; i < 100; i++) {
+      cache.putObject(i, i);
+    }
+    Thread.sleep(150);
+    for (int i = 0; i < 100; i++) {
+      assertNull(cache.getObject(i));
+    }
+  }
+
+  @Test
+  void shouldRejectInvalidSettings() {
+    ExpiringCache cache = new ExpiringCache(new PerpetualCache("DefaultCache"));
+    assertThrows(CacheException.class, () -> cache.setTimeToLive(0));
+    assertThrows(CacheException.class, () -> cache.setJitter(1));
+    assertThrows(CacheException.class, () -> cache.setRefreshAhead(-0.5));
+  }
+
+  @Test
+  void shouldServeTheCurrentValueWhileRefreshing() throws Exception {
+    ExpiringCache cache = new ExpiringCache(new PerpetualCache("DefaultCache"));
+    cache.setTimeToLive(TimeUnit.SECONDS.toMillis(10));
+    cache.setRefreshAhead(0.00001);
+    cache.putObject("key", "old");
+    Thread.sleep(5);
+
+    AtomicInteger reloads = new AtomicInteger();
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(1);
+    Runnable reload = () -> {
+      reloads.incrementAndGet();
+      // the reload must not see the entry it replaces
+      assertNull(cache.getObject("key"));
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      cache.putObject("key", "new");
+      done.countDown();
+    };
+    assertEquals("old", cache.getObject("key"));
+    assertTrue(ExpiringCache.isRefreshDue());
+    ExpiringCache.refreshDue(reload);
+    // already being reloaded
+    assertEquals("old", cache.getObject("key"));
+    assertFalse(ExpiringCache.isRefreshDue());
+    release.countDown();
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    assertEquals("new", cache.getObject("key"));
+    assertEquals(1, reloads.get());
+  }
+
+  @Test
+  void shouldNotRefreshWithoutARefresher() throws Exception {
+    ExpiringCache cache = new ExpiringCache(new PerpetualCache("DefaultCache"));
+    cache.setTimeToLive(TimeUnit.SECONDS.toMillis(10));
+    cache.setRefreshAhead(0.00001);
+    cache.putObject("key", "value");
+    Thread.sleep(5);
+    assertEquals("value", cache.getObject("key"));
+    assertTrue(ExpiringCache.isRefreshDue());
+    ExpiringCache.refreshDue(null);
+    assertFalse(ExpiringCache.isRefreshDue());
+    assertEquals("value", cache.getObject("key"));
+    assertTrue(ExpiringCache.isRefreshDue());
+    ExpiringCache.refreshDue(null);
+  }
+
+  @Test
+  void shouldEvictTheDeadlinesWithTheEntries() {
+    LruCache lru = new LruCache(new PerpetualCache("DefaultCache"));
+    lru.setSize(2);
+    ExpiringCache cache = new ExpiringCache(lru);
+    for (int i = 0; i < 3; i++) {
+      cache.putObject(i, i);
+    }
+    assertEquals(2, lru.getSize());
+    assertNull(cache.getObject(0));
+    assertEquals(2, cache.getObject(2));
+    assertEquals(1, cache.removeObject(1));
+  }
+
+  @Test
+  void shouldRemoveItemOnDemand() {
+    ExpiringCache cache = new ExpiringCache(new PerpetualCache("DefaultCache"));
+    cache.putObject(0, 0);
+    assertNotNull(cache.getObject(0));
+    cache.removeObject(0);
+    assertNull(cache.getObject(0));
+  }
+
+  @Test
+  void shouldFlushAllItemsOnDemand() {
+    ExpiringCache cache = new ExpiringCache(new PerpetualCache("DefaultCache"));
+    for (int i = 0; i < 5; i++) {
+      cache.putObject(i, i);
+    }
+    cache.clear();
+    assertEquals(0, cache.getSize());
+  }
+
+}
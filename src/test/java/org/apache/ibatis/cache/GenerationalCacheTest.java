@@ -0,0 +1,95 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.cache.decorators.GenerationalCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.junit.jupiter.api.Test;
+
+class GenerationalCacheTest {
+
+  @Test
+  void shouldHideEntriesOfPreviousGenerationsWithoutClearingTheDelegate() {
+    ClearCountingCache delegate = new ClearCountingCache();
+    GenerationalCache cache = new GenerationalCache(delegate);
+    cache.putObject(1, "a");
+    assertEquals("a", cache.getObject(1));
+
+    cache.clear();
+    assertNull(cache.getObject(1));
+    assertEquals(1, cache.getGeneration());
+    assertEquals(0, delegate.clears);
+
+    cache.putObject(1, "b");
+    assertEquals("b", cache.getObject(1));
+  }
+
+  @Test
+  void shouldSweepEntriesOfPreviousGenerations() throws Exception {
+    GenerationalCache cache = new GenerationalCache(new PerpetualCache("default"));
+    for (int i = 0; i < 100; i++) {
+      cache.putObject(i, i);
+    }
+    cache.clear();
+    cache.putObject(1, 1);
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (cache.getSize() > 1 && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(1, cache.getSize());
+    assertEquals(1, cache.getObject(1));
+  }
+
+  @Test
+  void shouldLeaveUntrackedEntriesToEviction() throws Exception {
+    GenerationalCache cache = new GenerationalCache(new PerpetualCache("default"));
+    cache.setMaxTrackedKeys(10);
+    for (int i = 0; i < 20; i++) {
+      cache.putObject(i, i);
+    }
+    cache.clear();
+    assertNull(cache.getObject(0));
+    assertEquals(20, cache.getSize());
+  }
+
+  @Test
+  void shouldRemoveEntriesOfTheCurrentGeneration() {
+    GenerationalCache cache = new GenerationalCache(new PerpetualCache("default"));
+    cache.putObject(1, "a");
+    cache.removeObject(1);
+    assertNull(cache.getObject(1));
+    assertEquals(0, cache.getSize());
+  }
+
+  private static class ClearCountingCache extends PerpetualCache {
+    private int clears;
+
+    ClearCountingCache() {
+      super("default");
+    }
+
+    @Override
+    public void clear() {
+      clears++;
+      super.clear();
+    }
+  }
+
+}
@@ -0,0 +1,183 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.ibatis.cache.impl.MappedFileCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedFileCacheTest {
+
+  @TempDir
+  Path directory;
+
+  private final List<MappedFileCache> caches = new ArrayList<>();
+
+  @AfterEach
+  void closeCaches() {
+    caches.forEach(MappedFileCache::close);
+  }
+
+  @Test
+  void shouldServeEntriesWrittenBeforeARestart() {
+    MappedFileCache cache = open("1");
+    cache.putObject(key("select 1"), Arrays.asList("a", "b"));
+    cache.putObject(key("select 2"), "c");
+    cache.putObject(key("select 2"), "d");
+    cache.close();
+
+    MappedFileCache reopened = open("1");
+    assertEquals(2, reopened.getSize());
+    assertEquals(Arrays.asList("a", "b"), reopened.getObject(key("select 1")));
+    assertEquals("d", reopened.getObject(key("select 2")));
+  }
+
+  @Test
+  void shouldDiscardEntriesOfAnotherSchemaVersion() {
+    MappedFileCache cache = open("1");
+    cache.putObject(key("select 1"), "a");
+    cache.close();
+
+    MappedFileCache reopened = open("2");
+    assertEquals(0, reopened.getSize());
+    assertNull(reopened.getObject(key("select 1")));
+  }
+
+  @Test
+  void shouldKeepTheEntriesBeforeACorruptedRecord() throws Exception {
+    MappedFileCache cache = open("1");
+    cache.putObject(key("select 1"), "a");
+    cache.putObject(key("select 2"), "b");
+    long secondRecord = cache.getLiveBytes() / 2 + 32;
+    cache.close();
+
+    try (RandomAccessFile file = new RandomAccessFile(directory.resolve("test/segment-0.dat").toFile(), "rw")) {
+      file.seek(secondRecord + 30);
+      file.write(0xFF);
+    }
+
+    MappedFileCache reopened = open("1");
+    assertEquals("a", reopened.getObject(key("select 1")));
+    assertNull(reopened.getObject(key("select 2")));
+  }
+
+  @Test
+  void shouldReclaimDeletedRecordsByCompaction() {
+    MappedFileCache cache = open("1");
+    for (int i = 0; i < 10; i++) {
+      cache.putObject(key("select " + i), "value " + i);
+    }
+    long liveBytes = cache.getLiveBytes();
+    for (int i = 0; i < 10; i += 2) {
+      cache.removeObject(key("select " + i));
+    }
+    assertTrue(cache.getDeadBytes() > 0);
+
+    cache.compact();
+    assertEquals(0, cache.getDeadBytes());
+    assertTrue(cache.getLiveBytes() < liveBytes);
+    for (int i = 1; i < 10; i += 2) {
+      assertEquals("value " + i, cache.getObject(key("select " + i)));
+    }
+    cache.close();
+    assertEquals("value 9", open("1").getObject(key("select 9")));
+  }
+
+  @Test
+  void shouldExpireEntries() throws Exception {
+    MappedFileCache cache = new MappedFileCache("test");
+    cache.setDirectory(directory.toString());
+    cache.setTimeToLive(20);
+    cache.initialize();
+    caches.add(cache);
+    cache.putObject(key("select 1"), "a");
+    cache.putObject(key("select 2"), "b");
+    Thread.sleep(40);
+    assertNull(cache.getObject(key("select 1")));
+    cache.compact();
+    assertEquals(0, cache.getSize());
+    assertEquals(0, cache.getLiveBytes());
+  }
+
+  @Test
+  void shouldEvictTheOldestSegmentWhenFull() {
+    MappedFileCache cache = new MappedFileCache("test");
+    cache.setDirectory(directory.toString());
+    cache.setSegmentSize(4096);
+    cache.setMaxSegments(2);
+    cache.initialize();
+    caches.add(cache);
+    char[] chars = new char[500];
+    Arrays.fill(chars, 'x');
+    String value = new String(chars);
+    for (int i = 0; i < 100; i++) {
+      cache.putObject(key("select " + i), value);
+    }
+    assertTrue(cache.getSize() < 100);
+    assertNull(cache.getObject(key("select 0")));
+    assertEquals(value, cache.getObject(key("select 99")));
+    assertTrue(cache.getLiveBytes() <= 2 * 4096);
+  }
+
+  @Test
+  void shouldLockItsDirectory() {
+    open("1");
+    MappedFileCache other = new MappedFileCache("test");
+    other.setDirectory(directory.toString());
+    assertThrows(CacheException.class, other::initialize);
+  }
+
+  @Test
+  void shouldRequireAPrivateDirectory() throws Exception {
+    assertThrows(CacheException.class, new MappedFileCache("test")::initialize);
+
+    open("1");
+    if (Files.getFileStore(directory).supportsFileAttributeView(PosixFileAttributeView.class)) {
+      assertEquals(PosixFilePermissions.fromString("rwx------"),
+          Files.getPosixFilePermissions(directory.resolve("test")));
+    }
+  }
+
+  private MappedFileCache open(String schemaVersion) {
+    MappedFileCache cache = new MappedFileCache("test");
+    cache.setDirectory(directory.toString());
+    cache.setSchemaVersion(schemaVersion);
+    cache.initialize();
+    caches.add(cache);
+    return cache;
+  }
+
+  private static CacheKey key(String sql) {
+    CacheKey key = new CacheKey();
+    key.update("org.example.Mapper.select");
+    key.update(sql);
+    key.update(1);
+    return key;
+  }
+
+}
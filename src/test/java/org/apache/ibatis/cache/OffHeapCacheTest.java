@@ -0,0 +1,189 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.ibatis.cache.codec.JavaSerializationCodec;
+import org.apache.ibatis.cache.decorators.LoggingCache;
+import org.apache.ibatis.cache.impl.OffHeapCache;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.junit.jupiter.api.Test;
+
+class OffHeapCacheTest {
+
+  @Test
+  void shouldReturnCopiesOfCachedObjects() {
+    OffHeapCache cache = new OffHeapCache("default");
+    List<String> value = new ArrayList<>();
+    value.add("a");
+    cache.putObject(1, value);
+    Object cached = cache.getObject(1);
+    assertEquals(value, cached);
+    assertNotSame(value, cached);
+    assertEquals(1, cache.getSize());
+  }
+
+  @Test
+  void shouldDistinguishKeysWithTheSameHashCode() {
+    OffHeapCache cache = new OffHeapCache("default");
+    // "Aa" and "BB" share the same hash code
+    cache.putObject("Aa", 1);
+    cache.putObject("BB", 2);
+    assertEquals(1, cache.getObject("Aa"));
+    assertEquals(2, cache.getObject("BB"));
+    cache.removeObject("Aa");
+    assertNull(cache.getObject("Aa"));
+    assertEquals(2, cache.getObject("BB"));
+  }
+
+  @Test
+  void shouldNotSerializeKeys() {
+    OffHeapCache cache = new OffHeapCache("default");
+    Object key = new Object();
+    cache.putObject(key, 1);
+    assertEquals(1, cache.getObject(key));
+    cache.removeObject(key);
+    assertNull(cache.getObject(key));
+  }
+
+  @Test
+  void shouldReplaceValueOfExistingKey() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.putObject(0, "a");
+    cache.putObject(0, "b");
+    assertEquals("b", cache.getObject(0));
+    assertEquals(1, cache.getSize());
+  }
+
+  @Test
+  void shouldRemoveItemOnDemand() {
+    Cache cache = new OffHeapCache("default");
+    cache.putObject(0, 0);
+    assertNotNull(cache.getObject(0));
+    cache.removeObject(0);
+    assertNull(cache.getObject(0));
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  void shouldFlushAllItemsOnDemand() {
+    OffHeapCache cache = new OffHeapCache("default");
+    for (int i = 0; i < 5; i++) {
+      cache.putObject(i, i);
+    }
+    assertNotNull(cache.getObject(0));
+    assertNotNull(cache.getObject(4));
+    cache.clear();
+    assertNull(cache.getObject(0));
+    assertNull(cache.getObject(4));
+    assertEquals(0, cache.getUsedBytes());
+  }
+
+  @Test
+  void shouldStayWithinCapacity() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setCapacity(16 * 1024);
+    cache.setSlabSize(4 * 1024);
+    cache.initialize();
+    for (int i = 0; i < 10000; i++) {
+      cache.putObject(i, "value-" + i);
+    }
+    assertTrue(cache.getEvictionCount() > 0);
+    assertEquals(16 * 1024, cache.getReservedBytes());
+    assertTrue(cache.getUsedBytes() <= cache.getCapacity());
+    assertEquals("value-9999", cache.getObject(9999));
+    assertNull(cache.getObject(0));
+  }
+
+  @Test
+  void shouldTakeOverSlabsForNewSizeClasses() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setCapacity(8 * 1024);
+    cache.setSlabSize(4 * 1024);
+    cache.initialize();
+    for (int i = 0; i < 1000; i++) {
+      cache.putObject(i, i);
+    }
+    char[] large = new char[2000];
+    cache.putObject("large", new String(large));
+    assertEquals(new String(large), cache.getObject("large"));
+    assertEquals(0, cache.getRejectionCount());
+  }
+
+  @Test
+  void shouldNotCacheEntriesLargerThanASlab() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setCapacity(8 * 1024);
+    cache.setSlabSize(4 * 1024);
+    cache.initialize();
+    cache.putObject("large", new String(new char[8000]));
+    assertNull(cache.getObject("large"));
+    assertEquals(1, cache.getRejectionCount());
+  }
+
+  @Test
+  void shouldReportFragmentation() {
+    OffHeapCache cache = new OffHeapCache("default");
+    assertEquals(0, cache.getFragmentation());
+    cache.putObject(1, 1);
+    assertTrue(cache.getFragmentation() > 0);
+    assertTrue(cache.getFragmentation() < 1);
+    assertTrue(cache.getOccupancy() > 0);
+  }
+
+  @Test
+  void shouldApplyTheSettingsOnFirstUse() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setCapacity(8 * 1024);
+    cache.setSlabSize(4 * 1024);
+    cache.setCodec(JavaSerializationCodec.class.getName());
+    cache.putObject("large", new String(new char[8000]));
+    assertEquals(1, cache.getRejectionCount());
+    cache.putObject(1, "value");
+    assertEquals("value", cache.getObject(1));
+    assertEquals(4 * 1024, cache.getReservedBytes());
+  }
+
+  @Test
+  void shouldRejectAnUnknownCodec() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setCodec("org.example.MissingCodec");
+    assertThrows(CacheException.class, cache::initialize);
+  }
+
+  @Test
+  void shouldRejectNonSerializableObjects() {
+    OffHeapCache cache = new OffHeapCache("default");
+    assertThrows(CacheException.class, () -> cache.putObject(1, new Object()));
+  }
+
+  @Test
+  void shouldBeConfiguredByCacheBuilder() {
+    Properties properties = new Properties();
+    properties.setProperty("capacity", "1048576");
+    properties.setProperty("slabSize", "65536");
+    Cache cache = new CacheBuilder("default").implementation(OffHeapCache.class).properties(properties).build();
+    assertTrue(cache instanceof LoggingCache);
+    cache.putObject(1, 1);
+    assertEquals(1, cache.getObject(1));
+  }
+
+}
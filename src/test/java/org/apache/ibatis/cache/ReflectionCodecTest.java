@@ -0,0 +1,184 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.apache.ibatis.cache.codec.ReflectionCodec;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Section;
+import org.junit.jupiter.api.Test;
+
+class ReflectionCodecTest {
+
+  private final CacheCodec codec = new ReflectionCodec();
+
+  @Test
+  void shouldCopyBeans() {
+    Author author = new Author(101, "jim", "********", "jim@ibatis.apache.org", "Software Engineer", Section.NEWS);
+    Object copy = codec.decode(codec.encode(author));
+    assertNotSame(author, copy);
+    assertEquals(author, copy);
+  }
+
+  @Test
+  void shouldCopyValueTypes() {
+    Timestamp timestamp = new Timestamp(1234567890123L);
+    timestamp.setNanos(123456789);
+    List<Object> values = Arrays.asList(null, "text", 1, 2L, (short) 3, (byte) 4, true, 'c', 1.5f, 2.5d,
+        new BigDecimal("12345.6789"), new java.util.Date(1L), new java.sql.Date(2L), timestamp, Section.VIDEOS,
+        new byte[] { 1, 2, 3 });
+    for (Object value : values) {
+      Object copy = codec.decode(codec.encode(value));
+      if (value instanceof byte[]) {
+        assertArrayEquals((byte[]) value, (byte[]) copy);
+      } else {
+        assertEquals(value, copy);
+      }
+    }
+  }
+
+  @Test
+  void shouldCopyJavaTimeTypes() {
+    LocalDateTime dateTime = LocalDateTime.of(2022, 3, 27, 2, 30, 15, 123456789);
+    List<Object> values = Arrays.asList(dateTime.toLocalDate(), dateTime.toLocalTime(), dateTime,
+        Instant.ofEpochSecond(-1234567890L, 987654321), OffsetDateTime.of(dateTime, ZoneOffset.ofHours(-5)),
+        OffsetTime.of(dateTime.toLocalTime(), ZoneOffset.UTC), ZonedDateTime.of(dateTime, ZoneId.of("Europe/Paris")),
+        ZonedDateTime.of(2022, 10, 30, 2, 30, 0, 0, ZoneId.of("Europe/Paris")).withLaterOffsetAtOverlap(),
+        ZonedDateTime.of(dateTime, ZoneOffset.ofHours(9)), Duration.ofSeconds(-90061L, 5), LocalDate.MIN,
+        LocalTime.MAX);
+    for (Object value : values) {
+      byte[] data = codec.encode(value);
+      assertTrue(data.length < 48, () -> value + " took " + data.length + " bytes");
+      assertEquals(value, codec.decode(data));
+    }
+  }
+
+  @Test
+  void shouldRejectCollectionTypesItDoesNotWrite() throws IOException {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bos)) {
+      out.writeByte(20);
+      out.writeInt(-1);
+      byte[] name = Sections.class.getName().getBytes(StandardCharsets.UTF_8);
+      out.writeInt(name.length);
+      out.write(name);
+      out.writeInt(0);
+    }
+    CacheException e = assertThrows(CacheException.class, () -> codec.decode(bos.toByteArray()));
+    assertTrue(e.getMessage().contains("unexpected collection"));
+  }
+
+  @Test
+  void shouldCopyCollections() {
+    Map<String, Object> row = new HashMap<>();
+    row.put("id", 1);
+    row.put("tags", new TreeSet<>(Arrays.asList("b", "a")));
+    row.put("names", new String[] { "x", null });
+    List<Object> rows = new ArrayList<>();
+    rows.add(row);
+    rows.add(row);
+    @SuppressWarnings("unchecked")
+    List<Map<String, Object>> copy = (List<Map<String, Object>>) codec.decode(codec.encode(rows));
+    assertEquals(2, copy.size());
+    assertSame(copy.get(0), copy.get(1));
+    assertEquals(new TreeSet<>(Arrays.asList("a", "b")), copy.get(0).get("tags"));
+    assertArrayEquals(new String[] { "x", null }, (String[]) copy.get(0).get("names"));
+  }
+
+  @Test
+  void shouldPreserveCycles() {
+    Node parent = new Node();
+    Node child = new Node();
+    parent.children.add(child);
+    child.parent = parent;
+    Node copy = (Node) codec.decode(codec.encode(parent));
+    assertNotSame(parent, copy);
+    assertSame(copy, copy.children.get(0).parent);
+  }
+
+  @Test
+  void shouldSkipTransientFields() {
+    Node node = new Node();
+    node.label = "label";
+    Node copy = (Node) codec.decode(codec.encode(node));
+    assertNull(copy.label);
+  }
+
+  @Test
+  void shouldFallBackToJavaSerializationForCustomizedClasses() {
+    Customized customized = new Customized();
+    customized.value = 7;
+    Customized copy = (Customized) codec.decode(codec.encode(customized));
+    assertEquals(7, copy.value);
+    assertTrue(copy.written);
+  }
+
+  @Test
+  void shouldRejectNonSerializableObjects() {
+    List<Object> list = new ArrayList<>();
+    list.add(new Object());
+    assertThrows(CacheException.class, () -> codec.encode(list));
+  }
+
+  static class Sections extends ArrayList<Section> {
+    private static final long serialVersionUID = 1L;
+  }
+
+  static class Node implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private Node parent;
+    private List<Node> children = new ArrayList<>();
+    private transient String label;
+  }
+
+  static class Customized implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private int value;
+    private boolean written;
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+      written = true;
+      out.defaultWriteObject();
+    }
+  }
+
+}
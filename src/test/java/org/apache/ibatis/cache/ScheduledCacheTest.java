@@ -17,9 +17,15 @@ package org.apache.ibatis.cache;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+
 import org.apache.ibatis.cache.decorators.LoggingCache;
 import org.apache.ibatis.cache.decorators.ScheduledCache;
+import org.apache.ibatis.cache.decorators.TinyLfuCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.mapping.CacheBuilder;
 import org.junit.jupiter.api.Test;
 
 class ScheduledCacheTest {
@@ -66,4 +72,34 @@ class ScheduledCacheTest {
     assertNull(cache.getObject(4));
   }
 
+  @Test
+  void shouldClearOnceWhenFoundStaleConcurrently() throws Exception {
+    // a natively concurrent chain is not synchronized
+    Cache cache = new CacheBuilder("test").addDecorator(TinyLfuCache.class).clearInterval(200L).build();
+    for (int i = 0; i < 100; i++) {
+      cache.putObject(i, i);
+    }
+    Thread.sleep(400);
+    CyclicBarrier barrier = new CyclicBarrier(8);
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      Thread thread = new Thread(() -> {
+        try {
+          barrier.await();
+          cache.getObject(0);
+        } catch (Exception e) {
+          throw new IllegalStateException(e);
+        }
+      });
+      thread.start();
+      threads.add(thread);
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(0, cache.getSize());
+    assertEquals(100, cache.getStatistics().getEvictionCount());
+    assertEquals(8, cache.getStatistics().getMissCount());
+  }
+
 }
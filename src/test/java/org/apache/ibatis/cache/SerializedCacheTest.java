@@ -21,6 +21,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import java.io.Serializable;
 import java.util.Objects;
 
+import org.apache.ibatis.cache.codec.JavaSerializationCodec;
 import org.apache.ibatis.cache.decorators.SerializedCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.junit.jupiter.api.Test;
@@ -38,6 +39,17 @@ class SerializedCacheTest {
     }
   }
 
+  @Test
+  void shouldDemonstrateSerializedObjectAreEqualWithJavaSerializationCodec() {
+    SerializedCache cache = new SerializedCache(new PerpetualCache("default"), new JavaSerializationCodec());
+    for (int i = 0; i < 5; i++) {
+      cache.putObject(i, new CachingObject(i));
+    }
+    for (int i = 0; i < 5; i++) {
+      assertEquals(new CachingObject(i), cache.getObject(i));
+    }
+  }
+
   @Test
   void shouldDemonstrateNullsAreSerializable() {
     SerializedCache cache = new SerializedCache(new PerpetualCache("default"));
@@ -0,0 +1,150 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.ibatis.cache.decorators.FifoCache;
+import org.apache.ibatis.cache.decorators.WeightedCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.cache.weigher.EstimatingWeigher;
+import org.junit.jupiter.api.Test;
+
+class WeightedCacheTest {
+
+  @Test
+  void shouldEvictLeastRecentlyUsedItemsBeyondMaxBytes() {
+    WeightedCache cache = newCache(new PerpetualCache("default"), 100);
+    cache.putObject(1, rows(40));
+    cache.putObject(2, rows(40));
+    assertNotNull(cache.getObject(1));
+    cache.putObject(3, rows(40));
+    assertNull(cache.getObject(2));
+    assertNotNull(cache.getObject(1));
+    assertNotNull(cache.getObject(3));
+    assertEquals(80, cache.getWeightedSize());
+  }
+
+  @Test
+  void shouldNotKeepItemsHeavierThanMaxBytes() {
+    WeightedCache cache = newCache(new PerpetualCache("default"), 100);
+    cache.putObject(1, rows(10));
+    cache.putObject(2, rows(200));
+    assertNull(cache.getObject(2));
+    assertEquals(0, cache.getSize());
+    assertEquals(0, cache.getWeightedSize());
+  }
+
+  @Test
+  void shouldTrackReplacedRemovedAndClearedItems() {
+    WeightedCache cache = newCache(new PerpetualCache("default"), 100);
+    cache.putObject(1, rows(10));
+    cache.putObject(1, rows(30));
+    cache.putObject(2, rows(20));
+    assertEquals(50, cache.getWeightedSize());
+    cache.removeObject(1);
+    assertEquals(20, cache.getWeightedSize());
+    cache.clear();
+    assertEquals(0, cache.getWeightedSize());
+  }
+
+  @Test
+  void shouldForgetItemsEvictedBelow() {
+    FifoCache fifoCache = new FifoCache(new PerpetualCache("default"));
+    fifoCache.setSize(1);
+    WeightedCache cache = newCache(fifoCache, 100);
+    cache.putObject(1, rows(10));
+    cache.putObject(2, rows(10));
+    assertNull(cache.getObject(1));
+    assertEquals(10, cache.getWeightedSize());
+  }
+
+  @Test
+  void shouldEvictFromTheHeaviestCacheBeyondTheBudget() {
+    CacheMemoryBudget budget = new CacheMemoryBudget(100);
+    WeightedCache light = newCache(new PerpetualCache("light"), Long.MAX_VALUE);
+    WeightedCache heavy = newCache(new PerpetualCache("heavy"), Long.MAX_VALUE);
+    light.setBudget(budget);
+    heavy.setBudget(budget);
+    light.putObject(1, rows(20));
+    heavy.putObject(1, rows(30));
+    heavy.putObject(2, rows(30));
+    assertEquals(80, budget.getUsedBytes());
+    light.putObject(2, rows(30));
+    assertEquals(80, budget.getUsedBytes());
+    assertEquals(2, light.getSize());
+    assertNull(heavy.getObject(1));
+    assertNotNull(heavy.getObject(2));
+    light.clear();
+    assertEquals(30, budget.getUsedBytes());
+  }
+
+  @Test
+  void shouldWeighResultListsByTheirElements() {
+    List<Row> small = new ArrayList<>();
+    List<Row> large = new ArrayList<>();
+    for (int i = 0; i < 10_000; i++) {
+      Row row = new Row(i, "name " + i);
+      if (i < 10) {
+        small.add(row);
+      }
+      large.add(row);
+    }
+    long smallWeight = new EstimatingWeigher().weigh(null, small);
+    long largeWeight = new EstimatingWeigher().weigh(null, large);
+    assertTrue(smallWeight > 10 * "name 0".length() * 2);
+    assertTrue(largeWeight > 900 * smallWeight, largeWeight + " / " + smallWeight);
+    assertTrue(largeWeight < 1100 * smallWeight, largeWeight + " / " + smallWeight);
+  }
+
+  @Test
+  void shouldWeighNestedResults() {
+    Row row = new Row(1, "name");
+    Row withChildren = new Row(1, "name");
+    withChildren.children = Arrays.asList(new Row(2, "first child"), new Row(3, "second child"));
+    assertTrue(EstimatingWeigher.estimate(withChildren) > EstimatingWeigher.estimate(row) + 2 * 40);
+    assertEquals(0, EstimatingWeigher.estimate(null));
+  }
+
+  private static WeightedCache newCache(Cache delegate, long maxBytes) {
+    WeightedCache cache = new WeightedCache(delegate);
+    cache.setMaxBytes(maxBytes);
+    // one byte per row
+    cache.setWeigher((key, value) -> ((List<?>) value).size());
+    return cache;
+  }
+
+  private static List<Integer> rows(int count) {
+    return new ArrayList<>(Collections.nCopies(count, 0));
+  }
+
+  static class Row {
+    private final int id;
+    private final String name;
+    private List<Row> children;
+
+    Row(int id, String name) {
+      this.id = id;
+      this.name = name;
+    }
+  }
+
+}
@@ -0,0 +1,171 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.cache.decorators.BlockingCache;
+import org.apache.ibatis.cache.decorators.TransactionalCache;
+import org.apache.ibatis.cache.decorators.WriteBehindCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.junit.jupiter.api.Test;
+
+class WriteBehindCacheTest {
+
+  @Test
+  void shouldPutCommittedEntriesInTheBackground() {
+    WriteBehindCache cache = new WriteBehindCache(new PerpetualCache("default"));
+    TransactionalCache transactionalCache = new TransactionalCache(cache);
+    for (int i = 0; i < 100; i++) {
+      transactionalCache.putObject(i, i);
+    }
+    transactionalCache.commit();
+    cache.drain();
+    assertEquals(100, cache.getSize());
+    assertEquals(42, cache.getObject(42));
+    assertEquals(0, cache.getPendingCount());
+
+    // the buffer handed over is not reused by the next transaction
+    transactionalCache.putObject(100, 100);
+    transactionalCache.rollback();
+    cache.drain();
+    assertEquals(100, cache.getSize());
+  }
+
+  @Test
+  void shouldNotOverwriteAFlushWithEntriesCommittedBeforeIt() throws Exception {
+    PausedCache delegate = new PausedCache();
+    WriteBehindCache cache = new WriteBehindCache(delegate);
+    cache.putAllLater(entries(0, 3));
+    assertTrue(delegate.entered.await(5, TimeUnit.SECONDS));
+
+    cache.clear();
+    delegate.release.countDown();
+    cache.drain();
+    assertEquals(0, cache.getSize());
+    assertEquals(3, cache.getDiscardedCount());
+
+    cache.putAllLater(entries(0, 3));
+    cache.drain();
+    assertEquals(3, cache.getSize());
+  }
+
+  @Test
+  void shouldOnlyDiscardTheQueuedEntriesOfARolledBackKey() throws Exception {
+    PausedCache delegate = new PausedCache();
+    WriteBehindCache cache = new WriteBehindCache(delegate);
+    TransactionalCache committing = new TransactionalCache(cache);
+    for (int i = 0; i < 3; i++) {
+      committing.putObject(i, i);
+    }
+    committing.commit();
+    assertTrue(delegate.entered.await(5, TimeUnit.SECONDS));
+
+    // another session misses keys 1 and 7 and rolls back while the first one's entries are still queued
+    TransactionalCache rollingBack = new TransactionalCache(cache);
+    assertNull(rollingBack.getObject(1));
+    assertNull(rollingBack.getObject(7));
+    rollingBack.rollback();
+    delegate.release.countDown();
+    cache.drain();
+    assertEquals(2, cache.getSize());
+    assertEquals(0, cache.getObject(0));
+    assertNull(cache.getObject(1));
+    assertEquals(2, cache.getObject(2));
+    assertEquals(1, cache.getDiscardedCount());
+
+    // the tombstone does not outlive the entries it was left for
+    cache.putAllLater(entries(1, 2));
+    cache.drain();
+    assertEquals(1, cache.getObject(1));
+  }
+
+  @Test
+  void shouldDropEntriesPastMaxPending() throws Exception {
+    PausedCache delegate = new PausedCache();
+    WriteBehindCache cache = new WriteBehindCache(delegate);
+    cache.setMaxPending(3);
+    cache.putAllLater(entries(0, 1));
+    assertTrue(delegate.entered.await(5, TimeUnit.SECONDS));
+
+    cache.putAllLater(entries(1, 6));
+    assertEquals(3, cache.getPendingCount());
+    assertEquals(2, cache.getDroppedCount());
+    delegate.release.countDown();
+    cache.drain();
+    assertEquals(4, cache.getSize());
+  }
+
+  @Test
+  void shouldBeTheOutermostDecoratorUnlessBlocking() {
+    assertTrue(new CacheBuilder("test").writeBehind(true).build() instanceof WriteBehindCache);
+    Cache blocking = new CacheBuilder("test").writeBehind(true).blocking(true).build();
+    assertTrue(blocking instanceof BlockingCache);
+  }
+
+  private static Map<Object, Object> entries(int from, int to) {
+    Map<Object, Object> entries = new HashMap<>();
+    for (int i = from; i < to; i++) {
+      entries.put(i, i);
+    }
+    return Collections.unmodifiableMap(entries);
+  }
+
+  private static class PausedCache extends PerpetualCache {
+    private final CountDownLatch entered = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    PausedCache() {
+      super("default");
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+      entered.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      synchronized (this) {
+        super.putObject(key, value);
+      }
+    }
+
+    @Override
+    public synchronized void clear() {
+      super.clear();
+    }
+
+    @Override
+    public synchronized int getSize() {
+      return super.getSize();
+    }
+
+    @Override
+    public synchronized Object removeObject(Object key) {
+      return super.removeObject(key);
+    }
+  }
+
+}
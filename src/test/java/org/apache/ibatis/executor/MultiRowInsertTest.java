@@ -0,0 +1,60 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class MultiRowInsertTest {
+
+  @Test
+  void shouldRepeatTheValues() {
+    MultiRowInsert insert = MultiRowInsert.parse("insert into item (id, name) values (?, upper(?))", 2);
+    assertNotNull(insert);
+    assertEquals(2, insert.getParametersPerRow());
+    assertEquals("insert into item (id, name) values (?, upper(?)), (?, upper(?)), (?, upper(?))", insert.toSql(3));
+  }
+
+  @Test
+  void shouldIgnoreLiteralsAndComments() {
+    MultiRowInsert insert = MultiRowInsert.parse(
+        "/* values ? */ INSERT INTO \"values\" (\"?\", name) -- values\n VALUES (?, 'a ? (') ;", 1);
+    assertNotNull(insert);
+    assertEquals(1, insert.getParametersPerRow());
+    assertTrue(insert.toSql(2).endsWith("VALUES (?, 'a ? ('), (?, 'a ? (')"));
+  }
+
+  @Test
+  void shouldNotRewriteOtherStatements() {
+    assertNull(MultiRowInsert.parse("update item set name = ? where id = ?", 2));
+    assertNull(MultiRowInsert.parse("insert into item (id, name) select id, ? from other", 1));
+    assertNull(MultiRowInsert.parse("insert into item (id, name) values (?, ?) on duplicate key update name = ?", 3));
+    assertNull(MultiRowInsert.parse("insert into item (id, name) values (?, ?), (?, ?)", 4));
+    assertNull(MultiRowInsert.parse("insert into item (id, name) values (?, ?)", 3));
+  }
+
+  @Test
+  void shouldBoundTheRowsByTheParameters() {
+    MultiRowInsert insert = MultiRowInsert.parse("insert into item (id, name) values (?, ?)", 2);
+    assertEquals(1000, insert.getMaxRows(MultiRowInsert.getMaxParameters("PostgreSQL")));
+    assertEquals(1000, insert.getMaxRows(MultiRowInsert.getMaxParameters("Microsoft SQL Server")));
+    assertEquals(499, insert.getMaxRows(MultiRowInsert.getMaxParameters("SQLite")));
+    assertEquals(0, insert.getMaxRows(MultiRowInsert.getMaxParameters("Oracle")));
+    assertEquals(5, insert.getMaxRows(10));
+  }
+
+}
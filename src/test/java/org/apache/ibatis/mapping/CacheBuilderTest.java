@@ -19,11 +19,22 @@ import static com.googlecode.catchexception.apis.BDDCatchException.*;
 import static org.assertj.core.api.BDDAssertions.then;
 
 import java.lang.reflect.Field;
+import java.util.Properties;
 
 import org.apache.ibatis.builder.InitializingObject;
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.CacheMemoryBudget;
+import org.apache.ibatis.cache.decorators.BlockingCache;
+import org.apache.ibatis.cache.decorators.ExpiringCache;
+import org.apache.ibatis.cache.decorators.GenerationalCache;
+import org.apache.ibatis.cache.decorators.LoggingCache;
+import org.apache.ibatis.cache.decorators.LruCache;
+import org.apache.ibatis.cache.decorators.SynchronizedCache;
+import org.apache.ibatis.cache.decorators.TinyLfuCache;
+import org.apache.ibatis.cache.decorators.WeightedCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.cache.weigher.EstimatingWeigher;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -43,7 +54,95 @@ class CacheBuilderTest {
       .hasMessage("Failed cache initialization for 'test' on 'org.apache.ibatis.mapping.CacheBuilderTest$InitializingFailureCache'");
   }
 
+  @Test
+  void testSynchronizedByDefault() {
+    Cache cache = new CacheBuilder("test").addDecorator(LruCache.class).build();
+
+    Assertions.assertThat(cache).isInstanceOf(SynchronizedCache.class);
+  }
+
+  @Test
+  void testConcurrentEvictionIsNotSynchronized() {
+    Cache cache = new CacheBuilder("test").addDecorator(TinyLfuCache.class).build();
+
+    Assertions.assertThat(cache).isInstanceOf(LoggingCache.class);
+    Assertions.assertThat((Cache) unwrap(cache)).isInstanceOf(TinyLfuCache.class);
+  }
+
+  @Test
+  void testTimeToLive() {
+    Cache cache = new CacheBuilder("test").timeToLive(1000L).jitter(0.1).blocking(true).build();
+
+    Assertions.assertThat(cache).isInstanceOf(BlockingCache.class);
+    ExpiringCache expiringCache = findExpiringCache(cache);
+    Assertions.assertThat(expiringCache.getTimeToLive()).isEqualTo(1000L);
+    Assertions.assertThat(expiringCache.getJitter()).isEqualTo(0.1);
+    Assertions.assertThat((Cache) unwrap(expiringCache)).isInstanceOf(LruCache.class);
+
+    cache = new CacheBuilder("test").timeToLive(1000L).refreshAhead(0.8).build();
+    Assertions.assertThat(findExpiringCache(cache).getRefreshAhead()).isEqualTo(0.8);
+  }
+
+  @Test
+  void testRefreshAheadIsNotBlocking() {
+    when(() -> new CacheBuilder("test").timeToLive(1000L).refreshAhead(0.8).blocking(true).build());
+    then(caughtException()).isInstanceOf(CacheException.class)
+      .hasMessage("Cache 'test' cannot both refresh ahead and be blocking.");
+  }
+
+  @Test
+  void testSingleFlightBlocking() {
+    Properties props = new Properties();
+    props.setProperty("singleFlight", "true");
+    props.setProperty("timeout", "500");
+    BlockingCache cache = (BlockingCache) new CacheBuilder("test").blocking(true).properties(props).build();
+
+    Assertions.assertThat(cache.isSingleFlight()).isTrue();
+    Assertions.assertThat(cache.getTimeout()).isEqualTo(500L);
+  }
+
+  @Test
+  void testMaxBytesReplacesLruEviction() {
+    Cache cache = new CacheBuilder("test").addDecorator(LruCache.class).maxBytes(4096L).readWrite(false).build();
+
+    LoggingCache loggingCache = unwrap(cache);
+    WeightedCache weightedCache = unwrap(loggingCache);
+    Assertions.assertThat(weightedCache.getMaxBytes()).isEqualTo(4096L);
+    Assertions.assertThat(weightedCache.getWeigher()).isInstanceOf(EstimatingWeigher.class);
+    Assertions.assertThat((Cache) unwrap(weightedCache)).isInstanceOf(PerpetualCache.class);
+  }
+
+  @Test
+  void testMemoryBudgetKeepsEvictionPolicy() {
+    CacheMemoryBudget budget = new CacheMemoryBudget(4096L);
+    Cache cache = new CacheBuilder("test").addDecorator(LruCache.class).memoryBudget(budget).readWrite(false).build();
+
+    LoggingCache loggingCache = unwrap(cache);
+    WeightedCache weightedCache = unwrap(loggingCache);
+    Assertions.assertThat(weightedCache.getBudget()).isSameAs(budget);
+    Assertions.assertThat(weightedCache.getMaxBytes()).isEqualTo(Long.MAX_VALUE);
+    Assertions.assertThat((Cache) unwrap(weightedCache)).isInstanceOf(LruCache.class);
+  }
+
+  @Test
+  void testGenerationalFlush() {
+    GenerationalCache cache = (GenerationalCache) new CacheBuilder("test").generational(true).build();
+
+    Assertions.assertThat((Cache) unwrap(cache)).isInstanceOf(SynchronizedCache.class);
+    cache.putObject(1, "a");
+    cache.clear();
+    Assertions.assertThat(cache.getObject(1)).isNull();
+    Assertions.assertThat(cache.getGeneration()).isEqualTo(1L);
+  }
+
   @SuppressWarnings("unchecked")
+  private ExpiringCache findExpiringCache(Cache cache) {
+    while (!(cache instanceof ExpiringCache)) {
+      cache = unwrap(cache);
+    }
+    return (ExpiringCache) cache;
+  }
+
   private <T> T unwrap(Cache cache) {
     Field field;
     try {
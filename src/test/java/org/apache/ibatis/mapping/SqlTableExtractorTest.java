@@ -0,0 +1,73 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.mapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class SqlTableExtractorTest {
+
+  @Test
+  void shouldFindTablesOfAQuery() {
+    assertThat(SqlTableExtractor.extract("select * from Blog b, app.AUTHOR a where b.author_id = a.id"))
+        .containsExactly("blog", "author");
+    assertThat(SqlTableExtractor.extract(
+        "SELECT p.id FROM post p LEFT OUTER JOIN comment c ON c.post_id = p.id INNER JOIN \"Tag\" t ON t.id = c.tag_id"))
+        .containsExactly("post", "comment", "tag");
+  }
+
+  @Test
+  void shouldFindTablesOfNestedQueries() {
+    assertThat(SqlTableExtractor.extract(
+        "with recent as (select id from post where created > ?) select * from blog where id in (select blog_id from recent)"))
+        .containsExactlyInAnyOrder("post", "blog", "recent");
+    assertThat(SqlTableExtractor.extract("(select id from blog) union (select id from author)"))
+        .containsExactly("blog", "author");
+  }
+
+  @Test
+  void shouldIgnoreLiteralsAndComments() {
+    assertThat(SqlTableExtractor.extract(
+        "select * /* from hidden */ from blog -- join other\n where title = 'from post' and note = 'it''s'"))
+        .containsExactly("blog");
+  }
+
+  @Test
+  void shouldFindTheModifiedTableOfAWrite() {
+    assertThat(SqlTableExtractor.extract("insert into Blog (id, title) select id, title from draft"))
+        .containsExactly("blog");
+    assertThat(SqlTableExtractor.extract("UPDATE dbo.[Author] SET name = ? WHERE id = ?")).containsExactly("author");
+    assertThat(SqlTableExtractor.extract("delete from post where id = ?")).containsExactly("post");
+    assertThat(SqlTableExtractor.extract("MERGE INTO tag t USING dual ON (t.id = ?)")).containsExactly("tag");
+    assertThat(SqlTableExtractor.extract("truncate table comment")).containsExactly("comment");
+    assertThat(SqlTableExtractor.extract("insert ignore into `tag` values (?)")).containsExactly("tag");
+  }
+
+  @Test
+  void shouldCombineMultipleStatements() {
+    assertThat(SqlTableExtractor.extract("delete from comment where post_id = ?; delete from post where id = ?"))
+        .containsExactly("comment", "post");
+  }
+
+  @Test
+  void shouldReturnEmptyWhenUnknown() {
+    assertThat(SqlTableExtractor.extract("{call refresh_stats(?)}")).isEmpty();
+    assertThat(SqlTableExtractor.extract("create table blog (id int)")).isEmpty();
+    assertThat(SqlTableExtractor.extract("delete from blog; drop table blog")).isEmpty();
+  }
+
+}
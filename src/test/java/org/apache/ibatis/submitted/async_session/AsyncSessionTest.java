@@ -0,0 +1,151 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.async_session;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.binding.BindingException;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.AsyncSqlSession;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AsyncSessionTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/async_session/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/async_session/CreateDB.sql");
+  }
+
+  @Test
+  void shouldRunMapperMethodsOnTheExecutor() throws Exception {
+    AtomicInteger tasks = new AtomicInteger();
+    AsyncSqlSession asyncSqlSession = sqlSessionFactory.openAsyncSession(task -> {
+      tasks.incrementAndGet();
+      new Thread(task).start();
+    });
+    PersonMapper mapper = asyncSqlSession.getMapper(PersonMapper.class);
+
+    CompletableFuture<Person> person = mapper.findPerson(1);
+    CompletableFuture<List<Person>> people = mapper.findPeople();
+    CompletableFuture<Map<Integer, Person>> peopleById = mapper.findPeopleById();
+
+    assertEquals("Jane", person.get(10, TimeUnit.SECONDS).getName());
+    assertEquals(3, people.get(10, TimeUnit.SECONDS).size());
+    assertEquals("Mary", peopleById.get(10, TimeUnit.SECONDS).get(3).getName());
+    assertEquals("JOHN", mapper.findUpperCaseName(2).get(10, TimeUnit.SECONDS));
+    assertEquals("Mary", mapper.findName(3));
+    assertEquals(5, tasks.get());
+  }
+
+  @Test
+  void shouldCommitEachStatement() throws Exception {
+    AsyncSqlSession asyncSqlSession = sqlSessionFactory.openAsyncSession();
+    assertEquals(1, asyncSqlSession.getMapper(PersonMapper.class).insertPerson(new Person(4, "Paul")).get(10,
+        TimeUnit.SECONDS));
+    assertEquals(1, asyncSqlSession.insert(PersonMapper.class.getName() + ".insertPerson", new Person(5, "Anna"))
+        .get(10, TimeUnit.SECONDS));
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals("Paul", sqlSession.getMapper(PersonMapper.class).findName(4));
+      assertEquals("Anna", sqlSession.getMapper(PersonMapper.class).findName(5));
+    }
+  }
+
+  @Test
+  void shouldHoldConnectionsOnlyWhileStatementsRun() throws Exception {
+    // the pool has two connections, which the twenty lookups share
+    ExecutorService executor = Executors.newFixedThreadPool(20);
+    try {
+      PersonMapper mapper = sqlSessionFactory.openAsyncSession(executor).getMapper(PersonMapper.class);
+      List<CompletableFuture<Person>> lookups = new ArrayList<>();
+      for (int i = 0; i < 20; i++) {
+        lookups.add(mapper.findPerson(i % 3 + 1));
+      }
+      CompletableFuture.allOf(lookups.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+      assertEquals("Jane", lookups.get(18).get().getName());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void shouldCompleteExceptionallyWhenTheStatementFails() {
+    CompletableFuture<Integer> insert = sqlSessionFactory.openAsyncSession().getMapper(PersonMapper.class)
+        .insertPerson(new Person(1, "Jane"));
+    ExecutionException e = assertThrows(ExecutionException.class, () -> insert.get(10, TimeUnit.SECONDS));
+    assertTrue(e.getCause() instanceof PersistenceException);
+  }
+
+  @Test
+  void shouldReturnCompletedFuturesFromRegularSessions() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      PersonMapper mapper = sqlSession.getMapper(PersonMapper.class);
+      CompletableFuture<Person> person = mapper.findPerson(2);
+      assertTrue(person.isDone());
+      assertEquals("John", person.join().getName());
+      CompletableFuture<Integer> insert = mapper.insertPerson(new Person(2, "John"));
+      assertTrue(insert.isCompletedExceptionally());
+    }
+  }
+
+  @Test
+  void shouldRejectUnknownMappers() {
+    AsyncSqlSession asyncSqlSession = sqlSessionFactory.openAsyncSession();
+    assertThrows(BindingException.class, () -> asyncSqlSession.getMapper(Runnable.class));
+  }
+
+  @Test
+  void shouldRejectMappersReturningCursors() {
+    sqlSessionFactory.getConfiguration().addMapper(CursorMapper.class);
+    AsyncSqlSession asyncSqlSession = sqlSessionFactory.openAsyncSession();
+    BindingException e = assertThrows(BindingException.class, () -> asyncSqlSession.getMapper(CursorMapper.class));
+    assertTrue(e.getMessage().contains(CursorMapper.class.getName() + ".findPeople"));
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      // a regular session reads it while open
+      assertEquals("Jane", sqlSession.getMapper(CursorMapper.class).findPeople().join().iterator().next().getName());
+    }
+  }
+
+  interface CursorMapper {
+    @Select("select * from person order by id")
+    CompletableFuture<Cursor<Person>> findPeople();
+  }
+
+}
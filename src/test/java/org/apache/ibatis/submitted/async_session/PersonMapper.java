@@ -0,0 +1,48 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.async_session;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.MapKey;
+import org.apache.ibatis.annotations.Select;
+
+public interface PersonMapper {
+
+  @Select("select * from person where id = #{id}")
+  CompletableFuture<Person> findPerson(int id);
+
+  @Select("select * from person order by id")
+  CompletableFuture<List<Person>> findPeople();
+
+  @MapKey("id")
+  @Select("select * from person")
+  CompletableFuture<Map<Integer, Person>> findPeopleById();
+
+  @Insert("insert into person (id, name) values (#{id}, #{name})")
+  CompletableFuture<Integer> insertPerson(Person person);
+
+  @Select("select name from person where id = #{id}")
+  String findName(int id);
+
+  default CompletableFuture<String> findUpperCaseName(int id) {
+    return CompletableFuture.completedFuture(findName(id).toUpperCase());
+  }
+
+}
@@ -0,0 +1,129 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.batch_flush;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BatchFlushTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/batch_flush/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/batch_flush/CreateDB.sql");
+  }
+
+  @Test
+  void shouldFlushEveryHundredStatements() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      ItemMapper mapper = sqlSession.getMapper(ItemMapper.class);
+      for (int i = 1; i <= 1050; i++) {
+        mapper.insertItem(new Item(i, "item " + i));
+      }
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(11, results.size());
+      assertEquals(100, results.get(0).getUpdateCounts().length);
+      assertEquals(50, results.get(10).getUpdateCounts().length);
+      int updateCount = 0;
+      for (BatchResult result : results) {
+        assertTrue(result.getParameterObjects().isEmpty());
+        for (int count : result.getUpdateCounts()) {
+          updateCount += count;
+        }
+      }
+      assertEquals(1050, updateCount);
+      assertTrue(sqlSession.flushStatements().isEmpty());
+      assertEquals(1050, mapper.count());
+      sqlSession.commit();
+    }
+  }
+
+  @Test
+  void shouldSetGeneratedKeysBeforeReleasingParameters() {
+    List<Item> items = new ArrayList<>();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      ItemMapper mapper = sqlSession.getMapper(ItemMapper.class);
+      for (int i = 1; i <= 150; i++) {
+        Item item = new Item(null, "item " + i);
+        items.add(item);
+        mapper.insertGeneratingKey(item);
+      }
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(2, results.size());
+      assertEquals(50, results.get(1).getUpdateCounts().length);
+      assertTrue(results.get(1).getParameterObjects().isEmpty());
+      sqlSession.commit();
+    }
+    for (int i = 0; i < items.size(); i++) {
+      assertEquals(i + 1, items.get(i).getId());
+    }
+  }
+
+  @Test
+  void shouldFlushOnParameterCount() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    configuration.setBatchFlushStatements(0);
+    configuration.setBatchFlushParameters(20);
+    configuration.setBatchRetainParameters(true);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      ItemMapper mapper = sqlSession.getMapper(ItemMapper.class);
+      for (int i = 1; i <= 25; i++) {
+        mapper.insertItem(new Item(i, "item " + i));
+      }
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(3, results.size());
+      assertEquals(10, results.get(0).getParameterObjects().size());
+      assertEquals(5, results.get(2).getUpdateCounts().length);
+      assertEquals(5, results.get(2).getParameterObjects().size());
+      sqlSession.commit();
+    }
+  }
+
+  @Test
+  void shouldFlushOnEstimatedBytes() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    configuration.setBatchFlushStatements(0);
+    configuration.setBatchFlushBytes(1);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      ItemMapper mapper = sqlSession.getMapper(ItemMapper.class);
+      mapper.insertItem(new Item(1, "item 1"));
+      mapper.insertItem(new Item(2, "item 2"));
+      assertEquals(2, sqlSession.flushStatements().size());
+      assertEquals(2, mapper.count());
+      sqlSession.commit();
+    }
+  }
+
+}
@@ -0,0 +1,118 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.batch_grouping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BatchGroupingTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources
+        .getResourceAsReader("org/apache/ibatis/submitted/batch_grouping/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/batch_grouping/CreateDB.sql");
+  }
+
+  @Test
+  void shouldBatchInterleavedStatementsTogether() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      FamilyMapper mapper = sqlSession.getMapper(FamilyMapper.class);
+      for (int i = 1; i <= 100; i++) {
+        mapper.insertParent(i, "parent " + i);
+        mapper.insertChild(2 * i - 1, i, "child " + (2 * i - 1));
+        mapper.insertChild(2 * i, i, "child " + 2 * i);
+      }
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(2, results.size());
+      assertEquals("org.apache.ibatis.submitted.batch_grouping.FamilyMapper.insertParent",
+          results.get(0).getMappedStatement().getId());
+      assertEquals(100, results.get(0).getUpdateCounts().length);
+      assertEquals(200, results.get(1).getUpdateCounts().length);
+      sqlSession.commit();
+      assertEquals(100, mapper.countParents());
+      assertEquals(200, mapper.countChildren());
+    }
+  }
+
+  @Test
+  void shouldNotReorderStatementsOnTheSameTable() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      FamilyMapper mapper = sqlSession.getMapper(FamilyMapper.class);
+      mapper.insertParent(1, "parent 1");
+      mapper.renameParents("renamed");
+      mapper.insertParent(2, "parent 2");
+      mapper.insertChild(1, 1, "child 1");
+      mapper.insertChild(2, 2, "child 2");
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(4, results.size());
+      assertEquals(2, results.get(3).getUpdateCounts().length);
+      sqlSession.commit();
+      assertEquals("renamed", mapper.findParentName(1));
+      assertEquals("parent 2", mapper.findParentName(2));
+    }
+  }
+
+  @Test
+  void shouldNotJoinBatchesOpenedBeforeASplit() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      FamilyMapper mapper = sqlSession.getMapper(FamilyMapper.class);
+      mapper.insertParent(1, "parent 1");
+      mapper.insertChild(1, 1, "child 1");
+      mapper.renameParents("renamed");
+      mapper.insertParent(2, "parent 2");
+      mapper.insertChild(2, 2, "child 2");
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(5, results.size());
+      assertEquals("org.apache.ibatis.submitted.batch_grouping.FamilyMapper.insertChild",
+          results.get(4).getMappedStatement().getId());
+      sqlSession.commit();
+      assertEquals(2, mapper.countChildren());
+    }
+  }
+
+  @Test
+  void shouldOnlyExtendTheLastBatchWhenGroupingIsDisabled() {
+    sqlSessionFactory.getConfiguration().setBatchGroupStatements(false);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      FamilyMapper mapper = sqlSession.getMapper(FamilyMapper.class);
+      for (int i = 1; i <= 3; i++) {
+        mapper.insertParent(i, "parent " + i);
+        mapper.insertChild(i, i, "child " + i);
+      }
+      assertEquals(6, sqlSession.flushStatements().size());
+      sqlSession.commit();
+    }
+  }
+
+}
@@ -0,0 +1,98 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.batch_rewrite;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares batches of single row inserts with the same batches rewritten to multi row inserts. It is excluded from the
+ * default build, run it with {@code mvn test -DexcludedGroups= -Dtest=BatchRewriteBenchmarkTest}.
+ */
+@Tag("Benchmarks")
+class BatchRewriteBenchmarkTest {
+
+  private static final int ROWS = 200_000;
+  private static final int ROUNDS = 3;
+
+  @Test
+  void compareOnHsqldb() throws Exception {
+    compare("HSQLDB", new UnpooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:batch_rewrite_benchmark", "sa", ""));
+  }
+
+  @Test
+  void compareOnH2() throws Exception {
+    compare("H2",
+        new UnpooledDataSource("org.h2.Driver", "jdbc:h2:mem:batch_rewrite_benchmark;DB_CLOSE_DELAY=-1", "sa", ""));
+  }
+
+  private static void compare(String database, DataSource dataSource) throws Exception {
+    double plain = 0;
+    double rewritten = 0;
+    for (int round = 0; round <= ROUNDS; round++) {
+      double plainRate = run(dataSource, false);
+      double rewrittenRate = run(dataSource, true);
+      // the first round warms up the code paths
+      if (round > 0) {
+        plain += plainRate / ROUNDS;
+        rewritten += rewrittenRate / ROUNDS;
+      }
+    }
+    System.out.println(String.format("%-8s %14s %14s %8s", "database", "plain rows/s", "multi rows/s", "gain"));
+    System.out.println(String.format("%-8s %14.0f %14.0f %7.2fx", database, plain, rewritten, rewritten / plain));
+  }
+
+  private static double run(DataSource dataSource, boolean rewriteInserts) throws Exception {
+    try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+      statement.execute("drop table item if exists");
+      statement.execute("create table item (id int primary key, name varchar(20))");
+    }
+    Configuration configuration = new Configuration(
+        new Environment("benchmark", new JdbcTransactionFactory(), dataSource));
+    configuration.setBatchRewriteInserts(rewriteInserts);
+    configuration.setBatchFlushStatements(10_000);
+    configuration.setBatchRetainParameters(false);
+    configuration.addMapper(ItemMapper.class);
+    SqlSessionFactory sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+    long start = System.nanoTime();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      ItemMapper mapper = sqlSession.getMapper(ItemMapper.class);
+      for (int i = 1; i <= ROWS; i++) {
+        mapper.insertItem(new Item(i, "item " + i));
+      }
+      sqlSession.commit();
+      long elapsed = System.nanoTime() - start;
+      assertEquals(ROWS, mapper.count());
+      return ROWS * 1_000_000_000.0 / elapsed;
+    }
+  }
+
+}
@@ -0,0 +1,120 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.batch_rewrite;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BatchRewriteTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/batch_rewrite/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/batch_rewrite/CreateDB.sql");
+  }
+
+  @Test
+  void shouldInsertSeveralRowsPerStatement() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      ItemMapper mapper = sqlSession.getMapper(ItemMapper.class);
+      for (int i = 1; i <= 25; i++) {
+        mapper.insertItem(new Item(i, "item " + i));
+      }
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(1, results.size());
+      assertArrayEquals(new int[] { 10, 10, 5 }, results.get(0).getUpdateCounts());
+      assertEquals(25, results.get(0).getParameterObjects().size());
+      sqlSession.commit();
+      assertEquals(25, mapper.count());
+      assertEquals("item 17", mapper.findName(17));
+    }
+  }
+
+  @Test
+  void shouldSetGeneratedKeysInRowOrder() {
+    List<Item> items = new ArrayList<>();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      ItemMapper mapper = sqlSession.getMapper(ItemMapper.class);
+      for (int i = 1; i <= 23; i++) {
+        Item item = new Item(null, "item " + i);
+        items.add(item);
+        mapper.insertGeneratingKey(item);
+      }
+      sqlSession.flushStatements();
+      sqlSession.commit();
+      for (Item item : items) {
+        assertEquals(item.getName(), mapper.findName(item.getId()));
+      }
+    }
+    for (int i = 0; i < items.size(); i++) {
+      assertEquals(i + 1, items.get(i).getId());
+    }
+  }
+
+  @Test
+  void shouldSetGeneratedKeysOfNamedParameters() {
+    List<Item> items = new ArrayList<>();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      ItemMapper mapper = sqlSession.getMapper(ItemMapper.class);
+      for (int i = 1; i <= 12; i++) {
+        Item item = new Item(null, "item " + i);
+        items.add(item);
+        mapper.insertPrefixed("new ", item);
+      }
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertArrayEquals(new int[] { 10, 2 }, results.get(0).getUpdateCounts());
+      sqlSession.commit();
+      for (Item item : items) {
+        assertEquals("new " + item.getName(), mapper.findName(item.getId()));
+      }
+    }
+  }
+
+  @Test
+  void shouldKeepOtherInsertsAsTheyAre() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      ItemMapper mapper = sqlSession.getMapper(ItemMapper.class);
+      mapper.insertItem(new Item(1, "item 1"));
+      sqlSession.flushStatements();
+      for (int i = 2; i <= 4; i++) {
+        mapper.copyItem(i, 1);
+      }
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertArrayEquals(new int[] { 1, 1, 1 }, results.get(0).getUpdateCounts());
+      sqlSession.commit();
+      assertEquals("item 1", mapper.findName(4));
+    }
+  }
+
+}
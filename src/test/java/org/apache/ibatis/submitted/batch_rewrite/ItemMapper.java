@@ -0,0 +1,45 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.batch_rewrite;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+public interface ItemMapper {
+
+  @Insert("insert into item (id, name) values (#{id}, #{name})")
+  void insertItem(Item item);
+
+  @Options(useGeneratedKeys = true, keyProperty = "id")
+  @Insert("insert into item (name) values (#{name})")
+  void insertGeneratingKey(Item item);
+
+  @Options(useGeneratedKeys = true, keyProperty = "item.id")
+  @Insert("insert into item (name) values (#{prefix} || #{item.name})")
+  void insertPrefixed(@Param("prefix") String prefix, @Param("item") Item item);
+
+  @Insert("insert into item (id, name) select #{id}, name from item where id = #{copiedId}")
+  void copyItem(@Param("id") int id, @Param("copiedId") int copiedId);
+
+  @Select("select name from item where id = #{id}")
+  String findName(int id);
+
+  @Select("select count(*) from item")
+  int count();
+
+}
@@ -0,0 +1,127 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.bulk_write;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.BulkWriteResult;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.session.SqlSessionManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BulkWriteTest {
+
+  private static final String INSERT_ITEM = "org.apache.ibatis.submitted.bulk_write.ItemMapper.insertItem";
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/bulk_write/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/bulk_write/CreateDB.sql");
+  }
+
+  @Test
+  void shouldWriteAStreamInBatches() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      BulkWriteResult result = sqlSession.bulkWrite(INSERT_ITEM,
+          IntStream.rangeClosed(1, 1050).mapToObj(i -> new Item(null, "item " + i)), 100);
+      assertTrue(result.isSuccessful());
+      assertEquals(1050, result.getRowCount());
+      assertEquals(1050, result.getCommittedRowCount());
+      assertEquals(1050, result.getUpdateCount());
+      assertEquals(11, result.getCommitCount());
+      assertEquals(1050, sqlSession.getMapper(ItemMapper.class).count());
+    }
+  }
+
+  @Test
+  void shouldCountTheRowsOfAutomaticFlushes() {
+    sqlSessionFactory.getConfiguration().setBatchFlushStatements(30);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      BulkWriteResult result = sqlSession.bulkWrite(INSERT_ITEM,
+          IntStream.rangeClosed(1, 1050).mapToObj(i -> new Item(null, "item " + i)), 100);
+      assertEquals(1050, result.getCommittedRowCount());
+      assertEquals(1050, result.getUpdateCount());
+      assertEquals(1050, sqlSession.getMapper(ItemMapper.class).count());
+    }
+  }
+
+  @Test
+  void shouldSetGeneratedKeys() {
+    List<Item> items = new ArrayList<>();
+    for (int i = 1; i <= 25; i++) {
+      items.add(new Item(null, "item " + i));
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      sqlSession.bulkWrite(INSERT_ITEM, items.iterator(), 10);
+    }
+    for (int i = 0; i < items.size(); i++) {
+      assertEquals(i + 1, items.get(i).getId());
+    }
+  }
+
+  @Test
+  void shouldRollBackAndReportFailedChunks() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      BulkWriteResult result = sqlSession.bulkWrite(INSERT_ITEM, IntStream.rangeClosed(1, 35)
+          .mapToObj(i -> new Item(null, i == 15 ? "a name far too long for the column" : "item " + i)), 10);
+      assertEquals(35, result.getRowCount());
+      assertEquals(25, result.getCommittedRowCount());
+      assertEquals(1, result.getFailures().size());
+      BulkWriteResult.Failure failure = result.getFailures().get(0);
+      assertEquals(10, failure.getFirstRow());
+      assertEquals(10, failure.getRowCount());
+      assertNotNull(failure.getCause());
+      assertEquals(25, sqlSession.getMapper(ItemMapper.class).count());
+    }
+  }
+
+  @Test
+  void shouldWriteOneRowAtATimeWithoutBatch() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      BulkWriteResult result = sqlSession.bulkWrite(INSERT_ITEM,
+          IntStream.rangeClosed(1, 15).mapToObj(i -> new Item(null, "item " + i)), 0);
+      assertEquals(15, result.getUpdateCount());
+      assertEquals(1, result.getCommitCount());
+      assertEquals(15, sqlSession.getMapper(ItemMapper.class).count());
+    }
+  }
+
+  @Test
+  void shouldWriteThroughASessionManager() {
+    SqlSessionManager manager = SqlSessionManager.newInstance(sqlSessionFactory);
+    BulkWriteResult result = manager.bulkWrite(INSERT_ITEM,
+        IntStream.rangeClosed(1, 15).mapToObj(i -> new Item(null, "item " + i)), 10);
+    assertEquals(2, result.getCommitCount());
+    assertEquals(15, manager.getMapper(ItemMapper.class).count());
+  }
+
+}
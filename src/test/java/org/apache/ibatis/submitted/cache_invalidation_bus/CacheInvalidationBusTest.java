@@ -0,0 +1,81 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.cache_invalidation_bus;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cache.invalidation.CacheInvalidationBus;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class CacheInvalidationBusTest {
+
+  private static SqlSessionFactory nodeA;
+  private static SqlSessionFactory nodeB;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    nodeA = build();
+    nodeB = build();
+    BaseDataTest.runScript(nodeA.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/cache_invalidation_bus/CreateDB.sql");
+  }
+
+  @AfterAll
+  static void tearDown() {
+    nodeA.getConfiguration().getCacheInvalidationBus().close();
+    nodeB.getConfiguration().getCacheInvalidationBus().close();
+  }
+
+  private static SqlSessionFactory build() throws Exception {
+    try (Reader reader = Resources
+        .getResourceAsReader("org/apache/ibatis/submitted/cache_invalidation_bus/mybatis-config.xml")) {
+      return new SqlSessionFactoryBuilder().build(reader);
+    }
+  }
+
+  @Test
+  void shouldInvalidateTheCachesOfOtherNodesOnCommit() {
+    assertEquals("Jane", findName(nodeA));
+    assertEquals("Jane", findName(nodeB));
+
+    try (SqlSession sqlSession = nodeB.openSession()) {
+      sqlSession.getMapper(PersonMapper.class).updateName(1, "John");
+      sqlSession.commit();
+    }
+
+    CacheInvalidationBus bus = nodeA.getConfiguration().getCacheInvalidationBus();
+    assertEquals(1, bus.getReceivedBatchCount());
+    assertEquals(0, nodeA.getConfiguration().getCache(PersonMapper.class.getName()).getSize());
+    assertEquals("John", findName(nodeA));
+    assertEquals(1, nodeB.getConfiguration().getCacheInvalidationBus().getPublishedBatchCount());
+  }
+
+  private static String findName(SqlSessionFactory node) {
+    try (SqlSession sqlSession = node.openSession()) {
+      return sqlSession.getMapper(PersonMapper.class).findName(1);
+    }
+  }
+
+}
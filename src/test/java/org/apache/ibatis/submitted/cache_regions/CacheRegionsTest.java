@@ -0,0 +1,115 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.cache_regions;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class CacheRegionsTest {
+
+  private static final String COUNTRY_MAPPER = "org.apache.ibatis.submitted.cache_regions.CountryMapper";
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/cache_regions/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/cache_regions/CreateDB.sql");
+  }
+
+  @Test
+  void shouldRouteStatementsToTheirRegion() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    Cache region = configuration.getCacheRegion("lookups");
+    MappedStatement findCountry = configuration.getMappedStatement(COUNTRY_MAPPER + ".findName");
+    MappedStatement findCity = configuration.getMappedStatement(CityMapper.class.getName() + ".findName");
+    MappedStatement count = configuration.getMappedStatement(COUNTRY_MAPPER + ".count");
+
+    assertEquals("lookups", findCountry.getCacheRegion());
+    assertSame(region, findCountry.getCache());
+    assertSame(region, findCity.getCache());
+    assertSame(configuration.getCache(COUNTRY_MAPPER), count.getCache());
+    assertTrue(configuration.getMappedStatement(COUNTRY_MAPPER + ".rename").getFlushedCacheRegions().contains(region));
+  }
+
+  @Test
+  void shouldRecordStatisticsPerRegion() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    long regionHits = configuration.getCacheRegion("lookups").getStatistics().getHitCount();
+    long namespaceHits = configuration.getCache(COUNTRY_MAPPER).getStatistics().getHitCount();
+
+    for (int i = 0; i < 2; i++) {
+      try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+        assertEquals("Paris", sqlSession.getMapper(CityMapper.class).findName(1));
+      }
+    }
+
+    assertEquals(1, configuration.getCacheRegion("lookups").getStatistics().getHitCount() - regionHits);
+    assertEquals(namespaceHits, configuration.getCache(COUNTRY_MAPPER).getStatistics().getHitCount());
+  }
+
+  @Test
+  void shouldFlushTheRegionsOfTheNamespaceOnWrite() {
+    assertEquals("Japan", findCountryName("JP"));
+    assertEquals("Japan", findCountryName("JP"));
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Country country = new Country("JP", "Nippon");
+      sqlSession.update(COUNTRY_MAPPER + ".rename", country);
+      sqlSession.commit();
+    }
+    assertEquals("Nippon", findCountryName("JP"));
+  }
+
+  private String findCountryName(String code) {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      return sqlSession.selectOne(COUNTRY_MAPPER + ".findName", code);
+    }
+  }
+
+  static class Country {
+    private final String code;
+    private final String name;
+
+    Country(String code, String name) {
+      this.code = code;
+      this.name = name;
+    }
+
+    public String getCode() {
+      return code;
+    }
+
+    public String getName() {
+      return name;
+    }
+  }
+
+}
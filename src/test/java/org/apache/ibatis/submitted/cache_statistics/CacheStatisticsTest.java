@@ -0,0 +1,83 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.cache_statistics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+
+import javax.management.ObjectName;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheStatistics;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class CacheStatisticsTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources
+        .getResourceAsReader("org/apache/ibatis/submitted/cache_statistics/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/cache_statistics/CreateDB.sql");
+  }
+
+  @Test
+  void shouldRecordHitsMissesAndLoads() throws Exception {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    Cache cache = configuration.getCaches().iterator().next();
+    CacheStatistics statistics = cache.getStatistics();
+    CacheStatistics.Snapshot before = statistics.snapshot();
+
+    assertEquals("Jane", findName());
+    assertEquals("Jane", findName());
+
+    CacheStatistics.Snapshot after = statistics.snapshot();
+    assertEquals(PersonMapper.class.getName(), after.getId());
+    assertEquals(1, after.getMissCount() - before.getMissCount());
+    assertEquals(1, after.getHitCount() - before.getHitCount());
+    assertEquals(1, after.getPutCount() - before.getPutCount());
+    assertEquals(1, after.getLoadCount() - before.getLoadCount());
+    assertEquals(0, after.getLoadFailureCount());
+    assertTrue(after.getTotalLoadNanos() > 0);
+    assertTrue(after.getEstimatedBytes() > 0);
+
+    ObjectName name = new ObjectName("org.apache.ibatis:type=CacheStatistics,scope="
+        + ObjectName.quote(configuration.getCacheStatisticsJmxScope()) + ",id="
+        + ObjectName.quote(PersonMapper.class.getName()));
+    assertEquals(statistics.getHitCount(),
+        ManagementFactory.getPlatformMBeanServer().getAttribute(name, "HitCount"));
+  }
+
+  private String findName() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      return sqlSession.getMapper(PersonMapper.class).findName(1);
+    }
+  }
+
+}
@@ -0,0 +1,80 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.cache_warmup;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class CacheWarmupTest {
+
+  private static final String XML_NAMESPACE = "org.apache.ibatis.submitted.cache_warmup.PersonXmlMapper";
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    BaseDataTest.runScript(new UnpooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:cache_warmup", "sa", ""),
+        "org/apache/ibatis/submitted/cache_warmup/CreateDB.sql");
+  }
+
+  private static SqlSessionFactory build(String mode) throws Exception {
+    try (Reader reader = Resources
+        .getResourceAsReader("org/apache/ibatis/submitted/cache_warmup/mybatis-config-" + mode + ".xml")) {
+      return new SqlSessionFactoryBuilder().build(reader);
+    }
+  }
+
+  @Test
+  void shouldPreloadDeclaredParametersWhenBuilt() throws Exception {
+    SqlSessionFactory sqlSessionFactory = build("sync");
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    assertTrue(configuration.getCacheWarmup().isDone());
+    Cache annotated = configuration.getCache(PersonMapper.class.getName());
+    Cache xml = configuration.getCache(XML_NAMESPACE);
+    assertEquals(2, annotated.getSize());
+    assertEquals(3, xml.getSize());
+    long misses = annotated.getStatistics().getMissCount();
+
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals("John", sqlSession.getMapper(PersonMapper.class).findName(2));
+      assertEquals("Jack", sqlSession.selectOne(XML_NAMESPACE + ".findName", 3));
+    }
+    assertEquals(1, annotated.getStatistics().getHitCount());
+    assertEquals(misses, annotated.getStatistics().getMissCount());
+    assertEquals(1, xml.getStatistics().getHitCount());
+  }
+
+  @Test
+  void shouldPreloadInTheBackground() throws Exception {
+    SqlSessionFactory sqlSessionFactory = build("async");
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    configuration.getCacheWarmup().get(10, TimeUnit.SECONDS);
+    assertEquals(2, configuration.getCache(PersonMapper.class.getName()).getSize());
+    assertEquals(3, configuration.getCache(XML_NAMESPACE).getSize());
+  }
+
+}
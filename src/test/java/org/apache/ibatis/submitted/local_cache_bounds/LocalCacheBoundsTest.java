@@ -0,0 +1,93 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.local_cache_bounds;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.LocalCacheScope;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class LocalCacheBoundsTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    sqlSessionFactory = build();
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/local_cache_bounds/CreateDB.sql");
+  }
+
+  private static SqlSessionFactory build() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/local_cache_bounds/mybatis-config.xml")) {
+      return new SqlSessionFactoryBuilder().build(reader);
+    }
+  }
+
+  @Test
+  void shouldEvictTheLeastRecentlyUsedResults() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      PersonMapper mapper = sqlSession.getMapper(PersonMapper.class);
+      Person first = mapper.find(1);
+      Person second = mapper.find(2);
+      assertSame(first, mapper.find(1));
+      Person third = mapper.find(3);
+      assertSame(first, mapper.find(1));
+      assertSame(third, mapper.find(3));
+      assertNotSame(second, mapper.find(2));
+    }
+  }
+
+  @Test
+  void shouldKeepTheEntriesOfTheRunningStatement() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertFamily(sqlSession.getMapper(PersonMapper.class).findWithFamily(2));
+    }
+  }
+
+  @Test
+  void shouldResolveCircularReferencesWithoutKeepingResults() throws Exception {
+    SqlSessionFactory keysOnly = build();
+    keysOnly.getConfiguration().setLocalCacheScope(LocalCacheScope.KEYS);
+    try (SqlSession sqlSession = keysOnly.openSession()) {
+      PersonMapper mapper = sqlSession.getMapper(PersonMapper.class);
+      Person person = mapper.findWithFamily(2);
+      assertFamily(person);
+      assertNotSame(person, mapper.findWithFamily(2));
+    }
+  }
+
+  private static void assertFamily(Person person) {
+    assertEquals("John", person.getName());
+    Person parent = person.getParent();
+    assertEquals("Jane", parent.getName());
+    assertNull(parent.getParent());
+    assertEquals(2, parent.getChildren().size());
+    for (Person child : parent.getChildren()) {
+      assertSame(parent, child.getParent());
+      assertTrue(child.getChildren().isEmpty());
+    }
+  }
+
+}
@@ -0,0 +1,43 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.table_cache_invalidation;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.annotations.CacheNamespace;
+import org.apache.ibatis.annotations.CacheTables;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+@CacheNamespace(readWrite = false)
+public interface PersonMapper {
+
+  @Select("select id, name from person order by id")
+  List<Map<String, Object>> findPersons();
+
+  @Select("select p.name, t.name as pet from person p join pet t on t.owner_id = p.id order by t.id")
+  List<Map<String, Object>> findOwners();
+
+  @CacheTables("pet")
+  @Select("select total from pet_count")
+  List<Map<String, Object>> findPetCount();
+
+  @Update("update person set name = #{name} where id = #{id}")
+  int rename(@Param("id") int id, @Param("name") String name);
+
+}
@@ -0,0 +1,135 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.table_cache_invalidation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.CacheInvalidationScope;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TableCacheInvalidationTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  private List<Map<String, Object>> persons;
+  private List<Map<String, Object>> owners;
+  private List<Map<String, Object>> petCount;
+  private List<Map<String, Object>> pets;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources
+        .getResourceAsReader("org/apache/ibatis/submitted/table_cache_invalidation/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/table_cache_invalidation/CreateDB.sql");
+
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      PersonMapper personMapper = sqlSession.getMapper(PersonMapper.class);
+      persons = personMapper.findPersons();
+      owners = personMapper.findOwners();
+      petCount = personMapper.findPetCount();
+      pets = sqlSession.getMapper(PetMapper.class).findPets();
+    }
+  }
+
+  @Test
+  void shouldReadTheSetting() {
+    assertEquals(CacheInvalidationScope.TABLE, sqlSessionFactory.getConfiguration().getCacheInvalidationScope());
+  }
+
+  @Test
+  void shouldEvictOnlyDependentEntriesAcrossNamespaces() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.getMapper(PetMapper.class).insert(pet(2, "Tom"));
+      sqlSession.commit();
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      PersonMapper personMapper = sqlSession.getMapper(PersonMapper.class);
+      assertSame(persons, personMapper.findPersons());
+      List<Map<String, Object>> reloadedOwners = personMapper.findOwners();
+      assertNotSame(owners, reloadedOwners);
+      assertEquals(2, reloadedOwners.size());
+      assertNotSame(pets, sqlSession.getMapper(PetMapper.class).findPets());
+    }
+  }
+
+  @Test
+  void shouldEvictEntriesOfTheWriterNamespaceOnlyWhenDependent() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.getMapper(PersonMapper.class).rename(1, "Janet");
+      sqlSession.commit();
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      PersonMapper personMapper = sqlSession.getMapper(PersonMapper.class);
+      assertNotSame(persons, personMapper.findPersons());
+      assertNotSame(owners, personMapper.findOwners());
+      assertSame(petCount, personMapper.findPetCount());
+      assertSame(pets, sqlSession.getMapper(PetMapper.class).findPets());
+    }
+  }
+
+  @Test
+  void shouldUseDeclaredTables() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.getMapper(PetMapper.class).insert(pet(2, "Tom"));
+      sqlSession.commit();
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Map<String, Object>> reloaded = sqlSession.getMapper(PersonMapper.class).findPetCount();
+      assertNotSame(petCount, reloaded);
+      assertEquals(2, ((Number) reloaded.get(0).get("TOTAL")).intValue());
+    }
+  }
+
+  @Test
+  void shouldHideStaleEntriesInsideTheTransaction() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      PersonMapper personMapper = sqlSession.getMapper(PersonMapper.class);
+      sqlSession.getMapper(PetMapper.class).insert(pet(2, "Tom"));
+      assertSame(persons, personMapper.findPersons());
+      assertEquals(2, personMapper.findOwners().size());
+      sqlSession.rollback();
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      PersonMapper personMapper = sqlSession.getMapper(PersonMapper.class);
+      assertSame(owners, personMapper.findOwners());
+      assertSame(pets, sqlSession.getMapper(PetMapper.class).findPets());
+    }
+  }
+
+  private static Map<String, Object> pet(int id, String name) {
+    Map<String, Object> pet = new HashMap<>();
+    pet.put("id", id);
+    pet.put("name", name);
+    return pet;
+  }
+
+}
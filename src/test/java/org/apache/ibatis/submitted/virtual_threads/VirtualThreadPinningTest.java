@@ -0,0 +1,162 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.virtual_threads;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs thousands of concurrent sessions that contend on the pool, a blocking cache and shared lazy loading proxies, and
+ * records with JFR every virtual thread that parked while pinned to its carrier thread. Virtual threads are created
+ * through reflection, the recording part is skipped on JVMs without them, so it does not run on a Java 17 build. The
+ * events also cover HSQLDB, whose session code is synchronized: that it does not pin has not been verified, a failure
+ * may come from the driver rather than from MyBatis.
+ */
+class VirtualThreadPinningTest {
+
+  private static final int SESSIONS = 5000;
+  private static final int PEOPLE = 32;
+  private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources
+        .getResourceAsReader("org/apache/ibatis/submitted/virtual_threads/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/virtual_threads/CreateDB.sql");
+  }
+
+  @Test
+  void shouldRunConcurrentSessionsOnPlatformThreads() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(64);
+    assertEquals(0, runSessions(executor).size());
+  }
+
+  @Test
+  void shouldNotPinCarrierThreads() throws Exception {
+    ExecutorService executor = newVirtualThreadPerTaskExecutor();
+    assumeTrue(executor != null, "virtual threads are not supported by this JVM");
+    assumeTrue(FlightRecorder.isAvailable(), "JFR is not available");
+
+    Path dump = Files.createTempFile("mybatis-pinning", ".jfr");
+    try {
+      Queue<Throwable> failures;
+      try (Recording recording = new Recording()) {
+        recording.enable(PINNED_EVENT).withThreshold(Duration.ZERO).withStackTrace();
+        recording.start();
+        failures = runSessions(executor);
+        recording.stop();
+        recording.dump(dump);
+      }
+      assertEquals(0, failures.size(), () -> "failed sessions: " + failures);
+      List<RecordedEvent> pinned = RecordingFile.readAllEvents(dump).stream()
+          .filter(event -> PINNED_EVENT.equals(event.getEventType().getName())).collect(Collectors.toList());
+      assertTrue(pinned.isEmpty(), () -> pinned.size() + " pinned virtual threads, the first one at:"
+          + describe(pinned.get(0)));
+    } finally {
+      Files.deleteIfExists(dump);
+    }
+  }
+
+  private Queue<Throwable> runSessions(ExecutorService executor) throws Exception {
+    Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+    List<CompletableFuture<Person>> later = new ArrayList<>();
+    try {
+      PersonMapper asyncMapper = sqlSessionFactory.openAsyncSession(executor).getMapper(PersonMapper.class);
+      for (int i = 0; i < SESSIONS; i++) {
+        int id = i % PEOPLE + 1;
+        if (i % 10 == 0) {
+          later.add(asyncMapper.findPersonLater(id));
+          continue;
+        }
+        executor.execute(() -> {
+          try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Person person = sqlSession.getMapper(PersonMapper.class).findPerson(id);
+            assertEquals("Person " + id, person.getName());
+            // cached people are shared, so their managers are lazily loaded by many threads at once
+            Person manager = person.getManager();
+            assertEquals(id == 1 ? null : "Person " + id / 2, manager == null ? null : manager.getName());
+          } catch (Throwable t) {
+            failures.add(t);
+          }
+        });
+      }
+      for (CompletableFuture<Person> person : later) {
+        try {
+          assertNotNull(person.get(60, TimeUnit.SECONDS).getName());
+        } catch (Throwable t) {
+          failures.add(t);
+        }
+      }
+    } finally {
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+    }
+    return failures;
+  }
+
+  private static ExecutorService newVirtualThreadPerTaskExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException e) {
+      return null;
+    }
+  }
+
+  private static String describe(RecordedEvent event) {
+    StringBuilder description = new StringBuilder();
+    if (event.getStackTrace() != null) {
+      for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+        description.append(System.lineSeparator()).append("  at ").append(frame.getMethod().getType().getName())
+            .append('.').append(frame.getMethod().getName()).append(':').append(frame.getLineNumber());
+      }
+    }
+    return description.toString();
+  }
+
+}
@@ -0,0 +1,72 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.weighted_cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheMemoryBudget;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class WeightedCacheTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources
+        .getResourceAsReader("org/apache/ibatis/submitted/weighted_cache/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/weighted_cache/CreateDB.sql");
+  }
+
+  @Test
+  void shouldKeepTheCacheUnderItsMemoryLimit() {
+    Cache cache = sqlSessionFactory.getConfiguration().getCache(PersonMapper.class.getName());
+    CacheMemoryBudget budget = sqlSessionFactory.getConfiguration().getCacheMemoryBudget();
+    assertEquals(1048576, budget.getMaxBytes());
+
+    for (int id = 1; id <= 20; id++) {
+      assertEquals("Person " + id, findName(id));
+    }
+
+    assertTrue(cache.getSize() > 0);
+    assertTrue(cache.getSize() < 20, "size " + cache.getSize());
+    assertTrue(budget.getUsedBytes() > 0);
+    assertTrue(budget.getUsedBytes() <= 2048, budget.getUsedBytes() + " bytes");
+
+    long hits = cache.getStatistics().getHitCount();
+    assertEquals("Person 20", findName(20));
+    assertEquals(hits + 1, cache.getStatistics().getHitCount());
+  }
+
+  private String findName(int id) {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      return sqlSession.getMapper(PersonMapper.class).findName(id);
+    }
+  }
+
+}
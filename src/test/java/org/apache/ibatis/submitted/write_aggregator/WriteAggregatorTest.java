@@ -0,0 +1,212 @@
+/*
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.write_aggregator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.session.TransactionIsolationLevel;
+import org.apache.ibatis.session.WriteAggregator;
+import org.apache.ibatis.transaction.Transaction;
+import org.apache.ibatis.transaction.jdbc.JdbcTransaction;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class WriteAggregatorTest {
+
+  private static final String INSERT_EVENT = "org.apache.ibatis.submitted.write_aggregator.EventMapper.insertEvent";
+  private static final String INSERT_NAME = "org.apache.ibatis.submitted.write_aggregator.EventMapper.insertName";
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources
+        .getResourceAsReader("org/apache/ibatis/submitted/write_aggregator/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/write_aggregator/CreateDB.sql");
+  }
+
+  @Test
+  void shouldShareCommitsBetweenThreads() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(32);
+    List<Event> events = new ArrayList<>();
+    try (WriteAggregator aggregator = new WriteAggregator(sqlSessionFactory, 50, 20, INSERT_EVENT)) {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 400; i++) {
+        Event event = new Event(null, "event " + i);
+        events.add(event);
+        futures.add(executor.submit(() -> aggregator.insert(INSERT_EVENT, event).join()));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+      assertEquals(400, aggregator.getRowCount());
+      assertTrue(aggregator.getCommitCount() < 400, "commits: " + aggregator.getCommitCount());
+    } finally {
+      executor.shutdown();
+    }
+    Set<Integer> ids = new HashSet<>();
+    for (Event event : events) {
+      assertNotNull(event.getId());
+      ids.add(event.getId());
+    }
+    assertEquals(400, ids.size());
+    assertEquals(400, count());
+  }
+
+  @Test
+  void shouldOnlyFailTheRowsThatCannotBeWritten() throws Exception {
+    List<CompletableFuture<Void>> futures = new ArrayList<>();
+    try (WriteAggregator aggregator = new WriteAggregator(sqlSessionFactory, 10, 1000, INSERT_EVENT)) {
+      for (int i = 0; i < 10; i++) {
+        futures.add(aggregator.insert(INSERT_EVENT, new Event(null, i == 5 ? "a name far too long" : "event " + i)));
+      }
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).exceptionally(e -> null).join();
+      assertEquals(9, aggregator.getRowCount());
+    }
+    ExecutionException e = assertThrows(ExecutionException.class, () -> futures.get(5).get());
+    assertTrue(e.getCause() instanceof PersistenceException);
+    assertFalse(futures.get(4).isCompletedExceptionally());
+    assertEquals(9, count());
+  }
+
+  @Test
+  void shouldKeepWritingAfterAnError() throws Exception {
+    sqlSessionFactory.getConfiguration().getTypeHandlerRegistry().register(Poison.class, PoisonTypeHandler.class);
+    try (WriteAggregator aggregator = new WriteAggregator(sqlSessionFactory, 2, 1000, INSERT_EVENT, INSERT_NAME)) {
+      CompletableFuture<Void> poisoned = aggregator.insert(INSERT_NAME, new Poison());
+      CompletableFuture<Void> written = aggregator.insert(INSERT_EVENT, new Event(null, "event"));
+      ExecutionException e = assertThrows(ExecutionException.class, poisoned::get);
+      assertTrue(e.getCause() instanceof AssertionError);
+      written.get();
+      aggregator.insert(INSERT_EVENT, new Event(null, "event")).get();
+    }
+    assertEquals(2, count());
+  }
+
+  @Test
+  void shouldFailTheWholeBatchWhenTheCommitFails() throws Exception {
+    AtomicInteger commits = new AtomicInteger();
+    Environment environment = sqlSessionFactory.getConfiguration().getEnvironment();
+    sqlSessionFactory.getConfiguration().setEnvironment(new Environment(environment.getId(),
+        new JdbcTransactionFactory() {
+          @Override
+          public Transaction newTransaction(DataSource ds, TransactionIsolationLevel level, boolean autoCommit) {
+            return new JdbcTransaction(ds, level, autoCommit) {
+              @Override
+              public void commit() throws SQLException {
+                commits.incrementAndGet();
+                throw new SQLException("Connection lost");
+              }
+            };
+          }
+        }, environment.getDataSource()));
+    List<CompletableFuture<Void>> futures = new ArrayList<>();
+    try (WriteAggregator aggregator = new WriteAggregator(sqlSessionFactory, 3, 1000, INSERT_EVENT)) {
+      for (int i = 0; i < 3; i++) {
+        futures.add(aggregator.insert(INSERT_EVENT, new Event(null, "event " + i)));
+      }
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).exceptionally(e -> null).join();
+      assertEquals(0, aggregator.getRowCount());
+    }
+    for (CompletableFuture<Void> future : futures) {
+      assertTrue(future.isCompletedExceptionally());
+    }
+    assertEquals(1, commits.get());
+  }
+
+  @Test
+  void shouldWriteTheQueuedRowsOnClose() {
+    WriteAggregator aggregator = new WriteAggregator(sqlSessionFactory, 100, 60_000, INSERT_EVENT);
+    CompletableFuture<Void> future = aggregator.insert(INSERT_EVENT, new Event(null, "event"));
+    aggregator.close();
+    assertTrue(future.isDone());
+    assertEquals(1, count());
+    assertThrows(IllegalStateException.class, () -> aggregator.insert(INSERT_EVENT, new Event(null, "late")));
+  }
+
+  @Test
+  void shouldOnlyAcceptDesignatedInserts() {
+    assertThrows(IllegalArgumentException.class, () -> new WriteAggregator(sqlSessionFactory, 10, 10,
+        "org.apache.ibatis.submitted.write_aggregator.EventMapper.count"));
+    try (WriteAggregator aggregator = new WriteAggregator(sqlSessionFactory, 10, 10)) {
+      assertThrows(IllegalArgumentException.class, () -> aggregator.insert(INSERT_EVENT, new Event(null, "event")));
+    }
+  }
+
+  private int count() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      return sqlSession.getMapper(EventMapper.class).count();
+    }
+  }
+
+  static class Poison {
+  }
+
+  public static class PoisonTypeHandler extends BaseTypeHandler<Poison> {
+
+    @Override
+    public void setNonNullParameter(PreparedStatement ps, int i, Poison parameter, JdbcType jdbcType) {
+      throw new AssertionError("poisoned");
+    }
+
+    @Override
+    public Poison getNullableResult(ResultSet rs, String columnName) {
+      return null;
+    }
+
+    @Override
+    public Poison getNullableResult(ResultSet rs, int columnIndex) {
+      return null;
+    }
+
+    @Override
+    public Poison getNullableResult(CallableStatement cs, int columnIndex) {
+      return null;
+    }
+  }
+
+}
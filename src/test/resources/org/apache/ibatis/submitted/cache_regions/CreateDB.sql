@@ -0,0 +1,33 @@
+--
+--    Copyright 2009-2026 the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       https://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+drop table city if exists;
+drop table country if exists;
+
+create table country(
+    code char(2),
+    name varchar(20)
+);
+
+create table city(
+    id int,
+    name varchar(20),
+    country_code char(2)
+);
+
+insert into country(code, name) values ('FR', 'France');
+insert into country(code, name) values ('JP', 'Japan');
+insert into city(id, name, country_code) values (1, 'Paris', 'FR');
@@ -0,0 +1,56 @@
+--
+--    Copyright 2009-2026 the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       https://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+drop table person if exists;
+
+create table person(
+    id int primary key,
+    name varchar(20),
+    manager_id int
+);
+
+insert into person(id, name, manager_id) values (1, 'Person 1', null);
+insert into person(id, name, manager_id) values (2, 'Person 2', 1);
+insert into person(id, name, manager_id) values (3, 'Person 3', 1);
+insert into person(id, name, manager_id) values (4, 'Person 4', 2);
+insert into person(id, name, manager_id) values (5, 'Person 5', 2);
+insert into person(id, name, manager_id) values (6, 'Person 6', 3);
+insert into person(id, name, manager_id) values (7, 'Person 7', 3);
+insert into person(id, name, manager_id) values (8, 'Person 8', 4);
+insert into person(id, name, manager_id) values (9, 'Person 9', 4);
+insert into person(id, name, manager_id) values (10, 'Person 10', 5);
+insert into person(id, name, manager_id) values (11, 'Person 11', 5);
+insert into person(id, name, manager_id) values (12, 'Person 12', 6);
+insert into person(id, name, manager_id) values (13, 'Person 13', 6);
+insert into person(id, name, manager_id) values (14, 'Person 14', 7);
+insert into person(id, name, manager_id) values (15, 'Person 15', 7);
+insert into person(id, name, manager_id) values (16, 'Person 16', 8);
+insert into person(id, name, manager_id) values (17, 'Person 17', 8);
+insert into person(id, name, manager_id) values (18, 'Person 18', 9);
+insert into person(id, name, manager_id) values (19, 'Person 19', 9);
+insert into person(id, name, manager_id) values (20, 'Person 20', 10);
+insert into person(id, name, manager_id) values (21, 'Person 21', 10);
+insert into person(id, name, manager_id) values (22, 'Person 22', 11);
+insert into person(id, name, manager_id) values (23, 'Person 23', 11);
+insert into person(id, name, manager_id) values (24, 'Person 24', 12);
+insert into person(id, name, manager_id) values (25, 'Person 25', 12);
+insert into person(id, name, manager_id) values (26, 'Person 26', 13);
+insert into person(id, name, manager_id) values (27, 'Person 27', 13);
+insert into person(id, name, manager_id) values (28, 'Person 28', 14);
+insert into person(id, name, manager_id) values (29, 'Person 29', 14);
+insert into person(id, name, manager_id) values (30, 'Person 30', 15);
+insert into person(id, name, manager_id) values (31, 'Person 31', 15);
+insert into person(id, name, manager_id) values (32, 'Person 32', 16);
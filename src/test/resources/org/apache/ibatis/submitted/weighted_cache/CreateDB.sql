@@ -0,0 +1,43 @@
+--
+--    Copyright 2009-2026 the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       https://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+drop table person if exists;
+
+create table person(
+    id int,
+    name varchar(20)
+);
+
+insert into person(id, name) values (1, 'Person 1');
+insert into person(id, name) values (2, 'Person 2');
+insert into person(id, name) values (3, 'Person 3');
+insert into person(id, name) values (4, 'Person 4');
+insert into person(id, name) values (5, 'Person 5');
+insert into person(id, name) values (6, 'Person 6');
+insert into person(id, name) values (7, 'Person 7');
+insert into person(id, name) values (8, 'Person 8');
+insert into person(id, name) values (9, 'Person 9');
+insert into person(id, name) values (10, 'Person 10');
+insert into person(id, name) values (11, 'Person 11');
+insert into person(id, name) values (12, 'Person 12');
+insert into person(id, name) values (13, 'Person 13');
+insert into person(id, name) values (14, 'Person 14');
+insert into person(id, name) values (15, 'Person 15');
+insert into person(id, name) values (16, 'Person 16');
+insert into person(id, name) values (17, 'Person 17');
+insert into person(id, name) values (18, 'Person 18');
+insert into person(id, name) values (19, 'Person 19');
+insert into person(id, name) values (20, 'Person 20');